@@ -0,0 +1,43 @@
+package ecdar.benchmarks;
+
+import ecdar.abstractions.Component;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of angelic completion of the sample test models.
+ * Completion changes the component, so each invocation completes a new clone.
+ * Compare with {@link #cloneForVerification()} to get the cost of the completion alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompletionBenchmark {
+    @Param({Samples.CAR_ALARM, Samples.SIMPLE_MUTATION})
+    public String sample;
+
+    private Component testModel;
+
+    /**
+     * Loads the sample.
+     * @throws IOException if the sample could not be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        testModel = Samples.loadTestModel(sample);
+    }
+
+    @Benchmark
+    public Component cloneForVerification() {
+        return testModel.cloneForVerification();
+    }
+
+    @Benchmark
+    public Component applyAngelicCompletion() {
+        final Component clone = testModel.cloneForVerification();
+        clone.applyAngelicCompletion();
+        return clone;
+    }
+}
@@ -0,0 +1,70 @@
+package ecdar.benchmarks;
+
+import ecdar.abstractions.Component;
+import ecdar.abstractions.Edge;
+import ecdar.abstractions.Location;
+import ecdar.utility.ExpressionHelper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of evaluating the guards, invariants, and updates of a sample test model.
+ * Each invocation evaluates all of them once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExpressionHelperBenchmark {
+    @Param({Samples.CAR_ALARM, Samples.SIMPLE_MUTATION})
+    public String sample;
+
+    private final List<String> conditions = new ArrayList<>();
+    private final List<String> updates = new ArrayList<>();
+    private final Map<String, Number> valuations = new HashMap<>();
+    private final Map<String, Integer> locals = new HashMap<>();
+
+    /**
+     * Loads the sample and extracts its expressions.
+     * All clocks and local variables are valuated to 0.
+     * @throws IOException if the sample could not be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        final Component testModel = Samples.loadTestModel(sample);
+
+        for (final Edge edge : testModel.getEdges()) {
+            if (!edge.getGuard().trim().isEmpty()) conditions.add(edge.getGuard());
+            if (!edge.getUpdate().trim().isEmpty()) updates.add(edge.getUpdate());
+        }
+        for (final Location location : testModel.getLocations()) {
+            if (!location.getInvariant().trim().isEmpty()) conditions.add(location.getInvariant());
+        }
+
+        testModel.getClocks().forEach(clock -> valuations.put(clock, 0.0));
+        testModel.getLocalVariables().forEach(local -> {
+            valuations.put(local, 0);
+            locals.put(local, 0);
+        });
+    }
+
+    @Benchmark
+    public void evaluateBooleanExpression(final Blackhole blackhole) {
+        for (final String condition : conditions) {
+            blackhole.consume(ExpressionHelper.evaluateBooleanExpression(condition, valuations));
+        }
+    }
+
+    @Benchmark
+    public void parseUpdate(final Blackhole blackhole) {
+        for (final String update : updates) {
+            blackhole.consume(ExpressionHelper.parseUpdate(update, locals));
+        }
+    }
+}
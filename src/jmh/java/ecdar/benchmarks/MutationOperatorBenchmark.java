@@ -0,0 +1,47 @@
+package ecdar.benchmarks;
+
+import ecdar.abstractions.Component;
+import ecdar.mutation.MutationTestingException;
+import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.operators.MutationOperator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of generating the test-cases of each mutation operator on the sample test models.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MutationOperatorBenchmark {
+    @Param({Samples.CAR_ALARM, Samples.SIMPLE_MUTATION})
+    public String sample;
+
+    @Param({"changeSource", "changeTarget", "changeActionInputs", "changeActionOutputs", "changeGuardConstant",
+            "changeGuardOpClocks", "changeGuardOpLocals", "changeVarUpdate", "changeInvariant", "sinkLocation",
+            "invertReset"})
+    public String operatorName;
+
+    private Component testModel;
+    private MutationOperator operator;
+
+    /**
+     * Loads the sample and finds the operator.
+     * @throws IOException if the sample could not be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        testModel = Samples.loadTestModel(sample);
+        operator = MutationOperator.getAllOperators().stream()
+                .filter(op -> op.getCodeName().equals(operatorName)).findAny()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown mutation operator " + operatorName));
+    }
+
+    @Benchmark
+    public List<MutationTestCase> generateTestCases() throws MutationTestingException {
+        return operator.generateTestCases(testModel);
+    }
+}
@@ -0,0 +1,77 @@
+package ecdar.benchmarks;
+
+import ecdar.abstractions.Component;
+import ecdar.abstractions.Location;
+import ecdar.mutation.MutationTestingException;
+import ecdar.mutation.models.NonRefinementStrategy;
+import ecdar.mutation.models.StrategyRule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of looking up rules in a strategy.
+ * The strategy is made in the format of verifytga, with a state for each pair of locations of the car alarm sample,
+ * so it is about as large as a strategy for a mutant of it.
+ * Each invocation looks up the rule of the next pair.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NonRefinementStrategyBenchmark {
+    private static final String SPEC = "S";
+    private static final String MUTANT = "M";
+
+    private NonRefinementStrategy strategy;
+    private final List<String> locationIds = new ArrayList<>();
+    private final Map<String, Integer> locals = new HashMap<>();
+    private final Map<String, Double> clocks = new HashMap<>();
+    private int next = 0;
+
+    /**
+     * Loads the sample and makes the strategy.
+     * @throws IOException if the sample could not be read
+     * @throws MutationTestingException if the strategy could not be parsed
+     */
+    @Setup
+    public void setUp() throws IOException, MutationTestingException {
+        final Component testModel = Samples.loadTestModel(Samples.CAR_ALARM);
+
+        testModel.getLocations().stream().map(Location::getId).forEach(locationIds::add);
+        testModel.getLocalVariables().forEach(local -> locals.put(local, 0));
+        testModel.getClocks().forEach(clock -> clocks.put(clock, 20.0));
+
+        final StringBuilder valuations = new StringBuilder();
+        for (final String name : new String[] {SPEC, MUTANT}) {
+            locals.forEach((local, value) -> valuations.append(" ").append(name).append(".").append(local).append("=").append(value));
+        }
+
+        final List<String> lines = new ArrayList<>();
+        for (final String specLoc : locationIds) {
+            for (final String mutantLoc : locationIds) {
+                lines.add("State: ( " + SPEC + "." + specLoc + " " + MUTANT + "." + mutantLoc + " )" + valuations + " [spoiler] ");
+                lines.add("While you are in (" + MUTANT + ".x<=15), wait.");
+                lines.add("When you are in (15<" + MUTANT + ".x), take transition " + MUTANT + "." + mutantLoc + "->" +
+                        MUTANT + "." + mutantLoc + " { x > 15, armedOn!, 1 } [SKIP]");
+                lines.add("");
+            }
+        }
+
+        strategy = new NonRefinementStrategy(lines);
+    }
+
+    @Benchmark
+    public StrategyRule getRule() {
+        final int index = next;
+        next = (next + 1) % (locationIds.size() * locationIds.size());
+
+        return strategy.getRule(SPEC, MUTANT,
+                locationIds.get(index / locationIds.size()), locationIds.get(index % locationIds.size()),
+                locals, locals, clocks, clocks);
+    }
+}
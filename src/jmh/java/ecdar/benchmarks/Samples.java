@@ -0,0 +1,50 @@
+package ecdar.benchmarks;
+
+import ecdar.Ecdar;
+import ecdar.abstractions.Component;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Loads the sample models used by the benchmarks.
+ * The samples folder is given by the ecdar.samples system property, and defaults to samples in the working directory.
+ */
+class Samples {
+    static final String CAR_ALARM = "CarAlarm";
+    static final String SIMPLE_MUTATION = "SimpleMutation";
+
+    /**
+     * Loads a sample model as the current project and gets its test model.
+     * Components use the global declarations of the current project, so only one sample can be loaded at a time.
+     * @param sample the name of the sample, either {@link #CAR_ALARM} or {@link #SIMPLE_MUTATION}
+     * @return the test model of the sample
+     * @throws IOException if the sample could not be read
+     */
+    static Component loadTestModel(final String sample) throws IOException {
+        final File samples = new File(System.getProperty("ecdar.samples", "samples"));
+
+        final File folder;
+        final String componentName;
+        switch (sample) {
+            case CAR_ALARM:
+                folder = new File(samples, "CarAlarm" + File.separator + "Model");
+                componentName = "Alarm";
+                break;
+            case SIMPLE_MUTATION:
+                folder = new File(samples, "SimpleMutation" + File.separator + "Original" + File.separator + "Model");
+                componentName = "Component1";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown sample " + sample);
+        }
+
+        Ecdar.setUpForTest();
+        Ecdar.getProject().deserialize(folder);
+
+        final Component component = Ecdar.getProject().findComponent(componentName);
+        if (component == null) throw new IOException("Sample " + sample + " in " + folder.getAbsolutePath() + " has no component " + componentName);
+
+        return component;
+    }
+}
@@ -0,0 +1,65 @@
+package ecdar.benchmarks;
+
+import ecdar.abstractions.Component;
+import ecdar.mutation.MutationTestingException;
+import ecdar.mutation.SimpleComponentSimulation;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of simulating the car alarm sample.
+ * Simulations record their trace, so each invocation runs a short scenario on a new simulation,
+ * rather than letting a single simulation grow through the whole run.
+ * Compare with {@link #createSimulation()} to get the cost of the steps alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SimpleComponentSimulationBenchmark {
+    private static final int STEPS = 10;
+
+    private Component testModel;
+
+    /**
+     * Loads the sample.
+     * @throws IOException if the sample could not be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        testModel = Samples.loadTestModel(Samples.CAR_ALARM);
+    }
+
+    @Benchmark
+    public SimpleComponentSimulation createSimulation() {
+        return new SimpleComponentSimulation(testModel);
+    }
+
+    /**
+     * Delays a number of times in the initial location.
+     * @return the simulation
+     */
+    @Benchmark
+    public SimpleComponentSimulation delay() {
+        final SimpleComponentSimulation simulation = new SimpleComponentSimulation(testModel);
+
+        for (int i = 0; i < STEPS; i++) simulation.delay(0.5);
+
+        return simulation;
+    }
+
+    /**
+     * Closes and opens the door a number of times.
+     * @return the simulation
+     * @throws MutationTestingException if the simulation fails
+     */
+    @Benchmark
+    public SimpleComponentSimulation runInputAction() throws MutationTestingException {
+        final SimpleComponentSimulation simulation = new SimpleComponentSimulation(testModel);
+
+        for (int i = 0; i < STEPS; i++) simulation.runInputAction(i % 2 == 0 ? "close" : "open");
+
+        return simulation;
+    }
+}
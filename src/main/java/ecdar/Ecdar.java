@@ -8,6 +8,7 @@ import ecdar.controllers.EcdarController;
 import ecdar.presentations.BackgroundThreadPresentation;
 import ecdar.presentations.EcdarPresentation;
 import ecdar.presentations.UndoRedoHistoryPresentation;
+import ecdar.utility.UndoRedoStack;
 import ecdar.utility.keyboard.Keybind;
 import ecdar.utility.keyboard.KeyboardTracker;
 import javafx.application.Application;
@@ -32,12 +33,18 @@ import java.util.prefs.Preferences;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.security.CodeSource;
+import java.util.concurrent.CompletableFuture;
 
 public class Ecdar extends Application {
     public static Preferences preferences = Preferences.userRoot().node("ECDAR");;
     public static final String VERSION = "2.1";
+
+    // How long to wait for pending saves when closing
+    private static final long SAVE_TIMEOUT_MILLIS = 30000;
+
     public static boolean serializationDone = false;
     private static Project project;
     private static EcdarPresentation presentation;
@@ -87,7 +94,17 @@ public class Ecdar extends Application {
         return presentation;
     }
 
+    /**
+     * Shows a message to the user.
+     * Without the user interface, e.g. when running from the command line, the message is printed instead.
+     * @param message the message
+     */
     public static void showToast(final String message) {
+        if (presentation == null) {
+            System.err.println(message);
+            return;
+        }
+
         presentation.showSnackbarMessage(message);
     }
 
@@ -197,6 +214,14 @@ public class Ecdar extends Application {
 
         EcdarController.reachabilityServiceEnabled = true;
 
+        // Journal each edit, such that edits are not lost if Ecdar closes before the project is saved
+        UndoRedoStack.setChangeListener((description, context) -> getProject().journal(description, context).whenComplete((result, throwable) -> {
+            if (throwable != null) throwable.printStackTrace();
+        }));
+
+        // Tag each command with the model being edited, such that the commands of a model reloaded from disk can be forgotten
+        UndoRedoStack.setContextSupplier(() -> EcdarController.getActiveCanvasPresentation().getController().getActiveModel());
+
         // Register a key-bind for showing debug-information
         KeyboardTracker.registerKeybind("DEBUG", new Keybind(new KeyCodeCombination(KeyCode.F12), () -> {
             // Toggle the debug mode for the debug class (will update misc. debug variables which presentations bind to)
@@ -236,8 +261,19 @@ public class Ecdar extends Application {
         stage.setOnCloseRequest(event -> {
             BackendHelper.stopQueries();
 
-            Platform.exit();
-            System.exit(0);
+            // Wait in another thread for the pending saves, since they are written in a daemon thread.
+            // The window closes meanwhile, and the thread keeps the application alive until it exits
+            final Thread exitThread = new Thread(() -> {
+                try {
+                    if (!Project.awaitSaves(SAVE_TIMEOUT_MILLIS)) System.err.println("Exited before the project was saved");
+                } catch (final InterruptedException e) {
+                    e.printStackTrace();
+                }
+
+                Platform.exit();
+                System.exit(0);
+            }, "Exit");
+            exitThread.start();
         });
     }
 
@@ -255,7 +291,44 @@ public class Ecdar extends Application {
         // new JFXPanel();
     }
 
-    public static void initializeProjectFolder() throws IOException {
+    /**
+     * Sets up an empty project without the user interface, e.g. in a worker process.
+     * Code analysis is disabled, since there is no user interface to show its messages in.
+     * @return the project
+     */
+    public static Project setUpWithoutUI() {
+        project = new Project();
+        CodeAnalysis.disable();
+
+        return project;
+    }
+
+    /**
+     * Loads a project without the user interface, e.g. for running it from the command line.
+     * Code analysis is disabled, since there is no user interface to show its messages in.
+     * @param directory the project directory
+     * @return the project
+     * @throws IOException if the project could not be read
+     */
+    public static Project loadProjectWithoutUI(final File directory) throws IOException {
+        projectDirectory.set(directory.getAbsolutePath());
+        project = new Project();
+
+        CodeAnalysis.disable();
+        project.deserialize(directory);
+        serializationDone = true;
+
+        return project;
+    }
+
+    /**
+     * Opens the project in the project directory.
+     * The files are read in the background, while the user interface stays responsive.
+     * Afterwards, the project is filled in the JavaFX thread.
+     * @return a future completing in the JavaFX thread when the project is open
+     * @throws IOException if the project directory could not be created
+     */
+    public static CompletableFuture<Void> initializeProjectFolder() throws IOException {
         // Make sure that the project directory exists
         final File directory = new File(projectDirectory.get());
         FileUtils.forceMkdir(directory);
@@ -272,25 +345,52 @@ public class Ecdar extends Application {
         CodeAnalysis.disable();
         getProject().clean();
 
-        // Deserialize the project
-        Ecdar.getProject().deserialize(directory);
-        CodeAnalysis.enable();
+        // Read the project in the background and add it in one go
+        final Project loadingProject = getProject();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return loadingProject.read(directory);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).thenAcceptAsync(contents -> {
+            loadingProject.add(contents);
+            CodeAnalysis.enable();
+
+            // Generate the presentations of loaded components by making them the active component in the view one by one
+            // Components that are not loaded yet get their presentations when opened
+            Component initialShownComponent = null;
+            for (final Component component : loadingProject.getComponents()) {
+                // The first component should be shown
+                if (initialShownComponent == null) {
+                    initialShownComponent = component;
+                }
+                if (component.isLoaded()) {
+                    EcdarController.getActiveCanvasPresentation().getController().setActiveModel(component);
+                }
+            }
 
-        // Generate all component presentations by making them the active component in the view one by one
-        Component initialShownComponent = null;
-        for (final Component component : Ecdar.getProject().getComponents()) {
-            // The first component should be shown
-            if (initialShownComponent == null) {
-                initialShownComponent = component;
+            // If we found a component set that as active
+            if (initialShownComponent != null) {
+                EcdarController.getActiveCanvasPresentation().getController().setActiveModel(initialShownComponent);
             }
-            EcdarController.getActiveCanvasPresentation().getController().setActiveModel(component);
-        }
+            serializationDone = true;
 
-        // If we found a component set that as active
-        if (initialShownComponent != null) {
-            EcdarController.getActiveCanvasPresentation().getController().setActiveModel(initialShownComponent);
-        }
-        serializationDone = true;
+            loadingProject.startJournal(directory, contents.getJournalLength());
+            if (contents.getJournalLength() > 0) {
+                showToast("Recovered " + contents.getJournalLength() + " edits that were not saved");
+            }
+
+            // Reload components and systems changed by other tools
+            try {
+                loadingProject.watch(directory);
+            } catch (final IOException e) {
+                e.printStackTrace();
+                showToast("Could not watch the project folder for changes: " + e.getMessage());
+            }
+        }, Platform::runLater).whenCompleteAsync((result, throwable) -> {
+            if (throwable != null) CodeAnalysis.enable();
+        }, Platform::runLater);
     }
 
     private void loadFonts() {
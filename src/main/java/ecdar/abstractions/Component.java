@@ -1,17 +1,20 @@
 package ecdar.abstractions;
 
-import com.bpodgursky.jbool_expressions.*;
-import com.bpodgursky.jbool_expressions.rules.RuleSet;
 import ecdar.Ecdar;
 import ecdar.controllers.EcdarController;
 import ecdar.presentations.Grid;
 import ecdar.utility.ExpressionHelper;
+import ecdar.utility.GuardNegation;
 import ecdar.utility.UndoRedoStack;
 import ecdar.utility.colors.Color;
 import ecdar.utility.colors.EnabledColor;
 import ecdar.utility.helpers.Boxed;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.beans.property.*;
 import javafx.beans.value.ChangeListener;
 import javafx.collections.FXCollections;
@@ -21,9 +24,10 @@ import javafx.collections.transformation.FilteredList;
 import javafx.util.Pair;
 import org.apache.commons.lang3.tuple.Triple;
 
+import java.io.UncheckedIOException;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -35,6 +39,9 @@ public class Component extends HighLevelModelObject implements Boxed {
     private static final String EDGES = "edges";
     private static final String INCLUDE_IN_PERIODIC_CHECK = "includeInPeriodicCheck";
 
+    // Sorts channels alphabetically, ignoring case (e.g. all channels starting with "C" are placed together)
+    private static final Comparator<String> CHANNEL_ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
     // Verification properties
     private final ObservableList<Location> locations = FXCollections.observableArrayList();
     private final ObservableList<Edge> edges = FXCollections.observableArrayList();
@@ -42,6 +49,7 @@ public class Component extends HighLevelModelObject implements Boxed {
     private final ObservableList<String> outputStrings = FXCollections.observableArrayList();
     private final StringProperty description = new SimpleStringProperty("");
     private final StringProperty declarationsText = new SimpleStringProperty("");;
+    private SymbolTable symbolTable = SymbolTable.EMPTY;
 
     // Background check
     private final BooleanProperty includeInPeriodicCheck = new SimpleBooleanProperty(true);
@@ -51,11 +59,131 @@ public class Component extends HighLevelModelObject implements Boxed {
     private final BooleanProperty declarationOpen = new SimpleBooleanProperty(false);
     private final BooleanProperty firsTimeShown = new SimpleBooleanProperty(false);
 
+    // Lazy loading from the component index, with the body being null when loaded
+    private Supplier<JsonObject> body = null;
+    private ComponentIndex.Entry indexEntry = null;
+    private boolean loadFailed = false;
+
+    // Indices of the locations and edges, kept up to date by listeners of the lists and of the locations and edges
+    private final Map<String, Location> locationsById = new HashMap<>();
+    private final Set<Location> initialLocations = new LinkedHashSet<>();
+    private final Map<Location, List<Edge>> outgoingEdges = new HashMap<>();
+    private final Map<Location, List<Edge>> incomingEdges = new HashMap<>();
+    private final Map<Object, Runnable> indexRemovers = new HashMap<>();
+
+    // Number of edges using each channel, for maintaining the input and output strings incrementally
+    private final Map<String, Integer> inputCounts = new TreeMap<>(CHANNEL_ORDER);
+    private final Map<String, Integer> outputCounts = new TreeMap<>(CHANNEL_ORDER);
+    private final Map<Edge, Pair<EdgeStatus, String>> countedChannels = new HashMap<>();
+    private final Map<Edge, ChangeListener<Object>> channelListeners = new HashMap<>();
+
+    // Changes in a batch are handled when the batch ends
+    private int batchDepth = 0;
+    private boolean ioChangedInBatch = false;
+    private boolean reachabilityChangedInBatch = false;
+
+    // The snapshot is dropped when a verification property of this, or of a location or edge, changes
+    private volatile Snapshot snapshot;
+    private final InvalidationListener snapshotInvalidator = observable -> snapshot = null;
+
+    /**
+     * An immutable snapshot of the verification properties of a component, for reading in background threads.
+     * Snapshots of the locations and edges that did not change are shared with earlier snapshots,
+     * and the same snapshot is returned while nothing changes.
+     */
+    public static class Snapshot {
+        private final String name;
+        private final String declarationsText;
+        private final SymbolTable symbolTable;
+        private final boolean includeInPeriodicCheck;
+        private final List<String> inputStrings;
+        private final List<String> outputStrings;
+        private final List<Location.Snapshot> locations;
+        private final List<Edge.Snapshot> edges;
+        private final Map<String, Location.Snapshot> locationsById = new HashMap<>();
+        private final Map<String, List<Edge.Snapshot>> outgoingEdges = new HashMap<>();
+
+        /**
+         * Constructs a snapshot of the current properties of a component.
+         * @param component the component
+         */
+        private Snapshot(final Component component) {
+            name = component.getName();
+            declarationsText = component.getDeclarationsText();
+            symbolTable = component.getSymbolTable();
+            includeInPeriodicCheck = component.isIncludeInPeriodicCheck();
+            inputStrings = Collections.unmodifiableList(new ArrayList<>(component.getInputStrings()));
+            outputStrings = Collections.unmodifiableList(new ArrayList<>(component.getOutputStrings()));
+
+            final List<Location.Snapshot> locations = new ArrayList<>(component.getLocations().size());
+            component.getLocations().forEach(location -> locations.add(location.getSnapshot()));
+            this.locations = Collections.unmodifiableList(locations);
+
+            final List<Edge.Snapshot> edges = new ArrayList<>(component.getEdges().size());
+            component.getEdges().forEach(edge -> edges.add(edge.getSnapshot()));
+            this.edges = Collections.unmodifiableList(edges);
+
+            locations.forEach(location -> locationsById.putIfAbsent(location.getId(), location));
+            edges.forEach(edge -> outgoingEdges.computeIfAbsent(edge.getSourceId(), id -> new ArrayList<>()).add(edge));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDeclarationsText() {
+            return declarationsText;
+        }
+
+        public SymbolTable getSymbolTable() {
+            return symbolTable;
+        }
+
+        public boolean isIncludeInPeriodicCheck() {
+            return includeInPeriodicCheck;
+        }
+
+        public List<String> getInputStrings() {
+            return inputStrings;
+        }
+
+        public List<String> getOutputStrings() {
+            return outputStrings;
+        }
+
+        public List<Location.Snapshot> getLocations() {
+            return locations;
+        }
+
+        public List<Edge.Snapshot> getEdges() {
+            return edges;
+        }
+
+        /**
+         * Finds a location by its id.
+         * @param id the id
+         * @return the location, or null if none
+         */
+        public Location.Snapshot findLocation(final String id) {
+            return locationsById.get(id);
+        }
+
+        /**
+         * Gets the edges going out of a location.
+         * @param locationId the id of the location
+         * @return the edges
+         */
+        public List<Edge.Snapshot> getOutgoingEdges(final String locationId) {
+            return Collections.unmodifiableList(outgoingEdges.getOrDefault(locationId, Collections.emptyList()));
+        }
+    }
+
     /**
      * Constructs an empty component
      */
     public Component() {
-
+        initializeIndices();
+        initializeDirtyTracking();
     }
 
     /**
@@ -63,6 +191,8 @@ public class Component extends HighLevelModelObject implements Boxed {
      * @param doRandomColor boolean that is true if the component should choose a colour at random and false if not
      */
     public Component(final boolean doRandomColor) {
+        initializeIndices();
+        initializeDirtyTracking();
         setComponentName();
 
         if(doRandomColor) {
@@ -88,16 +218,212 @@ public class Component extends HighLevelModelObject implements Boxed {
     }
 
     public Component(final JsonObject json) {
+        initializeIndices();
+        initializeDirtyTracking();
+        setFirsTimeShown(true);
+
+        deserialize(json);
+
+        initializeIOListeners();
+        updateIOList();
+
+        bindReachabilityAnalysis();
+    }
+
+    /**
+     * Creates a component from its entry in the component index, without its locations, edges, and declarations.
+     * These are loaded from the body when first needed, e.g. when the component is opened, queried, or mutated.
+     * Until then, the name, color, and I/O signature come from the index.
+     * @param entry the entry of the component in the index
+     * @param body supplier of the JSON of the component, which may throw an UncheckedIOException
+     */
+    public Component(final ComponentIndex.Entry entry, final Supplier<JsonObject> body) {
+        initializeIndices();
+        initializeDirtyTracking();
         setFirsTimeShown(true);
 
+        this.body = body;
+        this.indexEntry = entry;
+
+        setName(entry.getName());
+
+        final EnabledColor enabledColor = EnabledColor.fromIdentifier(entry.getColor());
+        if (enabledColor != null) {
+            setColorIntensity(enabledColor.intensity);
+            setColor(enabledColor.color);
+        }
+
+        setIncludeInPeriodicCheck(entry.isIncludeInPeriodicCheck());
+        inputStrings.setAll(entry.getInputs());
+        outputStrings.setAll(entry.getOutputs());
+    }
+
+    /**
+     * Gets if the locations, edges, and declarations of this component are loaded.
+     * @return true iff loaded
+     */
+    public synchronized boolean isLoaded() {
+        return body == null;
+    }
+
+    /**
+     * Gets the entry in the component index of this, if this is not loaded and its indexed properties did not change.
+     * Then the component file can be kept as it is when saving.
+     * If loading failed, the file is always kept.
+     * @return the entry, or null if this is loaded or changed
+     */
+    synchronized ComponentIndex.Entry getUnchangedIndexEntry() {
+        if (isLoaded()) return null;
+        if (loadFailed) return indexEntry;
+
+        if (!getName().equals(indexEntry.getName()) ||
+                !Objects.equals(EnabledColor.getIdentifier(getColor()), indexEntry.getColor()) ||
+                isIncludeInPeriodicCheck() != indexEntry.isIncludeInPeriodicCheck()) return null;
+
+        return indexEntry;
+    }
+
+    /**
+     * Loads the locations, edges, and declarations of this component, if not loaded yet.
+     * The file is read in the calling thread, but its content is applied in the JavaFX thread,
+     * since presentations observe the lists of this component. Other threads wait until it is applied.
+     * Without the JavaFX platform, e.g. in tests, the content is applied in the calling thread.
+     * This must not be called while holding the lock of this component, since the JavaFX thread needs it to apply the content.
+     */
+    private void load() {
+        final Supplier<JsonObject> supplier;
+        synchronized (this) {
+            if (!isUnloaded()) return;
+            supplier = body;
+        }
+
+        JsonObject read = null;
+        RuntimeException readFailure = null;
+        try {
+            read = supplier.get();
+        } catch (final UncheckedIOException | JsonParseException | IllegalStateException e) {
+            readFailure = e;
+        }
+
+        final JsonObject json = read;
+        final RuntimeException failure = readFailure;
+        if (Platform.isFxApplicationThread()) {
+            applyLoaded(json, failure);
+            return;
+        }
+
+        final CompletableFuture<Void> applied = new CompletableFuture<>();
+        try {
+            Platform.runLater(() -> {
+                try {
+                    applyLoaded(json, failure);
+                } finally {
+                    applied.complete(null);
+                }
+            });
+        } catch (final IllegalStateException e) {
+            // The JavaFX platform is not started
+            applyLoaded(json, failure);
+            return;
+        }
+
+        applied.join();
+    }
+
+    /**
+     * Applies the content read for loading this component, unless it was loaded meanwhile.
+     * Properties that the user may have changed before loading, such as the name, are kept.
+     * If reading failed, this stays unloaded, such that the component file is kept when saving.
+     * @param json the JSON of the component, or null if reading failed
+     * @param failure the reason that reading failed, or null if it did not fail
+     */
+    private synchronized void applyLoaded(final JsonObject json, final RuntimeException failure) {
+        if (!isUnloaded()) return;
+
+        final String name = getName();
+        final Color color = getColor();
+        final Color.Intensity intensity = getColorIntensity();
+        final boolean periodic = isIncludeInPeriodicCheck();
+
+        if (failure != null) {
+            loadFailed = true;
+            failure.printStackTrace();
+            Ecdar.showToast("Could not load component " + name + ": " + failure.getMessage());
+            return;
+        }
+
+        body = null;
         deserialize(json);
 
+        setName(name);
+        setColorIntensity(intensity);
+        setColor(color);
+        setIncludeInPeriodicCheck(periodic);
+
         initializeIOListeners();
         updateIOList();
 
         bindReachabilityAnalysis();
     }
 
+    /**
+     * Replaces the content of this with the content of a component file changed by another tool.
+     * This object is kept, such that presentations of it and references to it, e.g. from systems, stay valid.
+     * If this was not loaded yet, it is loaded with the new content.
+     * This must be called in the JavaFX thread.
+     * @param json the new JSON of the component
+     */
+    public synchronized void reload(final JsonObject json) {
+        final boolean wasLoaded = isLoaded();
+        body = null;
+        loadFailed = false;
+
+        batch(() -> {
+            edges.clear();
+            locations.clear();
+            deserialize(json);
+        });
+
+        if (!wasLoaded) {
+            initializeIOListeners();
+            bindReachabilityAnalysis();
+        }
+    }
+
+    /**
+     * Makes changes to this component as one batch.
+     * Until the batch ends, the input and output strings are not updated and reachability analysis is not triggered.
+     * Afterwards, the input and output strings are computed once, and reachability analysis is triggered once.
+     * This is much faster than updating after each change, when adding many edges.
+     * Batches may be nested, in which case the outermost batch ends the batch.
+     * The batch also ends if the changes throw, such that the changes made so far are published.
+     * @param changes the changes to make
+     */
+    public void batch(final Runnable changes) {
+        batchDepth++;
+        try {
+            changes.run();
+        } finally {
+            batchDepth--;
+            if (batchDepth == 0) endBatch();
+        }
+    }
+
+    /**
+     * Updates the input and output strings and triggers reachability analysis, if the ended batch changed them.
+     */
+    private void endBatch() {
+        if (ioChangedInBatch) {
+            ioChangedInBatch = false;
+            updateIOList();
+        }
+
+        if (reachabilityChangedInBatch) {
+            reachabilityChangedInBatch = false;
+            EcdarController.runReachabilityAnalysis();
+        }
+    }
+
     /**
      * Creates a clone of another component.
      * Copies objects used for verification (e.g. locations, edges and the declarations).
@@ -140,6 +466,13 @@ public class Component extends HighLevelModelObject implements Boxed {
      * Applies angelic completion on this component.
      */
     public void applyAngelicCompletion() {
+        batch(this::addAngelicEdges);
+    }
+
+    /**
+     * Adds the edges of an angelic completion.
+     */
+    private void addAngelicEdges() {
         // Cache input signature, since it could be updated when added edges
         final List<String> inputStrings = new ArrayList<>(getInputStrings());
 
@@ -164,88 +497,50 @@ public class Component extends HighLevelModelObject implements Boxed {
             if (matchingEdges.stream().anyMatch(edge -> edge.getGuard().isEmpty() &&
                     edge.getTargetLocation().getInvariant().isEmpty())) return;
 
-            // Extract expression for which edges to create.
-            // The expression is in DNF
-            // We create self loops for each child expression in the disjunction.
-            createAngelicSelfLoops(location, input, getNegatedEdgeExpression(matchingEdges));
+            // Extract the guards of the self loops to create.
+            // We create a self loop for each guard in the disjunction.
+            createAngelicSelfLoops(location, input, getNegatedEdgeGuards(matchingEdges));
         }));
     }
 
     /**
-     * Extracts an expression that represents the negation of a list of edges.
+     * Extracts guards that represent the negation of a list of edges.
      * Multiple edges are resolved as disjunctions.
      * There can be conjunction in guards.
      * We translate each edge to the conjunction of its guard and the invariant of its target location
      * (since it should also be satisfied).
-     * The result is converted to disjunctive normal form.
+     * See {@link GuardNegation} for how the negation is computed.
      * @param edges the edges to extract from
-     * @return the expression that represents the negation
+     * @return the disjunction of guards that represents the negation. Empty if the negation is false
      */
-    private Expression<String> getNegatedEdgeExpression(final List<Edge> edges) {
+    private List<String> getNegatedEdgeGuards(final List<Edge> edges) {
         final List<String> clocks = getClocks();
 
-        return ExpressionHelper.simplifyNegatedSimpleExpressions(
-                RuleSet.toDNF(RuleSet.simplify(Not.of(Or.of(edges.stream()
-                        .map(edge -> {
-                                    final List<String> clocksToReset = ExpressionHelper.getUpdateSides(edge.getUpdate())
-                                            .keySet().stream().filter(clocks::contains).collect(Collectors.toList());
+        return GuardNegation.negate(edges.stream()
+                .map(edge -> {
+                    final List<String> clocksToReset = ExpressionHelper.getUpdateSides(edge.getUpdate())
+                            .keySet().stream().filter(clocks::contains).collect(Collectors.toList());
 
-                                    return And.of(
-                                            ExpressionHelper.parseGuard(edge.getGuard()),
-                                            ExpressionHelper.parseInvariantButIgnore(edge.getTargetLocation().getInvariant(), clocksToReset)
-                                    );
-                                }
-                        ).collect(Collectors.toList()))
-                ))));
+                    final List<String> constraints = ExpressionHelper.getSimpleGuards(edge.getGuard());
+                    constraints.addAll(ExpressionHelper.getSimpleInvariantsButIgnore(edge.getTargetLocation().getInvariant(), clocksToReset));
+                    return constraints;
+                })
+                .collect(Collectors.toList()));
     }
 
     /**
      * Creates self loops on a location to finish missing inputs with an angelic completion.
-     * The guard expression should be in DNF without negations.
      * @param location the location to create self loops on
      * @param input the input action to use in the synchronization properties
-     * @param guardExpression the expression that represents the guards of the self loops
+     * @param guards the guards of the self loops
      */
-    private void createAngelicSelfLoops(final Location location, final String input, final Expression<String> guardExpression) {
-        final Edge edge;
-
-        switch (guardExpression.getExprType()) {
-            case Literal.EXPR_TYPE:
-                // If false, do not create any loops
-                if (!((Literal<String>) guardExpression).getValue()) break;
-
-                // It should never be true, since that should be handled before calling this method
-                throw new RuntimeException("Type of expression " + guardExpression + " not accepted");
-            case Variable.EXPR_TYPE:
-                edge = new Edge(location, EdgeStatus.INPUT);
-                edge.setTargetLocation(location);
-                edge.addSyncNail(input);
-                edge.addGuardNail(((Variable<String>) guardExpression).getValue());
-                addEdge(edge);
-                break;
-            case And.EXPR_TYPE:
-                edge = new Edge(location, EdgeStatus.INPUT);
-                edge.setTargetLocation(location);
-                edge.addSyncNail(input);
-                edge.addGuardNail(String.join("&&",
-                        ((And<String>) guardExpression).getChildren().stream()
-                                .map(child -> {
-                                    if (!child.getExprType().equals(Variable.EXPR_TYPE))
-                                        throw new RuntimeException("Child " + child + " of type " +
-                                                child.getExprType() + " in and expression " +
-                                                guardExpression + " should be a variable");
-
-                                    return ((Variable<String>) child).getValue();
-                                })
-                                .collect(Collectors.toList())
-                ));
-                addEdge(edge);
-                break;
-            case Or.EXPR_TYPE:
-                ((Or<String>) guardExpression).getChildren().forEach(child -> createAngelicSelfLoops(location, input, child));
-                break;
-            default:
-                throw new RuntimeException("Type of expression " + guardExpression + " not accepted");
+    private void createAngelicSelfLoops(final Location location, final String input, final List<String> guards) {
+        for (final String guard : guards) {
+            final Edge edge = new Edge(location, EdgeStatus.INPUT);
+            edge.setTargetLocation(location);
+            edge.addSyncNail(input);
+            if (!guard.isEmpty()) edge.addGuardNail(guard);
+            addEdge(edge);
         }
     }
 
@@ -253,6 +548,13 @@ public class Component extends HighLevelModelObject implements Boxed {
      * Applies demonic completion on this component.
      */
     public void applyDemonicCompletion() {
+        batch(this::addDemonicEdges);
+    }
+
+    /**
+     * Adds the universal location and the edges to it of a demonic completion.
+     */
+    private void addDemonicEdges() {
         // Make a universal location
         final Location uniLocation = new Location(this, Location.Type.UNIVERSAL, 0, 0);
         addLocation(uniLocation);
@@ -288,10 +590,9 @@ public class Component extends HighLevelModelObject implements Boxed {
             if (matchingEdges.stream().anyMatch(edge -> edge.getGuard().isEmpty() &&
                     edge.getTargetLocation().getInvariant().isEmpty())) return;
 
-            // Extract expression for which edges to create.
-            // The expression is in DNF
-            // We create edges to Universal for each child expression in the disjunction.
-            createDemonicEdges(location, uniLocation, input, getNegatedEdgeExpression(matchingEdges));
+            // Extract the guards of the edges to create.
+            // We create an edge to Universal for each guard in the disjunction.
+            createDemonicEdges(location, uniLocation, input, getNegatedEdgeGuards(matchingEdges));
         }));
     }
 
@@ -301,110 +602,326 @@ public class Component extends HighLevelModelObject implements Boxed {
      * @param location the location to create self loops on
      * @param universal the Universal location to create edge to
      * @param input the input action to use in the synchronization properties
-     * @param guardExpression the expression that represents the guards of the edges to create
+     * @param guards the guards of the edges to create
      */
-    private void createDemonicEdges(final Location location, final Location universal, final String input, final Expression<String> guardExpression) {
-        final Edge edge;
+    private void createDemonicEdges(final Location location, final Location universal, final String input, final List<String> guards) {
+        for (final String guard : guards) {
+            final Edge edge = new Edge(location, EdgeStatus.INPUT);
+            edge.setTargetLocation(universal);
+            edge.addSyncNail(input);
+            if (!guard.isEmpty()) edge.addGuardNail(guard);
+            addEdge(edge);
+        }
+    }
 
-        switch (guardExpression.getExprType()) {
-            case Literal.EXPR_TYPE:
-                // If false, do not create any edges
-                if (!((Literal<String>) guardExpression).getValue()) break;
+    /**
+     * Initializes the indices of the locations by id, of the initial location, and of the edges by their source and target.
+     * Listeners of the lists, and of the ids, types, sources, and targets, keep the indices up to date.
+     */
+    private void initializeIndices() {
+        locations.addListener(snapshotInvalidator);
+        edges.addListener(snapshotInvalidator);
+        inputStrings.addListener(snapshotInvalidator);
+        outputStrings.addListener(snapshotInvalidator);
+        nameProperty().addListener(snapshotInvalidator);
+        declarationsTextProperty().addListener(snapshotInvalidator);
+        includeInPeriodicCheckProperty().addListener(snapshotInvalidator);
+
+        locations.addListener((ListChangeListener<Location>) c -> {
+            while (c.next()) {
+                c.getRemoved().forEach(this::removeFromIndices);
+                c.getAddedSubList().forEach(this::indexLocation);
+            }
+        });
 
-                // It should never be true, since that should be handled before calling this method
-                throw new RuntimeException("Type of expression " + guardExpression + " not accepted");
-            case Variable.EXPR_TYPE:
-                edge = new Edge(location, EdgeStatus.INPUT);
-                edge.setTargetLocation(universal);
-                edge.addSyncNail(input);
-                edge.addGuardNail(((Variable<String>) guardExpression).getValue());
-                addEdge(edge);
-                break;
-            case And.EXPR_TYPE:
-                edge = new Edge(location, EdgeStatus.INPUT);
-                edge.setTargetLocation(universal);
-                edge.addSyncNail(input);
-                edge.addGuardNail(String.join("&&",
-                        ((And<String>) guardExpression).getChildren().stream()
-                                .map(child -> ((Variable<String>) child).getValue())
-                                .collect(Collectors.toList())
-                ));
-                addEdge(edge);
-                break;
-            case Or.EXPR_TYPE:
-                ((Or<String>) guardExpression).getChildren().forEach(child -> createDemonicEdges(location, universal, input, child));
-                break;
-            default:
-                throw new RuntimeException("Type of expression " + guardExpression + " not accepted");
+        edges.addListener((ListChangeListener<Edge>) c -> {
+            while (c.next()) {
+                c.getRemoved().forEach(this::removeFromIndices);
+                c.getAddedSubList().forEach(this::indexEdge);
+            }
+        });
+    }
+
+    /**
+     * Marks this as dirty when a saved property of this, or of a location, edge, or nail, changes.
+     */
+    private void initializeDirtyTracking() {
+        markDirtyOnChange(declarationsTextProperty(), descriptionProperty(), includeInPeriodicCheckProperty(),
+                box.getXProperty(), box.getYProperty(), box.getWidthProperty(), box.getHeightProperty());
+
+        markDirtyOnChange(locations, location -> markDirtyOnChange(location.idProperty(), location.nicknameProperty(),
+                location.invariantProperty(), location.typeProperty(), location.urgencyProperty(),
+                location.xProperty(), location.yProperty(), location.colorProperty(),
+                location.nicknameXProperty(), location.nicknameYProperty(),
+                location.invariantXProperty(), location.invariantYProperty()));
+
+        markDirtyOnChange(edges, edge -> {
+            final Runnable properties = markDirtyOnChange(edge.sourceLocationProperty(), edge.targetLocationProperty(),
+                    edge.ioStatus, edge.selectProperty(), edge.guardProperty(), edge.updateProperty(),
+                    edge.syncProperty(), edge.getIsLocked());
+            final Runnable nails = markDirtyOnChange(edge.getNails(), nail -> markDirtyOnChange(nail.xProperty(),
+                    nail.yProperty(), nail.propertyTypeProperty(), nail.propertyXProperty(), nail.propertyYProperty()));
+            return () -> {
+                properties.run();
+                nails.run();
+            };
+        });
+    }
+
+    /**
+     * Adds a location to the indices, and listens for changes of its id and type.
+     * @param location the location
+     */
+    private synchronized void indexLocation(final Location location) {
+        if (indexRemovers.containsKey(location)) return;
+
+        locationsById.put(location.getId(), location);
+        if (location.getType() == Location.Type.INITIAL) initialLocations.add(location);
+
+        final ChangeListener<String> idListener = (observable, oldValue, newValue) -> {
+            synchronized (this) {
+                removeId(oldValue, location);
+                locationsById.put(newValue, location);
+            }
+        };
+        final ChangeListener<Location.Type> typeListener = (observable, oldValue, newValue) -> {
+            synchronized (this) {
+                if (newValue == Location.Type.INITIAL) initialLocations.add(location);
+                else initialLocations.remove(location);
+            }
+        };
+        location.idProperty().addListener(idListener);
+        location.typeProperty().addListener(typeListener);
+        final List<Observable> verificationProperties = Arrays.asList(location.idProperty(), location.nicknameProperty(),
+                location.invariantProperty(), location.typeProperty(), location.urgencyProperty());
+        verificationProperties.forEach(property -> property.addListener(snapshotInvalidator));
+
+        indexRemovers.put(location, () -> {
+            location.idProperty().removeListener(idListener);
+            location.typeProperty().removeListener(typeListener);
+            verificationProperties.forEach(property -> property.removeListener(snapshotInvalidator));
+            removeId(location.getId(), location);
+            initialLocations.remove(location);
+        });
+    }
+
+    /**
+     * Removes the mapping from an id to a location.
+     * If another location has the same id, e.g. while the id of one of them is changed, that location is mapped instead.
+     * @param id the id
+     * @param location the location
+     */
+    private synchronized void removeId(final String id, final Location location) {
+        if (!locationsById.remove(id, location)) return;
+
+        for (final Location other : locations) {
+            if (other != location && other.getId().equals(id)) {
+                locationsById.put(id, other);
+                return;
+            }
         }
     }
 
+    /**
+     * Adds an edge to the adjacency lists of its source and target, and listens for changes of these.
+     * @param edge the edge
+     */
+    private synchronized void indexEdge(final Edge edge) {
+        if (indexRemovers.containsKey(edge)) return;
+
+        addAdjacent(outgoingEdges, edge.getSourceLocation(), edge);
+        addAdjacent(incomingEdges, edge.getTargetLocation(), edge);
+
+        final ChangeListener<Location> sourceListener = (observable, oldValue, newValue) -> {
+            synchronized (this) {
+                removeAdjacent(outgoingEdges, oldValue, edge);
+                addAdjacent(outgoingEdges, newValue, edge);
+            }
+        };
+        final ChangeListener<Location> targetListener = (observable, oldValue, newValue) -> {
+            synchronized (this) {
+                removeAdjacent(incomingEdges, oldValue, edge);
+                addAdjacent(incomingEdges, newValue, edge);
+            }
+        };
+        edge.sourceLocationProperty().addListener(sourceListener);
+        edge.targetLocationProperty().addListener(targetListener);
+        final List<Observable> verificationProperties = Arrays.asList(edge.sourceLocationProperty(),
+                edge.targetLocationProperty(), edge.ioStatus, edge.selectProperty(), edge.guardProperty(),
+                edge.syncProperty(), edge.updateProperty());
+        verificationProperties.forEach(property -> property.addListener(snapshotInvalidator));
+
+        indexRemovers.put(edge, () -> {
+            edge.sourceLocationProperty().removeListener(sourceListener);
+            edge.targetLocationProperty().removeListener(targetListener);
+            verificationProperties.forEach(property -> property.removeListener(snapshotInvalidator));
+            removeAdjacent(outgoingEdges, edge.getSourceLocation(), edge);
+            removeAdjacent(incomingEdges, edge.getTargetLocation(), edge);
+        });
+    }
+
+    /**
+     * Removes a location or an edge from the indices, and stops listening to it.
+     * @param object the location or edge
+     */
+    private synchronized void removeFromIndices(final Object object) {
+        final Runnable remover = indexRemovers.remove(object);
+        if (remover != null) remover.run();
+    }
+
+    private static void addAdjacent(final Map<Location, List<Edge>> adjacency, final Location location, final Edge edge) {
+        if (location != null) adjacency.computeIfAbsent(location, key -> new ArrayList<>()).add(edge);
+    }
+
+    private static void removeAdjacent(final Map<Location, List<Edge>> adjacency, final Location location, final Edge edge) {
+        if (location == null) return;
+
+        final List<Edge> adjacent = adjacency.get(location);
+        if (adjacent == null) return;
+
+        adjacent.remove(edge);
+        if (adjacent.isEmpty()) adjacency.remove(location);
+    }
+
     /**
      * Initialises IO listeners, adding change listener to the list of edges
      * Also adds listeners to all current edges in edges.
+     * The listeners count the edges using each channel, such that the input and output strings only change
+     * when the first edge starts using a channel, or the last edge stops using it.
      */
     private void initializeIOListeners() {
-        final ChangeListener<Object> listener = (observable, oldValue, newValue) -> updateIOList();
-
         edges.addListener((ListChangeListener<Edge>) c -> {
-            // Update the list so empty I/O status is also added to I/OLists
-            updateIOList();
-
             while(c.next()) {
-                for (final Edge e : c.getAddedSubList()) {
-                    addSyncListener(listener, e);
-                }
-
-                for (final Edge e : c.getRemoved()) {
-                    e.syncProperty().removeListener(listener);
-                    e.ioStatus.removeListener(listener);
-                }
+                c.getRemoved().forEach(this::stopCountingChannel);
+                c.getAddedSubList().forEach(this::startCountingChannel);
             }
         });
 
         // Add listener to edges initially
-        edges.forEach(edge -> addSyncListener(listener, edge));
+        edges.forEach(this::startCountingChannel);
     }
 
     /**
-     * Adds a listener to the sync property and is status of an edge.
-     * @param listener the listener
+     * Counts the channel of an edge, and listens for changes of its sync property and status.
      * @param edge the edge
      */
-    private static void addSyncListener(final ChangeListener<Object> listener, final Edge edge) {
+    private void startCountingChannel(final Edge edge) {
+        final ChangeListener<Object> listener = (observable, oldValue, newValue) -> countChannel(edge);
+        channelListeners.put(edge, listener);
         edge.syncProperty().addListener(listener);
         edge.ioStatus.addListener(listener);
+
+        countChannel(edge);
     }
 
     /**
-     * Method used for updating the inputstrings and outputstrings list
-     * Sorts the list alphabetically, ignoring case
+     * Stops counting the channel of a removed edge.
+     * @param edge the edge
      */
-    public void updateIOList() {
-        final List<String> localInputStrings = new ArrayList<>();
-        final List<String> localOutputStrings = new ArrayList<>();
+    private void stopCountingChannel(final Edge edge) {
+        final ChangeListener<Object> listener = channelListeners.remove(edge);
+        if (listener != null) {
+            edge.syncProperty().removeListener(listener);
+            edge.ioStatus.removeListener(listener);
+        }
 
-        for (final Edge edge : edges) {
-            // Extract channel id based on UPPAAL id definition
-            final String channel = edge.getSync().replaceAll("^([a-zA-Z_][a-zA-Z0-9_]*).*$", "$1");
+        if (batchDepth > 0) {
+            ioChangedInBatch = true;
+            return;
+        }
 
-            if(edge.getStatus() == EdgeStatus.INPUT){
-                if(!edge.getSync().equals("*") && !localInputStrings.contains(channel)){
-                    localInputStrings.add(channel);
-                }
-            } else if (edge.getStatus() == EdgeStatus.OUTPUT) {
-                if(!edge.getSync().equals("*") && !localOutputStrings.contains(channel)){
-                    localOutputStrings.add(channel);
-                }
-            }
+        if (uncount(countedChannels.remove(edge))) publishIOLists();
+    }
+
+    /**
+     * Updates the count of the channel of an edge, after it was added or changed.
+     * @param edge the edge
+     */
+    private void countChannel(final Edge edge) {
+        if (batchDepth > 0) {
+            ioChangedInBatch = true;
+            return;
         }
 
-        // Sort the String alphabetically, ignoring case (e.g. all strings starting with "C" are placed together)
-        localInputStrings.sort((item1, item2) -> item1.compareToIgnoreCase(item2));
-        localOutputStrings.sort((item1, item2) -> item1.compareToIgnoreCase(item2));
+        final Pair<EdgeStatus, String> channel = getChannel(edge);
+        final Pair<EdgeStatus, String> previous = countedChannels.put(edge, channel);
+        if (Objects.equals(channel, previous)) return;
+
+        // Use bitwise or, such that both are done
+        if (uncount(previous) | count(channel)) publishIOLists();
+    }
+
+    /**
+     * Gets the channel that an edge uses.
+     * @param edge the edge
+     * @return the status and the channel id, or null if the edge uses no channel
+     */
+    private static Pair<EdgeStatus, String> getChannel(final Edge edge) {
+        if (edge.getSync().equals("*")) return null;
+        if (edge.getStatus() != EdgeStatus.INPUT && edge.getStatus() != EdgeStatus.OUTPUT) return null;
+
+        // Extract channel id based on UPPAAL id definition
+        return new Pair<>(edge.getStatus(), edge.getSync().replaceAll("^([a-zA-Z_][a-zA-Z0-9_]*).*$", "$1"));
+    }
+
+    /**
+     * Adds one to the count of a channel.
+     * @param channel the status and the channel id, or null
+     * @return true if and only if the channel was not used before
+     */
+    private boolean count(final Pair<EdgeStatus, String> channel) {
+        if (channel == null) return false;
+
+        final Map<String, Integer> counts = channel.getKey() == EdgeStatus.INPUT ? inputCounts : outputCounts;
+        return counts.merge(channel.getValue(), 1, Integer::sum) == 1;
+    }
+
+    /**
+     * Subtracts one from the count of a channel.
+     * @param channel the status and the channel id, or null
+     * @return true if and only if the channel is not used anymore
+     */
+    private boolean uncount(final Pair<EdgeStatus, String> channel) {
+        if (channel == null) return false;
+
+        final Map<String, Integer> counts = channel.getKey() == EdgeStatus.INPUT ? inputCounts : outputCounts;
+        final Integer count = counts.get(channel.getValue());
+        if (count == null) return false;
+
+        if (count > 1) {
+            counts.put(channel.getValue(), count - 1);
+            return false;
+        }
+
+        counts.remove(channel.getValue());
+        return true;
+    }
+
+    /**
+     * Sets the input and output strings to the counted channels, which are sorted alphabetically, ignoring case.
+     */
+    private void publishIOLists() {
+        inputStrings.setAll(inputCounts.keySet());
+        outputStrings.setAll(outputCounts.keySet());
+    }
+
+    /**
+     * Method used for updating the inputstrings and outputstrings list
+     * Sorts the list alphabetically, ignoring case
+     * This counts the channels of all edges from scratch.
+     */
+    public void updateIOList() {
+        inputCounts.clear();
+        outputCounts.clear();
+        countedChannels.clear();
+
+        for (final Edge edge : getEdges()) {
+            final Pair<EdgeStatus, String> channel = getChannel(edge);
+            countedChannels.put(edge, channel);
+            count(channel);
+        }
 
-        inputStrings.setAll(localInputStrings);
-        outputStrings.setAll(localOutputStrings);
+        publishIOLists();
     }
 
     /**
@@ -425,62 +942,86 @@ public class Component extends HighLevelModelObject implements Boxed {
     }
 
     public ObservableList<Location> getLocations() {
+        load();
         return locations;
     }
 
     /**
      * Finds a location in this component based on its id.
+     * O(1), since the locations are indexed by id.
      * @param id id of location to find
      * @return the found location, or null if non was found
      */
     public Location findLocation(final String id) {
-        for (final Location loc : getLocations()) {
-            if (loc.getId().equals(id)) return loc;
-        }
+        load();
 
-        return null;
+        synchronized (this) {
+            return locationsById.get(id);
+        }
     }
 
     public boolean addLocation(final Location location) {
-        return locations.add(location);
+        return getLocations().add(location);
     }
 
     public boolean removeLocation(final Location location) {
-        return locations.remove(location);
+        return getLocations().remove(location);
     }
 
     public ObservableList<Edge> getEdges() {
+        load();
         return edges;
     }
 
     public boolean addEdge(final Edge edge) {
-        return edges.add(edge);
+        return getEdges().add(edge);
     }
 
     public boolean removeEdge(final Edge edge) {
-        return edges.remove(edge);
+        return getEdges().remove(edge);
     }
 
+    /**
+     * Gets the edges that has a specified location as their source or target.
+     * O(d), where d is the number of such edges.
+     * @param location the specified location
+     * @return the edges, with each self loop once
+     */
     public List<Edge> getRelatedEdges(final Location location) {
-        final ArrayList<Edge> relatedEdges = new ArrayList<>();
+        final Set<Edge> relatedEdges = new LinkedHashSet<>(getOutgoingEdges(location));
+        relatedEdges.addAll(getIncomingEdges(location));
 
-        edges.forEach(edge -> {
-            if(location.equals(edge.getSourceLocation()) ||location.equals(edge.getTargetLocation())) {
-                relatedEdges.add(edge);
-            }
-        });
-
-        return relatedEdges;
+        return new ArrayList<>(relatedEdges);
     }
 
     /**
      * Get edges that has a specified location as its source.
      * This is synchronized to avoid problems with multiple threads.
+     * O(d), where d is the number of such edges.
      * @param location the specified location
-     * @return the filtered edges
+     * @return a copy of the edges, in the order they were added
      */
-    public synchronized List<Edge> getOutgoingEdges(final Location location) {
-        return getEdges().filtered(edge -> location == edge.getSourceLocation());
+    public List<Edge> getOutgoingEdges(final Location location) {
+        load();
+
+        synchronized (this) {
+            return new ArrayList<>(outgoingEdges.getOrDefault(location, Collections.emptyList()));
+        }
+    }
+
+    /**
+     * Get edges that has a specified location as its target.
+     * This is synchronized to avoid problems with multiple threads.
+     * O(d), where d is the number of such edges.
+     * @param location the specified location
+     * @return a copy of the edges, in the order they were added
+     */
+    public List<Edge> getIncomingEdges(final Location location) {
+        load();
+
+        synchronized (this) {
+            return new ArrayList<>(incomingEdges.getOrDefault(location, Collections.emptyList()));
+        }
     }
 
     public boolean isDeclarationOpen() {
@@ -493,11 +1034,18 @@ public class Component extends HighLevelModelObject implements Boxed {
 
     /**
      * Gets the initial location.
-     * Done with linear search.
-     * O(n), where n is number of locations in this.
+     * O(1), since the initial location is indexed.
+     * Only if more than one location is initial, e.g. while changing the initial location, this is done with linear search.
      * @return the initial location, or null if there is none
      */
     public Location getInitialLocation() {
+        load();
+
+        synchronized (this) {
+            if (initialLocations.size() <= 1) return initialLocations.stream().findFirst().orElse(null);
+        }
+
+        // Keep the order of the locations
         for (final Location loc : getLocations()) {
             if (loc.getType() == Location.Type.INITIAL) {
                 return  loc;
@@ -510,7 +1058,6 @@ public class Component extends HighLevelModelObject implements Boxed {
     /**
      * Sets current initial location (if one exists) to no longer initial.
      * Then sets a new initial location.
-     * O(n), where n is number of locations in this.
      * @param initialLocation new initial location.
      */
     public void setInitialLocation(final Location initialLocation) {
@@ -524,7 +1071,7 @@ public class Component extends HighLevelModelObject implements Boxed {
     }
 
     public Edge getUnfinishedEdge() {
-        for (final Edge edge : edges) {
+        for (final Edge edge : getEdges()) {
             if (edge.getTargetLocation() == null)
                 return edge;
         }
@@ -649,21 +1196,34 @@ public class Component extends HighLevelModelObject implements Boxed {
     }
 
     private void bindReachabilityAnalysis() {
-        locations.addListener((ListChangeListener<? super Location>) c -> EcdarController.runReachabilityAnalysis());
-        edges.addListener((ListChangeListener<? super Edge>) c -> EcdarController.runReachabilityAnalysis());
-        declarationsTextProperty().addListener((observable, oldValue, newValue) -> EcdarController.runReachabilityAnalysis());
-        includeInPeriodicCheckProperty().addListener((observable, oldValue, newValue) -> EcdarController.runReachabilityAnalysis());
+        locations.addListener((ListChangeListener<? super Location>) c -> runReachabilityAnalysis());
+        edges.addListener((ListChangeListener<? super Edge>) c -> runReachabilityAnalysis());
+        declarationsTextProperty().addListener((observable, oldValue, newValue) -> runReachabilityAnalysis());
+        includeInPeriodicCheckProperty().addListener((observable, oldValue, newValue) -> runReachabilityAnalysis());
+    }
+
+    /**
+     * Triggers reachability analysis, or defers it to the end of the current batch.
+     */
+    private void runReachabilityAnalysis() {
+        if (batchDepth > 0) {
+            reachabilityChangedInBatch = true;
+            return;
+        }
+
+        EcdarController.runReachabilityAnalysis();
     }
 
     public String getDescription() {
-        return description.get();
+        return descriptionProperty().get();
     }
 
     public void setDescription(final String description) {
-        this.description.set(description);
+        descriptionProperty().set(description);
     }
 
     public StringProperty descriptionProperty() {
+        load();
         return description;
     }
 
@@ -711,6 +1271,8 @@ public class Component extends HighLevelModelObject implements Boxed {
      * @return the id, or null if this component have no universal or inconsistent locations
      */
     public String getUniIncId() {
+        if (isUnloaded()) return indexEntry.getUniIncId();
+
         for (final Location location : getLocations()){
             if (location.getType() == Location.Type.UNIVERSAL || location.getType() == Location.Type.INCONSISTENT) {
                 return location.getId().substring(Location.ID_LETTER_LENGTH);
@@ -724,6 +1286,8 @@ public class Component extends HighLevelModelObject implements Boxed {
      * @return ids of all locations in this component
      */
     HashSet<String> getLocationIds() {
+        if (isUnloaded()) return new HashSet<>(indexEntry.getLocationIds());
+
         final HashSet<String> ids = new HashSet<>();
         for (final Location location : getLocations()){
             if(location.getType() != Location.Type.UNIVERSAL || location.getType() != Location.Type.INCONSISTENT){
@@ -734,74 +1298,108 @@ public class Component extends HighLevelModelObject implements Boxed {
     }
 
     public String getDeclarationsText() {
-        return declarationsText.get();
+        return declarationsTextProperty().get();
     }
 
     public void setDeclarationsText(final String declarationsText) {
-        this.declarationsText.set(declarationsText);
+        declarationsTextProperty().set(declarationsText);
     }
 
     public StringProperty declarationsTextProperty() {
+        load();
         return declarationsText;
     }
 
     @Override
     public Box getBox() {
+        load();
         return box;
     }
 
     /**
-     * Gets the clocks defined in the declarations text.
-     * @return the clocks
+     * Gets if this is not loaded, and loading has not failed.
+     * Then the index tells about the locations.
+     * @return true iff not loaded
      */
-    public List<String> getClocks() {
-        final List<String> clocks = new ArrayList<>();
+    private synchronized boolean isUnloaded() {
+        return body != null && !loadFailed;
+    }
 
-        final Matcher matcher = Pattern.compile(".*clock\\s+([^;]+);.*").matcher(getDeclarationsText());
+    /**
+     * Gets the symbols declared in the declarations text.
+     * The text is only parsed again when it has changed since the last call.
+     * @return the symbol table
+     */
+    public SymbolTable getSymbolTable() {
+        // Loading must not happen while holding the lock
+        final String text = getDeclarationsText();
 
-        if (!matcher.find()) return clocks;
+        synchronized (this) {
+            if (!symbolTable.getText().equals(text)) symbolTable = SymbolTable.parse(text);
 
-        return Arrays.stream(matcher.group(1).split(",")).map(String::trim).collect(Collectors.toList());
+            return symbolTable;
+        }
     }
 
     /**
-     * Gets the local variables defined in the declarations text.
-     * @return the local variables
+     * Gets an immutable snapshot of the verification properties of this component, including its locations and edges.
+     * Background work should take a snapshot once and read only from it, such that it reads a consistent component
+     * without locking, while the user keeps editing.
+     * This loads the component.
+     * This must be called in the JavaFX thread, or while this is not edited.
+     * @return the snapshot
      */
-    public List<String> getLocalVariables() {
-        final List<String> locals = new ArrayList<>();
+    public Snapshot getSnapshot() {
+        // Load first, since loading drops the snapshot
+        load();
 
-        Arrays.stream(getDeclarationsText().split(";")).forEach(statement -> {
-            final Matcher matcher = Pattern.compile("^\\s*(\\w+)\\s+(\\w+)(\\W|$)").matcher(statement);
+        final Snapshot current = snapshot;
+        if (current != null) return current;
 
-            if ((!matcher.find()) || matcher.group(1).equals("clock")) return;
+        final Snapshot taken = new Snapshot(this);
+        snapshot = taken;
+        return taken;
+    }
 
-            locals.add(matcher.group(2));
-        });
+    /**
+     * Gets the clocks defined in the declarations text.
+     * @return the clocks
+     */
+    public List<String> getClocks() {
+        return getSymbolTable().getClocks();
+    }
 
-        return locals;
+    /**
+     * Gets the local variables defined in the declarations text.
+     * Clocks, channels, and constants are not variables.
+     * @return the local variables
+     */
+    public List<String> getLocalVariables() {
+        return getSymbolTable().getVariables();
     }
 
     /**
      * Gets the local variables defined in the declarations text.
      * Also gets the lower and upper bounds for these variables.
+     * Variables are bounded by a range in their declaration, or by a typedef in the local or global declarations.
      * @return Triples containing (left) name of the variable, (middle) lower bound, (right) upper bound
      */
     public List<Triple<String, Integer, Integer>> getLocalVariablesWithBounds() {
-        final List<Triple<String, Integer, Integer>> typedefs = Ecdar.getProject().getGlobalDeclarations().getTypedefs();
+        final SymbolTable symbols = getSymbolTable();
+        final SymbolTable globals = Ecdar.getProject().getGlobalDeclarations().getSymbolTable();
 
         final List<Triple<String, Integer, Integer>> locals = new ArrayList<>();
 
-        Arrays.stream(getDeclarationsText().split(";")).forEach(statement -> {
-            final Matcher matcher = Pattern.compile("^\\s*(\\w+)\\s+(\\w+)(\\W|$)").matcher(statement);
-            if (!matcher.find()) return;
-
-            final Optional<Triple<String, Integer, Integer>> typedef = typedefs.stream()
-                    .filter(def -> def.getLeft().equals(matcher.group(1))).findAny();
-            if (!typedef.isPresent()) return;
+        for (final String variable : symbols.getVariables()) {
+            final Triple<String, Integer, Integer> bounds = symbols.getVariableBounds(variable);
+            if (bounds != null) {
+                locals.add(bounds);
+                continue;
+            }
 
-            locals.add(Triple.of(matcher.group(2), typedef.get().getMiddle(), typedef.get().getRight()));
-        });
+            final Triple<String, Integer, Integer> typedef = globals.getTypedef(symbols.getVariableType(variable));
+            if (typedef != null) locals.add(Triple.of(variable, typedef.getMiddle(), typedef.getRight()));
+        }
 
         return locals;
     }
@@ -0,0 +1,329 @@
+package ecdar.abstractions;
+
+import ecdar.utility.colors.EnabledColor;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * An index of the components of a project, saved in the project folder next to the component files.
+ * It holds what is needed for listing components and referring to them,
+ * such that the locations, edges, and declarations of a component can be loaded when first needed.
+ * The size and modification time of each component file tell cheaply if the file changed since the index was written.
+ * Only if they match, the file is read and its hash compared, which is still cheaper than parsing it.
+ */
+public class ComponentIndex {
+    static final String FILENAME = "ComponentIndex.json";
+
+    private static final String COMPONENTS = "components";
+    private static final String FILE = "file";
+    private static final String NAME = "name";
+    private static final String COLOR = "color";
+    private static final String INCLUDE_IN_PERIODIC_CHECK = "includeInPeriodicCheck";
+    private static final String INPUTS = "inputs";
+    private static final String OUTPUTS = "outputs";
+    private static final String LOCATION_IDS = "locationIds";
+    private static final String UNI_INC_ID = "uniIncId";
+    private static final String SIZE = "size";
+    private static final String HASH = "hash";
+    private static final String MODIFIED = "modified";
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * The size, hash, and modification time of the content of a file.
+     */
+    public static class FileStamp {
+        private final long size;
+        private final String hash;
+        private final long modified;
+
+        /**
+         * Constructs.
+         * @param size the size of the file in bytes
+         * @param hash the SHA-256 hash of the content in hexadecimal
+         * @param modified the time the file was last modified, as given by {@link File#lastModified()}, or -1 if not known
+         */
+        FileStamp(final long size, final String hash, final long modified) {
+            this.size = size;
+            this.hash = hash;
+            this.modified = modified;
+        }
+
+        /**
+         * Makes a stamp of the content of a file.
+         * @param content the content
+         * @param file the file, which must not have been modified since the content was read or written
+         * @return the stamp
+         */
+        static FileStamp of(final byte[] content, final File file) {
+            final MessageDigest digest = newDigest();
+            digest.update(content);
+            return new FileStamp(content.length, toHex(digest.digest()), file.lastModified());
+        }
+
+        /**
+         * Gets if a file is unchanged since this stamp was made, i.e. if it has the same size, modification time, and hash.
+         * The file is only read if the size and modification time match.
+         * @param file the file
+         * @return true iff the file has the same size, modification time, and hash
+         * @throws IOException if the file could not be read
+         */
+        boolean matches(final File file) throws IOException {
+            if (modified < 0 || size != file.length() || modified != file.lastModified()) return false;
+
+            final MessageDigest digest = newDigest();
+            digest.update(Files.readAllBytes(file.toPath()));
+            return toHex(digest.digest()).equals(hash);
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public long getModified() {
+            return modified;
+        }
+    }
+
+    /**
+     * The entry of a component in the index.
+     */
+    public static class Entry {
+        private final String path;
+        private final String name;
+        private final String color;
+        private final boolean includeInPeriodicCheck;
+        private final List<String> inputs;
+        private final List<String> outputs;
+        private final Set<String> locationIds;
+        private final String uniIncId;
+        private final FileStamp stamp;
+
+        /**
+         * Constructs.
+         * @param path the path of the component file relative to the project folder
+         * @param name the name of the component
+         * @param color the identifier of the color of the component, or null if none
+         * @param includeInPeriodicCheck if the component is included in the periodic reachability check
+         * @param inputs the input signature
+         * @param outputs the output signature
+         * @param locationIds the ids of the locations, without their letters
+         * @param uniIncId the id of the universal and inconsistent locations, or null if none
+         * @param stamp the stamp of the component file, or null if not known yet
+         */
+        Entry(final String path, final String name, final String color, final boolean includeInPeriodicCheck,
+              final List<String> inputs, final List<String> outputs, final Set<String> locationIds,
+              final String uniIncId, final FileStamp stamp) {
+            this.path = path;
+            this.name = name;
+            this.color = color;
+            this.includeInPeriodicCheck = includeInPeriodicCheck;
+            this.inputs = Collections.unmodifiableList(new ArrayList<>(inputs));
+            this.outputs = Collections.unmodifiableList(new ArrayList<>(outputs));
+            this.locationIds = Collections.unmodifiableSet(new HashSet<>(locationIds));
+            this.uniIncId = uniIncId;
+            this.stamp = stamp;
+        }
+
+        /**
+         * Constructs from JSON.
+         * @param json the JSON object
+         */
+        Entry(final JsonObject json) {
+            this(json.get(FILE).getAsString(),
+                    json.get(NAME).getAsString(),
+                    getStringOrNull(json, COLOR),
+                    json.get(INCLUDE_IN_PERIODIC_CHECK).getAsBoolean(),
+                    toStrings(json.getAsJsonArray(INPUTS)),
+                    toStrings(json.getAsJsonArray(OUTPUTS)),
+                    new HashSet<>(toStrings(json.getAsJsonArray(LOCATION_IDS))),
+                    getStringOrNull(json, UNI_INC_ID),
+                    json.has(SIZE) && json.has(HASH) ? new FileStamp(json.get(SIZE).getAsLong(), json.get(HASH).getAsString(),
+                            json.has(MODIFIED) ? json.get(MODIFIED).getAsLong() : -1) : null);
+        }
+
+        /**
+         * Makes an entry of a loaded component.
+         * The stamp is not known until the component is written.
+         * @param path the path of the component file relative to the project folder
+         * @param component the component
+         * @return the entry
+         */
+        static Entry of(final String path, final Component component) {
+            return new Entry(path, component.getName(), EnabledColor.getIdentifier(component.getColor()),
+                    component.isIncludeInPeriodicCheck(), component.getInputStrings(), component.getOutputStrings(),
+                    component.getLocationIds(), component.getUniIncId(), null);
+        }
+
+        /**
+         * Gets a copy of this entry with another stamp.
+         * @param stamp the stamp
+         * @return the copy
+         */
+        Entry withStamp(final FileStamp stamp) {
+            return new Entry(path, name, color, includeInPeriodicCheck, inputs, outputs, locationIds, uniIncId, stamp);
+        }
+
+        /**
+         * Serializes this entry.
+         * @return the JSON object
+         */
+        JsonObject serialize() {
+            final JsonObject result = new JsonObject();
+
+            result.addProperty(FILE, path);
+            result.addProperty(NAME, name);
+            result.addProperty(COLOR, color);
+            result.addProperty(INCLUDE_IN_PERIODIC_CHECK, includeInPeriodicCheck);
+            result.add(INPUTS, toJsonArray(inputs));
+            result.add(OUTPUTS, toJsonArray(outputs));
+            result.add(LOCATION_IDS, toJsonArray(new TreeSet<>(locationIds)));
+            result.addProperty(UNI_INC_ID, uniIncId);
+
+            if (stamp != null) {
+                result.addProperty(SIZE, stamp.getSize());
+                result.addProperty(HASH, stamp.getHash());
+                result.addProperty(MODIFIED, stamp.getModified());
+            }
+
+            return result;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getColor() {
+            return color;
+        }
+
+        public boolean isIncludeInPeriodicCheck() {
+            return includeInPeriodicCheck;
+        }
+
+        public List<String> getInputs() {
+            return inputs;
+        }
+
+        public List<String> getOutputs() {
+            return outputs;
+        }
+
+        public Set<String> getLocationIds() {
+            return locationIds;
+        }
+
+        public String getUniIncId() {
+            return uniIncId;
+        }
+
+        public FileStamp getStamp() {
+            return stamp;
+        }
+    }
+
+
+    /* Constructors */
+
+    /**
+     * Constructs.
+     * @param entries the entries
+     */
+    ComponentIndex(final Collection<Entry> entries) {
+        entries.forEach(entry -> this.entries.put(entry.getPath(), entry));
+    }
+
+    /**
+     * Constructs from JSON.
+     * @param json the JSON object
+     */
+    ComponentIndex(final JsonObject json) {
+        json.getAsJsonArray(COMPONENTS).forEach(element -> {
+            final Entry entry = new Entry(element.getAsJsonObject());
+            entries.put(entry.getPath(), entry);
+        });
+    }
+
+
+    /* Static helpers */
+
+    /**
+     * Makes a message digest for hashing component files.
+     * @return the digest
+     */
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Formats bytes as hexadecimal.
+     * @param bytes the bytes
+     * @return the hexadecimal string
+     */
+    static String toHex(final byte[] bytes) {
+        final StringBuilder builder = new StringBuilder();
+        for (final byte b : bytes) builder.append(String.format("%02x", b));
+        return builder.toString();
+    }
+
+    private static String getStringOrNull(final JsonObject json, final String key) {
+        return json.has(key) && !json.get(key).isJsonNull() ? json.get(key).getAsString() : null;
+    }
+
+    private static List<String> toStrings(final JsonArray array) {
+        final List<String> strings = new ArrayList<>();
+        if (array != null) array.forEach(element -> strings.add(element.getAsString()));
+        return strings;
+    }
+
+    private static JsonArray toJsonArray(final Collection<String> strings) {
+        final JsonArray array = new JsonArray();
+        strings.forEach(array::add);
+        return array;
+    }
+
+
+    /* Other */
+
+    /**
+     * Gets the entry of a component file.
+     * @param path the path of the file relative to the project folder
+     * @return the entry, or null if none
+     */
+    public Entry get(final String path) {
+        return entries.get(path);
+    }
+
+    /**
+     * Serializes this index.
+     * @return the JSON object
+     */
+    public JsonObject serialize() {
+        final JsonArray array = new JsonArray();
+        entries.values().forEach(entry -> array.add(entry.serialize()));
+
+        final JsonObject result = new JsonObject();
+        result.add(COMPONENTS, array);
+        return result;
+    }
+}
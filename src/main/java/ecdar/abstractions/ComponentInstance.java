@@ -52,6 +52,10 @@ public class ComponentInstance implements SystemElement {
         this.component.set(component);
     }
 
+    public ObjectProperty<Component> getComponentProperty() {
+        return component;
+    }
+
     public Box getBox() {
         return box;
     }
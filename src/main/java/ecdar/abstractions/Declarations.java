@@ -8,11 +8,7 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import org.apache.commons.lang3.tuple.Triple;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Overall declarations of a model.
@@ -20,18 +16,21 @@ import java.util.regex.Pattern;
  */
 public class Declarations extends HighLevelModelObject {
     private final StringProperty declarationsText = new SimpleStringProperty("");
+    private SymbolTable symbolTable = SymbolTable.EMPTY;
 
     /**
      * Constructor with a name.
      * @param name name of the declarations
      */
     public Declarations(final String name) {
+        markDirtyOnChange(declarationsText);
         setName(name);
         setColor(Color.AMBER);
     }
 
 
     public Declarations(final JsonObject json) {
+        markDirtyOnChange(declarationsText);
         deserialize(json);
         setColor(Color.AMBER);
     }
@@ -64,19 +63,23 @@ public class Declarations extends HighLevelModelObject {
         setDeclarationsText("");
     }
 
+    /**
+     * Gets the symbols declared in the declarations text.
+     * The text is only parsed again when it has changed since the last call.
+     * @return the symbol table
+     */
+    public synchronized SymbolTable getSymbolTable() {
+        final String text = getDeclarationsText();
+        if (!symbolTable.getText().equals(text)) symbolTable = SymbolTable.parse(text);
+
+        return symbolTable;
+    }
+
     /**
      * Gets the custom types defined with typedef of a range of ints.
      * @return Triples containing (left) name of the type, (middle) lower bound, (right) upper bound
      */
     public List<Triple<String, Integer, Integer>> getTypedefs() {
-        final List<Triple<String, Integer, Integer>> types = new ArrayList<>();
-
-        final Matcher matcher = Pattern.compile(".*typedef\\s+int\\s*\\[(\\d+)\\s*,\\s*(\\d+)]\\s*(\\w*)\\s*;.*").matcher(getDeclarationsText());
-
-        while (matcher.find()) {
-            types.add(Triple.of(matcher.group(3), Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
-        }
-
-        return types;
+        return getSymbolTable().getTypedefs();
     }
 }
@@ -40,6 +40,7 @@ public class EcdarSystem extends EcdarModel implements Boxed {
     private final Box box = new Box();
 
     public EcdarSystem() {
+        initializeDirtyTracking();
         setSystemName();
         setRandomColor();
 
@@ -50,9 +51,24 @@ public class EcdarSystem extends EcdarModel implements Boxed {
     }
 
     EcdarSystem(final JsonObject json) {
+        initializeDirtyTracking();
         deserialize(json);
     }
 
+    /**
+     * Marks this as dirty when a saved property of this, or of an instance, operator, or edge, changes.
+     * Renaming the component of an instance is handled by the project.
+     */
+    private void initializeDirtyTracking() {
+        markDirtyOnChange(description, box.getXProperty(), box.getYProperty(), box.getWidthProperty(),
+                box.getHeightProperty(), systemRoot.getXProperty());
+        markDirtyOnChange(componentInstances, instance -> markDirtyOnChange(instance.getComponentProperty(),
+                instance.getBox().getXProperty(), instance.getBox().getYProperty()));
+        markDirtyOnChange(componentOperators, operator -> markDirtyOnChange(operator.getBox().getXProperty(),
+                operator.getBox().getYProperty()));
+        markDirtyOnChange(edges, edge -> markDirtyOnChange(edge.getChildProperty(), edge.getParentProperty()));
+    }
+
 
     @Override
     public Box getBox() {
@@ -191,6 +207,19 @@ public class EcdarSystem extends EcdarModel implements Boxed {
                 getEdges().add(new EcdarSystemEdge((JsonObject) jsonEdge, this)));
     }
 
+    /**
+     * Replaces the content of this with the content of a system file changed by another tool.
+     * This object is kept, such that presentations of it stay valid.
+     * This must be called in the JavaFX thread.
+     * @param json the new JSON of the system
+     */
+    public void reload(final JsonObject json) {
+        edges.clear();
+        componentOperators.clear();
+        componentInstances.clear();
+        deserialize(json);
+    }
+
     /**
      * Generate and sets a unique id for this system
      */
@@ -14,6 +14,7 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 import java.util.List;
+import java.util.Objects;
 
 public class Edge implements Serializable, Nearable {
 
@@ -53,6 +54,88 @@ public class Edge implements Serializable, Nearable {
 
     private final BooleanProperty isHighlighted = new SimpleBooleanProperty(false);
 
+    private volatile Snapshot snapshot;
+
+    /**
+     * An immutable snapshot of the verification properties of an edge.
+     * The source and target locations are referred to by their ids.
+     */
+    public static class Snapshot {
+        private final String sourceId;
+        private final String targetId;
+        private final EdgeStatus status;
+        private final String select;
+        private final String guard;
+        private final String sync;
+        private final String update;
+
+        /**
+         * Constructs a snapshot of the current properties of an edge.
+         * @param edge the edge
+         */
+        private Snapshot(final Edge edge) {
+            sourceId = getId(edge.getSourceLocation());
+            targetId = getId(edge.getTargetLocation());
+            status = edge.getStatus();
+            select = edge.getSelect();
+            guard = edge.getGuard();
+            sync = edge.getSync();
+            update = edge.getUpdate();
+        }
+
+        private static String getId(final Location location) {
+            return location == null ? null : location.getId();
+        }
+
+        /**
+         * Gets if this is a snapshot of the current properties of an edge.
+         * @param edge the edge
+         * @return true iff no verification property, including the ids of the source and target, changed since this was taken
+         */
+        private boolean isOf(final Edge edge) {
+            return Objects.equals(sourceId, getId(edge.getSourceLocation())) &&
+                    Objects.equals(targetId, getId(edge.getTargetLocation())) && status == edge.getStatus() &&
+                    Objects.equals(select, edge.getSelect()) && Objects.equals(guard, edge.getGuard()) &&
+                    Objects.equals(sync, edge.getSync()) && Objects.equals(update, edge.getUpdate());
+        }
+
+        /**
+         * Gets the id of the source location.
+         * @return the id, or null if the edge had no source
+         */
+        public String getSourceId() {
+            return sourceId;
+        }
+
+        /**
+         * Gets the id of the target location.
+         * @return the id, or null if the edge had no target
+         */
+        public String getTargetId() {
+            return targetId;
+        }
+
+        public EdgeStatus getStatus() {
+            return status;
+        }
+
+        public String getSelect() {
+            return select;
+        }
+
+        public String getGuard() {
+            return guard;
+        }
+
+        public String getSync() {
+            return sync;
+        }
+
+        public String getUpdate() {
+            return update;
+        }
+    }
+
     public Edge(final Location sourceLocation, final EdgeStatus status) {
         setSourceLocation(sourceLocation);
         ioStatus = new SimpleObjectProperty<>(status);
@@ -487,4 +570,19 @@ public class Edge implements Serializable, Nearable {
         setUpdate(update);
     }
 
+    /**
+     * Gets an immutable snapshot of the verification properties of this edge.
+     * The same snapshot is returned until a verification property changes,
+     * such that snapshots of a component share the snapshots of unchanged edges.
+     * This must be called in the JavaFX thread, or while this is not edited.
+     * @return the snapshot
+     */
+    public Snapshot getSnapshot() {
+        final Snapshot current = snapshot;
+        if (current != null && current.isOf(this)) return current;
+
+        snapshot = new Snapshot(this);
+        return snapshot;
+    }
+
 }
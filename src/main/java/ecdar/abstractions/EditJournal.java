@@ -0,0 +1,227 @@
+package ecdar.abstractions;
+
+import com.google.gson.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * An append-only journal of the edits of a project since it was last saved.
+ * The journal is a file in the project folder with one JSON object per line.
+ * Each line holds the description of an edit, the content of the files that the edit changed,
+ * and the paths of the files that the edit deleted.
+ * Replaying the journal over the saved files gives the project as it was after the last edit,
+ * e.g. after a crash.
+ */
+public class EditJournal {
+    static final String FILENAME = "Journal.jsonl";
+
+    private static final String DESCRIPTION = "description";
+    private static final String CHANGED = "changed";
+    private static final String DELETED = "deleted";
+
+    private static final Gson GSON = new Gson();
+
+    private final Map<String, JsonElement> changed = new LinkedHashMap<>();
+    private final Set<String> deleted = new HashSet<>();
+    private int length = 0;
+
+
+    /* Constructors */
+
+    /**
+     * Constructs an empty journal.
+     */
+    EditJournal() {
+
+    }
+
+
+    /* Static helpers */
+
+    /**
+     * Gets the journal file of a project folder.
+     * @param directory the project folder
+     * @return the file
+     */
+    static File getFile(final File directory) {
+        return new File(directory, FILENAME);
+    }
+
+    /**
+     * Reads the journal of a project folder.
+     * A line that is cut off, e.g. by a crash while it was written, ends the journal.
+     * @param directory the project folder
+     * @return the journal, or an empty journal if the folder has none
+     * @throws IOException if the journal could not be read
+     */
+    static EditJournal read(final File directory) throws IOException {
+        final EditJournal journal = new EditJournal();
+
+        final File file = getFile(directory);
+        if (!file.isFile()) return journal;
+
+        final JsonParser parser = new JsonParser();
+        try (final BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+
+                final JsonObject entry;
+                try {
+                    entry = parser.parse(line).getAsJsonObject();
+                } catch (final JsonParseException | IllegalStateException e) {
+                    break;
+                }
+
+                journal.apply(entry);
+            }
+        }
+
+        return journal;
+    }
+
+    /**
+     * Makes an entry of an edit.
+     * @param description the description of the edit
+     * @param changed the new content of the files changed by the edit, by path relative to the project folder
+     * @param deleted the paths of the files deleted by the edit
+     * @return the entry
+     */
+    static JsonObject makeEntry(final String description, final Map<String, JsonElement> changed, final Collection<String> deleted) {
+        final JsonObject changedJson = new JsonObject();
+        changed.forEach(changedJson::add);
+
+        final JsonArray deletedJson = new JsonArray();
+        deleted.forEach(deletedJson::add);
+
+        final JsonObject entry = new JsonObject();
+        entry.addProperty(DESCRIPTION, description);
+        entry.add(CHANGED, changedJson);
+        entry.add(DELETED, deletedJson);
+        return entry;
+    }
+
+    /**
+     * Appends an entry to the journal of a project folder.
+     * The entry is forced to the storage device before this returns.
+     * @param directory the project folder
+     * @param entry the entry
+     * @throws IOException if the entry could not be written
+     */
+    static void append(final File directory, final JsonObject entry) throws IOException {
+        final byte[] line = (GSON.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+
+        try (final FileOutputStream output = new FileOutputStream(getFile(directory), true)) {
+            output.write(line);
+            output.getChannel().force(false);
+        }
+    }
+
+    /**
+     * Cuts off what follows the last complete line of the journal of a project folder, e.g. a line cut off by a crash.
+     * This is the part that {@link #read(File)} ignores.
+     * Otherwise, the next entry would be appended to the cut-off line, and be ignored as well.
+     * @param directory the project folder
+     * @throws IOException if the journal could not be read or truncated
+     */
+    static void truncateToCompleteLines(final File directory) throws IOException {
+        final File file = getFile(directory);
+        if (!file.isFile()) return;
+
+        final byte[] content = Files.readAllBytes(file.toPath());
+        final JsonParser parser = new JsonParser();
+
+        int end = 0;
+        while (end < content.length) {
+            int newline = end;
+            while (newline < content.length && content[newline] != '\n') newline++;
+
+            final String line = new String(content, end, newline - end, StandardCharsets.UTF_8);
+            if (!line.trim().isEmpty()) {
+                try {
+                    parser.parse(line).getAsJsonObject();
+                } catch (final JsonParseException | IllegalStateException e) {
+                    break;
+                }
+            }
+
+            // A complete entry without a line break only misses the line break
+            if (newline == content.length) {
+                Files.write(file.toPath(), new byte[] {'\n'}, StandardOpenOption.APPEND);
+                return;
+            }
+
+            end = newline + 1;
+        }
+
+        if (end == content.length) return;
+
+        try (final RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            output.setLength(end);
+            output.getChannel().force(false);
+        }
+    }
+
+    /**
+     * Deletes the journal of a project folder, if any.
+     * @param directory the project folder
+     * @throws IOException if the journal could not be deleted
+     */
+    static void delete(final File directory) throws IOException {
+        Files.deleteIfExists(getFile(directory).toPath());
+    }
+
+
+    /* Properties */
+
+    /**
+     * Gets the number of edits in this journal.
+     * @return the number of edits
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Gets if the journal changes or deletes a file.
+     * @param path the path of the file relative to the project folder
+     * @return true if and only if the file is changed or deleted
+     */
+    public boolean touches(final String path) {
+        return changed.containsKey(path) || deleted.contains(path);
+    }
+
+
+    /* Other */
+
+    /**
+     * Applies an entry to the changes of this journal.
+     * @param entry the entry
+     */
+    private void apply(final JsonObject entry) {
+        entry.getAsJsonObject(CHANGED).entrySet().forEach(file -> {
+            changed.put(file.getKey(), file.getValue());
+            deleted.remove(file.getKey());
+        });
+        entry.getAsJsonArray(DELETED).forEach(path -> {
+            changed.remove(path.getAsString());
+            deleted.add(path.getAsString());
+        });
+
+        length++;
+    }
+
+    /**
+     * Replays this journal over the content of the saved files.
+     * Changed files keep their place, and new files are put last.
+     * @param files the content of each file, by path relative to the project folder
+     */
+    public void replay(final Map<String, JsonElement> files) {
+        deleted.forEach(files::remove);
+        files.putAll(changed);
+    }
+}
@@ -6,21 +6,28 @@ import ecdar.utility.colors.Color;
 import ecdar.utility.colors.EnabledColor;
 import ecdar.utility.serialize.Serializable;
 import com.google.gson.JsonObject;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.function.Function;
 
 /**
  * An object used for verifications.
  * This could be a component, a global declarations object, or a system.
  */
 public abstract class HighLevelModelObject implements Serializable, DropDownMenu.HasColor {
-    private static final String NAME = "name";
+    static final String NAME = "name";
 
     static final String DECLARATIONS = "declarations";
     public static final String DESCRIPTION = "description";
@@ -30,10 +37,17 @@ public abstract class HighLevelModelObject implements Serializable, DropDownMenu
     private final ObjectProperty<Color> color;
     private final ObjectProperty<Color.Intensity> colorIntensity;
 
+    // Set when a saved property changes, such that only changed models are serialized when saving
+    private volatile boolean dirty = true;
+    private JsonObject serialized = null;
+    private final InvalidationListener dirtyMarker = observable -> markDirty();
+
     public HighLevelModelObject() {
         name = new SimpleStringProperty("");
         color = new SimpleObjectProperty<>(Color.GREY_BLUE);
         colorIntensity = new SimpleObjectProperty<>(Color.Intensity.I700);
+
+        markDirtyOnChange(name, color);
     }
 
     public String getName() {
@@ -94,6 +108,86 @@ public abstract class HighLevelModelObject implements Serializable, DropDownMenu
         setColor(selectedColor.color);
     }
 
+    /**
+     * Marks that this changed since it was last serialized for saving.
+     * This is done by listeners of the saved properties, and for the context of undo and redo commands.
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Gets if this changed since it was last serialized for saving.
+     * @return true iff changed
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Gets the serialization of this for saving.
+     * The serialization is kept until this is marked as dirty, so a model that did not change is not serialized again,
+     * and compares equal to its last saved content by identity.
+     * The result must not be modified.
+     * @return the JSON
+     */
+    public synchronized JsonObject getSerialized() {
+        if (dirty || serialized == null) {
+            // Cleared first, such that changes while serializing mark this as dirty again
+            dirty = false;
+            serialized = serialize();
+        }
+
+        return serialized;
+    }
+
+    /**
+     * Marks this as dirty when any of some saved properties change.
+     * Serializing must read the properties, since invalidation listeners are only called for properties that are read.
+     * @param properties the properties
+     * @return a runnable that stops listening
+     */
+    protected Runnable markDirtyOnChange(final Observable... properties) {
+        for (final Observable property : properties) property.addListener(dirtyMarker);
+        return () -> {
+            for (final Observable property : properties) property.removeListener(dirtyMarker);
+        };
+    }
+
+    /**
+     * Marks this as dirty when a saved list, or the saved properties of one of its elements, change.
+     * Elements are listened to while they are in the list.
+     * @param list the list
+     * @param listenToElement starts listening to the properties of an element, and returns a runnable that stops
+     * @param <T> the type of the elements
+     * @return a runnable that stops listening
+     */
+    protected <T> Runnable markDirtyOnChange(final ObservableList<T> list, final Function<T, Runnable> listenToElement) {
+        final Map<T, Runnable> stoppers = new IdentityHashMap<>();
+        list.forEach(element -> stoppers.put(element, listenToElement.apply(element)));
+
+        final ListChangeListener<T> listener = change -> {
+            while (change.next()) {
+                change.getRemoved().forEach(element -> {
+                    final Runnable stopper = stoppers.remove(element);
+                    if (stopper != null) stopper.run();
+                });
+                change.getAddedSubList().forEach(element -> {
+                    if (!stoppers.containsKey(element)) stoppers.put(element, listenToElement.apply(element));
+                });
+            }
+        };
+        list.addListener(dirtyMarker);
+        list.addListener(listener);
+
+        return () -> {
+            list.removeListener(dirtyMarker);
+            list.removeListener(listener);
+            stoppers.values().forEach(Runnable::run);
+            stoppers.clear();
+        };
+    }
+
     @Override
     public JsonObject serialize() {
         final JsonObject result = new JsonObject();
@@ -14,6 +14,8 @@ import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import javafx.beans.property.*;
 
+import java.util.Objects;
+
 public class Location implements Circular, Serializable, Nearable, DropDownMenu.HasColor {
     private static final String NICKNAME = "nickname";
     private static final String ID = "id";
@@ -56,6 +58,62 @@ public class Location implements Circular, Serializable, Nearable, DropDownMenu.
 
     private final SimpleBooleanProperty isLocked = new SimpleBooleanProperty(false);
 
+    private volatile Snapshot snapshot;
+
+    /**
+     * An immutable snapshot of the verification properties of a location.
+     */
+    public static class Snapshot {
+        private final String id;
+        private final String nickname;
+        private final String invariant;
+        private final Type type;
+        private final Urgency urgency;
+
+        /**
+         * Constructs a snapshot of the current properties of a location.
+         * @param location the location
+         */
+        private Snapshot(final Location location) {
+            id = location.getId();
+            nickname = location.getNickname();
+            invariant = location.getInvariant();
+            type = location.getType();
+            urgency = location.getUrgency();
+        }
+
+        /**
+         * Gets if this is a snapshot of the current properties of a location.
+         * @param location the location
+         * @return true iff no verification property changed since this was taken
+         */
+        private boolean isOf(final Location location) {
+            return Objects.equals(id, location.getId()) && Objects.equals(nickname, location.getNickname()) &&
+                    Objects.equals(invariant, location.getInvariant()) && type == location.getType() &&
+                    urgency == location.getUrgency();
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getNickname() {
+            return nickname;
+        }
+
+        public String getInvariant() {
+            return invariant;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public Urgency getUrgency() {
+            return urgency;
+        }
+    }
+
     public Location() {
     }
 
@@ -453,6 +511,21 @@ public class Location implements Circular, Serializable, Nearable, DropDownMenu.
         urgencyProperty().addListener((observable, oldValue, newValue) -> EcdarController.runReachabilityAnalysis());
     }
 
+    /**
+     * Gets an immutable snapshot of the verification properties of this location.
+     * The same snapshot is returned until a verification property changes,
+     * such that snapshots of a component share the snapshots of unchanged locations.
+     * This must be called in the JavaFX thread, or while this is not edited.
+     * @return the snapshot
+     */
+    public Snapshot getSnapshot() {
+        final Snapshot current = snapshot;
+        if (current != null && current.isOf(this)) return current;
+
+        snapshot = new Snapshot(this);
+        return snapshot;
+    }
+
     public boolean isUniversalOrInconsistent() {
         return getType().equals(Type.UNIVERSAL) || getType().equals(Type.INCONSISTENT);
     }
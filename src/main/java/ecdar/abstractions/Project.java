@@ -1,21 +1,37 @@
 package ecdar.abstractions;
 
 import ecdar.Ecdar;
+import ecdar.mutation.CheckpointLog;
+import ecdar.mutation.TraceRecording;
+import ecdar.mutation.metrics.PipelineMetrics;
+import ecdar.mutation.models.KillMatrix;
 import ecdar.mutation.models.MutationTestPlan;
-import com.google.common.io.Files;
 import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import org.apache.commons.io.FileUtils;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.Writer;
+import java.io.*;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * A project of models.
@@ -24,10 +40,19 @@ public class Project {
     private final static String GLOBAL_DCL_FILENAME = "GlobalDeclarations";
     private final static String SYSTEM_DCL_FILENAME = "SystemDeclarations";
     private final static String QUERIES_FILENAME = "Queries";
-    private final static String JSON_FILENAME_EXTENSION = ".json";
-    private static final String FOLDER_NAME_COMPONENTS = "Components";
-    private static final String FOLDER_NAME_SYSTEMS = "Systems";
+    final static String JSON_FILENAME_EXTENSION = ".json";
+    static final String FOLDER_NAME_COMPONENTS = "Components";
+    static final String FOLDER_NAME_SYSTEMS = "Systems";
     private static final String FOLDER_NAME_TESTS = "Tests";
+    private static final String TEMP_FILENAME_EXTENSION = ".tmp";
+    private static final int COMPACT_JOURNAL_AFTER_EDITS = 100;
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final ExecutorService SAVE_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "Project saver");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final ObservableList<Query> queries;
     private final ObservableList<Component> components;
@@ -36,6 +61,19 @@ public class Project {
     private final ObjectProperty<Declarations> globalDeclarations;
     private final ObjectProperty<Declarations> systemDeclarations;
 
+    // Content of the files as last saved or loaded, by path relative to the project folder
+    private final Map<String, JsonElement> savedFiles = new HashMap<>();
+    private final Map<String, ComponentIndex.FileStamp> savedStamps = new HashMap<>();
+    private File savedDirectory = null;
+
+    // Content of the files as last journaled, for finding the files that an edit changes
+    private final Map<String, JsonElement> journaledFiles = new HashMap<>();
+    private final Set<String> journaledPaths = new HashSet<>();
+    private File journalDirectory = null;
+    private int journalLength = 0;
+
+    private ProjectWatcher watcher = null;
+
     public Project() {
         queries = FXCollections.observableArrayList();
         components = FXCollections.observableArrayList();
@@ -43,6 +81,18 @@ public class Project {
         testPlans = FXCollections.observableArrayList();
         globalDeclarations = new SimpleObjectProperty<>(new Declarations("Global Declarations"));
         systemDeclarations = new SimpleObjectProperty<>(new Declarations("System Declarations"));
+
+        // Systems and test plans refer to components by name
+        final InvalidationListener componentRenamed = observable -> {
+            systems.forEach(HighLevelModelObject::markDirty);
+            testPlans.forEach(HighLevelModelObject::markDirty);
+        };
+        components.addListener((ListChangeListener<Component>) change -> {
+            while (change.next()) {
+                change.getRemoved().forEach(component -> component.nameProperty().removeListener(componentRenamed));
+                change.getAddedSubList().forEach(component -> component.nameProperty().addListener(componentRenamed));
+            }
+        });
     }
 
     public ObservableList<Query> getQueries() {
@@ -77,86 +127,580 @@ public class Project {
         systemDeclarations.set(declarations);
     }
 
+    /**
+     * A snapshot of the files of a project, for saving it in the background.
+     * The snapshot does not change with the project.
+     */
+    public static class Snapshot {
+        private final Map<String, JsonElement> files;
+        private final Set<String> records;
+        private final List<ComponentIndex.Entry> index;
+
+        /**
+         * Constructs without a component index.
+         * @param files the content of each file, by path relative to the project folder
+         * @param records the absolute paths of records of test runs to keep when saving
+         */
+        Snapshot(final Map<String, JsonElement> files, final Set<String> records) {
+            this(files, records, null);
+        }
+
+        /**
+         * Constructs.
+         * @param files the content of each file, by path relative to the project folder
+         * @param records the absolute paths of files to keep when saving
+         * @param index the entries of the component index, or null if no index should be written
+         */
+        Snapshot(final Map<String, JsonElement> files, final Set<String> records, final List<ComponentIndex.Entry> index) {
+            this.files = Collections.unmodifiableMap(new LinkedHashMap<>(files));
+            this.records = Collections.unmodifiableSet(new HashSet<>(records));
+            this.index = index == null ? null : Collections.unmodifiableList(new ArrayList<>(index));
+        }
+
+        /**
+         * Gets the content of each file.
+         * @return the content of each file, by path relative to the project folder
+         */
+        public Map<String, JsonElement> getFiles() {
+            return files;
+        }
+
+        /**
+         * Gets the files to keep when saving.
+         * These are the records of test runs, i.e. the checkpoints, metrics reports, kill matrices,
+         * and trace recordings of the test plans, and the files of components that are not loaded.
+         * Checkpoints are kept, such that a test run can be resumed after saving.
+         * @return the absolute paths of the files
+         */
+        public Set<String> getRecords() {
+            return records;
+        }
+
+        /**
+         * Gets the entries of the component index.
+         * Entries of components that were written have no stamp yet.
+         * @return the entries, or null if no index should be written
+         */
+        public List<ComponentIndex.Entry> getIndex() {
+            return index;
+        }
+    }
+
+    /**
+     * Takes a snapshot of the files of this project, for saving it in the background.
+     * Only models marked as dirty are serialized, the others reuse their last serialization.
+     * Components that are not loaded yet keep their files, if saving to the folder they are loaded from.
+     * This must be called in the JavaFX thread, while the project does not change.
+     * @param directory the directory to save to
+     * @return the snapshot
+     */
+    public Snapshot takeSnapshot(final File directory) {
+        final Map<String, JsonElement> files = new LinkedHashMap<>();
+        final Set<String> records = new HashSet<>();
+        final List<ComponentIndex.Entry> index = new ArrayList<>();
+
+        files.put(GLOBAL_DCL_FILENAME + JSON_FILENAME_EXTENSION, getGlobalDeclarations().getSerialized());
+        files.put(SYSTEM_DCL_FILENAME + JSON_FILENAME_EXTENSION, getSystemDeclarations().getSerialized());
+
+        final boolean isLoadedFolder;
+        synchronized (savedFiles) {
+            isLoadedFolder = directory.getAbsoluteFile().equals(savedDirectory);
+        }
+
+        for (final Component component : getComponents()) {
+            final ComponentIndex.Entry unchanged = component.getUnchangedIndexEntry();
+            if (unchanged != null && isLoadedFolder) {
+                records.add(new File(directory, unchanged.getPath()).getAbsolutePath());
+                index.add(unchanged);
+                continue;
+            }
+
+            final String path = getRelativePath(FOLDER_NAME_COMPONENTS, component.getName());
+            files.put(path, component.getSerialized());
+            index.add(ComponentIndex.Entry.of(path, component));
+        }
+
+        for (final EcdarSystem system : getSystemsProperty()) {
+            files.put(getRelativePath(FOLDER_NAME_SYSTEMS, system.getName()), system.getSerialized());
+        }
+
+        for (final MutationTestPlan plan : getTestPlans()) {
+            files.put(getRelativePath(FOLDER_NAME_TESTS, plan.getName()), plan.getSerialized());
+        }
+
+        final JsonArray queries = new JsonArray();
+        getQueries().forEach(query -> queries.add(query.serialize()));
+        files.put(QUERIES_FILENAME + JSON_FILENAME_EXTENSION, queries);
+
+        getTestPlans().forEach(plan -> {
+            records.add(CheckpointLog.getFile(plan).getAbsolutePath());
+            records.add(PipelineMetrics.getCsvFile(plan).getAbsolutePath());
+            records.add(PipelineMetrics.getJsonFile(plan).getAbsolutePath());
+            records.add(KillMatrix.getFile(plan).getAbsolutePath());
+            records.add(TraceRecording.getFile(plan).getAbsolutePath());
+        });
+
+        return new Snapshot(files, records, index);
+    }
+
     /**
      * Serializes and stores this as JSON files at a given directory.
+     * Only files that changed since they were last saved or loaded are written.
      * @param directory object containing path to the desired directory to store at
      * @throws IOException if an IO error happens
      */
     public void serialize(final File directory) throws IOException {
-        // Clear the project folder
-        FileUtils.forceMkdir(directory);
-        FileUtils.cleanDirectory(directory);
-        FileUtils.forceMkdir(new File(Ecdar.projectDirectory.getValue() + File.separator + FOLDER_NAME_COMPONENTS));
-        FileUtils.forceMkdir(new File(Ecdar.projectDirectory.getValue() + File.separator + FOLDER_NAME_SYSTEMS));
-        FileUtils.forceMkdir(new File(Ecdar.projectDirectory.getValue() + File.separator + FOLDER_NAME_TESTS));
+        write(directory, takeSnapshot(directory));
+        Ecdar.showToast("Project saved.");
+    }
 
-        {
-            // Save global declarations
-            final Writer globalWriter = getSaveFileWriter(GLOBAL_DCL_FILENAME);
-            getNewGson().toJson(getGlobalDeclarations().serialize(), globalWriter);
-            globalWriter.close();
+    /**
+     * Saves this in the background.
+     * The snapshot is taken right away, so this must be called in the JavaFX thread.
+     * Saves run one at a time in the order they are started.
+     * @param directory the directory to store at
+     * @return a future that completes when saved, or completes exceptionally with an IOException
+     */
+    public CompletableFuture<Void> serializeInBackground(final File directory) {
+        final Snapshot snapshot = takeSnapshot(directory);
+
+        // The saved files include the journaled edits, and later edits are journaled in the saved folder
+        if (journalDirectory != null && !journalDirectory.equals(directory.getAbsoluteFile())) discardJournal();
+        journalDirectory = directory.getAbsoluteFile();
+        journalLength = 0;
+        rememberJournaledState(snapshot);
+
+        return CompletableFuture.runAsync(() -> {
+            try {
+                write(directory, snapshot);
+            } catch (final IOException e) {
+                throw new CompletionException(e);
+            }
+        }, SAVE_EXECUTOR);
+    }
+
+    /**
+     * Waits for the saves, journaled edits, and exports started so far to be written.
+     * The writes run in a daemon thread, so they are cut off if the application exits before they are done.
+     * This should not be called in the JavaFX thread, since the user interface stops responding meanwhile.
+     * @param timeoutMillis the maximum number of milliseconds to wait
+     * @return true if and only if the writes are done within the time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static boolean awaitSaves(final long timeoutMillis) throws InterruptedException {
+        // Saves run one at a time in the order they are started, so this runs after the saves started so far
+        try {
+            CompletableFuture.runAsync(() -> {}, SAVE_EXECUTOR).get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (final TimeoutException e) {
+            return false;
+        } catch (final ExecutionException e) {
+            // Cannot happen, since the task does nothing
+            throw new IllegalStateException(e);
         }
+    }
+
+    /**
+     * Starts journaling the edits of this project in a project folder.
+     * Later edits are compared to the current state of this project.
+     * A line of the journal cut off by a crash is removed first, such that later edits are not appended to it.
+     * This must be called in the JavaFX thread, after the project is loaded from the folder.
+     * @param directory the project folder
+     * @param length the number of edits already in the journal of the folder
+     */
+    public void startJournal(final File directory, final int length) {
+        journalDirectory = directory.getAbsoluteFile();
+        journalLength = length;
+        rememberJournaledState(takeSnapshot(journalDirectory));
+
+        final File journaled = journalDirectory;
+        SAVE_EXECUTOR.execute(() -> {
+            try {
+                EditJournal.truncateToCompleteLines(journaled);
+            } catch (final IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Journals an edit of this project, without knowing which model the edit changed.
+     * The models marked as dirty by their property listeners are serialized and compared to the last journaled state.
+     * This must be called in the JavaFX thread, right after the edit.
+     * @param description the description of the edit
+     * @return a future that completes when the edit is journaled, or completes exceptionally with an IOException
+     */
+    public CompletableFuture<Void> journal(final String description) {
+        return journal(description, null);
+    }
 
-        {
-            // Save system declarations
-            final Writer systemDclWriter = getSaveFileWriter(SYSTEM_DCL_FILENAME);
-            getNewGson().toJson(getSystemDeclarations().serialize(), systemDclWriter);
-            systemDclWriter.close();
+    /**
+     * Journals an edit of this project.
+     * Only the files that changed since the last journaled edit are appended to the journal, in the background.
+     * Only the models marked as dirty, including the edited model, are serialized.
+     * Once the journal is long, it is compacted by saving the project instead.
+     * This does nothing if no journal is started.
+     * This must be called in the JavaFX thread, right after the edit.
+     * @param description the description of the edit
+     * @param context the model that the edit changed, e.g. the context of an undo command, or null if unknown
+     * @return a future that completes when the edit is journaled, or completes exceptionally with an IOException
+     */
+    public CompletableFuture<Void> journal(final String description, final Object context) {
+        // Undo and redo commands may change their model without changing a listened property
+        if (context instanceof HighLevelModelObject) ((HighLevelModelObject) context).markDirty();
+
+        if (journalDirectory == null) return CompletableFuture.completedFuture(null);
+
+        final Snapshot snapshot = takeSnapshot(journalDirectory);
+        final Map<String, JsonElement> files = snapshot.getFiles();
+        final Set<String> paths = getPaths(snapshot);
+
+        final Map<String, JsonElement> changed = new LinkedHashMap<>();
+        files.forEach((path, content) -> {
+            if (!content.equals(journaledFiles.get(path))) changed.put(path, content);
+        });
+
+        final List<String> deleted = journaledPaths.stream().filter(path -> !paths.contains(path)).collect(Collectors.toList());
+
+        if (changed.isEmpty() && deleted.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        if (journalLength + 1 >= COMPACT_JOURNAL_AFTER_EDITS) return serializeInBackground(journalDirectory);
+
+        journalLength++;
+        journaledFiles.putAll(changed);
+        deleted.forEach(journaledFiles::remove);
+        journaledPaths.clear();
+        journaledPaths.addAll(paths);
+
+        final File directory = journalDirectory;
+        final JsonObject entry = EditJournal.makeEntry(description, changed, deleted);
+        return CompletableFuture.runAsync(() -> {
+            try {
+                EditJournal.append(directory, entry);
+            } catch (final IOException e) {
+                throw new CompletionException(e);
+            }
+        }, SAVE_EXECUTOR);
+    }
+
+    /**
+     * Stops journaling the edits of this project and deletes the journal in the background.
+     * This is for when the edits since the project was last saved should be thrown away.
+     * This must be called in the JavaFX thread.
+     */
+    public void discardJournal() {
+        if (journalDirectory == null) return;
+
+        final File directory = journalDirectory;
+        journalDirectory = null;
+
+        SAVE_EXECUTOR.execute(() -> {
+            try {
+                EditJournal.delete(directory);
+            } catch (final IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Remembers the state of the project as last journaled.
+     * @param snapshot a snapshot of the project
+     */
+    private void rememberJournaledState(final Snapshot snapshot) {
+        journaledFiles.clear();
+        journaledFiles.putAll(snapshot.getFiles());
+
+        journaledPaths.clear();
+        journaledPaths.addAll(getPaths(snapshot));
+    }
+
+    /**
+     * Gets the paths of the files of a snapshot, including the files of components that are not loaded.
+     * @param snapshot the snapshot
+     * @return the paths relative to the project folder
+     */
+    private static Set<String> getPaths(final Snapshot snapshot) {
+        final Set<String> paths = new HashSet<>(snapshot.getFiles().keySet());
+        if (snapshot.getIndex() != null) snapshot.getIndex().forEach(entry -> paths.add(entry.getPath()));
+        return paths;
+    }
+
+    /**
+     * Exports this as a single project container in the background.
+     * The snapshot is taken right away, so this must be called in the JavaFX thread.
+     * This does not change where the project is saved.
+     * @param file the file of the container
+     * @return a future that completes when written, or completes exceptionally with an IOException
+     */
+    public CompletableFuture<Void> exportContainerInBackground(final File file) {
+        final Snapshot snapshot = takeSnapshot(file);
+
+        return CompletableFuture.runAsync(() -> {
+            try {
+                ProjectContainer.write(file, snapshot.getFiles());
+            } catch (final IOException e) {
+                throw new CompletionException(e);
+            }
+        }, SAVE_EXECUTOR);
+    }
+
+    /**
+     * Writes a snapshot of this project to a directory.
+     * A file is only written if it changed since it was last saved to or loaded from the directory.
+     * Each file is written to a temporary file and then moved in place,
+     * so a crash during saving leaves either the old or the new version of each file.
+     * Then the component index is written with the size and hash of each component file.
+     * Afterwards, files that are not part of the snapshot are deleted, except records of test runs.
+     * This includes the journal of edits, since the snapshot includes the journaled edits.
+     * This may be called from any thread.
+     * @param directory the directory to store at
+     * @param snapshot the snapshot
+     * @throws IOException if an IO error happens
+     */
+    void write(final File directory, final Snapshot snapshot) throws IOException {
+        synchronized (savedFiles) {
+            // Saving to another folder than last time, so we do not know what is there
+            if (!directory.getAbsoluteFile().equals(savedDirectory)) {
+                savedFiles.clear();
+                savedStamps.clear();
+                savedDirectory = directory.getAbsoluteFile();
+            }
+
+            FileUtils.forceMkdir(new File(directory, FOLDER_NAME_COMPONENTS));
+            FileUtils.forceMkdir(new File(directory, FOLDER_NAME_SYSTEMS));
+            FileUtils.forceMkdir(new File(directory, FOLDER_NAME_TESTS));
+
+            for (final Map.Entry<String, JsonElement> entry : snapshot.getFiles().entrySet()) {
+                writeIfChanged(directory, entry.getKey(), entry.getValue());
+            }
+
+            final Set<String> keep = new HashSet<>(snapshot.getRecords());
+            snapshot.getFiles().keySet().forEach(path -> keep.add(new File(directory, path).getAbsolutePath()));
+
+            final Set<String> written = new HashSet<>(snapshot.getFiles().keySet());
+            if (snapshot.getIndex() != null) {
+                final List<ComponentIndex.Entry> entries = new ArrayList<>();
+                for (final ComponentIndex.Entry entry : snapshot.getIndex()) {
+                    entries.add(entry.getStamp() != null ? entry : entry.withStamp(savedStamps.get(entry.getPath())));
+                }
+
+                writeIfChanged(directory, ComponentIndex.FILENAME, new ComponentIndex(entries).serialize());
+                keep.add(new File(directory, ComponentIndex.FILENAME).getAbsolutePath());
+                written.add(ComponentIndex.FILENAME);
+            }
+
+            EditJournal.delete(directory);
+            deleteFilesExcept(directory, keep);
+
+            savedFiles.keySet().retainAll(written);
+            savedStamps.keySet().retainAll(written);
         }
+    }
 
-        // Save components
-        for (final Component component : getComponents()) {
-            final Writer writer = getSaveFileWriter(component.getName(), FOLDER_NAME_COMPONENTS);
-            getNewGson().toJson(component.serialize(), writer);
-            writer.close();
+    /**
+     * Writes a file of this project, if it changed since it was last saved to or loaded from the directory.
+     * This must be called while holding the lock of the saved files.
+     * @param directory the directory to store at
+     * @param path the path of the file relative to the directory
+     * @param content the content of the file
+     * @throws IOException if an IO error happens
+     */
+    private void writeIfChanged(final File directory, final String path, final JsonElement content) throws IOException {
+        final File file = new File(directory, path);
+        if (content.equals(savedFiles.get(path)) && file.isFile()) return;
+
+        final String text = GSON.toJson(content);
+        writeAtomically(file, text);
+        savedFiles.put(path, content);
+        savedStamps.put(path, ComponentIndex.FileStamp.of(text.getBytes(Charset.defaultCharset()), file));
+    }
+
+    /**
+     * Remembers the content of a file, as loaded from the project folder, such that it is not written again until it changes.
+     * @param directory the project folder
+     * @param file the file
+     * @param content the content of the file
+     * @param stamp the stamp of the file
+     */
+    void rememberLoadedFile(final File directory, final File file, final JsonElement content,
+                            final ComponentIndex.FileStamp stamp) {
+        synchronized (savedFiles) {
+            if (!directory.getAbsoluteFile().equals(savedDirectory)) {
+                savedFiles.clear();
+                savedStamps.clear();
+                savedDirectory = directory.getAbsoluteFile();
+            }
+
+            final String path = getRelativePath(directory, file);
+            savedFiles.put(path, content);
+            savedStamps.put(path, stamp);
         }
+    }
 
-        // Save systems
-        for (final EcdarSystem system : getSystemsProperty()) {
-            final Writer writer = getSaveFileWriter(system.getName(), FOLDER_NAME_SYSTEMS);
-            getNewGson().toJson(system.serialize(), writer);
-            writer.close();
+    /**
+     * Gets if some content is the content of a file as last saved to or loaded from a project folder.
+     * Then a change of the file was made by this project, and not by another tool.
+     * @param directory the project folder
+     * @param path the path of the file relative to the folder
+     * @param content the content
+     * @return true if and only if the content is as last saved or loaded
+     */
+    boolean isSavedContent(final File directory, final String path, final JsonElement content) {
+        synchronized (savedFiles) {
+            return directory.getAbsoluteFile().equals(savedDirectory) && content.equals(savedFiles.get(path));
         }
+    }
 
-        // Test objects
-        for (final MutationTestPlan plan : getTestPlans()) {
-            final Writer writer = getSaveFileWriter(plan.getName(), FOLDER_NAME_TESTS);
-            getNewGson().toJson(plan.serialize(), writer);
-            writer.close();
+    /**
+     * Starts watching a project folder for components and systems changed by other tools,
+     * such that only the changed models are reloaded.
+     * Stops watching the folder watched before, if any.
+     * This must be called in the JavaFX thread.
+     * @param directory the project folder
+     * @throws IOException if the folder could not be watched
+     */
+    public void watch(final File directory) throws IOException {
+        if (watcher != null) {
+            if (watcher.getDirectory().equals(directory.getAbsoluteFile())) return;
+            watcher.stop();
+            watcher = null;
         }
 
-        // Serializes queries
-        {
-            final JsonArray queries = new JsonArray();
-            getQueries().forEach(query -> queries.add(query.serialize()));
-            final Writer queriesWriter = getSaveFileWriter(QUERIES_FILENAME);
-            getNewGson().toJson(queries, queriesWriter);
-            queriesWriter.close();
+        watcher = new ProjectWatcher(this, directory);
+    }
+
+    /**
+     * Gets if a watcher is the one watching the folder of this project.
+     * This must be called in the JavaFX thread.
+     * @param watcher the watcher
+     * @return true if and only if it is the current watcher
+     */
+    boolean isWatching(final ProjectWatcher watcher) {
+        return this.watcher == watcher;
+    }
+
+    /**
+     * Deletes the files in a directory, except some files.
+     * @param directory the directory to clean
+     * @param keep the absolute paths of the files to keep
+     * @throws IOException if an IO error happens
+     */
+    private static void deleteFilesExcept(final File directory, final Set<String> keep) throws IOException {
+        for (final File file : FileUtils.listFiles(directory, null, true)) {
+            if (!keep.contains(file.getAbsolutePath())) FileUtils.forceDelete(file);
         }
+    }
 
-        Ecdar.showToast("Project saved.");
+    /**
+     * Gets the folder containing the test plans of the project.
+     * For a project container, this is a folder next to the container.
+     * @return the folder
+     */
+    public static File getTestsFolder() {
+        final File directory = new File(Ecdar.projectDirectory.getValue());
+        if (directory.isFile()) return new File(directory.getAbsoluteFile().getParentFile(), FOLDER_NAME_TESTS);
+
+        return new File(directory, FOLDER_NAME_TESTS);
     }
 
     /**
-     * Gets a new GSON object.
-     * @return the GSON object
+     * Gets the names of the folders of a project folder.
+     * @return the names of the folders of components, systems, and tests
      */
-    private static Gson getNewGson() {
-        return new GsonBuilder().setPrettyPrinting().create();
+    static List<String> getFolderNames() {
+        return Arrays.asList(FOLDER_NAME_COMPONENTS, FOLDER_NAME_SYSTEMS, FOLDER_NAME_TESTS);
     }
 
     /**
-     * Gets a new file writer for saving a file.
-     * @param filename name of file without extension.
-     * @return the file writer
+     * Gets the path of a file relative to the project folder, separated by slashes as in the saved files.
+     * @param directory the project folder
+     * @param file the file
+     * @return the relative path
+     */
+    private static String getRelativePath(final File directory, final File file) {
+        return directory.getAbsoluteFile().toPath().relativize(file.getAbsoluteFile().toPath())
+                .toString().replace(File.separator, "/");
+    }
+
+    /**
+     * Gets the path of a file in a folder of the project, relative to the project folder.
+     * @param folderName the name of the folder
+     * @param filename name of the file without extension
+     * @return the relative path
+     */
+    static String getRelativePath(final String folderName, final String filename) {
+        return folderName + "/" + filename + JSON_FILENAME_EXTENSION;
+    }
+
+    /**
+     * Writes a file by writing a temporary file next to it and then moving it in place.
+     * If the file system cannot move atomically, the file is replaced by a normal move.
+     * @param file the file to write
+     * @param content the content to write
      * @throws IOException if an IO error occurs
      */
-    private static FileWriter getSaveFileWriter(final String filename) throws IOException {
-        return new FileWriter(Ecdar.projectDirectory.getValue() + File.separator + filename + ".json");
+    static void writeAtomically(final File file, final String content) throws IOException {
+        final File temp = new File(file.getParentFile(), file.getName() + TEMP_FILENAME_EXTENSION);
+
+        try (final Writer writer = new OutputStreamWriter(new FileOutputStream(temp), Charset.defaultCharset())) {
+            writer.write(content);
+        }
+
+        try {
+            java.nio.file.Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException e) {
+            java.nio.file.Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
-    private static FileWriter getSaveFileWriter(final String filename, final String folderName) throws IOException {
-        return new FileWriter(Ecdar.projectDirectory.getValue() + File.separator + folderName + File.separator + filename + ".json");
+    /**
+     * The content of a project folder, read in the background and ready to be added to a project.
+     * Components are constructed while reading, as they do not depend on the project.
+     * Components in the component index are constructed without loading their files.
+     * Systems and test plans are kept as JSON, since they look up their components in the project.
+     */
+    public static class Contents {
+        private final boolean hasModels;
+        private final JsonObject globalDeclarations;
+        private final JsonObject systemDeclarations;
+        private final JsonArray queries;
+        private final List<Component> components;
+        private final List<JsonObject> systems;
+        private final List<JsonObject> testPlans;
+        private final int journalLength;
+
+        /**
+         * Constructs.
+         * @param hasModels if the folder has a folder of components or systems
+         * @param globalDeclarations the global declarations, or null if none
+         * @param systemDeclarations the system declarations, or null if none
+         * @param queries the queries, or null if none
+         * @param components the components in the order to add them
+         * @param systems the systems in the order to add them
+         * @param testPlans the test plans in the order to add them
+         * @param journalLength the number of journaled edits replayed over the saved files
+         */
+        private Contents(final boolean hasModels, final JsonObject globalDeclarations, final JsonObject systemDeclarations,
+                         final JsonArray queries, final List<Component> components, final List<JsonObject> systems,
+                         final List<JsonObject> testPlans, final int journalLength) {
+            this.hasModels = hasModels;
+            this.globalDeclarations = globalDeclarations;
+            this.systemDeclarations = systemDeclarations;
+            this.queries = queries;
+            this.components = components;
+            this.systems = systems;
+            this.testPlans = testPlans;
+            this.journalLength = journalLength;
+        }
+
+        /**
+         * Gets the number of edits recovered from the journal, i.e. edits that were not saved.
+         * @return the number of edits
+         */
+        public int getJournalLength() {
+            return journalLength;
+        }
     }
 
     /**
@@ -165,9 +709,30 @@ public class Project {
      * @throws IOException if problems occurs when reading a file
      */
     public void deserialize(final File projectFolder) throws IOException {
+        add(read(projectFolder));
+    }
+
+    /**
+     * Reads the files of a project folder.
+     * The JSON files are parsed in parallel, and so are the components constructed from them.
+     * Edits in the journal of the folder, i.e. edits that were not saved, are replayed over the files.
+     * This does not change the project, except for remembering the loaded files,
+     * so it can be called outside the JavaFX thread.
+     * Call {@link #add(Contents)} afterwards in order to add the content to this project.
+     * @param projectFolder the folder where an Ecdar project are supposed to be
+     * @return the content of the folder
+     * @throws IOException if problems occurs when reading a file
+     */
+    public Contents read(final File projectFolder) throws IOException {
+        if (projectFolder.isFile()) return read(ProjectContainer.open(projectFolder));
+
         final File[] projectFiles = projectFolder.listFiles();
+        if (projectFiles == null || projectFiles.length == 0) {
+            return new Contents(true, null, null, null, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), 0);
+        }
+
         File componentFolder = null; File systemFolder = null; File testFolder = null;
-        if (projectFiles == null || projectFiles.length == 0) return;
+        final List<File> files = new ArrayList<>();
 
         for (final File file : projectFiles) {
             if (file.isDirectory()) {
@@ -182,168 +747,259 @@ public class Project {
                         testFolder = file;
                         break;
                 }
-            } else {
-                // if file is not a folder (i.e. it is a JSON file), use helper method to deserialize the file
-                deserializeFileHelper(file);
+            } else if (file.getName().equals(GLOBAL_DCL_FILENAME + JSON_FILENAME_EXTENSION) ||
+                    file.getName().equals(SYSTEM_DCL_FILENAME + JSON_FILENAME_EXTENSION) ||
+                    file.getName().equals(QUERIES_FILENAME + JSON_FILENAME_EXTENSION)) {
+                files.add(file);
             }
         }
-        // Now we have gone though all the files in the directory we can now deserialize folders
-        if(componentFolder != null || systemFolder != null) {
-            deserializeComponents(componentFolder);
-            deserializeSystems(systemFolder);
-        } else {
-            Ecdar.showToast("Error while loading project");
-            return;
+
+        // Without components or systems, only the declarations and queries are loaded
+        final boolean hasModels = componentFolder != null || systemFolder != null;
+        final List<Component> lazyComponents = new ArrayList<>();
+        final EditJournal journal = EditJournal.read(projectFolder);
+        if (hasModels) {
+            // Components in the index whose files did not change size, modification time, or hash since are loaded when first needed
+            final ComponentIndex index = readIndex(projectFolder);
+            for (final File file : getJsonFiles(componentFolder)) {
+                final String path = FOLDER_NAME_COMPONENTS + "/" + file.getName();
+                final ComponentIndex.Entry entry = index == null ? null : index.get(path);
+
+                if (entry != null && entry.getStamp() != null && entry.getStamp().matches(file) && !journal.touches(path)) {
+                    lazyComponents.add(new Component(entry, getLazyBody(projectFolder, file)));
+                } else {
+                    files.add(file);
+                }
+            }
+
+            files.addAll(getJsonFiles(systemFolder));
+            files.addAll(getJsonFiles(testFolder));
         }
-        if (testFolder != null) deserializeTestObjects(testFolder);
+
+        final Map<File, JsonElement> parsed = parseInParallel(projectFolder, files);
+
+        // Keep the order of the files
+        final Map<String, JsonElement> jsons = new LinkedHashMap<>();
+        files.forEach(file -> jsons.put(getRelativePath(projectFolder, file), parsed.get(file)));
+
+        // Recover the edits that were not saved
+        journal.replay(jsons);
+
+        return toContents(hasModels, jsons, lazyComponents, journal.getLength());
     }
 
     /**
-     * A helper method for the {@link Project#deserialize(File)} method which handles deserialization of files
-     * @param file the file with information about a project that should be deserialized
-     * @throws IOException if problems occurs when reading a file
+     * Reads the files of a project container.
+     * The records are decoded in parallel from the memory-mapped container, and so are the components constructed from them.
+     * Call {@link #add(Contents)} afterwards in order to add the content to this project.
+     * @param container the container
+     * @return the content of the container
+     * @throws JsonParseException if a record is corrupt
      */
-    private void deserializeFileHelper(final File file) throws IOException {
-        final String fileContent = Files.toString(file, Charset.defaultCharset());
+    public Contents read(final ProjectContainer container) {
+        final Map<String, JsonElement> decoded = container.getPaths().parallelStream()
+                .collect(Collectors.toConcurrentMap(path -> path, container::get));
 
-        switch (file.getName()) {
-            case GLOBAL_DCL_FILENAME + JSON_FILENAME_EXTENSION:
-                final JsonObject globalJsonObj = new JsonParser().parse(fileContent).getAsJsonObject();
-                setGlobalDeclarations(new Declarations(globalJsonObj));
-                break;
-            case SYSTEM_DCL_FILENAME + JSON_FILENAME_EXTENSION:
-                final JsonObject sysJsonObj = new JsonParser().parse(fileContent).getAsJsonObject();
-                setSystemDeclarations(new Declarations(sysJsonObj));
-                break;
-            case QUERIES_FILENAME + JSON_FILENAME_EXTENSION:
-                new JsonParser().parse(fileContent).getAsJsonArray().forEach(jsonElement -> {
-                    final Query newQuery = new Query((JsonObject) jsonElement);
-                    getQueries().add(newQuery);
-                });
-                break;
-        }
+        // Keep the order of the records
+        final Map<String, JsonElement> jsons = new LinkedHashMap<>();
+        container.getPaths().forEach(path -> jsons.put(path, decoded.get(path)));
+
+        return toContents(true, jsons, new ArrayList<>(), 0);
     }
 
     /**
-     * Deserializes the components in a folder.
-     * @param componentsFolder the folder containing the JSON components files
-     * @throws IOException if an IO error occurs
+     * Makes the content of a project from its parsed files.
+     * Files that are not part of a project, such as the component index, are ignored.
+     * @param hasModels if the project has a folder of components or systems
+     * @param jsons the content of each file, by path relative to the project folder
+     * @param lazyComponents components that are loaded when first needed
+     * @param journalLength the number of journaled edits replayed over the files
+     * @return the content of the project
      */
-    private void deserializeComponents(final File componentsFolder) throws IOException {
-        // If there are no files do not try to deserialize
-        final File[] files = componentsFolder.listFiles();
-        if (files == null || files.length == 0) return;
-
-        // Create map for deserialization
-        final Map<String, JsonObject> nameJsonMap = new HashMap<>();
+    private static Contents toContents(final boolean hasModels, final Map<String, JsonElement> jsons,
+                                       final List<Component> lazyComponents, final int journalLength) {
+        JsonObject globalDeclarations = null, systemDeclarations = null;
+        JsonArray queries = null;
+        final List<JsonObject> componentJsons = new ArrayList<>(), systems = new ArrayList<>(), testPlans = new ArrayList<>();
+
+        for (final Map.Entry<String, JsonElement> entry : jsons.entrySet()) {
+            final String path = entry.getKey();
+            final JsonElement json = entry.getValue();
+
+            if (path.startsWith(FOLDER_NAME_COMPONENTS + "/")) componentJsons.add(json.getAsJsonObject());
+            else if (path.startsWith(FOLDER_NAME_SYSTEMS + "/")) systems.add(json.getAsJsonObject());
+            else if (path.startsWith(FOLDER_NAME_TESTS + "/")) testPlans.add(json.getAsJsonObject());
+            else if (path.equals(GLOBAL_DCL_FILENAME + JSON_FILENAME_EXTENSION)) globalDeclarations = json.getAsJsonObject();
+            else if (path.equals(SYSTEM_DCL_FILENAME + JSON_FILENAME_EXTENSION)) systemDeclarations = json.getAsJsonObject();
+            else if (path.equals(QUERIES_FILENAME + JSON_FILENAME_EXTENSION)) queries = json.getAsJsonArray();
+        }
 
-        for (final File file : files) {
-            // If JSON file
-            if (file.getName().endsWith(JSON_FILENAME_EXTENSION)) {
-                final String fileContent = Files.toString(file, Charset.defaultCharset());
+        // Order the components by name, the greatest name first
+        final Map<String, Component> components = new TreeMap<>(Comparator.reverseOrder());
+        lazyComponents.forEach(component -> components.put(component.getName(), component));
 
-                // Parse the file to an json object
-                final JsonObject jsonObject = new JsonParser().parse(fileContent).getAsJsonObject();
+        // Components do not depend on each other or on the project, so they can be constructed in parallel
+        componentJsons.parallelStream()
+                .map(Component::new)
+                .collect(Collectors.toList())
+                .forEach(component -> components.put(component.getName(), component));
 
-                // Fetch the name of the component
-                final String componentName = jsonObject.get("name").getAsString();
+        return new Contents(hasModels, globalDeclarations, systemDeclarations, queries, new ArrayList<>(components.values()),
+                orderByName(systems), orderByName(testPlans), journalLength);
+    }
 
-                // Add the name and the json object to the map
-                nameJsonMap.put(componentName, jsonObject);
-            }
+    /**
+     * Adds the content of a project folder to this project.
+     * Each kind of model is added in one batch, such that listeners of the project handle one change each.
+     * Components are added first, since systems and test plans look them up.
+     * This must be called in the JavaFX thread.
+     * @param contents the content, as read by {@link #read(File)}
+     */
+    public void add(final Contents contents) {
+        if (contents.globalDeclarations != null) setGlobalDeclarations(new Declarations(contents.globalDeclarations));
+        if (contents.systemDeclarations != null) setSystemDeclarations(new Declarations(contents.systemDeclarations));
+
+        if (contents.queries != null) {
+            final List<Query> newQueries = new ArrayList<>();
+            contents.queries.forEach(jsonElement -> newQueries.add(new Query((JsonObject) jsonElement)));
+            getQueries().addAll(newQueries);
         }
 
-        final List<Map.Entry<String, JsonObject>> list = new LinkedList<>(nameJsonMap.entrySet());
-        // Defined Custom Comparator here
-        list.sort(Comparator.comparing(Map.Entry::getKey));
-
-        final List<JsonObject> orderedJsonComponents = new ArrayList<>();
-
-        for (final Map.Entry<String, JsonObject> mapEntry : list) {
-            orderedJsonComponents.add(mapEntry.getValue());
+        if (!contents.hasModels) {
+            Ecdar.showToast("Error while loading project");
+            return;
         }
 
-        // Reverse the list such that the greatest depth is first in the list
-        Collections.reverse(orderedJsonComponents);
-
-        // Add the components to the list
-        orderedJsonComponents.forEach(jsonObject -> getComponents().add(new Component(jsonObject)));
+        getComponents().addAll(contents.components);
+        getSystemsProperty().addAll(contents.systems.stream().map(EcdarSystem::new).collect(Collectors.toList()));
+        getTestPlans().addAll(contents.testPlans.stream().map(MutationTestPlan::new).collect(Collectors.toList()));
     }
 
-    private void deserializeSystems(final File systemsFolder) throws IOException {
-        // If there are no folder or no files, do not try to deserialize
-        if (systemsFolder == null) return;
-        final File[] files = systemsFolder.listFiles();
-        if (files == null || files.length == 0) return;
-
-        // Create map for deserialization
-        final Map<String, JsonObject> nameJsonMap = new HashMap<>();
-
-        for (final File file : files) {
-            // If JSON file
-            if (file.getName().endsWith(JSON_FILENAME_EXTENSION)) {
-                final String fileContent = Files.toString(file, Charset.defaultCharset());
-                final JsonObject json = new JsonParser().parse(fileContent).getAsJsonObject();
-                final String name = json.get("name").getAsString();
-                nameJsonMap.put(name, json);
-            }
-        }
-
-        final List<Map.Entry<String, JsonObject>> list = new LinkedList<>(nameJsonMap.entrySet());
+    /**
+     * Gets the JSON files in a folder.
+     * @param folder the folder, or null
+     * @return the files, or an empty list if the folder is null or cannot be read
+     */
+    private static List<File> getJsonFiles(final File folder) {
+        if (folder == null) return new ArrayList<>();
 
-        list.sort(Comparator.comparing(Map.Entry::getKey));
+        final File[] files = folder.listFiles((dir, name) -> name.endsWith(JSON_FILENAME_EXTENSION));
+        if (files == null) return new ArrayList<>();
 
-        final List<JsonObject> orderedJsonSystems = new ArrayList<>();
+        return Arrays.asList(files);
+    }
 
-        for (final Map.Entry<String, JsonObject> mapEntry : list) {
-            orderedJsonSystems.add(mapEntry.getValue());
+    /**
+     * Reads the component index of a project folder.
+     * A missing or unreadable index is ignored, as the components can be loaded without it.
+     * @param projectFolder the project folder
+     * @return the index, or null if none could be read
+     */
+    private ComponentIndex readIndex(final File projectFolder) {
+        final File file = new File(projectFolder, ComponentIndex.FILENAME);
+        if (!file.isFile()) return null;
+
+        try {
+            final MessageDigest digest = ComponentIndex.newDigest();
+            final JsonElement json = parse(file, digest);
+            final ComponentIndex index = new ComponentIndex(json.getAsJsonObject());
+            rememberLoadedFile(projectFolder, file, json, stamp(file, digest));
+            return index;
+        } catch (final UncheckedIOException | JsonParseException | IllegalStateException | ClassCastException | NullPointerException e) {
+            e.printStackTrace();
+            return null;
         }
-
-        // Reverse the list such that the greatest depth is first in the list
-        Collections.reverse(orderedJsonSystems);
-
-        // Add the systems to the list
-        orderedJsonSystems.forEach(json -> getSystemsProperty().add(new EcdarSystem(json)));
     }
 
     /**
-     * Deserializes objects for mutation testing.
-     * @param directory directory of the JSON files for mutation testing
-     * @throws IOException if an IO error occurs
+     * Gets a supplier that loads a component file when a component needs it.
+     * The file is remembered as loaded, unless the project has been saved elsewhere since it was read.
+     * @param projectFolder the project folder
+     * @param file the component file
+     * @return the supplier of the JSON of the component
      */
-    private void deserializeTestObjects(final File directory) throws IOException {
-        // If there are no files do not try to deserialize
-        final File[] files = directory.listFiles();
-        if (files == null || files.length == 0) return;
-
-        // Create map for deserialization
-        final Map<String, JsonObject> nameJsonMap = new HashMap<>();
-
-        for (final File file : files) {
-            // If JSON file
-            if (file.getName().endsWith(JSON_FILENAME_EXTENSION)) {
-                final String fileContent = Files.toString(file, Charset.defaultCharset());
-                final JsonObject json = new JsonParser().parse(fileContent).getAsJsonObject();
-                final String name = json.get("name").getAsString();
-                nameJsonMap.put(name, json);
+    private Supplier<JsonObject> getLazyBody(final File projectFolder, final File file) {
+        return () -> {
+            final MessageDigest digest = ComponentIndex.newDigest();
+            final JsonElement json = parse(file, digest);
+
+            synchronized (savedFiles) {
+                if (projectFolder.getAbsoluteFile().equals(savedDirectory)) {
+                    rememberLoadedFile(projectFolder, file, json, stamp(file, digest));
+                }
             }
-        }
 
-        final List<Map.Entry<String, JsonObject>> list = new LinkedList<>(nameJsonMap.entrySet());
+            return json.getAsJsonObject();
+        };
+    }
 
-        list.sort(Comparator.comparing(Map.Entry::getKey));
+    /**
+     * Parses JSON files in parallel.
+     * Each file is streamed through a JSON reader, rather than being read into a string first.
+     * The parsed files are remembered as loaded from the project folder.
+     * @param projectFolder the project folder
+     * @param files the files to parse
+     * @return the parsed content of each file
+     * @throws IOException if problems occurs when reading a file
+     */
+    private Map<File, JsonElement> parseInParallel(final File projectFolder, final List<File> files) throws IOException {
+        try {
+            return files.parallelStream().collect(Collectors.toConcurrentMap(file -> file, file -> {
+                final MessageDigest digest = ComponentIndex.newDigest();
+                final JsonElement json = parse(file, digest);
+                rememberLoadedFile(projectFolder, file, json, stamp(file, digest));
+                return json;
+            }));
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
 
-        final List<JsonObject> orderedJsonSystems = new ArrayList<>();
+    /**
+     * Makes the stamp of a file that has been read.
+     * @param file the file
+     * @param digest the digest updated with the content of the file
+     * @return the stamp
+     */
+    private static ComponentIndex.FileStamp stamp(final File file, final MessageDigest digest) {
+        return new ComponentIndex.FileStamp(file.length(), ComponentIndex.toHex(digest.digest()), file.lastModified());
+    }
 
-        for (final Map.Entry<String, JsonObject> mapEntry : list) {
-            orderedJsonSystems.add(mapEntry.getValue());
+    /**
+     * Parses a JSON file, while hashing its content.
+     * @param file the file
+     * @param digest the digest to update with the content of the file
+     * @return the parsed content
+     * @throws UncheckedIOException if problems occurs when reading the file
+     */
+    private static JsonElement parse(final File file, final MessageDigest digest) {
+        try (final DigestInputStream stream = new DigestInputStream(new FileInputStream(file), digest);
+             final JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(stream, Charset.defaultCharset())))) {
+            final JsonElement json = new JsonParser().parse(reader);
+
+            // The parser may stop before the end of the file, so read the rest in order to hash it as well
+            final byte[] buffer = new byte[4096];
+            int read;
+            do {
+                read = stream.read(buffer);
+            } while (read != -1);
+
+            return json;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
 
-        // Reverse the list such that the greatest depth is first in the list
-        Collections.reverse(orderedJsonSystems);
-
-        // Add the test objects to the list
-        orderedJsonSystems.forEach(json -> getTestPlans().add(new MutationTestPlan(json)));
+    /**
+     * Orders JSON objects by their names, the greatest name first.
+     * If several objects have the same name, only the last of them is kept.
+     * @param jsons the JSON objects
+     * @return the ordered objects
+     */
+    private static List<JsonObject> orderByName(final List<JsonObject> jsons) {
+        final Map<String, JsonObject> nameJsonMap = new TreeMap<>(Comparator.reverseOrder());
+        jsons.forEach(json -> nameJsonMap.put(json.get("name").getAsString(), json));
+        return new ArrayList<>(nameJsonMap.values());
     }
 
     /**
@@ -371,6 +1027,19 @@ public class Project {
         systems.clear();
 
         testPlans.clear();
+
+        synchronized (savedFiles) {
+            savedFiles.clear();
+            savedStamps.clear();
+            savedDirectory = null;
+        }
+
+        journalDirectory = null;
+
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
     }
 
     /**
@@ -440,4 +1109,25 @@ public class Project {
 
         return null;
     }
+
+    /**
+     * Gets immutable snapshots of the components, for reading in background threads.
+     * Components that are not loaded yet are loaded first, such that the snapshots are the complete model.
+     * Components that did not change since the last call give the same snapshots as then.
+     * This must be called in the JavaFX thread.
+     * @return the snapshots in the order of the components
+     * @throws IllegalStateException if a component could not be loaded
+     */
+    public List<Component.Snapshot> getComponentSnapshots() {
+        final List<Component.Snapshot> snapshots = new ArrayList<>(getComponents().size());
+        for (final Component component : getComponents()) {
+            final Component.Snapshot snapshot = component.getSnapshot();
+
+            // Without all components, the snapshots would not be a complete model
+            if (!component.isLoaded()) throw new IllegalStateException("Could not load component " + component.getName());
+
+            snapshots.add(snapshot);
+        }
+        return Collections.unmodifiableList(snapshots);
+    }
 }
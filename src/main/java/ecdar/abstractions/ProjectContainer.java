@@ -0,0 +1,408 @@
+package ecdar.abstractions;
+
+import com.google.gson.*;
+import com.google.gson.internal.LazilyParsedNumber;
+import org.apache.commons.io.FileUtils;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A project stored in a single binary file, as an alternative to the folder of JSON files.
+ * It holds the same JSON content as the folder, by the paths of the files relative to the project folder,
+ * so a project converts losslessly between the two.
+ *
+ * The file starts with a magic number and a version.
+ * Then comes a table of every string in the project, such that repeated names, ids, and syncs are only stored once.
+ * Then comes an index of the records, each with the path of its file, its offset in the container, and its length.
+ * Each record is a JSON value in binary form, with strings, numbers, and keys referring to the string table.
+ * Offsets and lengths in the index are 4-byte integers, while other counts, lengths, and references to strings
+ * are variable-length integers.
+ *
+ * The container is read through a memory-mapped buffer, and records are only decoded when asked for,
+ * so records can be decoded in parallel.
+ */
+public class ProjectContainer {
+    public static final String FILENAME_EXTENSION = ".ecdarc";
+
+    private static final int MAGIC = 0x45435043; // ECPC
+    private static final int VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte NUMBER = 3;
+    private static final byte STRING = 4;
+    private static final byte ARRAY = 5;
+    private static final byte OBJECT = 6;
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final ByteBuffer buffer;
+    private final String[] strings;
+    private final Map<String, Record> records = new LinkedHashMap<>();
+
+    /**
+     * The position of a record in the container.
+     */
+    private static class Record {
+        private final int offset;
+        private final int length;
+
+        private Record(final int offset, final int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+
+    /* Constructors */
+
+    /**
+     * Constructs by reading the header of a container.
+     * @param buffer the content of the container
+     * @throws IOException if the content is not a valid container
+     */
+    private ProjectContainer(final ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        try {
+            if (buffer.getInt() != MAGIC) throw new IOException("Not an Ecdar project container");
+
+            final int version = buffer.getInt();
+            if (version != VERSION) throw new IOException("Unsupported project container version " + version);
+
+            strings = new String[readVarInt(buffer)];
+            for (int i = 0; i < strings.length; i++) {
+                final byte[] bytes = new byte[readVarInt(buffer)];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            final int count = readVarInt(buffer);
+            for (int i = 0; i < count; i++) {
+                final String path = strings[readVarInt(buffer)];
+                final int offset = buffer.getInt();
+                records.put(path, new Record(offset, buffer.getInt()));
+            }
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt project container", e);
+        }
+
+        for (final Record record : records.values()) {
+            if (record.offset < buffer.position() || (long) record.offset + record.length > buffer.limit()) {
+                throw new IOException("Truncated or corrupt project container");
+            }
+        }
+    }
+
+    /**
+     * Opens a container by mapping it into memory.
+     * @param file the file of the container
+     * @return the container
+     * @throws IOException if the container could not be read
+     */
+    public static ProjectContainer open(final File file) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new ProjectContainer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads a container from a byte array.
+     * @param bytes the content of the container
+     * @return the container
+     * @throws IOException if the content is not a valid container
+     */
+    static ProjectContainer read(final byte[] bytes) throws IOException {
+        return new ProjectContainer(ByteBuffer.wrap(bytes));
+    }
+
+
+    /* Static helpers */
+
+    /**
+     * Writes a container.
+     * The container is written to a temporary file that is then moved in place.
+     * @param file the file to write to
+     * @param files the content of each file of the project, by path relative to the project folder
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(final File file, final Map<String, JsonElement> files) throws IOException {
+        FileUtils.forceMkdir(file.getAbsoluteFile().getParentFile());
+
+        final File temp = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+        try (final OutputStream output = new BufferedOutputStream(new FileOutputStream(temp))) {
+            output.write(toBytes(files));
+        }
+
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Encodes the files of a project as a container.
+     * @param files the content of each file of the project, by path relative to the project folder
+     * @return the content of the container
+     */
+    static byte[] toBytes(final Map<String, JsonElement> files) {
+        final Map<String, Integer> ids = new LinkedHashMap<>();
+
+        // Encode the records first, such that the string table is complete when writing the header
+        final List<byte[]> encoded = new ArrayList<>();
+        for (final Map.Entry<String, JsonElement> entry : files.entrySet()) {
+            intern(ids, entry.getKey());
+
+            final ByteArrayOutputStream record = new ByteArrayOutputStream();
+            encode(record, entry.getValue(), ids);
+            encoded.add(record.toByteArray());
+        }
+
+        final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        writeInt(header, MAGIC);
+        writeInt(header, VERSION);
+
+        writeVarInt(header, ids.size());
+        for (final String string : ids.keySet()) {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(header, bytes.length);
+            header.write(bytes, 0, bytes.length);
+        }
+
+        // The records come right after the index
+        int offset = header.size() + getVarIntSize(files.size());
+        for (final String path : files.keySet()) offset += getVarIntSize(ids.get(path)) + 8;
+
+        final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        writeVarInt(index, files.size());
+        int i = 0;
+        for (final String path : files.keySet()) {
+            writeVarInt(index, ids.get(path));
+            writeInt(index, offset);
+            writeInt(index, encoded.get(i).length);
+            offset += encoded.get(i).length;
+            i++;
+        }
+
+        final ByteArrayOutputStream result = new ByteArrayOutputStream(offset);
+        result.write(header.toByteArray(), 0, header.size());
+        result.write(index.toByteArray(), 0, index.size());
+        encoded.forEach(bytes -> result.write(bytes, 0, bytes.length));
+        return result.toByteArray();
+    }
+
+    /**
+     * Reads the files of a project folder.
+     * This is the JSON files in the project folder and in its folders of components, systems, and tests.
+     * @param folder the project folder
+     * @return the content of each file, by path relative to the project folder
+     * @throws IOException if a file could not be read
+     */
+    public static Map<String, JsonElement> readFolder(final File folder) throws IOException {
+        final Map<String, JsonElement> files = new TreeMap<>();
+
+        readJsonFiles(folder, "", files);
+        for (final String subfolder : Project.getFolderNames()) {
+            readJsonFiles(new File(folder, subfolder), subfolder + "/", files);
+        }
+
+        return files;
+    }
+
+    private static void readJsonFiles(final File folder, final String prefix, final Map<String, JsonElement> files) throws IOException {
+        final File[] jsonFiles = folder.listFiles((dir, name) -> name.endsWith(".json"));
+        if (jsonFiles == null) return;
+
+        for (final File file : jsonFiles) {
+            try (final Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), Charset.defaultCharset()))) {
+                files.put(prefix + file.getName(), new JsonParser().parse(reader));
+            } catch (final JsonParseException e) {
+                throw new IOException("Could not parse " + file.getPath(), e);
+            }
+        }
+    }
+
+    /**
+     * Converts a project folder to a container.
+     * @param folder the project folder
+     * @param file the file of the container
+     * @throws IOException if an I/O error occurs
+     */
+    public static void fromFolder(final File folder, final File file) throws IOException {
+        write(file, readFolder(folder));
+    }
+
+    private static void intern(final Map<String, Integer> ids, final String string) {
+        ids.putIfAbsent(string, ids.size());
+    }
+
+    private static void encode(final ByteArrayOutputStream output, final JsonElement json, final Map<String, Integer> ids) {
+        if (json == null || json.isJsonNull()) {
+            output.write(NULL);
+        } else if (json.isJsonPrimitive()) {
+            final JsonPrimitive primitive = json.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                output.write(primitive.getAsBoolean() ? TRUE : FALSE);
+            } else {
+                // Numbers are kept as their text, such that they convert back exactly
+                output.write(primitive.isNumber() ? NUMBER : STRING);
+                intern(ids, primitive.getAsString());
+                writeVarInt(output, ids.get(primitive.getAsString()));
+            }
+        } else if (json.isJsonArray()) {
+            output.write(ARRAY);
+            writeVarInt(output, json.getAsJsonArray().size());
+            json.getAsJsonArray().forEach(element -> encode(output, element, ids));
+        } else {
+            output.write(OBJECT);
+            final Set<Map.Entry<String, JsonElement>> entries = json.getAsJsonObject().entrySet();
+            writeVarInt(output, entries.size());
+            for (final Map.Entry<String, JsonElement> entry : entries) {
+                intern(ids, entry.getKey());
+                writeVarInt(output, ids.get(entry.getKey()));
+                encode(output, entry.getValue(), ids);
+            }
+        }
+    }
+
+    private static void writeInt(final ByteArrayOutputStream output, final int value) {
+        output.write(value >>> 24);
+        output.write(value >>> 16);
+        output.write(value >>> 8);
+        output.write(value);
+    }
+
+    /**
+     * Writes a non-negative integer in 7 bits per byte, with the highest bit telling if more bytes follow.
+     * @param output the output to write to
+     * @param value the integer
+     */
+    private static void writeVarInt(final ByteArrayOutputStream output, int value) {
+        while ((value & ~0x7F) != 0) {
+            output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write(value);
+    }
+
+    private static int getVarIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int readVarInt(final ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Corrupt project container");
+    }
+
+
+    /* Properties */
+
+    /**
+     * Gets the paths of the files in this container, in the order they were written.
+     * @return the paths relative to the project folder
+     */
+    public List<String> getPaths() {
+        return new ArrayList<>(records.keySet());
+    }
+
+    /**
+     * Decodes the content of a file in this container.
+     * This may be called from multiple threads at once.
+     * @param path the path of the file relative to the project folder
+     * @return the content, or null if this has no such file
+     * @throws JsonParseException if the record is corrupt
+     */
+    public JsonElement get(final String path) {
+        final Record record = records.get(path);
+        if (record == null) return null;
+
+        // Each call uses its own view of the buffer, such that records can be decoded in parallel
+        final ByteBuffer view = buffer.duplicate();
+        view.limit(record.offset + record.length);
+        view.position(record.offset);
+
+        try {
+            return decode(view);
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException | IOException e) {
+            throw new JsonParseException("Corrupt record " + path + " in project container", e);
+        }
+    }
+
+    /**
+     * Decodes the content of every file in this container.
+     * @return the content of each file, by path relative to the project folder
+     * @throws JsonParseException if a record is corrupt
+     */
+    public Map<String, JsonElement> readAll() {
+        final Map<String, JsonElement> files = new LinkedHashMap<>();
+        records.keySet().forEach(path -> files.put(path, get(path)));
+        return files;
+    }
+
+
+    /* Other */
+
+    /**
+     * Converts this container to a project folder, writing a JSON file for each record.
+     * The files are formatted in the same way as when saving a project.
+     * @param folder the project folder
+     * @throws IOException if an I/O error occurs
+     */
+    public void toFolder(final File folder) throws IOException {
+        for (final Map.Entry<String, JsonElement> entry : readAll().entrySet()) {
+            final File file = new File(folder, entry.getKey());
+            FileUtils.forceMkdir(file.getParentFile());
+            Project.writeAtomically(file, GSON.toJson(entry.getValue()));
+        }
+    }
+
+    private JsonElement decode(final ByteBuffer view) throws IOException {
+        final byte tag = view.get();
+        switch (tag) {
+            case NULL:
+                return JsonNull.INSTANCE;
+            case TRUE:
+                return new JsonPrimitive(true);
+            case FALSE:
+                return new JsonPrimitive(false);
+            case NUMBER:
+                return new JsonPrimitive(new LazilyParsedNumber(strings[readVarInt(view)]));
+            case STRING:
+                return new JsonPrimitive(strings[readVarInt(view)]);
+            case ARRAY: {
+                final JsonArray array = new JsonArray();
+                final int size = readVarInt(view);
+                for (int i = 0; i < size; i++) array.add(decode(view));
+                return array;
+            }
+            case OBJECT: {
+                final JsonObject object = new JsonObject();
+                final int size = readVarInt(view);
+                for (int i = 0; i < size; i++) {
+                    final String key = strings[readVarInt(view)];
+                    object.add(key, decode(view));
+                }
+                return object;
+            }
+            default:
+                throw new IOException("Unknown value tag " + tag);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package ecdar.abstractions;
+
+import ecdar.Ecdar;
+import ecdar.utility.UndoRedoStack;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import javafx.application.Platform;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches the component and system folders of a project folder for files changed by other tools,
+ * and reloads only the models of those files.
+ * Changed models are reloaded in place, such that their presentations stay.
+ * Files that are written by the project itself are recognized by their content and ignored.
+ */
+public class ProjectWatcher {
+    // How long the folders must be quiet before reloading, since tools may write several files, or a file in several steps
+    private static final long QUIET_MILLIS = 200;
+
+    private final Project project;
+    private final File directory;
+    private final WatchService service;
+    private final Map<WatchKey, String> folderNames = new HashMap<>();
+    private final Thread thread;
+
+
+    /* Constructors */
+
+    /**
+     * Constructs and starts watching.
+     * @param project the project to reload models in
+     * @param directory the project folder
+     * @throws IOException if the folders could not be watched
+     */
+    ProjectWatcher(final Project project, final File directory) throws IOException {
+        this.project = project;
+        this.directory = directory.getAbsoluteFile();
+
+        service = FileSystems.getDefault().newWatchService();
+        for (final String folderName : Arrays.asList(Project.FOLDER_NAME_COMPONENTS, Project.FOLDER_NAME_SYSTEMS)) {
+            final File folder = new File(this.directory, folderName);
+            FileUtils.forceMkdir(folder);
+            folderNames.put(folder.toPath().register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), folderName);
+        }
+
+        thread = new Thread(this::watch, "Project watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+
+    /* Properties */
+
+    /**
+     * Gets the watched project folder.
+     * @return the absolute path of the folder
+     */
+    File getDirectory() {
+        return directory;
+    }
+
+
+    /* Other */
+
+    /**
+     * Stops watching.
+     */
+    void stop() {
+        thread.interrupt();
+
+        try {
+            service.close();
+        } catch (final IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Waits for changes and reloads the changed files, until stopped.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                final Set<String> paths = new LinkedHashSet<>();
+
+                WatchKey key = service.take();
+                while (key != null) {
+                    collect(key, paths);
+                    key = service.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+                }
+
+                reload(paths);
+            }
+        } catch (final InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Collects the paths of the JSON files changed according to the events of a key.
+     * If events were lost, every file in the folder is collected.
+     * @param key the key
+     * @param paths the paths relative to the project folder to add to
+     */
+    private void collect(final WatchKey key, final Set<String> paths) {
+        final String folderName = folderNames.get(key);
+
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                final File[] files = new File(directory, folderName).listFiles();
+                if (files != null) Arrays.stream(files).forEach(file -> paths.add(folderName + "/" + file.getName()));
+                continue;
+            }
+
+            paths.add(folderName + "/" + event.context());
+        }
+
+        key.reset();
+    }
+
+    /**
+     * Reads changed files and reloads their models in the JavaFX thread.
+     * Files that cannot be parsed, e.g. since they are still being written, are skipped until they change again.
+     * @param paths the paths of the changed files relative to the project folder
+     */
+    private void reload(final Set<String> paths) {
+        final Map<String, JsonObject> changed = new LinkedHashMap<>();
+        final Map<String, ComponentIndex.FileStamp> stamps = new HashMap<>();
+        final Set<String> removed = new HashSet<>();
+
+        final JsonParser parser = new JsonParser();
+        for (final String path : paths) {
+            if (!path.endsWith(Project.JSON_FILENAME_EXTENSION)) continue;
+
+            final File file = new File(directory, path);
+            if (!file.exists()) {
+                removed.add(path);
+                continue;
+            }
+
+            try {
+                final byte[] content = Files.readAllBytes(file.toPath());
+                final JsonObject json = parser.parse(new String(content, StandardCharsets.UTF_8)).getAsJsonObject();
+
+                // Written by the project itself
+                if (project.isSavedContent(directory, path, json)) continue;
+
+                changed.put(path, json);
+                stamps.put(path, ComponentIndex.FileStamp.of(content, file));
+            } catch (final IOException | JsonParseException | IllegalStateException e) {
+                // Skip it until it changes again
+            }
+        }
+
+        if (changed.isEmpty() && removed.isEmpty()) return;
+
+        Platform.runLater(() -> {
+            // The project may have been closed or saved elsewhere meanwhile
+            if (!project.isWatching(this)) return;
+
+            apply(changed, removed);
+            changed.forEach((path, json) -> project.rememberLoadedFile(directory, new File(directory, path), json, stamps.get(path)));
+        });
+    }
+
+    /**
+     * Reloads, adds, and removes models of changed files.
+     * A changed file reloads the model saved to its path, even if another tool renamed the model in the file.
+     * Only if no model is saved to the path, the model with the name in the file is reloaded, if any.
+     * Undo commands and query results concerning other models are kept.
+     * This must be called in the JavaFX thread.
+     * @param changed the content of changed files, by path relative to the project folder
+     * @param removed the paths of removed files relative to the project folder
+     */
+    void apply(final Map<String, JsonObject> changed, final Set<String> removed) {
+        final Set<String> affectedNames = new HashSet<>();
+
+        // Components first, since systems look them up
+        changed.forEach((path, json) -> {
+            if (!path.startsWith(Project.FOLDER_NAME_COMPONENTS + "/")) return;
+
+            final String name = json.get(HighLevelModelObject.NAME).getAsString();
+            Component component = findComponentByPath(path);
+            if (component == null) component = project.findComponent(name);
+
+            if (component == null) {
+                project.getComponents().add(new Component(json));
+            } else {
+                // Queries may mention the model by its former name
+                affectedNames.add(component.getName());
+                component.reload(json);
+                UndoRedoStack.forget(component);
+            }
+            affectedNames.add(name);
+        });
+
+        changed.forEach((path, json) -> {
+            if (!path.startsWith(Project.FOLDER_NAME_SYSTEMS + "/")) return;
+
+            final String name = json.get(HighLevelModelObject.NAME).getAsString();
+            EcdarSystem system = findSystemByPath(path);
+            if (system == null) system = findSystem(name);
+
+            if (system == null) {
+                project.getSystemsProperty().add(new EcdarSystem(json));
+            } else {
+                affectedNames.add(system.getName());
+                system.reload(json);
+                UndoRedoStack.forget(system);
+            }
+            affectedNames.add(name);
+        });
+
+        for (final String path : removed) {
+            final Component component = findComponentByPath(path);
+            if (component != null) {
+                project.getComponents().remove(component);
+                UndoRedoStack.forget(component);
+                affectedNames.add(component.getName());
+            }
+
+            final EcdarSystem system = findSystemByPath(path);
+            if (system != null) {
+                project.getSystemsProperty().remove(system);
+                UndoRedoStack.forget(system);
+                affectedNames.add(system.getName());
+            }
+        }
+
+        // Systems with instances of changed components are changed as well
+        for (final EcdarSystem system : project.getSystemsProperty()) {
+            if (system.getComponentInstances().stream().anyMatch(instance -> instance.getComponent() != null &&
+                    affectedNames.contains(instance.getComponent().getName()))) {
+                affectedNames.add(system.getName());
+            }
+        }
+
+        if (affectedNames.isEmpty()) return;
+
+        resetQueries(affectedNames);
+
+        Ecdar.showToast("Reloaded " + affectedNames.size() + " models changed outside Ecdar");
+    }
+
+    /**
+     * Finds a system by its name.
+     * @param name the name
+     * @return the system, or null if none
+     */
+    private EcdarSystem findSystem(final String name) {
+        return project.getSystemsProperty().stream().filter(system -> system.getName().equals(name)).findFirst().orElse(null);
+    }
+
+    /**
+     * Finds the component that is saved to a path.
+     * @param path the path relative to the project folder
+     * @return the component, or null if none
+     */
+    private Component findComponentByPath(final String path) {
+        return project.getComponents().stream()
+                .filter(component -> Project.getRelativePath(Project.FOLDER_NAME_COMPONENTS, component.getName()).equals(path))
+                .findFirst().orElse(null);
+    }
+
+    /**
+     * Finds the system that is saved to a path.
+     * @param path the path relative to the project folder
+     * @return the system, or null if none
+     */
+    private EcdarSystem findSystemByPath(final String path) {
+        return project.getSystemsProperty().stream()
+                .filter(system -> Project.getRelativePath(Project.FOLDER_NAME_SYSTEMS, system.getName()).equals(path))
+                .findFirst().orElse(null);
+    }
+
+    /**
+     * Resets the results of the queries that mention some models.
+     * @param names the names of the models
+     */
+    private void resetQueries(final Set<String> names) {
+        final List<Pattern> patterns = new ArrayList<>();
+        names.forEach(name -> patterns.add(Pattern.compile("\\b" + Pattern.quote(name) + "\\b")));
+
+        for (final Query query : project.getQueries()) {
+            if (patterns.stream().anyMatch(pattern -> pattern.matcher(query.getQuery()).find())) {
+                query.setQueryState(QueryState.UNKNOWN);
+            }
+        }
+    }
+}
@@ -8,9 +8,12 @@ import com.google.gson.JsonObject;
 import com.uppaal.engine.Engine;
 import javafx.application.Platform;
 import javafx.beans.property.*;
+import javafx.beans.value.ChangeListener;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public class Query implements Serializable {
@@ -21,6 +24,9 @@ public class Query implements Serializable {
     private static final String IGNORED_OUTPUTS = "ignoredOutputs";
     private static final String BACKEND = "backend";
 
+    // Time to wait for the result after the backend thread ends, in ms
+    private static final long RESULT_WAIT_TIME = 5000;
+
     public final HashMap<String, Boolean> ignoredInputs = new HashMap<>();
     public final HashMap<String, Boolean> ignoredOutputs = new HashMap<>();
 
@@ -157,7 +163,7 @@ public class Query implements Serializable {
                                 // We had trouble generating the model if we get a NullPointerException
                                 if (cause instanceof NullPointerException) {
                                     setQueryState(QueryState.UNKNOWN);
-                                } else {
+                                } else if (Ecdar.getPresentation() != null) {
                                     Platform.runLater(() -> EcdarController.openQueryDialog(this, cause.toString()));
                                 }
                             }
@@ -239,6 +245,36 @@ public class Query implements Serializable {
         runQuery.accept(buildEcdarDocument);
     }
 
+    /**
+     * Runs this query and waits for its state to change from running, e.g. when running queries from the command line.
+     * The backend may report the result after its thread ends, so this waits for the state itself.
+     * If the query could not be started, or the backend gives no result, the state is set to unknown.
+     * @param buildEcdarDocument whether to build the Ecdar document before running the query
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void runAndWait(final boolean buildEcdarDocument) throws InterruptedException {
+        final CountDownLatch finished = new CountDownLatch(1);
+        final ChangeListener<QueryState> listener = (observable, oldValue, newValue) -> {
+            if (!newValue.equals(QueryState.RUNNING)) finished.countDown();
+        };
+        queryState.addListener(listener);
+
+        try {
+            backendThread = null;
+            run(buildEcdarDocument);
+
+            if (backendThread != null) {
+                backendThread.join();
+                if (finished.await(RESULT_WAIT_TIME, TimeUnit.MILLISECONDS)) return;
+                addError("The backend gave no result");
+            }
+
+            if (getQueryState().equals(QueryState.RUNNING)) setQueryState(QueryState.UNKNOWN);
+        } finally {
+            queryState.removeListener(listener);
+        }
+    }
+
     public void cancel() {
         if (getQueryState().equals(QueryState.RUNNING)) {
             forcedCancel = true;
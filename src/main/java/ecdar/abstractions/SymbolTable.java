@@ -0,0 +1,401 @@
+package ecdar.abstractions;
+
+import org.apache.commons.lang3.tuple.Triple;
+
+import java.util.*;
+
+/**
+ * The symbols declared in a declarations text, such as the declarations of a component or the global declarations.
+ * This holds the clocks, channels, variables, constants, and typedefs of bounded ints.
+ * The table is parsed once per text, and cached by the owner of the text until the text changes.
+ * Function bodies and struct members are skipped, and bounds that are not constant expressions are left unknown.
+ */
+public class SymbolTable {
+    private static final String CLOCK = "clock";
+    private static final String CHAN = "chan";
+    private static final String CONST = "const";
+    private static final String TYPEDEF = "typedef";
+    private static final String STRUCT = "struct";
+    private static final Set<String> QUALIFIERS = new HashSet<>(Arrays.asList(CONST, TYPEDEF, "urgent", "broadcast", "meta"));
+
+    static final SymbolTable EMPTY = parse("");
+
+    private final String text;
+    private final List<String> clocks = new ArrayList<>();
+    private final List<String> channels = new ArrayList<>();
+    private final List<String> variables = new ArrayList<>();
+    private final Map<String, String> variableTypes = new HashMap<>();
+    private final Map<String, Triple<String, Integer, Integer>> variableBounds = new HashMap<>();
+    private final Map<String, Integer> constants = new LinkedHashMap<>();
+    private final Map<String, Triple<String, Integer, Integer>> typedefs = new LinkedHashMap<>();
+
+
+    /* Constructors */
+
+    /**
+     * Constructs an empty table.
+     * @param text the text that the table is of
+     */
+    private SymbolTable(final String text) {
+        this.text = text;
+    }
+
+
+    /* Static helpers */
+
+    /**
+     * Parses a declarations text.
+     * Declarations that cannot be parsed are skipped.
+     * @param text the text
+     * @return the symbols declared in the text
+     */
+    public static SymbolTable parse(final String text) {
+        final SymbolTable table = new SymbolTable(text);
+
+        final List<String> statement = new ArrayList<>();
+        int depth = 0;
+        for (final String token : tokenize(text)) {
+            statement.add(token);
+
+            if (token.equals("{")) {
+                depth++;
+            } else if (token.equals("}")) {
+                depth = Math.max(0, depth - 1);
+
+                // The body of a function ends the function
+                if (depth == 0 && isFunction(statement)) statement.clear();
+            } else if (token.equals(";") && depth == 0) {
+                table.declare(statement.subList(0, statement.size() - 1));
+                statement.clear();
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * Splits a text into identifiers, numbers, and other characters.
+     * White space and comments are skipped.
+     * @param text the text
+     * @return the tokens
+     */
+    private static List<String> tokenize(final String text) {
+        final List<String> tokens = new ArrayList<>();
+
+        int i = 0;
+        while (i < text.length()) {
+            final char c = text.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            if (text.startsWith("//", i)) {
+                final int end = text.indexOf('\n', i);
+                i = end < 0 ? text.length() : end + 1;
+                continue;
+            }
+
+            if (text.startsWith("/*", i)) {
+                final int end = text.indexOf("*/", i + 2);
+                i = end < 0 ? text.length() : end + 2;
+                continue;
+            }
+
+            int end = i + 1;
+            if (isWordCharacter(c)) {
+                while (end < text.length() && isWordCharacter(text.charAt(end))) end++;
+            }
+
+            tokens.add(text.substring(i, end));
+            i = end;
+        }
+
+        return tokens;
+    }
+
+    private static boolean isWordCharacter(final char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean isIdentifier(final String token) {
+        return Character.isLetter(token.charAt(0)) || token.charAt(0) == '_';
+    }
+
+    /**
+     * Gets if a statement is a function, i.e. if its first brace follows a parameter list.
+     * @param statement the tokens of the statement
+     * @return true iff it is a function
+     */
+    private static boolean isFunction(final List<String> statement) {
+        final int brace = statement.indexOf("{");
+        return brace > 0 && statement.get(brace - 1).equals(")");
+    }
+
+    /**
+     * Finds the bracket matching the bracket at some index.
+     * @param tokens the tokens
+     * @param start the index of the opening bracket
+     * @return the index of the closing bracket, or the size of the tokens if none
+     */
+    private static int findClosing(final List<String> tokens, final int start) {
+        int depth = 0;
+        for (int i = start; i < tokens.size(); i++) {
+            final String token = tokens.get(i);
+            if (token.equals("(") || token.equals("[") || token.equals("{")) depth++;
+            else if (token.equals(")") || token.equals("]") || token.equals("}")) depth--;
+
+            if (depth == 0) return i;
+        }
+
+        return tokens.size();
+    }
+
+    /**
+     * Splits tokens at the commas that are not inside brackets.
+     * @param tokens the tokens
+     * @return the parts
+     */
+    private static List<List<String>> splitAtCommas(final List<String> tokens) {
+        final List<List<String>> parts = new ArrayList<>();
+
+        int start = 0;
+        int i = 0;
+        while (i < tokens.size()) {
+            final String token = tokens.get(i);
+            if (token.equals("(") || token.equals("[") || token.equals("{")) {
+                i = findClosing(tokens, i) + 1;
+                continue;
+            }
+
+            if (token.equals(",")) {
+                parts.add(tokens.subList(start, i));
+                start = i + 1;
+            }
+            i++;
+        }
+        parts.add(tokens.subList(start, Math.min(i, tokens.size())));
+
+        return parts;
+    }
+
+
+    /* Properties */
+
+    /**
+     * Gets the text that this is a table of.
+     * @return the text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Gets the clocks in order of declaration.
+     * @return the clocks
+     */
+    public List<String> getClocks() {
+        return Collections.unmodifiableList(clocks);
+    }
+
+    /**
+     * Gets the channels in order of declaration.
+     * @return the channels
+     */
+    public List<String> getChannels() {
+        return Collections.unmodifiableList(channels);
+    }
+
+    /**
+     * Gets the variables in order of declaration.
+     * These are the declared names that are not clocks, channels, constants, or functions.
+     * @return the variables
+     */
+    public List<String> getVariables() {
+        return Collections.unmodifiableList(variables);
+    }
+
+    /**
+     * Gets the name of the type of a variable.
+     * @param variable the variable
+     * @return the type, e.g. int, bool, or the name of a typedef, or null if the variable is not declared
+     */
+    public String getVariableType(final String variable) {
+        return variableTypes.get(variable);
+    }
+
+    /**
+     * Gets the bounds of a variable declared with a range, or with a typedef of a range in this table.
+     * @param variable the variable
+     * @return (left) name of the variable, (middle) lower bound, (right) upper bound, or null if unknown
+     */
+    public Triple<String, Integer, Integer> getVariableBounds(final String variable) {
+        return variableBounds.get(variable);
+    }
+
+    /**
+     * Gets the constants with known values in order of declaration.
+     * @return the value of each constant by name
+     */
+    public Map<String, Integer> getConstants() {
+        return Collections.unmodifiableMap(constants);
+    }
+
+    /**
+     * Gets the custom types defined with typedef of a range of ints.
+     * @return Triples containing (left) name of the type, (middle) lower bound, (right) upper bound
+     */
+    public List<Triple<String, Integer, Integer>> getTypedefs() {
+        return new ArrayList<>(typedefs.values());
+    }
+
+    /**
+     * Gets a custom type defined with typedef of a range of ints.
+     * @param name the name of the type
+     * @return (left) name of the type, (middle) lower bound, (right) upper bound, or null if no such type
+     */
+    public Triple<String, Integer, Integer> getTypedef(final String name) {
+        return typedefs.get(name);
+    }
+
+
+    /* Other */
+
+    /**
+     * Adds the symbols of a declaration statement.
+     * @param tokens the tokens of the statement without the ending semicolon
+     */
+    private void declare(final List<String> tokens) {
+        int i = 0;
+        boolean isConstant = false;
+        boolean isTypedef = false;
+        while (i < tokens.size() && QUALIFIERS.contains(tokens.get(i))) {
+            if (tokens.get(i).equals(CONST)) isConstant = true;
+            if (tokens.get(i).equals(TYPEDEF)) isTypedef = true;
+            i++;
+        }
+
+        if (i >= tokens.size() || !isIdentifier(tokens.get(i))) return;
+        final String type = tokens.get(i++);
+
+        // Skip the members of a struct
+        if (type.equals(STRUCT)) {
+            if (i < tokens.size() && tokens.get(i).equals("{")) i = findClosing(tokens, i) + 1;
+        }
+
+        // Range of ints, e.g. int[0, 5]
+        Integer lower = null;
+        Integer upper = null;
+        if (i < tokens.size() && tokens.get(i).equals("[")) {
+            final int end = findClosing(tokens, i);
+            final List<List<String>> bounds = splitAtCommas(tokens.subList(i + 1, Math.min(end, tokens.size())));
+            if (bounds.size() == 2) {
+                lower = evaluate(bounds.get(0));
+                upper = evaluate(bounds.get(1));
+            }
+            i = end + 1;
+        } else if (typedefs.containsKey(type)) {
+            lower = typedefs.get(type).getMiddle();
+            upper = typedefs.get(type).getRight();
+        }
+        final boolean isBounded = lower != null && upper != null;
+
+        if (i >= tokens.size()) return;
+        for (final List<String> declarator : splitAtCommas(tokens.subList(i, tokens.size()))) {
+            if (declarator.isEmpty() || !isIdentifier(declarator.get(0))) continue;
+            final String name = declarator.get(0);
+
+            // Function prototype
+            if (declarator.size() > 1 && declarator.get(1).equals("(")) return;
+
+            if (isTypedef) {
+                if (isBounded) typedefs.put(name, Triple.of(name, lower, upper));
+            } else if (type.equals(CLOCK)) {
+                clocks.add(name);
+            } else if (type.equals(CHAN)) {
+                channels.add(name);
+            } else if (isConstant) {
+                final int assignment = declarator.indexOf("=");
+                if (assignment == 1) {
+                    final Integer value = evaluate(declarator.subList(2, declarator.size()));
+                    if (value != null) constants.put(name, value);
+                }
+            } else {
+                variables.add(name);
+                variableTypes.put(name, type);
+                if (isBounded) variableBounds.put(name, Triple.of(name, lower, upper));
+            }
+        }
+    }
+
+    /**
+     * Evaluates a constant integer expression.
+     * The expression may use integers, the constants declared so far, parentheses, and + - * / %.
+     * @param tokens the tokens of the expression
+     * @return the value, or null if the expression is not a constant integer expression
+     */
+    private Integer evaluate(final List<String> tokens) {
+        final Evaluator evaluator = new Evaluator(tokens);
+        try {
+            final int value = evaluator.parseSum();
+            return evaluator.position == tokens.size() ? value : null;
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Recursive descent evaluator of constant integer expressions.
+     */
+    private class Evaluator {
+        private final List<String> tokens;
+        private int position = 0;
+
+        Evaluator(final List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        private boolean accept(final String token) {
+            if (position >= tokens.size() || !tokens.get(position).equals(token)) return false;
+            position++;
+            return true;
+        }
+
+        int parseSum() {
+            int value = parseProduct();
+            while (true) {
+                if (accept("+")) value += parseProduct();
+                else if (accept("-")) value -= parseProduct();
+                else return value;
+            }
+        }
+
+        private int parseProduct() {
+            int value = parseUnary();
+            while (true) {
+                if (accept("*")) value *= parseUnary();
+                else if (accept("/")) value /= parseUnary();
+                else if (accept("%")) value %= parseUnary();
+                else return value;
+            }
+        }
+
+        private int parseUnary() {
+            if (accept("-")) return -parseUnary();
+            if (accept("+")) return parseUnary();
+
+            if (accept("(")) {
+                final int value = parseSum();
+                if (!accept(")")) throw new IllegalArgumentException("Missing )");
+                return value;
+            }
+
+            final String token = tokens.get(position++);
+            if (constants.containsKey(token)) return constants.get(token);
+
+            // Throws NumberFormatException, an IllegalArgumentException, if not a number
+            return Integer.parseInt(token);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ecdar.backend;
 
 import com.uppaal.model.core2.Document;
 import ecdar.Ecdar;
+import ecdar.abstractions.Component;
 import ecdar.abstractions.Project;
 import ecdar.abstractions.Query;
 import org.apache.commons.io.FileUtils;
@@ -13,6 +14,7 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.List;
 
 public final class BackendHelper {
     final static String TEMP_DIRECTORY = "temporary";
@@ -43,6 +45,18 @@ public final class BackendHelper {
         return path;
     }
 
+    /**
+     * Stores a project as a backend XML file.
+     *
+     * @param project project to store
+     * @param file    the file to store in
+     * @throws BackendException if an error occurs during generation of backend XML
+     * @throws IOException      if an error occurs during storing of the file
+     */
+    public static void storeBackendModel(final Project project, final File file) throws BackendException, IOException {
+        storeEcdarFile(new EcdarDocument(project).toXmlDocument(), file.getAbsolutePath());
+    }
+
     private static void storeEcdarFile(final Document EcdarDocument, String path) throws IOException {
         EcdarDocument.save(path);
     }
@@ -88,6 +102,19 @@ public final class BackendHelper {
         ecdarDocument = new EcdarDocument();
     }
 
+    /**
+     * Build the Ecdar document of snapshots of components, to see if an exception is thrown.
+     * This is used by the periodic checks, such that they do not read the components while the user edits them.
+     *
+     * @param components the snapshots of the components
+     * @param globalDeclarations the global declarations
+     * @param systemDeclarations the system declarations
+     */
+    public static void buildEcdarDocument(final List<Component.Snapshot> components, final String globalDeclarations,
+                                          final String systemDeclarations) {
+        ecdarDocument = new EcdarDocument(components, globalDeclarations, systemDeclarations);
+    }
+
     /**
      * Stop all running queries.
      */
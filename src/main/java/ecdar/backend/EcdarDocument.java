@@ -56,6 +56,25 @@ public class EcdarDocument {
         generateXmlDocument(project);
     }
 
+    /**
+     * Constructs a document based on snapshots of components, such that it can be built in a background thread
+     * while the user keeps editing.
+     * Snapshots have no layout, so the document has no positions or colors,
+     * and it does not map XML locations and edges back to Ecdar locations and edges.
+     * @param components the snapshots of the components
+     * @param globalDeclarations the global declarations
+     * @param systemDeclarations the system declarations
+     */
+    EcdarDocument(final List<Component.Snapshot> components, final String globalDeclarations,
+                  final String systemDeclarations) {
+        for (final Component.Snapshot component : components) {
+            generateAndAddTemplate(component);
+        }
+
+        xmlDocument.setProperty(DECLARATION_PROPERTY_TAG, globalDeclarations);
+        xmlDocument.setProperty(SYSTEM_DCL_TAG, systemDeclarations);
+    }
+
     /**
      * Generate an xml document based on the a given project.
      * @param project Project to generator based on
@@ -117,6 +136,103 @@ public class EcdarDocument {
 
     }
 
+    /**
+     * Generates a template for a snapshot of a component and adds it to the xml document.
+     * Edges without a source or target are left out, as for components.
+     * @param component the snapshot of the component
+     */
+    private void generateAndAddTemplate(final Component.Snapshot component) {
+        final Template template = xmlDocument.createTemplate();
+
+        template.setProperty(NAME_PROPERTY_TAG, component.getName());
+        template.setProperty(DECLARATION_PROPERTY_TAG, component.getDeclarationsText());
+
+        xmlDocument.insert(template, null);
+
+        // Add the default universal location with a loop for each input and output, and the inconsistent location
+        final com.uppaal.model.core2.Location universal = addLocation(template, ENGINE_UNI_ID, null, false, false);
+        for (final String input : component.getInputStrings()) {
+            addEdge(template, universal, universal, EdgeStatus.INPUT, null, null, input, null);
+        }
+        for (final String output : component.getOutputStrings()) {
+            addEdge(template, universal, universal, EdgeStatus.OUTPUT, null, null, output, null);
+        }
+        final com.uppaal.model.core2.Location inconsistent = addLocation(template, ENGINE_INC_ID, null, true, false);
+
+        final Map<String, com.uppaal.model.core2.Location> xmlLocations = new HashMap<>();
+        for (final Location.Snapshot location : component.getLocations()) {
+            if (location.getType() == Location.Type.UNIVERSAL || location.getType() == Location.Type.INCONSISTENT) continue;
+
+            xmlLocations.put(location.getId(), addLocation(template, location.getId(), location.getInvariant(),
+                    location.getUrgency() == Location.Urgency.URGENT, location.getType() == Location.Type.INITIAL));
+        }
+
+        for (final Edge.Snapshot edge : component.getEdges()) {
+            final Location.Snapshot source = component.findLocation(edge.getSourceId());
+            final Location.Snapshot target = component.findLocation(edge.getTargetId());
+            if (source == null || source.getType() == Location.Type.UNIVERSAL || target == null) continue;
+
+            final com.uppaal.model.core2.Location xmlTarget;
+            if (target.getType() == Location.Type.UNIVERSAL) xmlTarget = universal;
+            else if (target.getType() == Location.Type.INCONSISTENT) xmlTarget = inconsistent;
+            else xmlTarget = xmlLocations.get(target.getId());
+
+            addEdge(template, xmlLocations.get(source.getId()), xmlTarget, edge.getStatus(),
+                    edge.getSelect(), edge.getGuard(), edge.getSync(), edge.getUpdate());
+        }
+    }
+
+    /**
+     * Generates an xml location without a position and adds it to a template.
+     * @param template the template
+     * @param id the id of the location
+     * @param invariant the invariant, or null if none
+     * @param isUrgent if the location is urgent
+     * @param isInitial if the location is initial
+     * @return the xml location added
+     */
+    private static com.uppaal.model.core2.Location addLocation(final Template template, final String id, final String invariant,
+                                                              final boolean isUrgent, final boolean isInitial) {
+        final com.uppaal.model.core2.Location xmlLocation = template.createLocation();
+        template.insert(xmlLocation, null);
+
+        xmlLocation.setProperty(NAME_PROPERTY_TAG, id);
+        if (invariant != null) xmlLocation.setProperty(INVARIANT_PROPERTY_TAG, invariant);
+        if (isUrgent) xmlLocation.setProperty("urgent", true);
+        if (isInitial) xmlLocation.setProperty("init", true);
+
+        return xmlLocation;
+    }
+
+    /**
+     * Generates an xml edge without nails and adds it to a template.
+     * @param template the template
+     * @param source the xml source location
+     * @param target the xml target location
+     * @param status the status of the edge
+     * @param select the select, or null or empty if none
+     * @param guard the guard, or null or empty if none
+     * @param sync the channel to synchronize over without the symbol, or null or empty if none
+     * @param update the update, or null or empty if none
+     */
+    private static void addEdge(final Template template, final com.uppaal.model.core2.Location source,
+                                final com.uppaal.model.core2.Location target, final EdgeStatus status, final String select,
+                                final String guard, final String sync, final String update) {
+        final com.uppaal.model.core2.Edge xmlEdge = template.createEdge();
+        template.insert(xmlEdge, null);
+
+        xmlEdge.setSource(source);
+        xmlEdge.setTarget(target);
+
+        // Annotate with controllable if output edge
+        if (status == EdgeStatus.OUTPUT) xmlEdge.setProperty("controllable", false);
+
+        if (!Strings.isNullOrEmpty(select)) xmlEdge.setProperty("select", select);
+        if (!Strings.isNullOrEmpty(guard)) xmlEdge.setProperty(GUARD_PROPERTY_TAG, guard);
+        if (!Strings.isNullOrEmpty(sync)) xmlEdge.setProperty(SYNC_PROPERTY_TAG, sync + (status == EdgeStatus.INPUT ? "?" : "!"));
+        if (!Strings.isNullOrEmpty(update)) xmlEdge.setProperty(UPDATE_PROPERTY_TAG, update);
+    }
+
     /**
      * Generate the inconsistent location
      * @param component the component we want to extract the id from
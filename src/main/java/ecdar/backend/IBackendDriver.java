@@ -29,6 +29,15 @@ public interface IBackendDriver {
      */
     String getLocationReachableQuery(final Location location, final Component component);
 
+    /**
+     * Generates a reachability query based on snapshots of the given location and component
+     *
+     * @param location  The snapshot of the location which should be checked for reachability
+     * @param component The snapshot of the component where the location belong to / are placed
+     * @return A reachability query string
+     */
+    String getLocationReachableQuery(final Location.Snapshot location, final Component.Snapshot component);
+
     /**
      * Generates a string for a deadlock query based on the component
      *
@@ -1,5 +1,6 @@
 package ecdar.backend;
 
+import ecdar.Ecdar;
 import ecdar.abstractions.Query;
 import ecdar.abstractions.QueryState;
 import ecdar.controllers.EcdarController;
@@ -32,7 +33,7 @@ public class QueryListener {
     */
 
     public void setFeedback(final String s) {
-        if (s.contains("inf") || s.contains("sup")) {
+        if (Ecdar.getPresentation() != null && (s.contains("inf") || s.contains("sup"))) {
             Platform.runLater(() -> {
                 EcdarController.openQueryDialog(query, s.split("\n")[1]);
             });
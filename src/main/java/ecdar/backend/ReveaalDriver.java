@@ -41,6 +41,17 @@ public class ReveaalDriver implements IBackendDriver {
         return "E<> " + component.getName() + "." + location.getId();
     }
 
+    /**
+     * Generates a reachability query based on snapshots of the given location and component.
+     *
+     * @param location The snapshot of the location which should be checked for reachability.
+     * @param component The snapshot of the component where the location belong to / are placed.
+     * @return A reachability query string.
+     */
+    public String getLocationReachableQuery(final Location.Snapshot location, final Component.Snapshot component) {
+        return "E<> " + component.getName() + "." + location.getId();
+    }
+
     /**
      * Generates a string for a deadlock query based on the component.
      *
@@ -0,0 +1,136 @@
+package ecdar.cli;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Options of the command-line runner, parsed from its arguments.
+ */
+public class CliOptions {
+    public static final String USAGE = String.join("\n",
+            "Usage: ecdar.cli.EcdarCli <project directory or container> [options]",
+            "  --queries            Run all queries of the project. This is the default, if no test plan is given.",
+            "  --plan <name>        Run the test plan with the name. Can be given multiple times.",
+            "  --parallelism <n>    Run n queries at a time. Test plans use n generation threads and n SUT instances.",
+            "  --json <file>        Write the results as JSON.",
+            "  --junit <file>       Write the results as JUnit XML.");
+
+    private File projectDirectory = null;
+    private boolean runQueries = false;
+    private final List<String> planNames = new ArrayList<>();
+    private int parallelism = 0;
+    private File jsonFile = null;
+    private File junitFile = null;
+
+
+    /* Static helpers */
+
+    /**
+     * Parses the arguments of the command-line runner.
+     * @param args the arguments
+     * @return the options
+     * @throws IllegalArgumentException if the arguments are not valid
+     */
+    public static CliOptions parse(final String[] args) {
+        final CliOptions options = new CliOptions();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--queries":
+                    options.runQueries = true;
+                    break;
+                case "--plan":
+                    options.planNames.add(getValue(args, ++i, "--plan"));
+                    break;
+                case "--parallelism":
+                    final String value = getValue(args, ++i, "--parallelism");
+                    try {
+                        options.parallelism = Integer.parseInt(value);
+                    } catch (final NumberFormatException e) {
+                        throw new IllegalArgumentException("Parallelism must be a number, but was " + value);
+                    }
+                    if (options.parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1");
+                    break;
+                case "--json":
+                    options.jsonFile = new File(getValue(args, ++i, "--json"));
+                    break;
+                case "--junit":
+                    options.junitFile = new File(getValue(args, ++i, "--junit"));
+                    break;
+                default:
+                    if (args[i].startsWith("--")) throw new IllegalArgumentException("Unknown option " + args[i]);
+                    if (options.projectDirectory != null) throw new IllegalArgumentException("Only one project directory can be given");
+                    options.projectDirectory = new File(args[i]);
+            }
+        }
+
+        if (options.projectDirectory == null) throw new IllegalArgumentException("No project directory given");
+
+        // Run queries by default
+        if (options.planNames.isEmpty()) options.runQueries = true;
+
+        return options;
+    }
+
+    /**
+     * Gets the value of an option.
+     * @param args the arguments
+     * @param index the index of the value
+     * @param option the option, for the error message
+     * @return the value
+     * @throws IllegalArgumentException if there is no value
+     */
+    private static String getValue(final String[] args, final int index, final String option) {
+        if (index >= args.length) throw new IllegalArgumentException("Option " + option + " needs a value");
+        return args[index];
+    }
+
+
+    /* Properties */
+
+    public File getProjectDirectory() {
+        return projectDirectory;
+    }
+
+    public boolean shouldRunQueries() {
+        return runQueries;
+    }
+
+    public List<String> getPlanNames() {
+        return Collections.unmodifiableList(planNames);
+    }
+
+    /**
+     * Gets if the parallelism was given.
+     * @return true iff given
+     */
+    public boolean hasParallelism() {
+        return parallelism > 0;
+    }
+
+    /**
+     * Gets the parallelism.
+     * @return the given parallelism, or the number of available processors if not given
+     */
+    public int getParallelism() {
+        return hasParallelism() ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Gets the file to write results as JSON to.
+     * @return the file, or null if not given
+     */
+    public File getJsonFile() {
+        return jsonFile;
+    }
+
+    /**
+     * Gets the file to write results as JUnit XML to.
+     * @return the file, or null if not given
+     */
+    public File getJunitFile() {
+        return junitFile;
+    }
+}
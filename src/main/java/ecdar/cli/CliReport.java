@@ -0,0 +1,350 @@
+package ecdar.cli;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import ecdar.abstractions.QueryState;
+import ecdar.mutation.models.TestResult;
+import ecdar.utility.ReportHelper;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Report of the outcomes of a command-line run, written as JSON or as JUnit XML.
+ * In JUnit XML, the queries are a test suite, and each test plan is a test suite.
+ * A query that is not satisfied is a failure, and a query without a result is an error.
+ * A test-case failed by the system under test is a failure, and an inconclusive test-case is skipped.
+ */
+public class CliReport {
+    private static final String PROJECT = "project";
+    private static final String QUERIES = "queries";
+    private static final String QUERY = "query";
+    private static final String COMMENT = "comment";
+    private static final String STATE = "state";
+    private static final String ERRORS = "errors";
+    private static final String TIME = "time";
+    private static final String TEST_PLANS = "testPlans";
+    private static final String NAME = "name";
+    private static final String KILLED = "killed";
+    private static final String FAILED = "failed";
+    private static final String INCONCLUSIVE = "inconclusive";
+    private static final String RESULTS = "results";
+    private static final String ID = "id";
+    private static final String SUT = "sut";
+    private static final String VERDICT = "verdict";
+    private static final String REASON = "reason";
+
+    private final String projectName;
+    private final List<QueryOutcome> queryOutcomes = new ArrayList<>();
+    private final List<PlanOutcome> planOutcomes = new ArrayList<>();
+
+    /**
+     * The outcome of running a query.
+     */
+    public static class QueryOutcome {
+        private final String query;
+        private final String comment;
+        private final QueryState state;
+        private final String errors;
+        private final double seconds;
+
+        /**
+         * Constructs.
+         * @param query the query, with its type
+         * @param comment the comment of the query
+         * @param state the state of the query after running it
+         * @param errors the errors of the query, or an empty string
+         * @param seconds the time it took to run the query
+         */
+        public QueryOutcome(final String query, final String comment, final QueryState state, final String errors, final double seconds) {
+            this.query = query;
+            this.comment = comment;
+            this.state = state;
+            this.errors = errors;
+            this.seconds = seconds;
+        }
+
+        public boolean isSatisfied() {
+            return state == QueryState.SUCCESSFUL;
+        }
+
+        public boolean isNotSatisfied() {
+            return state == QueryState.ERROR;
+        }
+    }
+
+    /**
+     * The outcome of running a test plan.
+     */
+    public static class PlanOutcome {
+        private final String name;
+        private final List<TestResult> results;
+        private final List<String> errors;
+        private final double seconds;
+
+        /**
+         * Constructs.
+         * @param name the name of the test plan
+         * @param results the results of the run
+         * @param errors the errors that happened while running
+         * @param seconds the time it took to run the test plan
+         */
+        public PlanOutcome(final String name, final List<TestResult> results, final List<String> errors, final double seconds) {
+            this.name = name;
+            this.results = results;
+            this.errors = errors;
+            this.seconds = seconds;
+        }
+
+        public long getKilledCount() {
+            return results.stream().filter(TestResult::isPass).count();
+        }
+
+        public long getFailedCount() {
+            return results.stream().filter(TestResult::isFail).count();
+        }
+
+        public long getInconclusiveCount() {
+            return results.size() - getKilledCount() - getFailedCount();
+        }
+    }
+
+    /**
+     * Constructs.
+     * @param projectName the name of the project, used for naming the test suites
+     */
+    public CliReport(final String projectName) {
+        this.projectName = projectName;
+    }
+
+
+    /* Properties */
+
+    public synchronized void addQueryOutcome(final QueryOutcome outcome) {
+        queryOutcomes.add(outcome);
+    }
+
+    public synchronized void addPlanOutcome(final PlanOutcome outcome) {
+        planOutcomes.add(outcome);
+    }
+
+    /**
+     * Gets if the run was successful.
+     * @return true iff all queries are satisfied, no test plan had errors, and the system under test failed no test-cases
+     */
+    public synchronized boolean isSuccessful() {
+        return queryOutcomes.stream().allMatch(QueryOutcome::isSatisfied) &&
+                planOutcomes.stream().allMatch(outcome -> outcome.errors.isEmpty() && outcome.getFailedCount() == 0);
+    }
+
+    /**
+     * Gets a summary with a line for the queries and a line for each test plan.
+     * @return the summary
+     */
+    public synchronized String getSummary() {
+        final List<String> lines = new ArrayList<>();
+
+        if (!queryOutcomes.isEmpty()) {
+            lines.add("Queries: " + queryOutcomes.stream().filter(QueryOutcome::isSatisfied).count() + " satisfied, " +
+                    queryOutcomes.stream().filter(QueryOutcome::isNotSatisfied).count() + " not satisfied, of " +
+                    queryOutcomes.size());
+        }
+
+        for (final PlanOutcome outcome : planOutcomes) {
+            lines.add("Test plan " + outcome.name + ": " + outcome.getKilledCount() + " killed, " + outcome.getFailedCount() +
+                    " failed, " + outcome.getInconclusiveCount() + " inconclusive" +
+                    (outcome.errors.isEmpty() ? "" : ", " + outcome.errors.size() + " error" + (outcome.errors.size() == 1 ? "" : "s")));
+        }
+
+        return String.join("\n", lines);
+    }
+
+
+    /* Other */
+
+    /**
+     * Converts this to JSON.
+     * @return the JSON object
+     */
+    public synchronized JsonObject toJson() {
+        final JsonObject result = new JsonObject();
+        result.addProperty(PROJECT, projectName);
+
+        final JsonArray queries = new JsonArray();
+        for (final QueryOutcome outcome : queryOutcomes) {
+            final JsonObject query = new JsonObject();
+            query.addProperty(QUERY, outcome.query);
+            query.addProperty(COMMENT, outcome.comment);
+            query.addProperty(STATE, outcome.state.name());
+            query.addProperty(ERRORS, outcome.errors);
+            query.addProperty(TIME, outcome.seconds);
+            queries.add(query);
+        }
+        result.add(QUERIES, queries);
+
+        final JsonArray plans = new JsonArray();
+        for (final PlanOutcome outcome : planOutcomes) {
+            final JsonObject plan = new JsonObject();
+            plan.addProperty(NAME, outcome.name);
+            plan.addProperty(TIME, outcome.seconds);
+            plan.addProperty(KILLED, outcome.getKilledCount());
+            plan.addProperty(FAILED, outcome.getFailedCount());
+            plan.addProperty(INCONCLUSIVE, outcome.getInconclusiveCount());
+
+            final JsonArray errors = new JsonArray();
+            outcome.errors.forEach(errors::add);
+            plan.add(ERRORS, errors);
+
+            final JsonArray results = new JsonArray();
+            for (final TestResult testResult : outcome.results) {
+                final JsonObject resultJson = new JsonObject();
+                resultJson.addProperty(ID, testResult.getTestCaseId());
+                if (testResult.getSutPath() != null) resultJson.addProperty(SUT, testResult.getSutPath());
+                resultJson.addProperty(VERDICT, testResult.getVerdict().name());
+                if (testResult.getReason() != null) resultJson.addProperty(REASON, testResult.getReason());
+                results.add(resultJson);
+            }
+            plan.add(RESULTS, results);
+
+            plans.add(plan);
+        }
+        result.add(TEST_PLANS, plans);
+
+        return result;
+    }
+
+    /**
+     * Writes this as JSON.
+     * @param writer the writer to write to
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeJson(final Writer writer) throws IOException {
+        new GsonBuilder().setPrettyPrinting().create().toJson(toJson(), writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes this as JUnit XML.
+     * @param writer the writer to write to
+     * @throws IOException if an I/O error occurs
+     */
+    public synchronized void writeJunit(final Writer writer) throws IOException {
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        writer.write("<testsuites name=\"" + escapeXml(projectName) + "\">\n");
+
+        if (!queryOutcomes.isEmpty()) {
+            final long failures = queryOutcomes.stream().filter(QueryOutcome::isNotSatisfied).count();
+            final long errors = queryOutcomes.size() - failures - queryOutcomes.stream().filter(QueryOutcome::isSatisfied).count();
+            writeSuiteStart(writer, QUERIES, queryOutcomes.size(), failures, errors, 0,
+                    queryOutcomes.stream().mapToDouble(outcome -> outcome.seconds).sum());
+
+            for (final QueryOutcome outcome : queryOutcomes) {
+                writeCaseStart(writer, QUERIES, outcome.query, outcome.seconds);
+
+                if (outcome.isNotSatisfied()) {
+                    writer.write("      <failure message=\"Query is not satisfied\"/>\n");
+                } else if (!outcome.isSatisfied()) {
+                    writer.write("      <error message=\"" + escapeXml("Query ended in state " + outcome.state.name()) + "\">" +
+                            escapeXml(outcome.errors) + "</error>\n");
+                }
+
+                writer.write("    </testcase>\n");
+            }
+
+            writer.write("  </testsuite>\n");
+        }
+
+        for (final PlanOutcome outcome : planOutcomes) {
+            writeSuiteStart(writer, outcome.name, outcome.results.size() + outcome.errors.size(), outcome.getFailedCount(),
+                    outcome.errors.size(), outcome.getInconclusiveCount(), outcome.seconds);
+
+            for (final String error : outcome.errors) {
+                writeCaseStart(writer, outcome.name, "run", 0);
+                writer.write("      <error message=\"" + escapeXml(error) + "\"/>\n");
+                writer.write("    </testcase>\n");
+            }
+
+            for (final TestResult result : outcome.results) {
+                final String name = result.getTestCaseId() + (result.getSutPath() == null ? "" : " on " + result.getSutPath());
+                writeCaseStart(writer, outcome.name, name, 0);
+
+                final String message = escapeXml(result.getVerdict().name() + (result.getReason() == null ? "" : ": " + result.getReason()));
+                if (result.isFail()) writer.write("      <failure message=\"" + message + "\"/>\n");
+                else if (!result.isPass()) writer.write("      <skipped message=\"" + message + "\"/>\n");
+
+                writer.write("    </testcase>\n");
+            }
+
+            writer.write("  </testsuite>\n");
+        }
+
+        writer.write("</testsuites>\n");
+        writer.flush();
+    }
+
+    /**
+     * Writes this as JSON or JUnit XML to a file.
+     * @param file the file
+     * @param junit true to write JUnit XML, false to write JSON
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(final File file, final boolean junit) throws IOException {
+        try (final Writer writer = ReportHelper.openReport(file)) {
+            if (junit) writeJunit(writer);
+            else writeJson(writer);
+        }
+    }
+
+    /**
+     * Writes the start tag of a test suite.
+     * @param writer the writer to write to
+     * @param name the name of the suite
+     * @param tests the number of test-cases
+     * @param failures the number of failures
+     * @param errors the number of errors
+     * @param skipped the number of skipped test-cases
+     * @param seconds the time of the suite
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeSuiteStart(final Writer writer, final String name, final long tests, final long failures, final long errors,
+                                 final long skipped, final double seconds) throws IOException {
+        writer.write("  <testsuite name=\"" + escapeXml(projectName + "." + name) + "\" tests=\"" + tests +
+                "\" failures=\"" + failures + "\" errors=\"" + errors + "\" skipped=\"" + skipped +
+                "\" time=\"" + formatSeconds(seconds) + "\">\n");
+    }
+
+    /**
+     * Writes the start tag of a test-case.
+     * @param writer the writer to write to
+     * @param suiteName the name of the suite of the test-case
+     * @param name the name of the test-case
+     * @param seconds the time of the test-case
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeCaseStart(final Writer writer, final String suiteName, final String name, final double seconds) throws IOException {
+        writer.write("    <testcase classname=\"" + escapeXml(projectName + "." + suiteName) + "\" name=\"" + escapeXml(name) +
+                "\" time=\"" + formatSeconds(seconds) + "\">\n");
+    }
+
+    /**
+     * Formats seconds for JUnit XML, independently of the locale.
+     * @param seconds the seconds
+     * @return the formatted seconds
+     */
+    private static String formatSeconds(final double seconds) {
+        return String.format(Locale.ROOT, "%.3f", seconds);
+    }
+
+    /**
+     * Escapes a string for use in XML text and attribute values.
+     * @param value the string
+     * @return the escaped string
+     */
+    static String escapeXml(final String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                .replace("\"", "&quot;").replace("'", "&apos;");
+    }
+}
@@ -0,0 +1,120 @@
+package ecdar.cli;
+
+import ecdar.Ecdar;
+import ecdar.abstractions.Project;
+import ecdar.mutation.MutationTestRunner;
+import ecdar.mutation.models.MutationTestPlan;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Command-line runner of Ecdar, e.g. for continuous integration.
+ * It loads a project, runs its queries and the given test plans without showing a window,
+ * and writes the results as JSON or JUnit XML.
+ * The exit code is 0 if all queries are satisfied and the systems under test failed no test-cases,
+ * 1 if not, and 2 if the arguments are not valid or the project could not be loaded.
+ *
+ * The JavaFX platform is not started, so no display is needed.
+ * The models use JavaFX properties, which work without the platform,
+ * and the test handlers report in an event thread instead of the JavaFX thread.
+ */
+public class EcdarCli {
+    private static final int EXIT_SUCCESS = 0;
+    private static final int EXIT_FAILURE = 1;
+    private static final int EXIT_INVALID = 2;
+
+    /**
+     * Runs the command-line runner.
+     * @param args the arguments, see {@link CliOptions#USAGE}
+     */
+    public static void main(final String[] args) {
+        final CliOptions options;
+        try {
+            options = CliOptions.parse(args);
+        } catch (final IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(CliOptions.USAGE);
+            System.exit(EXIT_INVALID);
+            return;
+        }
+
+        final Project project;
+        try {
+            project = Ecdar.loadProjectWithoutUI(options.getProjectDirectory());
+        } catch (final IOException | RuntimeException e) {
+            e.printStackTrace();
+            System.err.println("Could not load project " + options.getProjectDirectory() + ": " + e.getMessage());
+            System.exit(EXIT_INVALID);
+            return;
+        }
+
+        if (project.getComponents().isEmpty()) {
+            System.err.println("Project " + options.getProjectDirectory() + " has no components");
+            System.exit(EXIT_INVALID);
+            return;
+        }
+
+        final CliReport report = new CliReport(options.getProjectDirectory().getAbsoluteFile().getName());
+
+        try {
+            if (options.shouldRunQueries()) {
+                new QueryRunner(project.getQueries(), options.getParallelism()).run().forEach(report::addQueryOutcome);
+            }
+
+            for (final String name : options.getPlanNames()) runPlan(project, name, options, report);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted");
+            System.exit(EXIT_FAILURE);
+            return;
+        }
+
+        try {
+            if (options.getJsonFile() != null) report.write(options.getJsonFile(), false);
+            if (options.getJunitFile() != null) report.write(options.getJunitFile(), true);
+        } catch (final IOException e) {
+            e.printStackTrace();
+            System.err.println("Could not write results: " + e.getMessage());
+            System.exit(EXIT_FAILURE);
+            return;
+        }
+
+        System.out.println(report.getSummary());
+        System.exit(report.isSuccessful() ? EXIT_SUCCESS : EXIT_FAILURE);
+    }
+
+    /**
+     * Runs a test plan and adds its outcome to the report.
+     * @param project the project with the test plan
+     * @param name the name of the test plan
+     * @param options the options
+     * @param report the report
+     * @throws InterruptedException if interrupted while waiting for the test plan
+     */
+    private static void runPlan(final Project project, final String name, final CliOptions options, final CliReport report)
+            throws InterruptedException {
+        final MutationTestPlan plan = project.getTestPlans().stream()
+                .filter(testPlan -> testPlan.getName().equals(name))
+                .findFirst().orElse(null);
+
+        if (plan == null) {
+            report.addPlanOutcome(new CliReport.PlanOutcome(name, Collections.emptyList(),
+                    Collections.singletonList("Project has no test plan with name " + name), 0));
+            return;
+        }
+
+        if (options.hasParallelism()) {
+            plan.setConcurrentGenerationThreads(options.getParallelism());
+            plan.setConcurrentSutInstances(options.getParallelism());
+        }
+
+        final MutationTestRunner runner = new MutationTestRunner(plan);
+
+        final long start = System.nanoTime();
+        runner.run();
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        report.addPlanOutcome(new CliReport.PlanOutcome(name, runner.getResults(), runner.getErrors(), seconds));
+    }
+}
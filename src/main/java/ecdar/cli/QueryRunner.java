@@ -0,0 +1,102 @@
+package ecdar.cli;
+
+import ecdar.abstractions.Query;
+import ecdar.abstractions.QueryState;
+import ecdar.backend.BackendException;
+import ecdar.backend.BackendHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runner of queries without the user interface.
+ * The Ecdar document is built once, and then the queries are run by a fixed number of threads.
+ * Each query runs in its own backend process, so queries can run in parallel.
+ */
+class QueryRunner {
+    private final List<Query> queries;
+    private final int parallelism;
+
+    /**
+     * Constructs.
+     * @param queries the queries to run
+     * @param parallelism the number of queries to run at a time
+     */
+    QueryRunner(final List<Query> queries, final int parallelism) {
+        this.queries = new ArrayList<>(queries);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs the queries and waits for them to finish.
+     * @return the outcomes, in the order of the queries
+     * @throws InterruptedException if interrupted while waiting
+     */
+    List<CliReport.QueryOutcome> run() throws InterruptedException {
+        final List<CliReport.QueryOutcome> outcomes = new ArrayList<>();
+
+        try {
+            BackendHelper.buildEcdarDocument();
+        } catch (final BackendException e) {
+            e.printStackTrace();
+            queries.forEach(query -> outcomes.add(makeOutcome(query, QueryState.UNKNOWN,
+                    "Could not build XML document. I got the error: " + e.getMessage(), 0)));
+            return outcomes;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        final List<Future<CliReport.QueryOutcome>> futures = new ArrayList<>();
+
+        try {
+            for (final Query query : queries) futures.add(executor.submit(() -> runQuery(query)));
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    outcomes.add(futures.get(i).get());
+                } catch (final ExecutionException e) {
+                    e.printStackTrace();
+                    outcomes.add(makeOutcome(queries.get(i), QueryState.UNKNOWN, String.valueOf(e.getCause()), 0));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return outcomes;
+    }
+
+    /**
+     * Runs a query and waits for it to finish.
+     * @param query the query
+     * @return the outcome
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static CliReport.QueryOutcome runQuery(final Query query) throws InterruptedException {
+        if (query.getType() == null) return makeOutcome(query, QueryState.UNKNOWN, "Query has no type", 0);
+
+        final long start = System.nanoTime();
+        query.runAndWait(false);
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.err.println(query.getType().getQueryName() + ": " + query.getQuery() + " - " + query.getQueryState().name());
+
+        return makeOutcome(query, query.getQueryState(), query.getCurrentErrors(), seconds);
+    }
+
+    /**
+     * Makes the outcome of a query.
+     * @param query the query
+     * @param state the state of the query after running it
+     * @param errors the errors, or an empty string
+     * @param seconds the time it took to run the query
+     * @return the outcome
+     */
+    private static CliReport.QueryOutcome makeOutcome(final Query query, final QueryState state, final String errors, final double seconds) {
+        final String name = (query.getType() == null ? "" : query.getType().getQueryName() + ": ") + query.getQuery();
+        return new CliReport.QueryOutcome(name, query.getComment(), state, errors == null ? "" : errors.trim(), seconds);
+    }
+}
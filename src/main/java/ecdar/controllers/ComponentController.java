@@ -33,8 +33,6 @@ import java.net.URL;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static ecdar.presentations.Grid.GRID_SIZE;
 
@@ -80,25 +78,6 @@ public class ComponentController extends ModelController implements Initializabl
             declarationTextArea.replaceText(0, declarationTextArea.getLength(), newComponent.getDeclarationsText());
             declarationTextArea.textProperty().addListener((observable, oldDeclaration, newDeclaration) -> newComponent.setDeclarationsText(newDeclaration));
 
-            // Find the clocks in the decls
-            newComponent.declarationsTextProperty().addListener((observable, oldValue, newValue) -> {
-                final List<String> clocks = new ArrayList<String>();
-
-                final String strippedDecls = newValue.replaceAll("[\\r\\n]+", "");
-
-                Pattern pattern = Pattern.compile("clock (?<CLOCKS>[^;]*);");
-                Matcher matcher = pattern.matcher(strippedDecls);
-
-                while (matcher.find()) {
-                    final String clockStrings[] = matcher.group("CLOCKS").split(",");
-                    for (String clockString : clockStrings) {
-                        clocks.add(clockString.replaceAll("\\s", ""));
-                    }
-                }
-
-                //TODO this logs the clocks System.out.println(clocks);
-            });
-
             initializeEdgeHandling(newComponent);
             initializeLocationHandling(newComponent);
             initializeDeclarations();
@@ -4,7 +4,6 @@ import ecdar.Debug;
 import ecdar.Ecdar;
 import ecdar.abstractions.*;
 import ecdar.backend.BackendDriverManager;
-import ecdar.backend.BackendException;
 import ecdar.backend.BackendHelper;
 import ecdar.code_analysis.CodeAnalysis;
 import ecdar.mutation.models.MutationTestPlan;
@@ -43,14 +42,18 @@ import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.util.Duration;
 import javafx.util.Pair;
+import org.apache.commons.lang3.tuple.Triple;
 import org.kordamp.ikonli.javafx.FontIcon;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
@@ -107,6 +110,7 @@ public class EcdarController implements Initializable {
     public JFXDialog testHelpDialog;
     public StackPane testHelpContainer;
     public StackPane aboutContainer;
+    public StackPane openingProjectContainer;
     public JFXDialog aboutDialog;
     public JFXButton aboutAcceptButton;
     public StackPane canvasPane;
@@ -145,6 +149,8 @@ public class EcdarController implements Initializable {
     public MenuItem menuBarFileOpenProject;
     public MenuItem menuBarFileSave;
     public MenuItem menuBarFileSaveAs;
+    public MenuItem menuBarFileExportContainer;
+    public MenuItem menuBarFileImportContainer;
     public MenuItem menuBarFileNewMutationTestObject;
     public MenuItem menuBarFileExportAsPng;
     public MenuItem menuBarFileExportAsPngNoBorder;
@@ -358,28 +364,40 @@ public class EcdarController implements Initializable {
                     Debug.removeThread(thread);
                 }
 
+                // Take snapshots of the components and the declarations in the JavaFX thread,
+                // such that the model and the queries are built from them while the user keeps editing
+                final Triple<List<Component.Snapshot>, String, String> model;
                 try {
-                    // Make sure that the model is generated
-                    BackendHelper.buildEcdarDocument();
-                } catch (final BackendException e) {
-                    // Something went wrong with creating the document
-                    Ecdar.showToast("Could not build XML model. I got the error: " + e.getMessage());
+                    model = CompletableFuture.supplyAsync(() -> Triple.of(Ecdar.getProject().getComponentSnapshots(),
+                            Ecdar.getProject().getGlobalDeclarations().getDeclarationsText(),
+                            Ecdar.getProject().getSystemDeclarations().getDeclarationsText()), Platform::runLater).get();
+                } catch (final InterruptedException e) {
                     e.printStackTrace();
-                    return;
+                    continue;
+                } catch (final ExecutionException e) {
+                    // A component could not be loaded, so the model is not complete
+                    Ecdar.showToast("Could not check reachability: " + e.getCause().getMessage());
+                    e.printStackTrace();
+                    continue;
                 }
 
+                // Make sure that the model is generated
+                BackendHelper.buildEcdarDocument(model.getLeft(), model.getMiddle(), model.getRight());
+
                 Ecdar.getProject().getQueries().forEach(query -> {
                     if (query.isPeriodic()) query.run();
                 });
 
+                final List<Component.Snapshot> components = model.getLeft();
+
                 // List of threads to start
                 List<Thread> threads = new ArrayList<>();
 
                 // Submit all background reachability queries
-                Ecdar.getProject().getComponents().forEach(component -> {
+                components.forEach(component -> {
                     // Check if we should consider this component
                     if (!component.isIncludeInPeriodicCheck()) {
-                        component.getLocations().forEach(location -> location.setReachability(Location.Reachability.EXCLUDED));
+                        component.getLocations().forEach(location -> setReachability(component, location, Location.Reachability.EXCLUDED));
                     } else {
                         component.getLocations().forEach(location -> {
                             final String locationReachableQuery = BackendDriverManager.getInstance().getLocationReachableQuery(location, component);
@@ -387,14 +405,14 @@ public class EcdarController implements Initializable {
                                     locationReachableQuery,
                                     (result -> {
                                         if (result) {
-                                            location.setReachability(Location.Reachability.REACHABLE);
+                                            setReachability(component, location, Location.Reachability.REACHABLE);
                                         } else {
-                                            location.setReachability(Location.Reachability.UNREACHABLE);
+                                            setReachability(component, location, Location.Reachability.UNREACHABLE);
                                         }
                                         Debug.removeThread(Thread.currentThread());
                                     }),
                                     (e) -> {
-                                        location.setReachability(Location.Reachability.UNKNOWN);
+                                        setReachability(component, location, Location.Reachability.UNKNOWN);
                                         Debug.removeThread(Thread.currentThread());
                                     },
                                     2000
@@ -414,6 +432,23 @@ public class EcdarController implements Initializable {
         }).start();
     }
 
+    /**
+     * Sets the reachability of the location that a snapshot was taken of, in the JavaFX thread.
+     * If the component or the location was removed or renamed since the snapshot was taken, nothing happens.
+     * @param component the snapshot of the component
+     * @param location the snapshot of the location
+     * @param reachability the reachability to set
+     */
+    private static void setReachability(final Component.Snapshot component, final Location.Snapshot location, final Location.Reachability reachability) {
+        Platform.runLater(() -> {
+            final Component current = Ecdar.getProject().findComponent(component.getName());
+            if (current == null) return;
+
+            final Location currentLocation = current.findLocation(location.getId());
+            if (currentLocation != null) currentLocation.setReachability(reachability);
+        });
+    }
+
     private void initializeStatusBar() {
         statusBar.setBackground(new Background(new BackgroundFill(
                 Color.GREY_BLUE.getColor(Color.Intensity.I800),
@@ -457,6 +492,8 @@ public class EcdarController implements Initializable {
         menuBarFileSaveAs.setAccelerator(new KeyCodeCombination(KeyCode.S, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN));
         menuBarFileSaveAs.setOnAction(event -> saveAs());
 
+        initializeContainerMenuItems();
+
         initializeNewMutationTestObjectMenuItem();
 
         initializeFileExportAsPng();
@@ -600,14 +637,94 @@ public class EcdarController implements Initializable {
             // Prompt the user to find a file (will halt the UI thread)
             final File file = projectPicker.showDialog(root.getScene().getWindow());
             if(file != null) {
+                openProject(file);
+            }
+        });
+    }
+
+    /**
+     * Opens a project folder, showing progress until the project is open.
+     * @param directory the project folder
+     */
+    private void openProject(final File directory) {
+        try {
+            Ecdar.projectDirectory.set(directory.getAbsolutePath());
+            final CompletableFuture<Void> opening = Ecdar.initializeProjectFolder();
+
+            // Show progress until the project is open
+            openingProjectContainer.setVisible(true);
+            opening.whenCompleteAsync((result, throwable) -> {
+                openingProjectContainer.setVisible(false);
+                if (throwable != null) {
+                    throwable.printStackTrace();
+                    Ecdar.showToast("Could not open project");
+                }
+                UndoRedoStack.clear();
+            }, Platform::runLater);
+        } catch (final IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Initializes the menu items for exporting the project as a single container file,
+     * and for importing such a file as a project folder.
+     */
+    private void initializeContainerMenuItems() {
+        final FileChooser.ExtensionFilter filter = new FileChooser.ExtensionFilter("Ecdar project container",
+                "*" + ProjectContainer.FILENAME_EXTENSION);
+
+        menuBarFileExportContainer.setOnAction(event -> {
+            final FileChooser filePicker = new FileChooser();
+            filePicker.setTitle("Export as container");
+            filePicker.setInitialFileName("New Ecdar Project" + ProjectContainer.FILENAME_EXTENSION);
+            filePicker.getExtensionFilters().add(filter);
+
+            final File file = filePicker.showSaveDialog(root.getScene().getWindow());
+            if (file == null) return;
+
+            Ecdar.getProject().exportContainerInBackground(file).whenComplete((result, throwable) -> Platform.runLater(() -> {
+                if (throwable == null) {
+                    Ecdar.showToast("Project exported.");
+                } else {
+                    final Throwable cause = throwable.getCause() != null ? throwable.getCause() : throwable;
+                    Ecdar.showToast("Could not export project: " + cause.getMessage());
+                    cause.printStackTrace();
+                }
+            }));
+        });
+
+        menuBarFileImportContainer.setOnAction(event -> {
+            final FileChooser filePicker = new FileChooser();
+            filePicker.setTitle("Import container");
+            filePicker.getExtensionFilters().add(filter);
+
+            final File file = filePicker.showOpenDialog(root.getScene().getWindow());
+            if (file == null) return;
+
+            final DirectoryChooser folderPicker = new DirectoryChooser();
+            folderPicker.setTitle("Choose folder for the imported project");
+            folderPicker.setInitialDirectory(file.getAbsoluteFile().getParentFile());
+
+            final File folder = folderPicker.showDialog(root.getScene().getWindow());
+            if (folder == null) return;
+
+            // Convert in the background, then open the folder as any other project
+            CompletableFuture.runAsync(() -> {
                 try {
-                    Ecdar.projectDirectory.set(file.getAbsolutePath());
-                    Ecdar.initializeProjectFolder();
-                    UndoRedoStack.clear();
+                    ProjectContainer.open(file).toFolder(folder);
                 } catch (final IOException e) {
-                    e.printStackTrace();
+                    throw new UncheckedIOException(e);
                 }
-            }
+            }).whenCompleteAsync((result, throwable) -> {
+                if (throwable == null) {
+                    openProject(folder);
+                } else {
+                    final Throwable cause = throwable.getCause() != null ? throwable.getCause() : throwable;
+                    Ecdar.showToast("Could not import container: " + cause.getMessage());
+                    cause.printStackTrace();
+                }
+            }, Platform::runLater);
         });
     }
 
@@ -644,15 +761,26 @@ public class EcdarController implements Initializable {
 
     /**
      * Save project at a given directory.
+     * A snapshot of the project is taken right away, and the files are written in the background.
      * @param directory directory to save at
      */
     private static void save(final File directory) {
+        // Reload components and systems that other tools change in the folder from now on
         try {
-            Ecdar.getProject().serialize(directory);
+            Ecdar.getProject().watch(directory);
         } catch (final IOException e) {
-            Ecdar.showToast("Could not save project: " + e.getMessage());
             e.printStackTrace();
         }
+
+        Ecdar.getProject().serializeInBackground(directory).whenComplete((result, throwable) -> Platform.runLater(() -> {
+            if (throwable == null) {
+                Ecdar.showToast("Project saved.");
+            } else {
+                final Throwable cause = throwable.getCause() != null ? throwable.getCause() : throwable;
+                Ecdar.showToast("Could not save project: " + cause.getMessage());
+                cause.printStackTrace();
+            }
+        }));
     }
 
     /**
@@ -710,6 +838,8 @@ public class EcdarController implements Initializable {
 
         CodeAnalysis.clearErrorsAndWarnings();
 
+        // Edits since the project was last saved are thrown away
+        Ecdar.getProject().discardJournal();
         Ecdar.projectDirectory.set(null);
 
         Ecdar.getProject().reset();
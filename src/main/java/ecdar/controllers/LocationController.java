@@ -216,15 +216,16 @@ public class LocationController implements Initializable, SelectHelper.ItemSelec
 
             final List<Edge> relatedEdges = component.getRelatedEdges(location);
 
-            UndoRedoStack.pushAndPerform(() -> { // Perform
+            // Batch the changes, since a location may have many edges
+            UndoRedoStack.pushAndPerform(() -> component.batch(() -> { // Perform
                 // Remove the location
                 component.getLocations().remove(location);
                 relatedEdges.forEach(component::removeEdge);
-            }, () -> { // Undo
+            }), () -> component.batch(() -> { // Undo
                 // Re-all the location
                 component.getLocations().add(location);
                 relatedEdges.forEach(component::addEdge);
-            }, String.format("Deleted %s", location), "delete");
+            }), String.format("Deleted %s", location), "delete");
         }
     }
 
@@ -0,0 +1,511 @@
+package ecdar.mutation;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import ecdar.Ecdar;
+import ecdar.abstractions.Component;
+import ecdar.abstractions.Project;
+import ecdar.mutation.models.CompactTrace;
+import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.models.MutationTestPlan;
+import ecdar.mutation.models.TestResult;
+import org.apache.commons.io.FileUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only log of the progress of a run of a test plan.
+ * The log is stored next to the test plan in the tests folder of the project,
+ * such that a run can be resumed after the application is closed or crashes.
+ *
+ * Each line is a JSON record with a type:
+ * run: the seed used for sampling mutants, and what the test model was when the run started. Always the first record.
+ * mutants: the ids of the generated (and sampled) mutants.
+ * strategy: the strategy lines of a generated test-case, or that the mutant refines the test model.
+ * result: the result of a test-case, and the system under test it was run on.
+ * If a test-case has multiple results for the same system under test, e.g. after retesting, the last one counts.
+ *
+ * Records are written by a single background thread, so logging does not slow down the threads doing the work.
+ * Each record is flushed when written, so at most the record being written is lost in a crash.
+ * An incomplete last line is removed when resuming, such that new records start on a line of their own.
+ */
+public class CheckpointLog {
+    public static final String FILENAME_EXTENSION = ".checkpoint";
+
+    private static final String TYPE = "type";
+    private static final String RUN = "run";
+    private static final String MUTANTS = "mutants";
+    private static final String STRATEGY = "strategy";
+    private static final String RESULT = "result";
+    private static final String SEED = "seed";
+    private static final String TEST_MODEL_NAME = "testModelName";
+    private static final String TEST_MODEL_HASH = "testModelHash";
+    private static final String DEMONIC = "demonic";
+    private static final String IDS = "ids";
+    private static final String ID = "id";
+    private static final String LINES = "lines";
+    private static final String REFINES = "refines";
+    private static final String SUT = "sut";
+    private static final String VERDICT = "verdict";
+    private static final String REASON = "reason";
+    private static final String TRACE = "trace";
+
+    private static final long CLOSE_TIMEOUT = 10000; // in ms
+
+    private final File file;
+    private final BufferedWriter writer;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Progress recorded before this log was opened for appending
+    private long seed;
+    private String testModelName;
+    private int testModelHash;
+    private boolean demonic;
+    private List<String> mutantIds = null;
+    private final Map<String, List<String>> strategies = new HashMap<>();
+    private final Set<String> refinements = new HashSet<>();
+    private final Map<String, JsonObject> results = new HashMap<>();
+
+
+    /* Constructors */
+
+    /**
+     * Constructs a log and opens its file for appending.
+     * @param file the file
+     * @throws IOException if an I/O error occurs
+     */
+    private CheckpointLog(final File file) throws IOException {
+        FileUtils.forceMkdir(file.getParentFile());
+
+        this.file = file;
+        this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Starts a new log for a run of a test plan.
+     * Any existing log of the test plan is overwritten.
+     * @param plan the test plan
+     * @param testModel the test model, as it is in the project
+     * @param seed the seed used for sampling mutants
+     * @return the log
+     * @throws IOException if an I/O error occurs
+     */
+    public static CheckpointLog start(final MutationTestPlan plan, final Component testModel, final long seed) throws IOException {
+        return start(getFile(plan), testModel, plan.isDemonic(), seed);
+    }
+
+    /**
+     * Starts a new log for a run.
+     * Any existing log in the file is overwritten.
+     * @param file the file to log in
+     * @param testModel the test model, as it is in the project
+     * @param demonic if demonic completion is applied
+     * @param seed the seed used for sampling mutants
+     * @return the log
+     * @throws IOException if an I/O error occurs
+     */
+    static CheckpointLog start(final File file, final Component testModel, final boolean demonic, final long seed) throws IOException {
+        if (file.exists()) FileUtils.forceDelete(file);
+
+        final CheckpointLog log = new CheckpointLog(file);
+        log.seed = seed;
+        log.testModelName = testModel.getName();
+        log.testModelHash = getHash(testModel);
+        log.demonic = demonic;
+
+        final JsonObject record = record(RUN);
+        record.addProperty(SEED, seed);
+        record.addProperty(TEST_MODEL_NAME, log.testModelName);
+        record.addProperty(TEST_MODEL_HASH, log.testModelHash);
+        record.addProperty(DEMONIC, log.demonic);
+        log.append(record);
+
+        return log;
+    }
+
+    /**
+     * Reads the log of a test plan and opens it for appending, such that the run can be resumed.
+     * @param plan the test plan
+     * @return the log
+     * @throws IOException if an I/O error occurs
+     * @throws MutationTestingException if the log has no run record, or a record is not understood
+     */
+    public static CheckpointLog resume(final MutationTestPlan plan) throws IOException, MutationTestingException {
+        return resume(getFile(plan));
+    }
+
+    /**
+     * Reads a log and opens it for appending.
+     * @param file the file containing the log
+     * @return the log
+     * @throws IOException if an I/O error occurs
+     * @throws MutationTestingException if the log has no run record, or a record is not understood
+     */
+    static CheckpointLog resume(final File file) throws IOException, MutationTestingException {
+        final List<JsonObject> records = truncateToCompleteRecords(file);
+
+        final CheckpointLog log = new CheckpointLog(file);
+
+        try {
+            for (final JsonObject record : records) log.read(record);
+        } catch (final MutationTestingException e) {
+            log.close();
+            throw e;
+        }
+
+        if (log.testModelName == null) {
+            log.close();
+            throw new MutationTestingException("Checkpoint " + file.getName() + " does not describe a run");
+        }
+
+        return log;
+    }
+
+
+    /**
+     * Reads the complete records of a log, and removes anything after them from the file.
+     * The last record might be incomplete, if we crashed while writing it.
+     * If the last record is complete but misses its line break, the line break is added.
+     * @param file the file containing the log
+     * @return the complete records
+     * @throws IOException if an I/O error occurs
+     */
+    private static List<JsonObject> truncateToCompleteRecords(final File file) throws IOException {
+        final byte[] content = Files.readAllBytes(file.toPath());
+        final JsonParser parser = new JsonParser();
+        final List<JsonObject> records = new ArrayList<>();
+
+        int end = 0;
+        while (end < content.length) {
+            int newline = end;
+            while (newline < content.length && content[newline] != '\n') newline++;
+
+            final String line = new String(content, end, newline - end, StandardCharsets.UTF_8);
+            if (!line.trim().isEmpty()) {
+                try {
+                    records.add(parser.parse(line).getAsJsonObject());
+                } catch (final JsonParseException | IllegalStateException e) {
+                    break;
+                }
+            }
+
+            if (newline == content.length) {
+                Files.write(file.toPath(), System.lineSeparator().getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+                return records;
+            }
+
+            end = newline + 1;
+        }
+
+        if (end < content.length) {
+            try (final RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+                output.setLength(end);
+                output.getChannel().force(false);
+            }
+        }
+
+        return records;
+    }
+
+
+    /* Properties */
+
+    /**
+     * Gets the file of the log of a test plan.
+     * @param plan the test plan
+     * @return the file
+     */
+    public static File getFile(final MutationTestPlan plan) {
+        return new File(Project.getTestsFolder(), plan.getName() + FILENAME_EXTENSION);
+    }
+
+    /**
+     * Gets if a test plan has a log that can be resumed.
+     * @param plan the test plan
+     * @return true iff the plan has a log
+     */
+    public static boolean exists(final MutationTestPlan plan) {
+        return Ecdar.projectDirectory.get() != null && getFile(plan).isFile();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getTestModelName() {
+        return testModelName;
+    }
+
+    /**
+     * Gets if the log was started for a test model and test plan like these.
+     * @param plan the test plan
+     * @param testModel the test model, as it is in the project
+     * @return true iff the test model is unchanged, and the plan uses the same completion
+     */
+    public boolean matches(final MutationTestPlan plan, final Component testModel) {
+        return matches(testModel, plan.isDemonic());
+    }
+
+    /**
+     * Gets if the log was started for a test model and completion like these.
+     * @param testModel the test model, as it is in the project
+     * @param demonic if demonic completion is applied
+     * @return true iff the test model is unchanged, and the same completion is applied
+     */
+    boolean matches(final Component testModel, final boolean demonic) {
+        return testModel.getName().equals(testModelName) && getHash(testModel) == testModelHash && demonic == this.demonic;
+    }
+
+    /**
+     * Gets if the recorded mutants are the same as some generated mutants.
+     * If no mutants are recorded, this is also the case.
+     * @param cases the test-cases containing the generated mutants
+     * @return true iff the mutants are the same
+     */
+    public boolean matches(final List<MutationTestCase> cases) {
+        return mutantIds == null || mutantIds.equals(cases.stream().map(MutationTestCase::getId).collect(Collectors.toList()));
+    }
+
+    /**
+     * Gets the recorded strategy lines of a test-case.
+     * @param id the id of the test-case
+     * @return the lines, or null if no strategy is recorded
+     */
+    public List<String> getStrategyLines(final String id) {
+        return strategies.get(id);
+    }
+
+    /**
+     * Gets if a mutant is recorded to refine the test model.
+     * @param id the id of the test-case containing the mutant
+     * @return true iff the mutant refines the test model
+     */
+    public boolean isRefinement(final String id) {
+        return refinements.contains(id);
+    }
+
+    /**
+     * Gets the recorded result of a test-case, where the system under test is not known.
+     * @param testCase the test-case
+     * @return the result, or null if no result is recorded
+     */
+    public TestResult getResult(final MutationTestCase testCase) {
+        return getResult(testCase, null);
+    }
+
+    /**
+     * Gets the recorded result of a test-case on a system under test.
+     * @param testCase the test-case
+     * @param sutPath the path of the system under test, or null if not known
+     * @return the result, or null if no result is recorded
+     */
+    public TestResult getResult(final MutationTestCase testCase, final String sutPath) {
+        return getResult(testCase, sutPath, false);
+    }
+
+    /**
+     * Gets the recorded result of a test-case on a system under test.
+     * Logs of older versions record results without the system under test, since a plan could only have one.
+     * If the system under test is the only one of the plan, such a result counts as a result of it.
+     * @param testCase the test-case
+     * @param sutPath the path of the system under test, or null if not known
+     * @param isOnlySut true iff the system under test is the only one of the plan
+     * @return the result, or null if no result is recorded
+     */
+    public TestResult getResult(final MutationTestCase testCase, final String sutPath, final boolean isOnlySut) {
+        JsonObject record = results.get(getResultKey(sutPath, testCase.getId()));
+        if (record == null && isOnlySut && sutPath != null) record = results.get(getResultKey(null, testCase.getId()));
+        if (record == null) return null;
+
+        return new TestResult(testCase.getId(), sutPath, record.has(REASON) ? record.get(REASON).getAsString() : null,
+                CompactTrace.fromJson(record.getAsJsonArray(TRACE)), TestResult.Verdict.valueOf(record.get(VERDICT).getAsString()));
+    }
+
+    /**
+     * Gets the number of recorded results.
+     * @return the number of results
+     */
+    public int getResultCount() {
+        return results.size();
+    }
+
+
+    /* Other */
+
+    /**
+     * Logs the ids of generated mutants.
+     * @param cases the test-cases containing the mutants
+     */
+    public void logMutants(final List<MutationTestCase> cases) {
+        final JsonArray ids = new JsonArray();
+        cases.forEach(testCase -> ids.add(testCase.getId()));
+
+        final JsonObject record = record(MUTANTS);
+        record.add(IDS, ids);
+        append(record);
+    }
+
+    /**
+     * Logs the strategy of a generated test-case.
+     * @param id the id of the test-case
+     * @param lines the lines of the strategy from the backend
+     */
+    public void logStrategy(final String id, final List<String> lines) {
+        final JsonArray array = new JsonArray();
+        lines.forEach(array::add);
+
+        final JsonObject record = record(STRATEGY);
+        record.addProperty(ID, id);
+        record.add(LINES, array);
+        append(record);
+    }
+
+    /**
+     * Logs that a mutant refines the test model, so it has no test-case.
+     * @param id the id of the test-case containing the mutant
+     */
+    public void logRefinement(final String id) {
+        final JsonObject record = record(STRATEGY);
+        record.addProperty(ID, id);
+        record.addProperty(REFINES, true);
+        append(record);
+    }
+
+    /**
+     * Logs the result of a test-case.
+     * @param result the result
+     */
+    public void logResult(final TestResult result) {
+        final JsonObject record = record(RESULT);
+        record.addProperty(ID, result.getTestCaseId());
+        if (result.getSutPath() != null) record.addProperty(SUT, result.getSutPath());
+        record.addProperty(VERDICT, result.getVerdict().name());
+        if (result.getReason() != null) record.addProperty(REASON, result.getReason());
+        record.add(TRACE, result.getTrace().toJson());
+        append(record);
+    }
+
+    /**
+     * Closes the log.
+     * This waits for records not yet written, but at most {@value CLOSE_TIMEOUT} ms.
+     */
+    public synchronized void close() {
+        if (executor.isShutdown()) return;
+
+        executor.execute(() -> {
+            try {
+                writer.close();
+            } catch (final IOException e) {
+                e.printStackTrace();
+            }
+        });
+        executor.shutdown();
+
+        try {
+            executor.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reads a record from the file into the recorded progress.
+     * @param record the record
+     * @throws MutationTestingException if the type of the record is not understood
+     */
+    private void read(final JsonObject record) throws MutationTestingException {
+        final String id = record.has(ID) ? record.get(ID).getAsString() : null;
+
+        switch (record.get(TYPE).getAsString()) {
+            case RUN:
+                seed = record.get(SEED).getAsLong();
+                testModelName = record.get(TEST_MODEL_NAME).getAsString();
+                testModelHash = record.get(TEST_MODEL_HASH).getAsInt();
+                demonic = record.get(DEMONIC).getAsBoolean();
+                break;
+            case MUTANTS:
+                mutantIds = new ArrayList<>();
+                record.getAsJsonArray(IDS).forEach(element -> mutantIds.add(element.getAsString()));
+                break;
+            case STRATEGY:
+                if (record.has(REFINES)) {
+                    refinements.add(id);
+                } else {
+                    final List<String> lines = new ArrayList<>();
+                    record.getAsJsonArray(LINES).forEach(element -> lines.add(element.getAsString()));
+                    strategies.put(id, lines);
+                }
+                break;
+            case RESULT:
+                results.put(getResultKey(record.has(SUT) ? record.get(SUT).getAsString() : null, id), record);
+                break;
+            default:
+                throw new MutationTestingException("Checkpoint record not understood: " + record);
+        }
+    }
+
+    /**
+     * Appends a record to the file in the background.
+     * @param record the record
+     */
+    private synchronized void append(final JsonObject record) {
+        // Ignore records after closing, e.g. results of test-cases that were running when a new run started
+        if (executor.isShutdown()) return;
+
+        final String line = record.toString();
+
+        executor.execute(() -> {
+            try {
+                writer.write(line);
+                writer.newLine();
+                writer.flush();
+            } catch (final IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Gets the key of the recorded result of a test-case on a system under test.
+     * @param sutPath the path of the system under test, or null if not known
+     * @param id the id of the test-case
+     * @return the key
+     */
+    private static String getResultKey(final String sutPath, final String id) {
+        return sutPath == null ? id : sutPath + "\n" + id;
+    }
+
+    /**
+     * Makes an empty record of some type.
+     * @param type the type
+     * @return the record
+     */
+    private static JsonObject record(final String type) {
+        final JsonObject record = new JsonObject();
+        record.addProperty(TYPE, type);
+        return record;
+    }
+
+    /**
+     * Gets a hash of a test model, used to check that the test model is unchanged when resuming.
+     * @param testModel the test model
+     * @return the hash
+     */
+    private static int getHash(final Component testModel) {
+        return testModel.serialize().toString().hashCode();
+    }
+}
@@ -1,17 +1,22 @@
 package ecdar.mutation;
 
-import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Driver for running jobs concurrently.
  * You can add jobs to the driver at any time.
+ * Jobs waiting to be run are started in order of their priority, lowest first.
+ * Jobs with the same priority are started in the order they were added.
  */
 public class ConcurrentJobsDriver {
     private final ConcurrentJobsHandler handler;
-    private final List<Runnable> jobs = new ArrayList<>();
+    private final PriorityQueue<PendingJob> pendingJobs = new PriorityQueue<>(
+            Comparator.comparingDouble(PendingJob::getPriority).thenComparingLong(PendingJob::getSequenceNumber));
+    private long jobsAdded;
     private int jobsStarted;
     private int jobsEnded;
 
@@ -27,24 +32,36 @@ public class ConcurrentJobsDriver {
      * Clears jobs and resets variables for jobs.
      */
     private void clearJobs() {
-        jobs.clear();
+        pendingJobs.clear();
         jobsStarted = 0;
         jobsEnded = 0;
     }
 
     /**
-     * Adds jobs.
+     * Adds jobs with the default priority of 0.
      * If no other jobs are left to be run, this method resets counters for how many jobs are remaining and starts running jobs.
      * @param jobs the jobs to add
      */
     public synchronized void addJobs(final List<Runnable> jobs) {
-        this.jobs.addAll(jobs);
+        addJobs(jobs, new double[jobs.size()]);
+    }
+
+    /**
+     * Adds jobs with priorities.
+     * If no other jobs are left to be run, this method resets counters for how many jobs are remaining and starts running jobs.
+     * @param jobs the jobs to add
+     * @param priorities the priority of each job. Jobs with lower values are started first
+     */
+    public synchronized void addJobs(final List<Runnable> jobs, final double[] priorities) {
+        if (jobs.size() != priorities.length) throw new IllegalArgumentException("Expected a priority for each job");
+
+        for (int i = 0; i < jobs.size(); i++) pendingJobs.add(new PendingJob(jobs.get(i), priorities[i], jobsAdded++));
 
         updateJobs();
     }
 
     /**
-     * Adds a job.
+     * Adds a job with the default priority of 0.
      * If no other jobs are left to be run, this method resets counters for how many jobs are remaining and starts running jobs.
      * @param job the job to add
      */
@@ -52,6 +69,20 @@ public class ConcurrentJobsDriver {
         addJobs(Stream.of(job).collect(Collectors.toList()));
     }
 
+    /**
+     * Cancels the jobs that are not yet started.
+     * Jobs already running are not affected.
+     * When they are done, the handler is told that all jobs are done.
+     * @return the number of cancelled jobs
+     */
+    public synchronized int cancelRemainingJobs() {
+        final int cancelled = pendingJobs.size();
+        pendingJobs.clear();
+
+        updateJobs();
+        return cancelled;
+    }
+
     /**
      * Should be called when a job attempt is done.
      * Even when the jobs failed.
@@ -86,9 +117,8 @@ public class ConcurrentJobsDriver {
         handler.onProgressRemaining(getJobsRemaining());
 
         // while we have not reach the maximum allowed threads and there are still jobs to start
-        while (getJobsRunning() < handler.getMaxConcurrentJobs() &&
-                jobsStarted < jobs.size()) {
-            final Runnable job = jobs.get(jobsStarted);
+        while (getJobsRunning() < handler.getMaxConcurrentJobs() && !pendingJobs.isEmpty()) {
+            final Runnable job = pendingJobs.poll().getJob();
             jobsStarted++;
             job.run();
         }
@@ -103,10 +133,37 @@ public class ConcurrentJobsDriver {
     }
 
     private synchronized int getJobsRemaining() {
-        return jobs.size() - jobsEnded;
+        return getJobsRunning() + pendingJobs.size();
     }
 
     public synchronized boolean isJobsRemaining() {
         return getJobsRemaining() > 0;
     }
+
+    /**
+     * A job waiting to be started.
+     */
+    private static class PendingJob {
+        private final Runnable job;
+        private final double priority;
+        private final long sequenceNumber;
+
+        PendingJob(final Runnable job, final double priority, final long sequenceNumber) {
+            this.job = job;
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        Runnable getJob() {
+            return job;
+        }
+
+        double getPriority() {
+            return priority;
+        }
+
+        long getSequenceNumber() {
+            return sequenceNumber;
+        }
+    }
 }
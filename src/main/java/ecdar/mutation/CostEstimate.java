@@ -0,0 +1,231 @@
+package ecdar.mutation;
+
+import ecdar.mutation.metrics.RunHistory;
+import ecdar.mutation.models.MutationTestPlan;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estimate of the cost of running a test plan, made before running it.
+ * The number of mutants comes from the upper limits of the selected mutation operators and the sampling.
+ * The times come from the history of the last run of the plan, scaled to the current time options.
+ * Without a history, only the numbers are estimated.
+ *
+ * Test-case generation runs an engine process for each mutant, which keeps a processor busy,
+ * so we suggest a generation thread for each processor.
+ * An instance of the system under test mostly waits for time to pass, if time is not simulated,
+ * so we suggest as many instances as the processors can keep up with, based on how busy the instances were in the history.
+ * The stages run one after the other, so each stage can use all processors.
+ */
+class CostEstimate {
+    /**
+     * The lowest fraction of a processor that we assume an instance of the system under test uses.
+     * This limits the suggested instances to this many per processor, since the timing of real-time systems suffers under load.
+     */
+    static final double MIN_BUSY_FRACTION = 1.0 / 8;
+
+    private final int mutants;
+    private final int testCases;
+    private final int runs;
+    private final double generationMillis;
+    private final double testMillis;
+    private final double busyFraction;
+    private final int generationThreads;
+    private final int sutInstances;
+    private final int processors;
+
+    /**
+     * Constructs.
+     * @param mutants the number of mutants to test
+     * @param strategyFraction the fraction of mutants expected to become test-cases
+     * @param suts the number of systems under test to run each test-case on
+     * @param generationMillis the expected time of generating the test-case of a mutant in milliseconds, or -1 if unknown
+     * @param testMillis the expected time of running a test-case in milliseconds, or -1 if unknown
+     * @param busyFraction the fraction of a processor that an instance of the system under test keeps busy
+     * @param generationThreads the current number of concurrent generation threads
+     * @param sutInstances the current number of concurrent instances of the system under test
+     * @param processors the number of available processors
+     */
+    CostEstimate(final int mutants, final double strategyFraction, final int suts, final double generationMillis,
+                 final double testMillis, final double busyFraction, final int generationThreads, final int sutInstances,
+                 final int processors) {
+        this.mutants = mutants;
+        this.testCases = (int) Math.ceil(mutants * strategyFraction);
+        this.runs = testCases * suts;
+        this.generationMillis = generationMillis;
+        this.testMillis = testMillis;
+        this.busyFraction = Math.max(MIN_BUSY_FRACTION, Math.min(1, busyFraction));
+        this.generationThreads = generationThreads;
+        this.sutInstances = sutInstances;
+        this.processors = Math.max(1, processors);
+    }
+
+
+    /* Static helpers */
+
+    /**
+     * Estimates the cost of running a test plan with its current options on this machine.
+     * @param plan the test plan
+     * @param history the history of the last run of the plan, or null if none
+     * @return the estimate
+     */
+    static CostEstimate of(final MutationTestPlan plan, final RunHistory history) {
+        final int mutants = plan.getTargetSampleSize(plan.getMutantsUpperLimit());
+        final boolean hasGenerations = history != null && history.hasGenerations();
+        final boolean hasTestRuns = history != null && history.hasTestRuns();
+
+        final double testMillis;
+        if (plan.shouldReplayRecording()) testMillis = 0; // The system under test is not run
+        else if (hasTestRuns) testMillis = history.getMeanTestMillis(plan.getTimeUnit(), plan.shouldSimulateTime(), plan.getStepBounds());
+        else testMillis = -1;
+
+        return new CostEstimate(
+                mutants,
+                hasGenerations ? history.getStrategyFraction() : 1,
+                Math.max(1, plan.getSutPaths().size()),
+                hasGenerations ? history.getMeanGenerationMillis() : -1,
+                testMillis,
+                hasTestRuns ? history.getBusyFraction(plan.getTimeUnit(), plan.shouldSimulateTime()) : 1,
+                plan.getConcurrentGenerationThreads(),
+                getSutConcurrency(plan, plan.getConcurrentSutInstances()),
+                Runtime.getRuntime().availableProcessors()
+        );
+    }
+
+    /**
+     * Gets the total number of concurrent instances of the system under test.
+     * With workers, each worker runs the given number of instances.
+     * @param plan the test plan
+     * @param instances the number of instances
+     * @return the total number of instances
+     */
+    private static int getSutConcurrency(final MutationTestPlan plan, final int instances) {
+        return plan.shouldUseWorkers() ? plan.getWorkers() * instances : instances;
+    }
+
+    /**
+     * Formats an estimated time.
+     * @param millis the time in milliseconds
+     * @return the formatted time
+     */
+    private static String format(final double millis) {
+        if (millis < 1000) return MutationTestPlanPresentation.readableFormat(Duration.ofMillis(Math.round(millis)));
+        return MutationTestPlanPresentation.readableFormat(Duration.ofSeconds(Math.round(millis / 1000)));
+    }
+
+
+    /* Properties */
+
+    public int getMutants() {
+        return mutants;
+    }
+
+    /**
+     * Gets the expected number of test-cases.
+     * Without a history, every mutant is expected to become a test-case.
+     * @return the number of test-cases
+     */
+    public int getTestCases() {
+        return testCases;
+    }
+
+    /**
+     * Gets the expected number of runs of test-cases on the systems under test.
+     * @return the number of runs
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Gets the expected time of generating all test-cases.
+     * Threads beyond the number of processors or mutants do not help.
+     * @param threads the number of concurrent generation threads
+     * @return the time in milliseconds, or -1 if unknown
+     */
+    public double getGenerationMillis(final int threads) {
+        if (generationMillis < 0) return -1;
+        return mutants * generationMillis / Math.max(1, Math.min(threads, Math.min(processors, mutants)));
+    }
+
+    /**
+     * Gets the expected time of running all test-cases.
+     * Instances beyond the number of runs, or beyond what the processors can keep busy, do not help.
+     * @param instances the total number of concurrent instances of the system under test
+     * @return the time in milliseconds, or -1 if unknown
+     */
+    public double getTestMillis(final int instances) {
+        if (testMillis < 0) return -1;
+        final double effectiveInstances = Math.min(instances, Math.min(runs, processors / busyFraction));
+        return runs * testMillis / Math.max(1, effectiveInstances);
+    }
+
+    /**
+     * Gets the suggested number of concurrent generation threads.
+     * @return the number of threads
+     */
+    public int getSuggestedGenerationThreads() {
+        return Math.max(1, Math.min(processors, mutants));
+    }
+
+    /**
+     * Gets the suggested total number of concurrent instances of the system under test.
+     * @return the number of instances
+     */
+    public int getSuggestedSutInstances() {
+        return Math.max(1, Math.min(runs, (int) Math.floor(processors / busyFraction)));
+    }
+
+
+    /* Other */
+
+    /**
+     * Applies the suggested concurrency to a test plan.
+     * With workers, the suggested instances are divided among the workers.
+     * @param plan the test plan
+     */
+    void applySuggestion(final MutationTestPlan plan) {
+        plan.setConcurrentGenerationThreads(getSuggestedGenerationThreads());
+
+        final int instances = getSuggestedSutInstances();
+        if (plan.shouldUseWorkers()) {
+            plan.setConcurrentSutInstances((int) Math.ceil(instances / (double) Math.max(1, plan.getWorkers())));
+        } else {
+            plan.setConcurrentSutInstances(instances);
+        }
+    }
+
+    /**
+     * Gets a description of this estimate, for showing to the user.
+     * @return the description
+     */
+    String getText() {
+        final List<String> lines = new ArrayList<>();
+
+        lines.add("Up to " + mutants + " mutant(s), " + testCases + " test-case(s), and " + runs + " run(s) of the SUT.");
+
+        final double generation = getGenerationMillis(generationThreads);
+        if (generation < 0) lines.add("Test-case generation: Unknown until the test plan has run once.");
+        else lines.add("Test-case generation: About " + format(generation) + " (" + format(generationMillis) +
+                " per mutant with " + generationThreads + " thread(s)).");
+
+        final double test = getTestMillis(sutInstances);
+        if (test < 0) lines.add("Testing: Unknown until the test plan has run once.");
+        else lines.add("Testing: About " + format(test) + " (" + format(testMillis) + " per run with " +
+                sutInstances + " SUT instance(s)).");
+
+        final int suggestedThreads = getSuggestedGenerationThreads();
+        final int suggestedInstances = getSuggestedSutInstances();
+        String suggestion = "Suggested for " + processors + " processor(s): " + suggestedThreads + " generation thread(s) and " +
+                suggestedInstances + " SUT instance(s) in total";
+
+        final double suggestedGeneration = getGenerationMillis(suggestedThreads);
+        final double suggestedTest = getTestMillis(suggestedInstances);
+        if (suggestedGeneration >= 0 && suggestedTest >= 0) suggestion += ", taking about " + format(suggestedGeneration + suggestedTest);
+        lines.add(suggestion + ".");
+
+        return String.join("\n", lines);
+    }
+}
@@ -1,11 +1,13 @@
 package ecdar.mutation;
 
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import ecdar.Ecdar;
 import ecdar.abstractions.Component;
 import ecdar.abstractions.Project;
 import ecdar.abstractions.SimpleComponentsSystemDeclarations;
-import ecdar.backend.BackendDriverManager;
 import ecdar.backend.BackendException;
 import ecdar.backend.BackendHelper;
 import ecdar.mutation.models.MutationTestCase;
@@ -16,24 +18,62 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 import org.apache.commons.io.FileUtils;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.*;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * Handles generation and export of mutants.
+ * The export runs outside the JavaFX thread as a bounded pipeline:
+ * Mutants are generated operator by operator, and handed to a fixed number of export threads that write them to disk.
+ * When the export threads are behind, the generating thread exports mutants itself,
+ * so only a bounded number of mutants are waiting to be written.
+ * Mutants are either written as separate files, or to a single zip archive with an index.
  */
 class ExportHandler {
+    private static final String INDEX_FILENAME = "index.json";
+    private static final String TEST_MODEL = "testModel";
+    private static final String FORMAT = "format";
+    private static final String MUTANTS = "mutants";
+    private static final String ID = "id";
+    private static final String OPERATOR = "operator";
+    private static final String FILE = "file";
+
+    private static final int QUEUE_SIZE_PER_THREAD = 4;
+
+    // Gson is thread-safe, so all export threads share it
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
     private final MutationTestPlan plan;
 
     private final Component testModel;
 
+    // Each export thread reuses a project for generating backend XML
+    private final ThreadLocal<Project> projects = ThreadLocal.withInitial(Project::new);
+
+    private File directory;
+    private ZipOutputStream archive;
+    private final JsonArray index = new JsonArray();
+    private final AtomicReference<Exception> error = new AtomicReference<>();
+
+    // Progress fields
+    private Instant start;
+    private final AtomicInteger exportedCount = new AtomicInteger();
+    private final AtomicBoolean progressUpdatePending = new AtomicBoolean(false);
+
     /**
      * Constructs.
      * @param plan the test plan
@@ -57,126 +97,255 @@ class ExportHandler {
     }
 
     /**
-     * Starts the export.
+     * Starts the export in a new thread.
      */
     void start() {
         getPlan().setStatus(MutationTestPlan.Status.WORKING);
+        getPlan().writeProgress("Exporting mutants...");
 
-        final Instant start = Instant.now();
+        start = Instant.now();
+        new Thread(this::export).start();
+    }
 
-        // Mutate with selected operators
-        final List<MutationTestCase> cases = new ArrayList<>();
+    /**
+     * Generates and exports the mutants.
+     * This blocks until all mutants are exported, so it should not run in the JavaFX thread.
+     */
+    private void export() {
+        final boolean xml = getPlan().getFormat().equals("XML");
+        final String format = xml ? "xml" : "json";
+
+        final File output;
         try {
-            for (final MutationOperator operator : getPlan().getSelectedMutationOperators())
-                cases.addAll(operator.generateTestCases(getTestModel()));
-        } catch (final MutationTestingException e) {
-            handleException(e);
+            final File mutantsDirectory = new File(Ecdar.getRootDirectory() + File.separator + "mutants");
+
+            if (getPlan().shouldExportArchive()) {
+                FileUtils.forceMkdir(mutantsDirectory);
+                output = new File(mutantsDirectory, format + ".zip");
+                archive = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(output)));
+            } else {
+                output = new File(mutantsDirectory, format);
+                FileUtils.forceMkdir(output);
+                FileUtils.cleanDirectory(output);
+                directory = output;
+            }
+        } catch (final IOException | URISyntaxException e) {
+            Platform.runLater(() -> handleException(e));
             return;
         }
 
-        cases.stream().map(MutationTestCase::getMutant).forEach(mutant -> {
-            // Name them the same name as the test model
-            mutant.setName(getTestModel().getName());
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_SIZE_PER_THREAD), new ThreadPoolExecutor.CallerRunsPolicy());
 
-            mutant.updateIOList();
-        });
+        try {
+            for (final MutationOperator operator : getPlan().getSelectedMutationOperators()) {
+                if (shouldStop()) break;
 
-        // Apply angelic completion if selected
-        if (getPlan().isAngelicWhenExport())
-            cases.stream().map(MutationTestCase::getMutant).forEach(Component::applyAngelicCompletion);
+                final List<MutationTestCase> cases = operator.generateTestCases(getTestModel());
 
-        getPlan().setMutantsText("Mutants: " + cases.size() + " - Execution time: " + MutationTestPlanPresentation.readableFormat(Duration.between(start, Instant.now())));
+                for (final MutationTestCase testCase : cases) {
+                    if (shouldStop()) break;
 
+                    executor.execute(() -> exportMutant(testCase, operator.getCodeName(), xml));
+                }
+            }
+        } catch (final MutationTestingException e) {
+            error.compareAndSet(null, e);
+        } finally {
+            executor.shutdown();
+        }
 
         try {
-            final String path;
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Keep waiting for the export threads
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
 
-            if (getPlan().getFormat().equals("XML")) {
-                path = Ecdar.getRootDirectory() + File.separator + "mutants" + File.separator + "xml";
+        if (archive != null) {
+            try {
+                finishArchive(format);
+            } catch (final IOException e) {
+                error.compareAndSet(null, e);
+            }
+        }
 
-                FileUtils.forceMkdir(new File(path));
-                FileUtils.cleanDirectory(new File(path));
+        Platform.runLater(() -> {
+            updateProgress();
 
-                for (final MutationTestCase aCase : cases) {
-                    storeMutantXml(aCase);
-                }
+            if (error.get() != null) {
+                handleException(error.get());
+            } else if (getPlan().shouldStop()) {
+                getPlan().setStatus(MutationTestPlan.Status.IDLE);
             } else {
-                path = Ecdar.getRootDirectory() + File.separator + "mutants" + File.separator + "json";
+                final Text text = new Text("Exported " + exportedCount.get() + " mutant" + (exportedCount.get() == 1 ? "" : "s") +
+                        " to " + output.getPath());
+                text.setFill(Color.GREEN);
+                getProgressWriter().accept(text);
+                getPlan().setStatus(MutationTestPlan.Status.IDLE);
+            }
+        });
+    }
+
+    /**
+     * Gets if we should stop exporting, either because the user stopped it or because of an error.
+     * @return true iff we should stop
+     */
+    private boolean shouldStop() {
+        return getPlan().shouldStop() || error.get() != null;
+    }
+
+    /**
+     * Prepares a mutant and writes it to the export.
+     * If an error occurs, it is stored, such that the export stops.
+     * @param testCase test-case containing the mutant
+     * @param operator the code name of the operator that created the mutant
+     * @param xml true iff the mutant should be exported as backend XML, false if as JSON
+     */
+    private void exportMutant(final MutationTestCase testCase, final String operator, final boolean xml) {
+        if (shouldStop()) return;
 
-                FileUtils.forceMkdir(new File(path));
-                FileUtils.cleanDirectory(new File(path));
+        final Component mutant = testCase.getMutant();
 
-                for (final MutationTestCase aCase : cases) {
-                    storeMutantJson(aCase);
-                }
+        // Name it the same name as the test model
+        mutant.setName(getTestModel().getName());
+        mutant.updateIOList();
+
+        if (getPlan().isAngelicWhenExport()) mutant.applyAngelicCompletion();
+
+        final String fileName = testCase.getId() + (xml ? ".xml" : ".json");
+
+        try {
+            if (xml) storeMutantXml(mutant, fileName);
+            else storeMutantJson(mutant, fileName);
+        } catch (final IOException | BackendException e) {
+            error.compareAndSet(null, e);
+            return;
+        }
+
+        if (archive != null) {
+            final JsonObject entry = new JsonObject();
+            entry.addProperty(ID, testCase.getId());
+            entry.addProperty(OPERATOR, operator);
+            entry.addProperty(FILE, fileName);
+
+            synchronized (index) {
+                index.add(entry);
             }
+        }
+
+        exportedCount.incrementAndGet();
 
-            final Text text = new Text("Exported to " + path);
-            text.setFill(Color.GREEN);
-            getProgressWriter().accept(text);
-            getPlan().setStatus(MutationTestPlan.Status.IDLE);
-        } catch (final IOException | BackendException | URISyntaxException e) {
-            e.printStackTrace();
-            final String message = "Error: " + e.getMessage();
-            final Text text = new Text(message);
-            text.setFill(Color.RED);
-            getProgressWriter().accept(text);
-            Ecdar.showToast(message);
-            getPlan().setStatus(MutationTestPlan.Status.IDLE);
+        // Only have one progress update waiting in the JavaFX thread at a time
+        if (progressUpdatePending.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                progressUpdatePending.set(false);
+                updateProgress();
+            });
         }
     }
 
+    /**
+     * Updates the progress text with the number of exported mutants.
+     * This method should be called in a JavaFX thread.
+     */
+    private void updateProgress() {
+        getPlan().setMutantsText("Mutants: " + exportedCount.get() + " - Execution time: " +
+                MutationTestPlanPresentation.readableFormat(Duration.between(start, Instant.now())));
+    }
+
     /**
      * Stores a mutant as an XML file.
-     * @param testCase test-case containing the mutant
+     * @param mutant the mutant
+     * @param fileName the name of the file
      * @throws BackendException if an error occurs during generation of backend XML
      * @throws IOException if an error occurs during storing of the file
-     * @throws URISyntaxException if an error occurs when getting the URL of the root directory
      */
-    private static void storeMutantXml(final MutationTestCase testCase) throws BackendException, IOException, URISyntaxException {
-        final Component mutant = testCase.getMutant();
-
+    private void storeMutantXml(final Component mutant, final String fileName) throws BackendException, IOException {
         // make a project with the mutant
-        final Project project = new Project();
-        project.getComponents().add(mutant);
+        final Project project = projects.get();
+        project.getComponents().setAll(mutant);
         project.setGlobalDeclarations(Ecdar.getProject().getGlobalDeclarations());
-        mutant.updateIOList(); // Update io in order to get the right system declarations for the mutant
         project.setSystemDeclarations(new SimpleComponentsSystemDeclarations(mutant));
 
-        BackendHelper.storeBackendModel(project, "mutants" + File.separator + "xml", testCase.getId());
+        if (archive == null) {
+            BackendHelper.storeBackendModel(project, new File(directory, fileName));
+            return;
+        }
+
+        // The XML library can only save to a path, so go through a temporary file
+        final File file = File.createTempFile("mutant", ".xml");
+        try {
+            BackendHelper.storeBackendModel(project, file);
+            addToArchive(fileName, Files.readAllBytes(file.toPath()));
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
     }
 
     /**
      * Stores a mutant as a JSON file.
-     * @param testCase test-case containing the mutant
+     * @param mutant the mutant
+     * @param fileName the name of the file
      * @throws IOException if an error occurs during storing of the file
-     * @throws URISyntaxException if an error occurs when getting the URL of the root directory
      */
-    private static void storeMutantJson(final MutationTestCase testCase) throws URISyntaxException, IOException {
-        final FileWriter writer = new FileWriter(Ecdar.getRootDirectory() + File.separator + "mutants" + File.separator + "json" + File.separator + testCase.getId() + ".json");
+    private void storeMutantJson(final Component mutant, final String fileName) throws IOException {
+        final byte[] bytes = GSON.toJson(mutant.serialize()).getBytes(StandardCharsets.UTF_8);
+
+        if (archive == null) Files.write(new File(directory, fileName).toPath(), bytes);
+        else addToArchive(fileName, bytes);
+    }
+
+    /**
+     * Adds a file to the zip archive.
+     * @param fileName the name of the file in the archive
+     * @param bytes the content of the file
+     * @throws IOException if an I/O error occurs
+     */
+    private void addToArchive(final String fileName, final byte[] bytes) throws IOException {
+        synchronized (archive) {
+            archive.putNextEntry(new ZipEntry(fileName));
+            archive.write(bytes);
+            archive.closeEntry();
+        }
+    }
+
+    /**
+     * Adds the index to the zip archive and closes it.
+     * @param format the format of the exported mutants
+     * @throws IOException if an I/O error occurs
+     */
+    private void finishArchive(final String format) throws IOException {
+        final JsonObject json = new JsonObject();
+        json.addProperty(TEST_MODEL, getTestModel().getName());
+        json.addProperty(FORMAT, format);
+        synchronized (index) {
+            json.add(MUTANTS, index);
+        }
 
-        new GsonBuilder().setPrettyPrinting().create().toJson(testCase.getMutant().serialize(), writer);
-        writer.close();
+        try {
+            addToArchive(INDEX_FILENAME, GSON.toJson(json).getBytes(StandardCharsets.UTF_8));
+        } finally {
+            archive.close();
+        }
     }
 
     /**
-     * Handles a mutation test exception.
+     * Handles an exception.
      * Displays a message to the user.
+     * This method should be called in a JavaFX thread.
      * @param e the exception
      */
-    private void handleException(final MutationTestingException e) {
+    private void handleException(final Exception e) {
         e.printStackTrace();
 
-        // Only show error if the process is not already being stopped
-        if (getPlan().getStatus().equals(MutationTestPlan.Status.WORKING)) {
-            getPlan().setStatus(MutationTestPlan.Status.STOPPING);
-            Platform.runLater(() -> {
-                final String message = "Error while generating test-cases: " + e.getMessage();
-                final Text text = new Text(message);
-                text.setFill(Color.RED);
-                getProgressWriter().accept(text);
-                Ecdar.showToast(message);
-            });
-        }
+        final String message = "Error while exporting mutants: " + e.getMessage();
+        final Text text = new Text(message);
+        text.setFill(Color.RED);
+        getProgressWriter().accept(text);
+        Ecdar.showToast(message);
+        getPlan().setStatus(MutationTestPlan.Status.IDLE);
     }
 }
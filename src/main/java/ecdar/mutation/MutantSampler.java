@@ -0,0 +1,176 @@
+package ecdar.mutation;
+
+import ecdar.mutation.models.MutantSample;
+import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.models.MutationTestPlan;
+
+import java.util.*;
+
+/**
+ * Sampler of mutants.
+ * Mutants are grouped by the mutation operator that created them.
+ * Modes:
+ * ALL: All mutants are used.
+ * UNIFORM: Mutants are sampled uniformly at random, regardless of operator.
+ * STRATIFIED: Each operator gets a share of the sample proportional to its number of mutants.
+ * OPERATOR_WEIGHTED: Each operator gets an equal share of the sample,
+ * so operators with few mutants are not drowned out by operators with many.
+ */
+public class MutantSampler {
+    private final MutationTestPlan.SamplingMode mode;
+    private final Random random;
+
+    /**
+     * Constructs.
+     * @param mode the sampling mode
+     * @param random the random generator to sample with
+     */
+    public MutantSampler(final MutationTestPlan.SamplingMode mode, final Random random) {
+        this.mode = mode;
+        this.random = random;
+    }
+
+
+    /* Static helpers */
+
+    /**
+     * Gets the number of mutants to sample in order to estimate the mutation score
+     * with a 95% confidence interval of a given error margin.
+     * This assumes the worst case variance (a score of 50%) and corrects for the finite number of mutants.
+     * An error margin of 0 requires all mutants to be sampled.
+     * @param populationSize the number of mutants to sample from
+     * @param errorMargin the error margin, e.g. 0.05 for ±5%
+     * @return the sample size
+     */
+    public static int getSampleSize(final int populationSize, final double errorMargin) {
+        if (populationSize <= 0) return 0;
+
+        // Also catches NaN, which would otherwise give a sample size of 0
+        if (!(errorMargin > 0)) return populationSize;
+
+        final double infiniteSize = MutantSample.Z_95 * MutantSample.Z_95 * 0.25 / (errorMargin * errorMargin);
+        final double size = infiniteSize / (1 + (infiniteSize - 1) / populationSize);
+
+        return (int) Math.min(populationSize, Math.ceil(size));
+    }
+
+    /**
+     * Allocates a sample size among strata.
+     * Each stratum gets a share proportional to its weight, but never more than its capacity.
+     * Sample size that cannot be given to a full stratum is redistributed among the others.
+     * @param capacities the number of elements in each stratum
+     * @param weights the weight of each stratum
+     * @param size the sample size to allocate
+     * @return the number of elements to sample from each stratum
+     */
+    static int[] allocate(final int[] capacities, final double[] weights, final int size) {
+        final int[] allocation = new int[capacities.length];
+        int remaining = Math.min(size, Arrays.stream(capacities).sum());
+
+        while (remaining > 0) {
+            double totalWeight = 0;
+            for (int i = 0; i < capacities.length; i++)
+                if (allocation[i] < capacities[i]) totalWeight += weights[i];
+
+            int given = 0;
+            int bestRemainderIndex = -1;
+            double bestRemainder = -1;
+
+            for (int i = 0; i < capacities.length; i++) {
+                if (allocation[i] >= capacities[i]) continue;
+
+                final double share = totalWeight > 0 ? remaining * weights[i] / totalWeight : 0;
+                final int whole = Math.min((int) Math.floor(share), capacities[i] - allocation[i]);
+                allocation[i] += whole;
+                given += whole;
+
+                if (allocation[i] < capacities[i] && share - Math.floor(share) > bestRemainder) {
+                    bestRemainder = share - Math.floor(share);
+                    bestRemainderIndex = i;
+                }
+            }
+
+            // If no stratum got a whole share, give one to the stratum with the largest remainder
+            if (given == 0) {
+                allocation[bestRemainderIndex]++;
+                given = 1;
+            }
+
+            remaining -= given;
+        }
+
+        return allocation;
+    }
+
+
+    /* Other */
+
+    /**
+     * Samples mutants.
+     * @param casesByOperator potential test-cases containing the mutants, grouped by the name of the operator
+     * @param size the number of mutants to sample. Ignored if sampling all mutants
+     * @return the sample
+     */
+    public MutantSample sample(final Map<String, List<MutationTestCase>> casesByOperator, final int size) {
+        final List<String> strata = new ArrayList<>(casesByOperator.keySet());
+        final int[] populationSizes = strata.stream().mapToInt(stratum -> casesByOperator.get(stratum).size()).toArray();
+
+        final int[] sampleSizes;
+        switch (mode) {
+            case UNIFORM:
+                sampleSizes = sampleUniformSizes(populationSizes, size);
+                break;
+            case STRATIFIED:
+                sampleSizes = allocate(populationSizes, Arrays.stream(populationSizes).asDoubleStream().toArray(), size);
+                break;
+            case OPERATOR_WEIGHTED:
+                final double[] weights = new double[populationSizes.length];
+                Arrays.fill(weights, 1);
+                sampleSizes = allocate(populationSizes, weights, size);
+                break;
+            default:
+                sampleSizes = populationSizes.clone();
+                break;
+        }
+
+        final List<MutationTestCase> testCases = new ArrayList<>();
+        final Map<String, Integer> strataByTestCaseId = new HashMap<>();
+
+        for (int i = 0; i < strata.size(); i++) {
+            final List<MutationTestCase> cases = new ArrayList<>(casesByOperator.get(strata.get(i)));
+            if (sampleSizes[i] < cases.size()) Collections.shuffle(cases, random);
+
+            for (final MutationTestCase testCase : cases.subList(0, sampleSizes[i])) {
+                testCases.add(testCase);
+                strataByTestCaseId.put(testCase.getId(), i);
+            }
+        }
+
+        return new MutantSample(testCases, strata, populationSizes, sampleSizes, strataByTestCaseId);
+    }
+
+    /**
+     * Finds how many mutants of each stratum a uniform sample contains.
+     * This is done by drawing random positions among all mutants.
+     * @param populationSizes the number of mutants in each stratum
+     * @param size the sample size
+     * @return the number of mutants to sample from each stratum
+     */
+    private int[] sampleUniformSizes(final int[] populationSizes, final int size) {
+        final int total = Arrays.stream(populationSizes).sum();
+        final int[] sampleSizes = new int[populationSizes.length];
+
+        final List<Integer> positions = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) positions.add(i);
+        Collections.shuffle(positions, random);
+
+        for (final int position : positions.subList(0, Math.min(size, total))) {
+            int stratum = 0;
+            int end = populationSizes[0];
+            while (position >= end) end += populationSizes[++stratum];
+            sampleSizes[stratum]++;
+        }
+
+        return sampleSizes;
+    }
+}
@@ -3,17 +3,19 @@ package ecdar.mutation;
 import ecdar.Ecdar;
 import ecdar.abstractions.Component;
 import ecdar.abstractions.Location;
+import ecdar.mutation.metrics.OperatorEvent;
+import ecdar.mutation.metrics.PipelineMetrics;
+import ecdar.mutation.models.MutantSample;
 import ecdar.mutation.models.MutationTestCase;
 import ecdar.mutation.models.MutationTestPlan;
 import ecdar.mutation.operators.MutationOperator;
-import javafx.application.Platform;
+import ecdar.utility.helpers.FxThreadHelper;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.function.Consumer;
 
 /**
@@ -22,17 +24,20 @@ import java.util.function.Consumer;
 public class MutationHandler {
     private final Component testModel;
     private final MutationTestPlan plan;
+    private final long seed;
     private final Consumer<List<MutationTestCase>> consumer;
 
     /**
      * Constructs.
      * @param testModel test model
      * @param plan test plan
+     * @param seed seed for sampling mutants. Mutating with the same seed gives the same sample
      * @param consumer consumer to be called
      */
-    public MutationHandler(final Component testModel, final MutationTestPlan plan, final Consumer<List<MutationTestCase>> consumer) {
+    public MutationHandler(final Component testModel, final MutationTestPlan plan, final long seed, final Consumer<List<MutationTestCase>> consumer) {
         this.testModel = testModel;
         this.plan = plan;
+        this.seed = seed;
         this.consumer = consumer;
     }
 
@@ -67,15 +72,21 @@ public class MutationHandler {
             final Instant start = Instant.now();
 
             // Mutate with selected operators
-            List<MutationTestCase> cases = new ArrayList<>();
+            final Map<String, List<MutationTestCase>> casesByOperator = new LinkedHashMap<>();
             try {
-                for (final MutationOperator operator : getPlan().getSelectedMutationOperators())
-                    cases.addAll(operator.generateTestCases(getTestModel()));
+                for (final MutationOperator operator : getPlan().getSelectedMutationOperators()) {
+                    final OperatorEvent event = new OperatorEvent(operator.getCodeName());
+                    final List<MutationTestCase> cases = operator.generateTestCases(getTestModel());
+                    event.setMutants(cases.size());
+                    PipelineMetrics.finish(getPlan(), event);
+
+                    casesByOperator.put(operator.getCodeName(), cases);
+                }
             } catch (final MutationTestingException e) {
                 e.printStackTrace();
 
                 getPlan().setStatus(MutationTestPlan.Status.IDLE);
-                Platform.runLater(() -> {
+                FxThreadHelper.runLater(() -> {
                     final String message = "Error while generating mutants: " + e.getMessage();
                     final Text text = new Text(message);
                     text.setFill(Color.RED);
@@ -85,11 +96,18 @@ public class MutationHandler {
                 return;
             }
 
+            // Sample mutants to test
+            final int populationSize = casesByOperator.values().stream().mapToInt(List::size).sum();
+            final MutantSample sample = new MutantSampler(getPlan().getSamplingMode(), new Random(seed))
+                    .sample(casesByOperator, getPlan().getTargetSampleSize(populationSize));
+            getPlan().setSample(sample);
+            final List<MutationTestCase> cases = sample.getTestCases();
+
             cases.forEach(testCase -> testCase.getMutant().applyAngelicCompletion());
 
-            Platform.runLater(() -> getPlan().setMutantsText("Mutants: " + cases.size() + " - Mutation time: " +
-                    MutationTestPlanPresentation.readableFormat(Duration.between(start, Instant.now())))
-            );
+            final String mutantsText = "Mutants: " + (sample.isComplete() ? cases.size() : cases.size() + " sampled of " + populationSize) +
+                    " - Mutation time: " + MutationTestPlanPresentation.readableFormat(Duration.between(start, Instant.now()));
+            FxThreadHelper.runLater(() -> getPlan().setMutantsText(mutantsText));
 
             testModel.setName(MutationTestPlanController.SPEC_NAME);
 
@@ -113,7 +131,7 @@ public class MutationHandler {
                 }
             }));
 
-            Platform.runLater(() -> getConsumer().accept(cases));
+            FxThreadHelper.runLater(() -> getConsumer().accept(cases));
         }).start();
     }
 }
@@ -0,0 +1,188 @@
+package ecdar.mutation;
+
+import ecdar.Ecdar;
+import ecdar.abstractions.Component;
+import ecdar.mutation.metrics.PipelineMetrics;
+import ecdar.mutation.models.KillMatrix;
+import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.models.MutationTestPlan;
+import ecdar.utility.helpers.FxThreadHelper;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Text;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The steps of a run of a test plan, shared by the test plan in the user interface and the command-line runner.
+ * A run mutates the test model, generates test-cases, and tests them on the systems under test.
+ * When the run is done, its metrics reports and kill matrix are written next to the test plan.
+ * Errors are written in red to the progress of the plan, and shown as toasts.
+ * The steps report in the JavaFX thread or, if the JavaFX platform is not started, in the event thread of {@link FxThreadHelper}.
+ * Methods that must be called in the JavaFX thread may then be called in that event thread.
+ */
+class MutationTestPipeline {
+    private final MutationTestPlan plan;
+    private final TestingHandler testingHandler;
+
+    /**
+     * Constructs.
+     * @param plan the test plan to run
+     * @param testingHandler the handler for testing the generated test-cases
+     */
+    MutationTestPipeline(final MutationTestPlan plan, final TestingHandler testingHandler) {
+        this.plan = plan;
+        this.testingHandler = testingHandler;
+    }
+
+
+    /* Static helpers */
+
+    /**
+     * Writes an error to the progress of a plan, and shows it as a toast.
+     * Must be called in the JavaFX thread.
+     * @param plan the plan
+     * @param message the error message
+     */
+    static void writeError(final MutationTestPlan plan, final String message) {
+        final Text text = new Text(message);
+        text.setFill(Color.RED);
+        plan.writeProgress(text);
+        Ecdar.showToast(message);
+    }
+
+
+    /* Other */
+
+    /**
+     * Starts a run from scratch, as when pressing Test in the test plan.
+     * Progress is recorded in a new checkpoint log, such that the run can be resumed if the application closes.
+     * Must be called in the JavaFX thread.
+     * @param original the test model, as it is in the project
+     */
+    void start(final Component original) {
+        plan.clearResults();
+
+        final long seed = new Random().nextLong();
+
+        try {
+            plan.setCheckpointLog(CheckpointLog.start(plan, original, seed));
+        } catch (final IOException e) {
+            e.printStackTrace();
+            plan.setCheckpointLog(null);
+            Ecdar.showToast("Could not write checkpoint. Progress will not be recorded: " + e.getMessage());
+        }
+
+        plan.setMetrics(new PipelineMetrics());
+        mutate(original, seed);
+    }
+
+    /**
+     * Resumes a run from its checkpoint log.
+     * Must be called in the JavaFX thread.
+     * @param log the log, which must match the plan and the test model
+     * @param original the test model, as it is in the project
+     */
+    void resume(final CheckpointLog log, final Component original) {
+        plan.clearResults();
+        plan.setCheckpointLog(log);
+
+        plan.setMetrics(new PipelineMetrics());
+        mutate(original, log.getSeed());
+    }
+
+    /**
+     * Mutates the test model, and then generates test-cases and tests.
+     * @param original the test model, as it is in the project
+     * @param seed the seed for sampling mutants
+     */
+    private void mutate(final Component original, final long seed) {
+        // Clone the test model, because we want to change its name
+        final Component testModel = original.cloneForVerification();
+
+        new MutationHandler(testModel, plan, seed, cases -> {
+            final CheckpointLog log = plan.getCheckpointLog();
+
+            if (log != null) {
+                if (!log.matches(cases)) {
+                    plan.setStatus(MutationTestPlan.Status.IDLE);
+                    writeError(plan, "Could not resume, since the mutants differ from the checkpoint. Press Test to start over.");
+                    return;
+                }
+
+                log.logMutants(cases);
+            }
+
+            startGeneration(testModel, cases);
+        }).start();
+    }
+
+    /**
+     * Starts the test-case generation, and then tests the generated test-cases.
+     * If the plan should stop, the plan becomes idle instead.
+     * @param testModel the test model
+     * @param cases potential test-cases containing the mutants
+     */
+    private void startGeneration(final Component testModel, final List<MutationTestCase> cases) {
+        synchronized (plan) {
+            if (plan.shouldStop()) {
+                plan.setStatus(MutationTestPlan.Status.IDLE);
+                return;
+            }
+        }
+
+        new TestCaseGenerationHandler(plan, testModel, cases, testingHandler::testFromScratch).start();
+    }
+
+    /**
+     * Writes the reports of a run that is done.
+     * The metrics reports are written if metrics are collected, and metrics are no longer collected afterwards.
+     * If the plan has variants of the system under test, the kill matrix of the results is shown and written.
+     * If the project is not saved yet, there is nowhere to write the reports, so they are discarded.
+     * Must be called in the JavaFX thread, after results of the run that are still waiting to be added.
+     * @return a future completing when the reports are written in a new thread.
+     * Errors are written to the progress of the plan in the JavaFX thread
+     */
+    CompletableFuture<Void> writeReports() {
+        final PipelineMetrics metrics = plan.getMetrics();
+        plan.setMetrics(null);
+
+        final List<String> sutPaths = plan.getSutPaths();
+        final KillMatrix matrix = sutPaths.size() < 2 || plan.getResults().isEmpty() ? null
+                : new KillMatrix(sutPaths, new ArrayList<>(plan.getResults()));
+        if (matrix != null) plan.setKillMatrixText(matrix.getSummary());
+
+        final CompletableFuture<Void> written = new CompletableFuture<>();
+        if (Ecdar.projectDirectory.get() == null || (metrics == null && matrix == null)) {
+            written.complete(null);
+            return written;
+        }
+
+        new Thread(() -> {
+            if (metrics != null) {
+                try {
+                    metrics.writeReports(plan);
+                } catch (final IOException e) {
+                    e.printStackTrace();
+                    FxThreadHelper.runLater(() -> writeError(plan, "Could not write metrics report: " + e.getMessage()));
+                }
+            }
+
+            if (matrix != null) {
+                try {
+                    matrix.writeReport(plan);
+                } catch (final IOException e) {
+                    e.printStackTrace();
+                    FxThreadHelper.runLater(() -> writeError(plan, "Could not write kill matrix: " + e.getMessage()));
+                }
+            }
+
+            written.complete(null);
+        }).start();
+
+        return written;
+    }
+}
@@ -6,13 +6,13 @@ import com.jfoenix.controls.JFXComboBox;
 import com.jfoenix.controls.JFXTextField;
 import ecdar.Ecdar;
 import ecdar.abstractions.Component;
-import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.metrics.RunHistory;
 import ecdar.mutation.models.MutationTestPlan;
 import ecdar.mutation.models.TestResult;
-import javafx.beans.property.SimpleListProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.application.Platform;
+import javafx.collections.transformation.FilteredList;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
@@ -23,7 +23,7 @@ import javafx.scene.text.TextFlow;
 import javafx.stage.FileChooser;
 
 import java.io.File;
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -37,6 +37,7 @@ public class MutationTestPlanController {
 
     /* UI elements */
 
+    public VBox planRegion;
     public ScrollPane scrollPane;
     public JFXComboBox<Label> modelPicker;
     public VBox modelDependentArea;
@@ -46,6 +47,10 @@ public class MutationTestPlanController {
     public VBox testDependentArea;
     public JFXButton selectSutButton;
     public Label sutPathLabel;
+    public VBox sutVariantsArea;
+    public Label sutVariantsLabel;
+    public JFXButton addSutVariantButton;
+    public JFXButton clearSutVariantsButton;
     public VBox sutDependentArea;
     public VBox demonicArea;
     public JFXCheckBox demonicCheckBox;
@@ -54,11 +59,17 @@ public class MutationTestPlanController {
     public JFXTextField outputWaitTimeField;
     public HBox outputWaitTimeBox;
     public JFXButton testButton;
+    public JFXButton resumeButton;
     public JFXButton stopButton;
+    public JFXButton estimateButton;
+    public VBox estimateArea;
+    public Label estimateLabel;
+    public JFXButton useSuggestedButton;
 
     public VBox exportDependantArea;
     public JFXComboBox<Label> formatPicker;
     public JFXCheckBox angelicBox;
+    public JFXCheckBox exportArchiveCheckBox;
     public JFXButton storeMutantsButton;
 
     public VBox progressAres;
@@ -67,6 +78,8 @@ public class MutationTestPlanController {
     public VBox resultsArea;
     public Label mutantsText;
     public Label testCasesText;
+    public Label scoreText;
+    public Label killMatrixText;
     public StackPane root;
     public JFXTextField verifytgaTriesField;
     public JFXTextField timeUnitField;
@@ -76,8 +89,32 @@ public class MutationTestPlanController {
     public Pane advancedOptions;
     public Label testTimeText;
     public HBox operatorsOuterRegion;
+    public Label samplingLabel;
+    public HBox samplingOuterRegion;
+    public VBox samplingInnerRegion;
+    public JFXComboBox<Label> samplingPicker;
+    public VBox sampleSizeArea;
+    public HBox sampleSizeBox;
+    public JFXTextField sampleSizeField;
+    public JFXCheckBox sampleByErrorMarginCheckBox;
+    public HBox sampleErrorMarginBox;
+    public JFXTextField sampleErrorMarginField;
+    public Label sampleCostLabel;
     public JFXTextField stepBoundsField;
     public JFXCheckBox simulateTimeCheckBox;
+    public JFXCheckBox reuseTracesCheckBox;
+    public JFXCheckBox recordTracesCheckBox;
+    public JFXCheckBox replayRecordingCheckBox;
+    public JFXCheckBox useWorkersCheckBox;
+    public HBox workersBox;
+    public JFXTextField workersField;
+    public JFXComboBox<Label> schedulingPicker;
+    public HBox stopScoreBox;
+    public JFXCheckBox stopAtScoreCheckBox;
+    public JFXTextField stopScoreField;
+    public HBox stopFailuresBox;
+    public JFXCheckBox stopAtFailuresCheckBox;
+    public JFXTextField stopFailuresField;
     public JFXCheckBox passed;
     public JFXCheckBox outOfBounds;
     public JFXCheckBox maxWait;
@@ -85,7 +122,7 @@ public class MutationTestPlanController {
     public JFXCheckBox inc;
     public JFXCheckBox noRule;
     public JFXCheckBox mutNoDelay;
-    public VBox resultViews;
+    public ListView<TestResult> resultViews;
     public JFXButton retestButton;
     public JFXCheckBox failed;
     public JFXCheckBox primaryFailed;
@@ -110,7 +147,10 @@ public class MutationTestPlanController {
 
     private MutationTestPlan plan;
     private TestingHandler testingHandler;
-    public final ObservableList<TestResult> resultsToShow = new SimpleListProperty<>(FXCollections.observableArrayList());
+    private MutationTestPipeline pipeline;
+    private FilteredList<TestResult> resultsToShow;
+    private RunHistory runHistory;
+    private CostEstimate estimate;
 
 
     /* Properties */
@@ -122,6 +162,30 @@ public class MutationTestPlanController {
     public void setPlan(final MutationTestPlan plan) {
         this.plan = plan;
         testingHandler = new TestingHandler(plan);
+        pipeline = new MutationTestPipeline(plan, testingHandler);
+        resultsToShow = new FilteredList<>(plan.getResults(), result -> plan.shouldShow(result.getVerdict()));
+
+        // Write the metrics and the kill matrix of a run when it is done, after results that are still waiting to be added
+        plan.getStatusProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue.equals(MutationTestPlan.Status.IDLE)) Platform.runLater(pipeline::writeReports);
+        });
+    }
+
+    /**
+     * Gets the test results that should be shown to the user.
+     * This is a view of the results of the plan, filtered by the verdicts to show.
+     * @return the results to show
+     */
+    public FilteredList<TestResult> getResultsToShow() {
+        return resultsToShow;
+    }
+
+    /**
+     * Updates which test results to show, e.g. after changing which verdicts to show.
+     * Results are only re-filtered when this is called, not whenever a result is added.
+     */
+    public void updateResultsToShow() {
+        resultsToShow.setPredicate(result -> getPlan().shouldShow(result.getVerdict()));
     }
 
     public TestingHandler getTestingHandler() {
@@ -135,38 +199,76 @@ public class MutationTestPlanController {
      * Conducts the test.
      */
     public void onTestButtonPressed() {
-        getPlan().clearResults();
-
         // Find test model from test model picker
-        // Clone it, because we want to change its name
-        final Component testModel = Ecdar.getProject().findComponent(modelPicker.getValue().getText()).cloneForVerification();
+        pipeline.start(Ecdar.getProject().findComponent(modelPicker.getValue().getText()));
+    }
 
-        new MutationHandler(testModel, getPlan(), cases -> startGeneration(testModel, cases)).start();
+    /**
+     * Triggered when pressed the estimate button.
+     * Reads the history of the last run in a new thread, and then shows the estimated cost of running the plan.
+     */
+    public void onEstimateButtonPressed() {
+        estimateButton.setDisable(true);
+
+        new Thread(() -> {
+            final RunHistory history = Ecdar.projectDirectory.get() == null ? null : RunHistory.read(getPlan());
+
+            Platform.runLater(() -> {
+                runHistory = history;
+                estimate = CostEstimate.of(getPlan(), runHistory);
+                estimateButton.setDisable(false);
+                updateEstimate();
+                VisibilityHelper.show(estimateArea);
+            });
+        }).start();
     }
 
     /**
-     * Starts the test-case generation.
-     * If the status is not working, ignore instead
-     * @param testModel test model
-     * @param cases potential test-cases containing the mutants
+     * Updates the shown estimate, e.g. after changing options of the plan.
+     * The history of the last run is not read again.
+     * If no estimate is shown, nothing happens.
      */
-    private synchronized void startGeneration(final Component testModel, final List<MutationTestCase> cases) {
-        synchronized (getPlan()) {
-            if (getPlan().shouldStop()) {
-                getPlan().setStatus(MutationTestPlan.Status.IDLE);
-                return;
-            }
-        }
+    public void updateEstimate() {
+        if (estimate == null) return;
+
+        estimate = CostEstimate.of(getPlan(), runHistory);
+        estimateLabel.setText(estimate.getText());
+    }
+
+    /**
+     * Triggered when pressed the button for using the suggested concurrency.
+     * Sets the concurrent generation threads and instances of the system under test to the suggested ones.
+     */
+    public void onUseSuggestedButtonPressed() {
+        if (estimate == null) return;
 
-        new TestCaseGenerationHandler(getPlan(), testModel, cases, this::startTestDriver).start();
+        estimate.applySuggestion(getPlan());
+        updateEstimate();
     }
 
     /**
-     * Starts the test driver.
-     * @param cases the mutation test cases to test with
+     * Triggered when pressed the resume button.
+     * Resumes the latest run of the test plan from its checkpoint log.
      */
-    private void startTestDriver(final List<MutationTestCase> cases) {
-        getTestingHandler().testFromScratch(cases);
+    public void onResumeButtonPressed() {
+        final CheckpointLog log;
+        try {
+            log = CheckpointLog.resume(getPlan());
+        } catch (final IOException | MutationTestingException e) {
+            e.printStackTrace();
+            MutationTestPipeline.writeError(getPlan(), "Could not read checkpoint: " + e.getMessage());
+            return;
+        }
+
+        final Component original = Ecdar.getProject().findComponent(log.getTestModelName());
+        if (original == null || !log.matches(getPlan(), original)) {
+            log.close();
+            MutationTestPipeline.writeError(getPlan(),
+                    "Could not resume, since the test model or the test plan changed since the checkpoint. Press Test to start over.");
+            return;
+        }
+
+        pipeline.resume(log, original);
     }
 
     /**
@@ -183,15 +285,17 @@ public class MutationTestPlanController {
     /**
      * Triggered when pressed the retest button.
      * Retests the test-cases that are showing.
+     * Results of test-cases that the plan no longer has are kept, since they cannot be retested.
      */
     public void onRetestButtonPressed() {
         synchronized (getPlan()) {
-            final List<TestResult> results = new ArrayList<>(resultsToShow);
-            final List<MutationTestCase> cases = resultsToShow.stream().map(TestResult::getTestCase).collect(Collectors.toList());
+            final List<TestResult> results = resultsToShow.stream()
+                    .filter(result -> getPlan().getTestCase(result.getTestCaseId()) != null)
+                    .collect(Collectors.toList());
 
-            results.forEach(result -> getPlan().removeResult(result));
+            getPlan().removeResults(results);
 
-            getTestingHandler().retest(cases);
+            getTestingHandler().retest(results);
         }
     }
 
@@ -199,6 +303,41 @@ public class MutationTestPlanController {
      * Opens dialog to select a SUT.
      */
     public void onSelectSutButtonPressed() {
+        final String path = chooseSutPath();
+        if (path == null) return;
+
+        sutPathLabel.setText(path);
+        plan.setSutPath(path);
+    }
+
+    /**
+     * Opens dialog to select a variant of the SUT, e.g. another build of the same system.
+     * Test-cases are run on the variant as well.
+     */
+    public void onAddSutVariantButtonPressed() {
+        final String path = chooseSutPath();
+        if (path == null) return;
+
+        if (path.equals(plan.getSutPath()) || plan.getSutVariantPaths().contains(path)) {
+            Ecdar.showToast("The SUT " + path + " is already selected");
+            return;
+        }
+
+        plan.getSutVariantPaths().add(path);
+    }
+
+    /**
+     * Removes all variants of the SUT.
+     */
+    public void onClearSutVariantsButtonPressed() {
+        plan.getSutVariantPaths().clear();
+    }
+
+    /**
+     * Opens dialog to choose a SUT jar file.
+     * @return the path of the file relative to the project directory, or null if no file was chosen
+     */
+    private String chooseSutPath() {
         final FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Choose a SUT jar file");
         fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Jar files", "*.jar"));
@@ -218,13 +357,12 @@ public class MutationTestPlanController {
         }
 
         final File file = fileChooser.showOpenDialog(root.getScene().getWindow());
-        if (file != null) {
-            final String path = new File(Ecdar.projectDirectory.get()).toPath().relativize(file.toPath()).toFile().getPath().replace(File.separator, "/");
-            sutPathLabel.setText(path);
-            plan.setSutPath(path);
-        } else {
+        if (file == null) {
             Ecdar.showToast("Did not recognize selected file as a jar file");
+            return null;
         }
+
+        return new File(Ecdar.projectDirectory.get()).toPath().relativize(file.toPath()).toFile().getPath().replace(File.separator, "/");
     }
 
     /**
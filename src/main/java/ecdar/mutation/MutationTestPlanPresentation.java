@@ -7,7 +7,8 @@ import ecdar.Ecdar;
 import ecdar.abstractions.Component;
 import ecdar.controllers.CanvasController;
 import ecdar.controllers.EcdarController;
-import ecdar.mutation.models.ExpandableContent;
+import ecdar.mutation.models.MutantSample;
+import ecdar.mutation.models.MutationTestCase;
 import ecdar.mutation.models.MutationTestPlan;
 import ecdar.mutation.models.TestResult;
 import ecdar.mutation.operators.MutationOperator;
@@ -18,12 +19,12 @@ import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.collections.ListChangeListener;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Point2D;
 import javafx.scene.Node;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.Tooltip;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
@@ -37,6 +38,7 @@ import java.util.*;
  */
 public class MutationTestPlanPresentation extends HighLevelModelPresentation {
     private final MutationTestPlanController controller;
+    private final Set<TestResult> expandedResults = new HashSet<>();
 
     private double offSet, canvasHeight;
 
@@ -149,6 +151,7 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
 
         initializeModelPicker();
         initializeOperators();
+        initializeSampling();
         initializeActionPicker();
 
         initializeTestUI();
@@ -169,6 +172,9 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
      * Initializes handling of the status of the test plan.
      */
     private void InitializeStatusHandling() {
+        installTooltip(controller.resumeButton, "Continues the latest run of this test plan from its checkpoint. " +
+                "Recorded test-cases and results are reused, so only the remaining work is done.");
+
         handleStatusUpdate(null, getPlan().getStatus());
         getPlan().getStatusProperty().addListener(((observable, oldValue, newValue) -> handleStatusUpdate(oldValue, newValue)));
     }
@@ -182,6 +188,7 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
         switch (newValue) {
             case IDLE:
                 VisibilityHelper.show(controller.testButton);
+                VisibilityHelper.setVisibility(CheckpointLog.exists(getPlan()), controller.resumeButton);
                 VisibilityHelper.hide(controller.stopButton);
                 for (final Region region : getRegionsToDisableWhileWorking()) region.setDisable(false);
 
@@ -191,6 +198,7 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
                 break;
             case WORKING:
                 VisibilityHelper.hide(controller.testButton);
+                VisibilityHelper.hide(controller.resumeButton);
                 VisibilityHelper.show(controller.stopButton);
                 controller.stopButton.setDisable(false);
                 for (final Region region : getRegionsToDisableWhileWorking()) region.setDisable(true);
@@ -217,9 +225,42 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
      */
     private void initializeTestUI() {
         initializeSutPath();
+        initializeSutVariants();
         initializeTimeOptions();
         initializeAdvancedOptions();
         initializeTestButton();
+        initializeEstimate();
+    }
+
+    /**
+     * Initializes the estimate of the cost of testing.
+     * Once shown, the estimate is updated when options affecting it change.
+     */
+    private void initializeEstimate() {
+        installTooltip(controller.estimateButton, "Estimates the number of mutants, the time of test-case generation, " +
+                "and the time of running the SUT. Times are based on the last run of this test plan, " +
+                "scaled to the current time unit and step bounds.");
+        installTooltip(controller.useSuggestedButton, "Sets the concurrent generation threads and SUT instances " +
+                "to the ones suggested for the processors of this machine.");
+
+        final Runnable update = controller::updateEstimate;
+        getPlan().getTestModelProperty().addListener((observable, oldValue, newValue) -> update.run());
+        getPlan().getOperators().forEach(operator ->
+                operator.getSelectedProperty().addListener((observable, oldValue, newValue) -> update.run()));
+        getPlan().getSamplingModeProperty().addListener((observable, oldValue, newValue) -> update.run());
+        getPlan().getSampleSizeProperty().addListener((observable, oldValue, newValue) -> update.run());
+        getPlan().getSampleByErrorMarginProperty().addListener((observable, oldValue, newValue) -> update.run());
+        getPlan().getSampleErrorMarginProperty().addListener((observable, oldValue, newValue) -> update.run());
+        getPlan().getSutPathProperty().addListener((observable, oldValue, newValue) -> update.run());
+        getPlan().getSutVariantPaths().addListener((ListChangeListener<String>) change -> update.run());
+        getPlan().getConcurrentGenerationsThreadsProperty().addListener((observable, oldValue, newValue) -> update.run());
+        getPlan().getConcurrentSutInstancesProperty().addListener((observable, oldValue, newValue) -> update.run());
+        getPlan().getTimeUnitProperty().addListener((observable, oldValue, newValue) -> update.run());
+        getPlan().getSimulateTimeProperty().addListener((observable, oldValue, newValue) -> update.run());
+        getPlan().getStepBoundsProperty().addListener((observable, oldValue, newValue) -> update.run());
+        getPlan().getReplayRecordingProperty().addListener((observable, oldValue, newValue) -> update.run());
+        getPlan().getUseWorkersProperty().addListener((observable, oldValue, newValue) -> update.run());
+        getPlan().getWorkersProperty().addListener((observable, oldValue, newValue) -> update.run());
     }
 
     /**
@@ -228,6 +269,10 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
     private void initializeExportUI() {
         initializeFormatPicker();
         controller.angelicBox.selectedProperty().bindBidirectional(getPlan().getAngelicWhenExportProperty());
+
+        controller.exportArchiveCheckBox.selectedProperty().bindBidirectional(getPlan().getExportArchiveProperty());
+        installTooltip(controller.exportArchiveCheckBox, "Writes all mutants to one zip file instead of one file per mutant. " +
+                "The archive contains an index.json listing the id, operator, and file of each mutant.");
     }
 
     /**
@@ -246,6 +291,69 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
         initializePositiveIntegerTextField(controller.outputWaitTimeField, getPlan().getOutputWaitTimeProperty());
         initializePositiveIntegerTextField(controller.verifytgaTriesField, getPlan().getBackendTriesProperty());
         initializePositiveIntegerTextField(controller.stepBoundsField, getPlan().getStepBoundsProperty());
+
+        controller.reuseTracesCheckBox.selectedProperty().bindBidirectional(getPlan().getReuseTracesProperty());
+        installTooltip(controller.reuseTracesCheckBox, "Records the inputs, outputs, and delays of each run of the system under test. " +
+                "Before running a test-case, these traces are simulated on its mutant. " +
+                "If a trace shows an output that the mutant cannot do, the mutant is killed without running the system under test.");
+
+        controller.recordTracesCheckBox.selectedProperty().bindBidirectional(getPlan().getRecordTracesProperty());
+        installTooltip(controller.recordTracesCheckBox, "Records the inputs, outputs, and delays of each run of the system under test " +
+                "to a binary file in the tests folder of the project. " +
+                "Runs are added to the file across test runs.");
+
+        controller.replayRecordingCheckBox.selectedProperty().bindBidirectional(getPlan().getReplayRecordingProperty());
+        installTooltip(controller.replayRecordingCheckBox, "Re-evaluates the verdicts of the test-cases by simulating their recorded runs, " +
+                "instead of running the system under test. " +
+                "Use this to check changes to the test model or the mutation operators without running a slow system under test. " +
+                "Test-cases whose strategy no longer agrees with the recording get no result.");
+
+        controller.useWorkersCheckBox.selectedProperty().bindBidirectional(getPlan().getUseWorkersProperty());
+        installTooltip(controller.useWorkersCheckBox, "Runs the system under test from separate worker processes. " +
+                "Each worker runs the chosen number of SUT instances. " +
+                "Workers that finish their test-cases take test-cases from busy workers. " +
+                "If a worker stops responding, its test-cases are run by the other workers.");
+
+        initializePositiveIntegerTextField(controller.workersField, getPlan().getWorkersProperty());
+        controller.workersField.setDisable(!getPlan().shouldUseWorkers());
+        getPlan().getUseWorkersProperty().addListener((observable, oldValue, newValue) -> controller.workersField.setDisable(!newValue));
+
+        initializeScheduling();
+    }
+
+    /**
+     * Initializes the options for the order of test-cases and for stopping early.
+     */
+    private void initializeScheduling() {
+        final Map<MutationTestPlan.SchedulingPolicy, Label> labels = new LinkedHashMap<>();
+        labels.put(MutationTestPlan.SchedulingPolicy.GENERATION_ORDER, new Label("Run test-cases in generation order"));
+        labels.put(MutationTestPlan.SchedulingPolicy.SHORTEST_STRATEGY_FIRST, new Label("Run shortest strategies first"));
+        labels.put(MutationTestPlan.SchedulingPolicy.KILLING_OPERATORS_FIRST, new Label("Run historically killing operators first"));
+        controller.schedulingPicker.getItems().addAll(labels.values());
+
+        installTooltip(controller.schedulingPicker, "Shortest strategies first runs test-cases with the fewest strategy states first. " +
+                "Historically killing operators first runs test-cases of the operators whose mutants were killed most often " +
+                "in earlier runs of this test plan first.");
+
+        controller.schedulingPicker.setValue(labels.get(getPlan().getSchedulingPolicy()));
+        controller.schedulingPicker.valueProperty().addListener(((observable, oldValue, newValue) ->
+                labels.forEach((policy, label) -> {
+                    if (label == newValue) getPlan().setSchedulingPolicy(policy);
+                })));
+
+        controller.stopAtScoreCheckBox.selectedProperty().bindBidirectional(getPlan().getStopAtScoreProperty());
+        installTooltip(controller.stopAtScoreCheckBox, "Stops testing when the killed mutants make up the chosen share of all test-cases. " +
+                "The final mutation score is then at least the chosen score.");
+        initializePositiveIntegerTextField(controller.stopScoreField, getPlan().getStopScoreProperty());
+        controller.stopScoreField.setDisable(!getPlan().shouldStopAtScore());
+        getPlan().getStopAtScoreProperty().addListener((observable, oldValue, newValue) -> controller.stopScoreField.setDisable(!newValue));
+
+        controller.stopAtFailuresCheckBox.selectedProperty().bindBidirectional(getPlan().getStopAtFailuresProperty());
+        installTooltip(controller.stopAtFailuresCheckBox, "Stops testing when the system under test has failed the chosen number of test-cases. " +
+                "Use this for quick feedback on a broken build of the system under test.");
+        initializePositiveIntegerTextField(controller.stopFailuresField, getPlan().getStopFailuresProperty());
+        controller.stopFailuresField.setDisable(!getPlan().shouldStopAtFailures());
+        getPlan().getStopAtFailuresProperty().addListener((observable, oldValue, newValue) -> controller.stopFailuresField.setDisable(!newValue));
     }
 
     /**
@@ -276,11 +384,9 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
             return;
         }
 
-        for (final TestResult result : getPlan().getResults()) {
-            if (result.isFail()) {
-                displayFailFinalVerdict();
-                return;
-            }
+        if (getPlan().getResultCount(TestResult.getFailedVerdicts()) > 0) {
+            displayFailFinalVerdict();
+            return;
         }
 
         // If there is not more tests to do, display passed verdict
@@ -296,21 +402,21 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
      * Makes the background transparent in order to display that there is no final verdict yet.
      */
     private void displayNoFinalVerdict() {
-        controller.contentRegion.setBackground(new Background(new BackgroundFill(Color.color(0, 0, 0, 0), CornerRadii.EMPTY, Insets.EMPTY)));
+        controller.planRegion.setBackground(new Background(new BackgroundFill(Color.color(0, 0, 0, 0), CornerRadii.EMPTY, Insets.EMPTY)));
     }
 
     /**
      * Makes the background red in order to display that there is a failed test.
      */
     private void displayFailFinalVerdict() {
-        controller.contentRegion.setBackground(new Background(new BackgroundFill(Color.color(1, 0, 0, 0.1), CornerRadii.EMPTY, Insets.EMPTY)));
+        controller.planRegion.setBackground(new Background(new BackgroundFill(Color.color(1, 0, 0, 0.1), CornerRadii.EMPTY, Insets.EMPTY)));
     }
 
     /**
      * Makes the background green in order to display that the test are done and there is no failed tests.
      */
     private void displayPassFinalVerdict() {
-        controller.contentRegion.setBackground(new Background(new BackgroundFill(Color.color(0, 1, 0, 0.04), CornerRadii.EMPTY, Insets.EMPTY)));
+        controller.planRegion.setBackground(new Background(new BackgroundFill(Color.color(0, 1, 0, 0.04), CornerRadii.EMPTY, Insets.EMPTY)));
     }
 
     /**
@@ -335,7 +441,7 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
     private void initializeProgressAndResultsTexts() {
         // Show info when added
         controller.progressTextFlow.getChildren().addListener((ListChangeListener<Node>) change -> VisibilityHelper.show(controller.progressAres));
-        controller.mutantsText.textProperty().addListener(((observable, oldValue, newValue) -> VisibilityHelper.show(controller.resultsArea)));
+        controller.mutantsText.textProperty().addListener(((observable, oldValue, newValue) -> VisibilityHelper.show(controller.resultsArea, controller.resultViews)));
 
         // Add progress initially
         getPlan().getProgressTexts().forEach(text -> controller.progressTextFlow.getChildren().add(text));
@@ -351,6 +457,11 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
         controller.mutantsText.textProperty().bind(getPlan().getMutantsTextProperty());
         controller.testCasesText.textProperty().bind(getPlan().getTestCasesTextProperty());
         controller.testTimeText.textProperty().bindBidirectional(getPlan().getTestTimeTextProperty());
+
+        controller.killMatrixText.textProperty().bind(getPlan().getKillMatrixTextProperty());
+        VisibilityHelper.setVisibility(!getPlan().getKillMatrixText().isEmpty(), controller.killMatrixText);
+        getPlan().getKillMatrixTextProperty().addListener((observable, oldValue, newValue) ->
+                VisibilityHelper.setVisibility(!newValue.isEmpty(), controller.killMatrixText));
     }
 
     /**
@@ -402,12 +513,15 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
         // Update results to show when there are new results
         getPlan().getResults().addListener((ListChangeListener<TestResult>) c -> updateResults());
 
-        // Update results when a should-show property is changed
+        // Filter results again when a should-show property is changed
         Arrays.asList(TestResult.Verdict.values()).forEach(verdict ->
-                getPlan().getShouldShowProperty(verdict).addListener(((observable, oldValue, newValue) -> updateResults()))
+                getPlan().getShouldShowProperty(verdict).addListener(((observable, oldValue, newValue) -> {
+                    controller.updateResultsToShow();
+                    updateResults();
+                }))
         );
 
-        initializeExpandableList(controller.resultsToShow, controller.resultViews.getChildren());
+        initializeResultList();
     }
 
     /**
@@ -426,80 +540,132 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
 
     /**
      * Updates the views for the test results.
+     * The numbers are read from counters, so this does not iterate the results.
      */
     private void updateResults() {
-        VisibilityHelper.setPassedText(getPlan().getResults(TestResult.Verdict.PASS).size(), controller.passedNumber);
+        VisibilityHelper.setPassedText(getPlan().getResultCount(TestResult.Verdict.PASS), controller.passedNumber);
 
-        VisibilityHelper.setIncText(getPlan().getResults(TestResult.getIncVerdicts()).size(), controller.incNumber);
-        VisibilityHelper.setIncText(getPlan().getResults(TestResult.Verdict.OUT_OF_BOUNDS).size(), controller.outOfBoundsNumber);
-        VisibilityHelper.setIncText(getPlan().getResults(TestResult.Verdict.MAX_WAIT).size(), controller.maxWaitNumber);
-        VisibilityHelper.setIncText(getPlan().getResults(TestResult.Verdict.NON_DETERMINISM).size(), controller.nonDeterminismNumber);
-        VisibilityHelper.setIncText(getPlan().getResults(TestResult.Verdict.NO_RULE).size(), controller.noRuleNumber);
-        VisibilityHelper.setIncText(getPlan().getResults(TestResult.Verdict.MUT_NO_DELAY).size(), controller.mutNoDelayNumber);
+        VisibilityHelper.setIncText(getPlan().getResultCount(TestResult.getIncVerdicts()), controller.incNumber);
+        VisibilityHelper.setIncText(getPlan().getResultCount(TestResult.Verdict.OUT_OF_BOUNDS), controller.outOfBoundsNumber);
+        VisibilityHelper.setIncText(getPlan().getResultCount(TestResult.Verdict.MAX_WAIT), controller.maxWaitNumber);
+        VisibilityHelper.setIncText(getPlan().getResultCount(TestResult.Verdict.NON_DETERMINISM), controller.nonDeterminismNumber);
+        VisibilityHelper.setIncText(getPlan().getResultCount(TestResult.Verdict.NO_RULE), controller.noRuleNumber);
+        VisibilityHelper.setIncText(getPlan().getResultCount(TestResult.Verdict.MUT_NO_DELAY), controller.mutNoDelayNumber);
 
-        VisibilityHelper.setFailedText(getPlan().getResults(TestResult.getFailedVerdicts()).size(), controller.failedNumber);
-        VisibilityHelper.setFailedText(getPlan().getResults(TestResult.Verdict.FAIL_PRIMARY).size(), controller.primaryFailedNumber);
-        VisibilityHelper.setFailedText(getPlan().getResults(TestResult.Verdict.FAIL_NORMAL).size(), controller.normalFailedNumber);
+        VisibilityHelper.setFailedText(getPlan().getResultCount(TestResult.getFailedVerdicts()), controller.failedNumber);
+        VisibilityHelper.setFailedText(getPlan().getResultCount(TestResult.Verdict.FAIL_PRIMARY), controller.primaryFailedNumber);
+        VisibilityHelper.setFailedText(getPlan().getResultCount(TestResult.Verdict.FAIL_NORMAL), controller.normalFailedNumber);
 
-        controller.resultsToShow.clear();
-        controller.resultsToShow.addAll(getPlan().getResultsToShow());
+        updateScoreText();
 
         // Show retest button iff there are shown results
-        VisibilityHelper.setVisibility(!getPlan().getResultsToShow().isEmpty(), controller.retestButton);
+        VisibilityHelper.setVisibility(getPlan().getResultToShowCount() > 0, controller.retestButton);
     }
+
     /**
-     * Initializes handling of a list of test results.
-     * This method makes sure that the view list is adjusted when the model list changes.
-     * @param listToDisplay the list of test results to display
-     * @param viewList the list of nodes to add and remove nodes from
+     * Updates the text displaying the estimated mutation score of the latest sample of mutants.
+     * The text is hidden if there are no conclusive results yet.
      */
-    private void initializeExpandableList(final ObservableList<TestResult> listToDisplay, final List<Node> viewList) {
-        final Map<ExpandableContent, VBox> contentModelMap = new HashMap<>();
+    private void updateScoreText() {
+        final MutantSample sample = getPlan().getSample();
+        final MutantSample.ScoreEstimate estimate = sample == null ? null : sample.estimateScore();
 
-        listToDisplay.forEach(testCase -> addExpandableResultsToView(viewList, contentModelMap, testCase));
+        if (estimate == null) {
+            VisibilityHelper.hide(controller.scoreText);
+            return;
+        }
 
-        listToDisplay.addListener((ListChangeListener<TestResult>) change -> {
-            while (change.next()) {
-                change.getAddedSubList().forEach(testResult ->
-                        addExpandableResultsToView(viewList, contentModelMap, testResult));
+        if (sample.isComplete()) {
+            controller.scoreText.setText(String.format(Locale.ENGLISH, "Mutation score: %.1f%%", estimate.getScore() * 100));
+        } else {
+            controller.scoreText.setText("Estimated mutation score: " + estimate);
+        }
 
-                change.getRemoved().forEach(item -> viewList.remove(contentModelMap.get(item)));
+        VisibilityHelper.show(controller.scoreText);
+    }
+
+    /**
+     * Initializes the list view of the test results to show.
+     * The list view is virtualized, so only views of the visible results are created.
+     * Cells are reused when scrolling, so a view is built from a result whenever a cell is given a new result.
+     * Which results are expanded is kept here, since results are built from the result store when shown.
+     */
+    private void initializeResultList() {
+        // Forget removed results, such that they are collapsed if they are added again
+        getPlan().getResults().addListener((ListChangeListener<TestResult>) change -> {
+            while (change.next()) expandedResults.removeAll(change.getRemoved());
+        });
+
+        controller.resultViews.setItems(controller.getResultsToShow());
+        controller.resultViews.setCellFactory(listView -> new ListCell<TestResult>() {
+            @Override
+            protected void updateItem(final TestResult testResult, final boolean empty) {
+                super.updateItem(testResult, empty);
+
+                setText(null);
+
+                if (empty || testResult == null) {
+                    setGraphic(null);
+                    return;
+                }
+
+                setGraphic(makeResultView(testResult));
             }
         });
     }
 
-
     /**
-     * Adds a test result to af view list.
-     * @param viewList the view list visible to the user
-     * @param contentModelMap the map from models to views
-     * @param testResult the test result to add
+     * Constructs a view for a test result.
+     * The view consists of a header, that expands or collapses the content when clicked.
+     * If the plan has variants of the system under test, the header also shows the system under test of the result.
+     * The content is only constructed when expanded.
+     * @param testResult the test result
+     * @return the view
      */
-    private void addExpandableResultsToView(final List<Node> viewList,
-                                            final Map<ExpandableContent, VBox> contentModelMap,
-                                            final TestResult testResult) {
+    private Node makeResultView(final TestResult testResult) {
         final Label titleLabel = new Label();
+        final MutationTestCase testCase = getPlan().getTestCase(testResult.getTestCaseId());
+        final HBox header = new HBox(16, titleLabel, testCase == null ? new Text(testResult.getTestCaseId()) : testCase.getDescription());
+        if (!getPlan().getSutVariantPaths().isEmpty() && testResult.getSutPath() != null) {
+            final Label sutLabel = new Label(testResult.getSutPath());
+            sutLabel.setStyle("-fx-text-fill:GRAY;");
+            header.getChildren().add(sutLabel);
+        }
+        final VBox vBox = new VBox(header);
 
-        final HBox header = new HBox(16, titleLabel, testResult.getTitle());
+        updateResultView(testResult, titleLabel, vBox);
 
-        final Node content = makeResultContent(testResult);
+        header.setOnMouseClicked(e -> {
+            if (!expandedResults.remove(testResult)) expandedResults.add(testResult);
+            updateResultView(testResult, titleLabel, vBox);
+        });
 
-        final VBox vBox = new VBox(header, content);
-        contentModelMap.put(testResult, vBox);
+        return vBox;
+    }
 
-        VisibilityHelper.updateExpand(!testResult.isHidden(), titleLabel, content, testResult.getVerdict());
+    /**
+     * Expands or collapses the view of a test result according to whether the result is expanded.
+     * @param testResult the test result
+     * @param titleLabel the label in the header to show the expand arrow on
+     * @param vBox the view containing the header and possibly the content
+     */
+    private void updateResultView(final TestResult testResult, final Label titleLabel, final VBox vBox) {
+        // Remove old content, if any
+        if (vBox.getChildren().size() > 1) vBox.getChildren().remove(1, vBox.getChildren().size());
 
-        header.setOnMouseClicked(e -> {
-            testResult.setHidden(!testResult.isHidden());
-            VisibilityHelper.updateExpand(!testResult.isHidden(), titleLabel, content, testResult.getVerdict());
-        });
+        if (!expandedResults.contains(testResult)) {
+            VisibilityHelper.updateExpand(false, titleLabel, new VBox(), testResult.getVerdict());
+            return;
+        }
 
-        viewList.add(vBox);
+        final Node content = makeResultContent(testResult);
+        vBox.getChildren().add(content);
+        VisibilityHelper.updateExpand(true, titleLabel, content, testResult.getVerdict());
     }
 
     /**
      * Constructs content for a test result.
-     * This includes a label containing info, and a retest button.
+     * This includes a label containing info, and a retest button if the plan still has the test-case of the result.
      * @param testResult the test result
      * @return the content
      */
@@ -507,13 +673,15 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
         final Label content = new Label(testResult.getContent());
         content.setWrapText(true);
 
+        if (getPlan().getTestCase(testResult.getTestCaseId()) == null) return VisibilityHelper.surround(content);
+
         // Add a retest button
         final JFXButton retestButton = new JFXButton("Retest");
         retestButton.setPrefWidth(65);
         retestButton.setStyle("-fx-text-fill:WHITE;-fx-background-color:#4CAF50;-fx-font-size:14px;");
         retestButton.setOnMousePressed(event -> {
-            getPlan().getResults().remove(testResult);
-            controller.getTestingHandler().retest(testResult.getTestCase());
+            getPlan().removeResult(testResult);
+            controller.getTestingHandler().retest(testResult);
         });
 
         return VisibilityHelper.surround(new VBox(8, content, retestButton));
@@ -551,9 +719,9 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
      * Initializes width and height of the text editor field, such that it fills up the whole canvas.
      */
     private void initializeWidthAndHeight() {
-        controller.scrollPane.setPrefWidth(EcdarController.getActiveCanvasPresentation().getController().getWidthProperty().doubleValue());
+        controller.planRegion.setPrefWidth(EcdarController.getActiveCanvasPresentation().getController().getWidthProperty().doubleValue());
         EcdarController.getActiveCanvasPresentation().getController().getWidthProperty().addListener((observable, oldValue, newValue) ->
-                controller.scrollPane.setPrefWidth(newValue.doubleValue()));
+                controller.planRegion.setPrefWidth(newValue.doubleValue()));
 
         updateOffset(EcdarController.getActiveCanvasPresentation().getController().getInsetShouldShow().get());
         EcdarController.getActiveCanvasPresentation().getController().getInsetShouldShow().addListener((observable, oldValue, newValue) -> {
@@ -590,7 +758,7 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
      * Updates the height of the view.
      */
     private void updateHeight() {
-        controller.scrollPane.setPrefHeight(canvasHeight - EcdarController.getActiveCanvasPresentation().getController().DECLARATION_Y_MARGIN - offSet);
+        controller.planRegion.setPrefHeight(canvasHeight - EcdarController.getActiveCanvasPresentation().getController().DECLARATION_Y_MARGIN - offSet);
     }
 
     /**
@@ -616,6 +784,73 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
         });
     }
 
+    /**
+     * Initializes the UI for choosing how to sample mutants.
+     */
+    private void initializeSampling() {
+        VisibilityHelper.initializeExpand(controller.samplingLabel, controller.samplingOuterRegion);
+
+        final Map<MutationTestPlan.SamplingMode, Label> labels = new LinkedHashMap<>();
+        labels.put(MutationTestPlan.SamplingMode.ALL, new Label("Test all mutants"));
+        labels.put(MutationTestPlan.SamplingMode.UNIFORM, new Label("Uniform random sample"));
+        labels.put(MutationTestPlan.SamplingMode.STRATIFIED, new Label("Stratified sample per operator"));
+        labels.put(MutationTestPlan.SamplingMode.OPERATOR_WEIGHTED, new Label("Operator-weighted sample"));
+        controller.samplingPicker.getItems().addAll(labels.values());
+
+        installTooltip(controller.samplingPicker, "Uniform picks mutants at random. " +
+                "Stratified gives each operator a share of the sample proportional to its number of mutants. " +
+                "Operator-weighted gives each operator an equal share. " +
+                "The mutation score of all mutants is estimated from the sample.");
+
+        controller.samplingPicker.setValue(labels.get(getPlan().getSamplingMode()));
+        controller.samplingPicker.valueProperty().addListener(((observable, oldValue, newValue) ->
+                labels.forEach((mode, label) -> {
+                    if (label == newValue) getPlan().setSamplingMode(mode);
+                })));
+
+        initializePositiveIntegerTextField(controller.sampleSizeField, getPlan().getSampleSizeProperty());
+        initializePositiveIntegerTextField(controller.sampleErrorMarginField, getPlan().getSampleErrorMarginProperty());
+        controller.sampleByErrorMarginCheckBox.selectedProperty().bindBidirectional(getPlan().getSampleByErrorMarginProperty());
+
+        updateSamplingVisibility();
+        getPlan().getSamplingModeProperty().addListener((observable, oldValue, newValue) -> updateSamplingVisibility());
+        getPlan().getSampleByErrorMarginProperty().addListener((observable, oldValue, newValue) -> updateSamplingVisibility());
+
+        // Update the expected cost when anything affecting it changes
+        updateSampleCostText();
+        getPlan().getTestModelProperty().addListener((observable, oldValue, newValue) -> updateSampleCostText());
+        getPlan().getOperators().forEach(operator ->
+                operator.getSelectedProperty().addListener((observable, oldValue, newValue) -> updateSampleCostText()));
+        getPlan().getSamplingModeProperty().addListener((observable, oldValue, newValue) -> updateSampleCostText());
+        getPlan().getSampleSizeProperty().addListener((observable, oldValue, newValue) -> updateSampleCostText());
+        getPlan().getSampleByErrorMarginProperty().addListener((observable, oldValue, newValue) -> updateSampleCostText());
+        getPlan().getSampleErrorMarginProperty().addListener((observable, oldValue, newValue) -> updateSampleCostText());
+    }
+
+    /**
+     * Shows or hides the sample size options according to the sampling mode.
+     */
+    private void updateSamplingVisibility() {
+        VisibilityHelper.setVisibility(getPlan().getSamplingMode() != MutationTestPlan.SamplingMode.ALL, controller.sampleSizeArea);
+        controller.sampleSizeBox.setDisable(getPlan().isSampleByErrorMargin());
+        controller.sampleErrorMarginBox.setDisable(!getPlan().isSampleByErrorMargin());
+    }
+
+    /**
+     * Updates the text displaying the expected cost of testing.
+     * The cost is based on the upper limits of the selected operators, so it can be shown before mutating.
+     */
+    private void updateSampleCostText() {
+        final int upperLimit = getPlan().getMutantsUpperLimit();
+
+        if (getPlan().getSamplingMode() == MutationTestPlan.SamplingMode.ALL) {
+            controller.sampleCostLabel.setText("Up to " + upperLimit + " mutants to test.");
+        } else {
+            controller.sampleCostLabel.setText("Up to " + upperLimit + " mutants, of which up to " +
+                    getPlan().getTargetSampleSize(upperLimit) + " are sampled for testing.");
+        }
+    }
+
     /**
      * Gets which regions should be disabled while working.
      * @return the regions
@@ -625,14 +860,23 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
 
         regions.add(controller.modelPicker);
         regions.add(controller.operatorsInnerRegion);
+        regions.add(controller.samplingInnerRegion);
         regions.add(controller.actionPicker);
         regions.add(controller.demonicArea);
         regions.add(controller.selectSutButton);
         regions.add(controller.sutPathLabel);
+        regions.add(controller.sutVariantsArea);
         regions.add(controller.exportDependantArea);
         regions.add(controller.outputWaitTimeBox);
         regions.add(controller.timeUnitBox);
         regions.add(controller.simulateTimeCheckBox);
+        regions.add(controller.useWorkersCheckBox);
+        regions.add(controller.workersBox);
+        regions.add(controller.schedulingPicker);
+        regions.add(controller.stopScoreBox);
+        regions.add(controller.stopFailuresBox);
+        regions.add(controller.estimateButton);
+        regions.add(controller.useSuggestedButton);
 
         return regions;
     }
@@ -648,6 +892,29 @@ public class MutationTestPlanPresentation extends HighLevelModelPresentation {
         else controller.sutPathLabel.textProperty().addListener(((observable, oldValue, newValue) -> showSutArea()));
     }
 
+    /**
+     * Initializes the UI elements for variants of the system under test.
+     */
+    private void initializeSutVariants() {
+        installTooltip(controller.addSutVariantButton, "Adds another build of the system under test. " +
+                "Each test-case is generated once and run on the system under test and all its variants. " +
+                "When testing is done, a kill matrix of the verdicts of each variant is written next to the test plan.");
+
+        updateSutVariantsText();
+        getPlan().getSutVariantPaths().addListener((ListChangeListener<String>) change -> updateSutVariantsText());
+    }
+
+    /**
+     * Updates the text listing the variants of the system under test.
+     */
+    private void updateSutVariantsText() {
+        final List<String> variants = getPlan().getSutVariantPaths();
+
+        controller.sutVariantsLabel.setText(variants.isEmpty() ? "No variants of the SUT." :
+                "SUT variants:\n" + String.join("\n", variants));
+        VisibilityHelper.setVisibility(!variants.isEmpty(), controller.clearSutVariantsButton);
+    }
+
     /**
      * Makes the select system under test button grey.
      * Shows some UI elements.
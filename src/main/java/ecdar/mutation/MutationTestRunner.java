@@ -0,0 +1,101 @@
+package ecdar.mutation;
+
+import ecdar.abstractions.Component;
+import ecdar.mutation.models.MutationTestPlan;
+import ecdar.mutation.models.TestResult;
+import ecdar.utility.helpers.FxThreadHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runner of a test plan without the user interface, e.g. from the command line.
+ * Like pressing Test in the test plan, this runs the {@link MutationTestPipeline} of the plan:
+ * it mutates the test model, generates test-cases, and runs them on the system under test.
+ * The JavaFX platform need not be started: without it, the handlers report in the event thread of {@link FxThreadHelper}.
+ * Progress is received through a {@link MutationTestPlan.ProgressListener} and printed to the error stream,
+ * and errors written to the progress are collected.
+ */
+public class MutationTestRunner {
+    private final MutationTestPlan plan;
+    private final MutationTestPipeline pipeline;
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private final List<TestResult> results = new ArrayList<>();
+
+    /**
+     * Constructs.
+     * @param plan the test plan to run
+     */
+    public MutationTestRunner(final MutationTestPlan plan) {
+        this.plan = plan;
+        this.pipeline = new MutationTestPipeline(plan, new TestingHandler(plan));
+
+        plan.addProgressListener((message, isError) -> {
+            System.err.println(plan.getName() + ": " + message);
+            if (isError) errors.add(message);
+        });
+    }
+
+
+    /* Properties */
+
+    /**
+     * Gets the errors that happened while running.
+     * @return the error messages
+     */
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    /**
+     * Gets the results of the run.
+     * @return a copy of the results
+     */
+    public List<TestResult> getResults() {
+        synchronized (results) {
+            return new ArrayList<>(results);
+        }
+    }
+
+
+    /* Other */
+
+    /**
+     * Runs the plan from scratch, and waits until it is done.
+     * Afterwards, the metrics reports and, if the plan has variants of the system under test, the kill matrix are written.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void run() throws InterruptedException {
+        final Component original = plan.getTestModel();
+        if (original == null) {
+            errors.add("Test plan " + plan.getName() + " has no test model");
+            return;
+        }
+
+        final CountDownLatch done = new CountDownLatch(1);
+        plan.getStatusProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue.equals(MutationTestPlan.Status.IDLE) || newValue.equals(MutationTestPlan.Status.ERROR)) done.countDown();
+        });
+
+        FxThreadHelper.runLater(() -> pipeline.start(original));
+        done.await();
+
+        // Take the results and write the reports after results that are still waiting to be added
+        CompletableFuture.supplyAsync(() -> {
+            synchronized (results) {
+                results.addAll(plan.getResults());
+            }
+            return pipeline.writeReports();
+        }, FxThreadHelper::runLater).thenCompose(written -> written).join();
+
+        // Wait for errors writing the reports, which are written to the progress later
+        final CountDownLatch drained = new CountDownLatch(1);
+        FxThreadHelper.runLater(drained::countDown);
+        drained.await();
+    }
+}
@@ -0,0 +1,228 @@
+package ecdar.mutation;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import ecdar.Ecdar;
+import ecdar.abstractions.Component;
+import ecdar.abstractions.Declarations;
+import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.models.MutationTestPlan;
+import ecdar.mutation.models.NonRefinementStrategy;
+import ecdar.mutation.models.TestResult;
+import javafx.collections.ListChangeListener;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Text;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A worker process for running test-cases on the system under test.
+ * The worker is started by a {@link WorkerPool} and communicates with it through its standard input and output.
+ * Each message is a single line of JSON with a type.
+ *
+ * From the pool:
+ * plan: the options of the test plan, the project directory, and the global declarations of the project. Sent once, before any jobs.
+ * job: a test-case to run, with the test model, the mutant, the lines of the strategy, and the system under test to run it on.
+ * stop: stop running test-cases.
+ *
+ * To the pool:
+ * heartbeat: sent periodically, so the pool knows that the worker is alive.
+ * result: the result of a job, with the id of the test-case and the system under test. Without a verdict, if the job was stopped.
+ *         With the trace of the system under test, if the plan records traces.
+ * error: an error occurred. The worker cannot be trusted to finish its jobs.
+ */
+public class MutationTestWorker {
+    static final String TYPE = "type";
+    static final String PLAN = "plan";
+    static final String PROJECT_DIRECTORY = "projectDirectory";
+    static final String GLOBAL_DECLARATIONS = "globalDeclarations";
+    static final String JOB = "job";
+    static final String STOP = "stop";
+    static final String HEARTBEAT = "heartbeat";
+    static final String RESULT = "result";
+    static final String ERROR = "error";
+    static final String ID = "id";
+    static final String TEST_MODEL = "testModel";
+    static final String MUTANT = "mutant";
+    static final String STRATEGY = "strategy";
+    static final String SUT = "sut";
+    static final String VERDICT = "verdict";
+    static final String REASON = "reason";
+    static final String TRACE = "trace";
+    static final String SUT_TRACE = "sutTrace";
+    static final String MESSAGE = "message";
+
+    static final long HEARTBEAT_INTERVAL = 1000; // in ms
+
+    // Messages are written directly to the standard output, since System.out is redirected
+    private final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out)));
+    private MutationTestPlan plan;
+
+
+    /* Static helpers */
+
+    /**
+     * Starts a worker.
+     * The worker stops when its standard input is closed.
+     * @param args not used
+     */
+    public static void main(final String[] args) {
+        // Keep the standard output for messages, even if something prints to System.out
+        System.setOut(System.err);
+
+        new MutationTestWorker().run();
+        System.exit(0);
+    }
+
+
+    /* Other */
+
+    /**
+     * Sends heartbeats and handles messages until the standard input is closed.
+     */
+    private void run() {
+        final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleAtFixedRate(() -> send(message(HEARTBEAT)), 0, HEARTBEAT_INTERVAL, TimeUnit.MILLISECONDS);
+
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) handleMessage(new JsonParser().parse(line).getAsJsonObject());
+            }
+        } catch (final IOException e) {
+            e.printStackTrace();
+        }
+
+        if (plan != null) plan.setStatus(MutationTestPlan.Status.STOPPING);
+        heartbeats.shutdownNow();
+    }
+
+    /**
+     * Handles a message from the pool.
+     * @param json the message
+     */
+    private void handleMessage(final JsonObject json) {
+        switch (json.get(TYPE).getAsString()) {
+            case PLAN:
+                Ecdar.projectDirectory.set(json.get(PROJECT_DIRECTORY).getAsString());
+
+                // The components of jobs refer to the project, e.g. to the typedefs of the global declarations
+                Ecdar.setUpWithoutUI().setGlobalDeclarations(new Declarations(json.getAsJsonObject(GLOBAL_DECLARATIONS)));
+                initializePlan(new MutationTestPlan(json.getAsJsonObject(PLAN)));
+                break;
+            case JOB:
+                new Thread(() -> runJob(json)).start();
+                break;
+            case STOP:
+                if (plan != null) plan.setStatus(MutationTestPlan.Status.STOPPING);
+                break;
+            default:
+                System.err.println("Worker did not understand message " + json);
+        }
+    }
+
+    /**
+     * Initializes the test plan to run jobs with.
+     * Errors written to the progress of the plan are forwarded to the pool.
+     * @param plan the plan
+     */
+    private void initializePlan(final MutationTestPlan plan) {
+        this.plan = plan;
+        plan.setStatus(MutationTestPlan.Status.WORKING);
+
+        plan.getProgressTexts().addListener((ListChangeListener<Text>) change -> {
+            while (change.next()) {
+                change.getAddedSubList().stream().filter(text -> Color.RED.equals(text.getFill())).forEach(text -> {
+                    final JsonObject message = message(ERROR);
+                    message.addProperty(MESSAGE, text.getText());
+                    send(message);
+                });
+            }
+        });
+    }
+
+    /**
+     * Runs a job by running the test-case in a test driver.
+     * The result is sent to the pool.
+     * @param json the job message
+     */
+    private void runJob(final JsonObject json) {
+        final String id = json.get(ID).getAsString();
+        final String sutPath = json.has(SUT) ? json.get(SUT).getAsString() : plan.getSutPath();
+
+        final MutationTestCase testCase = new MutationTestCase(new Component(json.getAsJsonObject(TEST_MODEL)),
+                new Component(json.getAsJsonObject(MUTANT)), id, null);
+
+        final List<String> lines = new ArrayList<>();
+        json.getAsJsonArray(STRATEGY).forEach(line -> lines.add(line.getAsString()));
+
+        try {
+            testCase.setStrategy(new NonRefinementStrategy(lines));
+        } catch (final MutationTestingException e) {
+            e.printStackTrace();
+
+            final JsonObject message = message(ERROR);
+            message.addProperty(MESSAGE, "Error while parsing strategy of test-case " + id + ": " + e.getMessage());
+            send(message);
+            return;
+        }
+
+        new TestDriver(testCase, plan, sutPath, result -> send(makeResultMessage(id, sutPath, result))).start();
+    }
+
+    /**
+     * Makes a message containing a result.
+     * @param id the id of the test-case
+     * @param sutPath the path of the system under test the test-case was run on
+     * @param result the result, or null if the job was stopped
+     * @return the message
+     */
+    private static JsonObject makeResultMessage(final String id, final String sutPath, final TestResult result) {
+        final JsonObject message = message(RESULT);
+        message.addProperty(ID, id);
+        message.addProperty(SUT, sutPath);
+
+        if (result != null) {
+            message.addProperty(VERDICT, result.getVerdict().name());
+            if (result.getReason() != null) message.addProperty(REASON, result.getReason());
+            message.add(TRACE, result.getTrace().toJson());
+            if (result.getSutTrace() != null) message.add(SUT_TRACE, result.getSutTrace().toJson());
+        }
+
+        return message;
+    }
+
+    /**
+     * Makes an empty message of some type.
+     * @param type the type
+     * @return the message
+     */
+    static JsonObject message(final String type) {
+        final JsonObject message = new JsonObject();
+        message.addProperty(TYPE, type);
+        return message;
+    }
+
+    /**
+     * Sends a message to the pool.
+     * @param message the message
+     */
+    private synchronized void send(final JsonObject message) {
+        try {
+            writer.write(message.toString());
+            writer.newLine();
+            writer.flush();
+        } catch (final IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import ecdar.abstractions.Component;
 import ecdar.abstractions.Edge;
 import ecdar.abstractions.EdgeStatus;
 import ecdar.abstractions.Location;
+import ecdar.mutation.models.CompactTrace;
 import ecdar.mutation.models.ComponentSimulation;
 import ecdar.utility.ExpressionHelper;
 
@@ -22,7 +23,7 @@ public class SimpleComponentSimulation implements ComponentSimulation {
     private Location currentLocation;
     private final Map<String, Double> clockValuations = new HashMap<>();
     private final Map<String, Integer> localValuations = new HashMap<>();
-    private final List<String> trace = new ArrayList<>();
+    private final CompactTrace trace = new CompactTrace();
 
     /**
      * Constructs.
@@ -94,9 +95,6 @@ public class SimpleComponentSimulation implements ComponentSimulation {
 
     /* Other methods */
 
-    private boolean lastActionWasDelay = false;
-    private double accumulatedDelay = 0.0;
-
     /**
      * Delays.
      * The delay is run successfully if the invariant of the current location still holds.
@@ -106,14 +104,7 @@ public class SimpleComponentSimulation implements ComponentSimulation {
     public boolean delay(final double time) {
         getClocks().forEach(c -> clockValuations.put(c, clockValuations.get(c) + time));
 
-        accumulatedDelay += time;
-        final String traceDelay = "delay " + String.format("%.2f", accumulatedDelay);
-
-        // If last action was also a delay
-        if (lastActionWasDelay) trace.set(trace.size() - 1, traceDelay);
-        else trace.add(traceDelay);
-
-        lastActionWasDelay = true;
+        trace.addDelay(time);
 
         final String invariant = getCurrentLocation().getInvariant();
         return invariant.isEmpty() || ExpressionHelper.evaluateBooleanExpression(invariant, getAllValuations());
@@ -196,9 +187,7 @@ public class SimpleComponentSimulation implements ComponentSimulation {
 
         runUpdateProperty(edges.get(0).getUpdate());
 
-        trace.add("input " + sync);
-        lastActionWasDelay = false;
-        accumulatedDelay = 0.0;
+        trace.addInput(sync);
     }
 
     /**
@@ -225,14 +214,20 @@ public class SimpleComponentSimulation implements ComponentSimulation {
 
         runUpdateProperty(edges.get(0).getUpdate());
 
-        trace.add("output " + sync);
-        lastActionWasDelay = false;
-        accumulatedDelay = 0.0;
+        trace.addOutput(sync);
 
         return true;
     }
 
+    /**
+     * Gets the trace as readable strings.
+     * @return the trace
+     */
     public List<String> getTrace() {
+        return trace.toStrings();
+    }
+
+    public CompactTrace getCompactTrace() {
         return trace;
     }
 }
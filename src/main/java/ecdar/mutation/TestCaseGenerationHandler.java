@@ -8,10 +8,14 @@ import ecdar.backend.BackendDriverManager;
 import ecdar.backend.BackendException;
 import ecdar.backend.BackendHelper;
 import ecdar.backend.jECDARDriver;
+import ecdar.mutation.metrics.EngineSpawnEvent;
+import ecdar.mutation.metrics.GenerationEvent;
+import ecdar.mutation.metrics.PipelineMetrics;
 import ecdar.mutation.models.MutationTestCase;
 import ecdar.mutation.models.MutationTestPlan;
 import ecdar.mutation.models.NonRefinementStrategy;
-import javafx.application.Platform;
+import ecdar.mutation.models.StrategyParser;
+import ecdar.utility.helpers.FxThreadHelper;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 import org.apache.commons.io.FileUtils;
@@ -31,6 +35,7 @@ import java.util.stream.Collectors;
 
 /**
  * Handler for generating test-cases.
+ * Strategies recorded in the checkpoint log of the plan are reused rather than generated again.
  */
 class TestCaseGenerationHandler implements ConcurrentJobsHandler {
     private final MutationTestPlan plan;
@@ -105,7 +110,7 @@ class TestCaseGenerationHandler implements ConcurrentJobsHandler {
 
     @Override
     public void onStopped() {
-        Platform.runLater(() -> getPlan().setStatus(MutationTestPlan.Status.IDLE));
+        FxThreadHelper.runLater(() -> getPlan().setStatus(MutationTestPlan.Status.IDLE));
     }
 
     @Override
@@ -126,7 +131,7 @@ class TestCaseGenerationHandler implements ConcurrentJobsHandler {
 
     @Override
     public void onProgressRemaining(final int remaining) {
-        Platform.runLater(() -> getPlan().writeProgress(
+        FxThreadHelper.runLater(() -> getPlan().writeProgress(
                 "Generating test-cases... (" + remaining + " mutant" + (remaining == 1 ? "" : "s") + " remaining)"
         ));
     }
@@ -154,80 +159,151 @@ class TestCaseGenerationHandler implements ConcurrentJobsHandler {
         project.setSystemDeclarations(new SimpleComponentsSystemDeclarations(testModel, mutant));
 
         new Thread(() -> {
+            final GenerationEvent event = new GenerationEvent(testCase.getId());
+
             try {
-                // Store the project and the refinement query as backend XML
-                final String modelPath;
-                try {
-                    modelPath = BackendHelper.storeBackendModel(project, testCase.getId());
-                } catch (IOException | BackendException | URISyntaxException e) {
-                    throw new MutationTestingException("Error while storing backend model", e);
-                }
+                generateTestCase(testCase, project, tries, event);
+            } finally {
+                PipelineMetrics.finish(getPlan(), event);
+            }
+        }).start();
+    }
 
-                List<String> lines = getProcessInputLines(startProcessToFetchStrategy(modelPath));
+    /**
+     * Generates a test-case by reusing the checkpoint log or by running the engine.
+     * This blocks until the engine is done, so it should not run in the JavaFX thread.
+     *
+     * @param testCase potential test-case containing the test model, the mutant, and an id
+     * @param project  project containing the test model and the mutant
+     * @param tries    number of tries with empty response from the backend before giving up
+     * @param event    event to record the outcome and the engine spawn time in
+     */
+    private void generateTestCase(final MutationTestCase testCase, final Project project, final int tries, final GenerationEvent event) {
+        if (reuseCheckpoint(testCase)) {
+            event.setOutcome(GenerationEvent.CHECKPOINT);
+            return;
+        }
 
-                // If refinement, no test-case to generate.
-                // ToDo (Might not be an issue after switching away from verifytga):
-                // I use endsWith rather than contains,
-                // since verifytga sometimes output some weird symbols at the start of this line.
-                if (lines.stream().anyMatch(line -> line.endsWith(" -- Property is satisfied."))) {
-                    Platform.runLater(this::onGenerationJobDone);
-                    return;
-                }
+        try {
+            // Store the project and the refinement query as backend XML
+            final String modelPath;
+            try {
+                modelPath = BackendHelper.storeBackendModel(project, testCase.getId());
+            } catch (IOException | BackendException | URISyntaxException e) {
+                throw new MutationTestingException("Error while storing backend model", e);
+            }
 
-                // ToDo (Might not be an issue after switching away from verifytga):
-                // Verifytga should output that the property is not satisfied
-                // If it does not, then this is an error
-                if (lines.stream().noneMatch(line -> line.endsWith(" -- Property is NOT satisfied."))) {
-                    if (lines.isEmpty()) {
-                        if (tries > 1) {
-                            final int newTries = tries - 1;
-                            Ecdar.showToast("Empty response from backend with " + testCase.getId() +
-                                    ". We will try again. " + newTries + " tr" + (newTries == 1 ? "y" : "ies") +
-                                    " left.");
-                            generateTestCase(testCase, tries - 1);
-                            return;
-                        } else {
-                            throw new MutationTestingException("Output from backend is empty. Model: " + modelPath);
-                        }
-                    }
+            final EngineSpawnEvent spawnEvent = new EngineSpawnEvent(testCase.getId());
+            final Process process = startProcessToFetchStrategy(modelPath);
+            spawnEvent.finish();
+            event.setEngineSpawnTime(spawnEvent.getNanos());
 
-                    throw new MutationTestingException("Output from backend not understood: " + String.join("\n", lines) + "\n" +
-                            "Model: " + modelPath);
-                }
+            // Keep the lines of the strategy, if they should be recorded or sent to workers
+            final StrategyParser parser = parseProcessOutput(process,
+                    getPlan().getCheckpointLog() != null || getPlan().shouldUseWorkers());
 
-                int strategyIndex = lines.indexOf("Strategy for the attacker:");
+            // If refinement, no test-case to generate.
+            if (parser.isRefinement()) {
+                final CheckpointLog log = getPlan().getCheckpointLog();
+                if (log != null) log.logRefinement(testCase.getId());
 
-                // If no such index, error
-                if (strategyIndex < 0) {
-                    throw new MutationTestingException("Output from backend not understood: " + String.join("\n", lines) + "\n" +
-                            "Model: " + modelPath);
-                }
+                event.setOutcome(GenerationEvent.REFINEMENT);
 
-                testCase.setStrategy(new NonRefinementStrategy(lines.subList(strategyIndex + 2, lines.size())));
-
-                finishedTestCases.add(testCase);
-            } catch (MutationTestingException | IOException | BackendException e) {
-                e.printStackTrace();
-
-                // Only show error if the process is not already being stopped
-                if (getPlan().getStatus().equals(MutationTestPlan.Status.WORKING)) {
-                    getPlan().setStatus(MutationTestPlan.Status.ERROR);
-                    Platform.runLater(() -> {
-                        final String message = "Error while generating test-case " + testCase.getId() + ": " + e.getMessage();
-                        final Text text = new Text(message);
-                        text.setFill(Color.RED);
-                        getPlan().writeProgress(text);
-                        Ecdar.showToast(message);
-                    });
+                FxThreadHelper.runLater(this::onGenerationJobDone);
+                return;
+            }
+
+            // ToDo (Might not be an issue after switching away from verifytga):
+            // Verifytga should output that the property is not satisfied
+            // If it does not, then this is an error
+            if (!parser.isNonRefinement()) {
+                if (parser.isEmpty()) {
+                    if (tries > 1) {
+                        final int newTries = tries - 1;
+                        Ecdar.showToast("Empty response from backend with " + testCase.getId() +
+                                ". We will try again. " + newTries + " tr" + (newTries == 1 ? "y" : "ies") +
+                                " left.");
+                        event.setOutcome(GenerationEvent.RETRY);
+                        generateTestCase(testCase, tries - 1);
+                        return;
+                    } else {
+                        throw new MutationTestingException("Output from backend is empty. Model: " + modelPath);
+                    }
                 }
 
-                jobsDriver.onJobDone();
-                return;
+                throw new MutationTestingException("Output from backend not understood: " + parser.getExcerpt() + "\n" +
+                        "Model: " + modelPath);
             }
 
-            // JavaFX elements cannot be updated in another thread, so make it run in a JavaFX thread at some point
-            Platform.runLater(this::onGenerationJobDone);
-        }).start();
+            // If no strategy, error
+            if (parser.getStrategy() == null) {
+                throw new MutationTestingException("Output from backend not understood: " + parser.getExcerpt() + "\n" +
+                        "Model: " + modelPath);
+            }
+
+            testCase.setStrategy(parser.getStrategy());
+
+            // Worker processes construct the strategy themselves
+            if (getPlan().shouldUseWorkers()) testCase.setStrategyLines(parser.getStrategyLines());
+
+            final CheckpointLog log = getPlan().getCheckpointLog();
+            if (log != null && parser.getStrategyLines() != null) log.logStrategy(testCase.getId(), parser.getStrategyLines());
+
+            finishedTestCases.add(testCase);
+            event.setOutcome(GenerationEvent.STRATEGY);
+        } catch (MutationTestingException | IOException | BackendException e) {
+            e.printStackTrace();
+
+            // Only show error if the process is not already being stopped
+            if (getPlan().getStatus().equals(MutationTestPlan.Status.WORKING)) {
+                getPlan().setStatus(MutationTestPlan.Status.ERROR);
+                FxThreadHelper.runLater(() -> {
+                    final String message = "Error while generating test-case " + testCase.getId() + ": " + e.getMessage();
+                    final Text text = new Text(message);
+                    text.setFill(Color.RED);
+                    getPlan().writeProgress(text);
+                    Ecdar.showToast(message);
+                });
+            }
+
+            jobsDriver.onJobDone();
+            return;
+        }
+
+        // JavaFX elements cannot be updated in another thread, so make it run in a JavaFX thread at some point
+        FxThreadHelper.runLater(this::onGenerationJobDone);
+    }
+
+    /**
+     * Reuses the outcome of a generation recorded in the checkpoint log of the plan, if any.
+     * @param testCase potential test-case containing the mutant
+     * @return true iff an outcome was recorded, so the test-case should not be generated
+     */
+    private boolean reuseCheckpoint(final MutationTestCase testCase) {
+        final CheckpointLog log = getPlan().getCheckpointLog();
+        if (log == null) return false;
+
+        if (log.isRefinement(testCase.getId())) {
+            FxThreadHelper.runLater(this::onGenerationJobDone);
+            return true;
+        }
+
+        final List<String> strategyLines = log.getStrategyLines(testCase.getId());
+        if (strategyLines == null) return false;
+
+        try {
+            testCase.setStrategy(new NonRefinementStrategy(strategyLines));
+        } catch (final MutationTestingException e) {
+            // Generate it again instead
+            e.printStackTrace();
+            return false;
+        }
+
+        if (getPlan().shouldUseWorkers()) testCase.setStrategyLines(strategyLines);
+
+        finishedTestCases.add(testCase);
+        FxThreadHelper.runLater(this::onGenerationJobDone);
+        return true;
     }
 
     /**
@@ -244,24 +320,28 @@ class TestCaseGenerationHandler implements ConcurrentJobsHandler {
     }
 
     /**
-     * Gets the lines from the input stream of the process.
-     * If an error occurs, this method tells the user and signals this controller to stop.
+     * Parses the input stream of the process, while it is read.
+     * If the strategy cannot be parsed, the process is destroyed, as the rest of its output will not be read.
      *
-     * @param process the process running the backend
-     * @return the input lines. Each line is without the newline character.
-     * @throws MutationTestingException if the process has a non-empty error stream
+     * @param process           the process running the backend
+     * @param keepStrategyLines true iff the lines of the strategy should also be kept as text
+     * @return the parser containing the result
+     * @throws MutationTestingException if the strategy could not be parsed, or if the process has a non-empty error stream
      * @throws IOException              if an IO error occurs
      */
-    private static List<String> getProcessInputLines(final Process process) throws MutationTestingException, IOException {
-        final List<String> lines;
+    private static StrategyParser parseProcessOutput(final Process process, final boolean keepStrategyLines) throws MutationTestingException, IOException {
+        final StrategyParser parser = new StrategyParser(keepStrategyLines);
 
         try (final BufferedReader inputReader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            lines = inputReader.lines().collect(Collectors.toList());
+            parser.parse(inputReader);
+        } catch (final MutationTestingException e) {
+            process.destroy();
+            throw e;
         }
 
         checkProcessErrorStream(process);
 
-        return lines;
+        return parser;
     }
 
     /**
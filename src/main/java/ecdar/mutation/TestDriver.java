@@ -2,8 +2,11 @@ package ecdar.mutation;
 
 import ecdar.Ecdar;
 import ecdar.abstractions.EdgeStatus;
+import ecdar.mutation.metrics.PipelineMetrics;
+import ecdar.mutation.metrics.SutStartupEvent;
+import ecdar.mutation.metrics.TestRunEvent;
 import ecdar.mutation.models.*;
-import javafx.application.Platform;
+import ecdar.utility.helpers.FxThreadHelper;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 
@@ -21,13 +24,16 @@ import java.util.function.Consumer;
 public class TestDriver {
     private final MutationTestCase testCase;
     private final MutationTestPlan plan;
+    private final String sutPath;
     private AsyncInputReader reader;
     private final Consumer<TestResult> resultConsumer;
     private Process sut;
     private final SimpleComponentSimulation testModelSimulation, mutantSimulation;
+    private final CompactTrace sutTrace;
     private BufferedWriter writer;
     private MutationTestTimeHandler timeHandler;
     private int step = 0;
+    private final TestRunEvent event;
 
     /**
      * Constructor.
@@ -39,12 +45,31 @@ public class TestDriver {
      *                       the consumer is called with null as argument
      */
     TestDriver(final MutationTestCase testCase, final MutationTestPlan plan, final Consumer<TestResult> resultConsumer) {
+        this(testCase, plan, plan.getSutPath(), resultConsumer);
+    }
+
+    /**
+     * Constructor for running on a specific system under test, e.g. a variant of the system under test of the plan.
+     * @param testCase test-case to run
+     * @param plan test plan to fetch information about how to test
+     * @param sutPath path of the system under test to run, relative to the project directory
+     * @param resultConsumer a consumer to be called when testing is done.
+     *                       This is always called exactly once.
+     *                       If an error happens, or if the test plan signals to stop,
+     *                       the consumer is called with null as argument
+     */
+    TestDriver(final MutationTestCase testCase, final MutationTestPlan plan, final String sutPath,
+               final Consumer<TestResult> resultConsumer) {
         this.testCase = testCase;
         this.plan = plan;
+        this.sutPath = sutPath;
         this.resultConsumer = resultConsumer;
 
         testModelSimulation = new SimpleComponentSimulation(testCase.getTestModel());
         mutantSimulation = new SimpleComponentSimulation(testCase.getMutant());
+        sutTrace = plan.shouldRecordTraces() ? new CompactTrace() : null;
+
+        event = new TestRunEvent(testCase.getId());
     }
 
 
@@ -83,12 +108,15 @@ public class TestDriver {
      */
     public void start() {
         // Start process
+        final SutStartupEvent startupEvent = new SutStartupEvent(testCase.getId());
         try {
-            sut = Runtime.getRuntime().exec("java -jar " + Ecdar.projectDirectory.get() + File.separator + getPlan().getSutPath().replace("/", File.separator));
+            sut = Runtime.getRuntime().exec("java -jar " + Ecdar.projectDirectory.get() + File.separator + sutPath.replace("/", File.separator));
         } catch (final IOException e) {
             handleException(e);
             return;
         }
+        startupEvent.finish();
+        event.setSutStartupTime(startupEvent.getNanos());
 
         writer = new BufferedWriter(new OutputStreamWriter(sut.getOutputStream()));
         reader = new AsyncInputReader(sut);
@@ -112,6 +140,7 @@ public class TestDriver {
         }
 
         if (shouldStop()) {
+            finishEvent(TestRunEvent.STOPPED);
             resultConsumer.accept(null);
             tearDown();
             return;
@@ -152,6 +181,7 @@ public class TestDriver {
                 testModelSimulation.runInputAction(sync);
                 mutantSimulation.runInputAction(sync);
                 writeToSut(sync);
+                if (sutTrace != null) sutTrace.addInput(sync);
                 runStep();
             } catch (final MutationTestingException | IOException e) {
                 handleException(e);
@@ -174,6 +204,7 @@ public class TestDriver {
      */
     private void delay(final StrategyRule rule) {
         if (shouldStop()) {
+            finishEvent(TestRunEvent.STOPPED);
             resultConsumer.accept(null);
             tearDown();
             return;
@@ -236,7 +267,7 @@ public class TestDriver {
         synchronized (getPlan()) {
             if (getPlan().getStatus().equals(MutationTestPlan.Status.WORKING)) {
                 getPlan().setStatus(MutationTestPlan.Status.ERROR);
-                Platform.runLater(() -> {
+                FxThreadHelper.runLater(() -> {
                     final String errorMessage = "Error while running test-case " + testCase.getId() + ": " + exception.getMessage();
                     final Text text = new Text(errorMessage);
                     text.setFill(Color.RED);
@@ -248,9 +279,24 @@ public class TestDriver {
 
         exception.printStackTrace();
 
+        finishEvent(TestRunEvent.ERROR);
         tearDown();
     }
 
+    /**
+     * Finishes the event of this test run, if not already finished.
+     * @param verdict the verdict of the test-case, or why it did not get one
+     */
+    private void finishEvent(final String verdict) {
+        synchronized (event) {
+            if (event.isFinished()) return;
+
+            event.setSteps(step);
+            event.setVerdict(verdict);
+            PipelineMetrics.finish(getPlan(), event);
+        }
+    }
+
     /**
      * Gets the clock valuations from the simulated test model and simulated mutant model
      * @return a map of clock valuations, their id and value.
@@ -268,6 +314,8 @@ public class TestDriver {
      */
     private TestResult simulateDelay() {
         final double waitedTimeUnits = timeHandler.getTimeSinceLastTime();
+        event.addWaitTime(waitedTimeUnits);
+        if (sutTrace != null) sutTrace.addDelay(waitedTimeUnits);
 
         if (!testModelSimulation.delay(waitedTimeUnits)) {
             final String reason = "Failed simulating delay on test model";
@@ -286,6 +334,8 @@ public class TestDriver {
      * @return the test result (if this concludes the test), or null (if it does not)
      */
     private TestResult simulateOutput(final String output) {
+        if (sutTrace != null) sutTrace.addOutput(output);
+
         try {
             if (!testModelSimulation.isDeterministic(output, EdgeStatus.OUTPUT)) {
                 return makeResult(TestResult.Verdict.NON_DETERMINISM, "Non-deterministic choice for test model with output " + output + ".");
@@ -322,7 +372,7 @@ public class TestDriver {
      * @param text the text describing the progress
      */
     private void writeProgress(final Text text) {
-        Platform.runLater(() -> getPlan().writeProgress(text));
+        FxThreadHelper.runLater(() -> getPlan().writeProgress(text));
     }
 
     /**
@@ -339,6 +389,7 @@ public class TestDriver {
      * @param result the the result
      */
     private void handIn(final TestResult result) {
+        finishEvent(result.getVerdict().name());
         resultConsumer.accept(result);
         tearDown();
     }
@@ -350,7 +401,9 @@ public class TestDriver {
      * @return the test result
      */
     private TestResult makeResult(final TestResult.Verdict verdict, final String reason) {
-        return new TestResult(testCase, reason, testModelSimulation, verdict);
+        final TestResult result = new TestResult(testCase.getId(), sutPath, reason, testModelSimulation, verdict);
+        if (sutTrace != null) result.setSutTrace(sutTrace.copy());
+        return result;
     }
 
     /**
@@ -0,0 +1,111 @@
+package ecdar.mutation;
+
+import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.models.MutationTestPlan;
+import ecdar.mutation.models.OperatorKillHistory;
+import ecdar.mutation.models.TestResult;
+
+import java.util.List;
+
+/**
+ * Scheduler of the test-cases of a run of a test plan.
+ * The scheduler gives each test-case a priority according to the scheduling policy of the plan.
+ * It also counts results of the run, in order to tell when testing should stop early.
+ * Testing stops early when the mutation score is known to be at least the stop score,
+ * i.e. when the mutants killed so far make up at least the stop score of all test-cases in the run,
+ * or when the system under test has failed the chosen number of test-cases.
+ */
+public class TestScheduler {
+    private final MutationTestPlan.SchedulingPolicy policy;
+    private final OperatorKillHistory history;
+    private final int stopScore;
+    private final int stopFailures;
+    private final int total;
+
+    private int killed;
+    private int failed;
+
+    /**
+     * Constructs.
+     * @param policy the policy to schedule test-cases with
+     * @param history the history of kill rates of mutation operators
+     * @param stopScore the mutation score in percent to stop at, or a negative number to never stop at a score
+     * @param stopFailures the number of failures to stop at, or a non-positive number to never stop at failures
+     * @param total the total number of test-cases in the run
+     */
+    TestScheduler(final MutationTestPlan.SchedulingPolicy policy, final OperatorKillHistory history,
+                  final int stopScore, final int stopFailures, final int total) {
+        this.policy = policy;
+        this.history = history;
+        this.stopScore = stopScore;
+        this.stopFailures = stopFailures;
+        this.total = total;
+    }
+
+    /**
+     * Constructs with the options of a test plan.
+     * @param plan the test plan
+     * @param total the total number of test-cases in the run
+     */
+    public TestScheduler(final MutationTestPlan plan, final int total) {
+        this(plan.getSchedulingPolicy(), plan.getOperatorKillHistory(),
+                plan.shouldStopAtScore() ? plan.getStopScore() : -1,
+                plan.shouldStopAtFailures() ? plan.getStopFailures() : 0,
+                total);
+    }
+
+
+    /* Other */
+
+    /**
+     * Gets the priority of a test-case.
+     * Test-cases with lower values should be run first.
+     * @param testCase the test-case
+     * @return the priority
+     */
+    public double getPriority(final MutationTestCase testCase) {
+        switch (policy) {
+            case SHORTEST_STRATEGY_FIRST:
+                return testCase.getStrategy() == null ? Double.MAX_VALUE : testCase.getStrategy().getStateCount();
+            case KILLING_OPERATORS_FIRST:
+                return -history.getKillRate(OperatorKillHistory.getOperator(testCase.getId()));
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Gets the priorities of some test-cases.
+     * @param cases the test-cases
+     * @return the priority of each test-case
+     */
+    public double[] getPriorities(final List<MutationTestCase> cases) {
+        return cases.stream().mapToDouble(this::getPriority).toArray();
+    }
+
+    /**
+     * Counts a result of the run.
+     * @param result the result
+     */
+    public synchronized void count(final TestResult result) {
+        if (result.isPass()) killed++;
+        else if (result.isFail()) failed++;
+    }
+
+    /**
+     * Gets why testing should stop early.
+     * @return a description of the reason, or null if testing should continue
+     */
+    public synchronized String getStopReason() {
+        if (stopFailures > 0 && failed >= stopFailures) {
+            return failed + " failed test-case" + (failed == 1 ? "" : "s");
+        }
+
+        // Compare with integers to avoid rounding errors
+        if (stopScore >= 0 && total > 0 && killed * 100L >= (long) stopScore * total) {
+            return "mutation score of at least " + (killed * 100 / total) + "%";
+        }
+
+        return null;
+    }
+}
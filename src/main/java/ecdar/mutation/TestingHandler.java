@@ -3,25 +3,48 @@ package ecdar.mutation;
 import ecdar.mutation.models.MutationTestCase;
 import ecdar.mutation.models.MutationTestPlan;
 import ecdar.mutation.models.TestResult;
-import javafx.application.Platform;
+import ecdar.utility.helpers.FxThreadHelper;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * A test driver that runs model-based mutation test-cases on a system under test.
+ * If the test plan has variants of the system under test, each test-case is run on each of them.
  * The test driver displays information about resultViews.
  * You can retest test-cases, also while this is still conducting tests.
+ * If chosen in the test plan, traces of the system under test are recorded and replayed on the remaining mutants,
+ * such that a system under test only runs test-cases of mutants that none of its recorded traces kill.
+ * If chosen in the test plan, test-cases are run in a pool of worker processes rather than in this process.
+ * Test-cases are run in the order given by the scheduling policy of the test plan,
+ * and remaining test-cases are cancelled when a stop condition of the test plan is met.
+ * If chosen in the test plan, each run of the system under test is recorded to a {@link TraceRecording}.
+ * If chosen in the test plan, verdicts are re-evaluated from the recording instead of running the system under test.
  */
 public class TestingHandler implements ConcurrentJobsHandler {
     private final MutationTestPlan testPlan;
     private Instant testStart;
     private final ConcurrentJobsDriver jobsDriver;
+    private final Map<String, TraceReplayer> replayers = new ConcurrentHashMap<>();
+    private final AtomicInteger killedByReplay = new AtomicInteger();
+    private WorkerPool workerPool;
+    private volatile TestScheduler scheduler;
+    private volatile String stopReason;
+    private volatile TraceRecording recording;
+    private volatile Map<String, TraceRecording.Run> recordedRuns;
+    private final AtomicInteger notReevaluated = new AtomicInteger();
+    private final AtomicInteger changedVerdicts = new AtomicInteger();
 
 
     /**
@@ -31,6 +54,12 @@ public class TestingHandler implements ConcurrentJobsHandler {
     TestingHandler(final MutationTestPlan testPlan) {
         this.testPlan = testPlan;
         this.jobsDriver = new ConcurrentJobsDriver(this);
+
+        // Tell workers to stop, when the plan stops
+        testPlan.getStatusProperty().addListener((observable, oldValue, newValue) -> {
+            final WorkerPool pool = getWorkerPool();
+            if (pool != null && testPlan.shouldStop()) pool.stop();
+        });
     }
 
 
@@ -38,6 +67,9 @@ public class TestingHandler implements ConcurrentJobsHandler {
 
     @Override
     public int getMaxConcurrentJobs() {
+        // With workers, hand out enough jobs for the workers to have queues to steal from
+        if (getWorkerPool() != null) return 2 * getPlan().getWorkers() * getPlan().getConcurrentSutInstances();
+
         return getPlan().getConcurrentSutInstances();
     }
 
@@ -49,38 +81,121 @@ public class TestingHandler implements ConcurrentJobsHandler {
         return jobsDriver;
     }
 
+    private synchronized WorkerPool getWorkerPool() {
+        return workerPool;
+    }
+
+    /**
+     * Gets the replayer of recorded traces of a system under test.
+     * @param sutPath the path of the system under test
+     * @return the replayer
+     */
+    private TraceReplayer getReplayer(final String sutPath) {
+        return replayers.computeIfAbsent(sutPath, TraceReplayer::new);
+    }
+
+    /**
+     * Gets the number of distinct traces recorded of all systems under test.
+     * @return the number of traces
+     */
+    private int getRecordedTraceCount() {
+        return replayers.values().stream().mapToInt(TraceReplayer::size).sum();
+    }
+
     /* Other */
 
     /**
-     * Tests some test-cases.
+     * Tests some test-cases on the system under test and its variants.
+     * The strategies of the test-cases are generated once, and each test-case is run on each system under test.
+     * Test-cases with a result recorded in the checkpoint log of the plan are not tested again.
+     * Instead, the recorded result is used.
+     * The test-cases are scheduled according to the scheduling policy of the plan.
      * @param cases the test-cases
      */
     public void testFromScratch(final List<MutationTestCase> cases) {
+        getPlan().setTestCases(cases);
         testStart = Instant.now();
+        replayers.clear();
+        killedByReplay.set(0);
+        notReevaluated.set(0);
+        changedVerdicts.set(0);
+        stopReason = null;
+
+        if (!openRecording()) return;
+
+        final List<String> sutPaths = getPlan().getSutPaths();
+        final TestScheduler newScheduler = new TestScheduler(getPlan(), cases.size() * sutPaths.size());
+        scheduler = newScheduler;
 
-        jobsDriver.addJobs(cases.stream().map(testCase -> (Runnable)() -> performTest(testCase)).collect(Collectors.toList()));
+        final CheckpointLog log = getPlan().getCheckpointLog();
+        final List<TestResult> recordedResults = new ArrayList<>();
+        final List<MutationTestCase> casesToTest = new ArrayList<>();
+        final List<Runnable> jobs = new ArrayList<>();
+        for (final MutationTestCase testCase : cases) {
+            for (final String sutPath : sutPaths) {
+                final TestResult result = log == null ? null : log.getResult(testCase, sutPath, sutPaths.size() == 1);
+
+                if (result == null) {
+                    casesToTest.add(testCase);
+                    jobs.add(() -> performTest(testCase, sutPath));
+                } else {
+                    recordedResults.add(result);
+                    newScheduler.count(result);
+                    if (getPlan().shouldReuseTraces()) getReplayer(sutPath).record(result.getTrace());
+                }
+            }
+        }
+
+        // The recorded results may already meet a stop condition
+        stopReason = newScheduler.getStopReason();
+        if (stopReason != null) {
+            casesToTest.clear();
+            jobs.clear();
+        }
+
+        if (!recordedResults.isEmpty()) {
+            FxThreadHelper.runLater(() -> {
+                recordedResults.forEach(getPlan()::addResult);
+                writeProgress("Resumed with " + recordedResults.size() + " recorded result" + (recordedResults.size() == 1 ? "" : "s"));
+            });
+        }
+
+        if (recordedRuns == null && !startWorkerPoolIfNeeded()) return;
+
+        jobsDriver.addJobs(jobs, newScheduler.getPriorities(casesToTest));
     }
 
     /**
-     * Retests a single test-case.
-     * @param testCase the test-case
+     * Retests the test-case of a single result on the system under test of the result.
+     * @param result the result
      */
-    public void retest(final MutationTestCase testCase) {
-        retest(Stream.of(testCase).collect(Collectors.toList()));
+    public void retest(final TestResult result) {
+        retest(Stream.of(result).collect(Collectors.toList()));
     }
 
     /**
-     * Retests some test-cases.
-     * @param cases the test-cases
+     * Retests the test-cases of some results, each on the system under test of its result.
+     * If the system under test of a result is not known, the test-case is run on the system under test of the plan.
+     * Results of test-cases that the plan no longer has are skipped.
+     * @param results the results
      */
-    public void retest(final List<MutationTestCase> cases) {
+    public void retest(final List<TestResult> results) {
         synchronized (getPlan()) {
             if (getPlan().shouldStop()) return;
 
             getPlan().setStatus(MutationTestPlan.Status.WORKING);
         }
 
-        cases.forEach(testCase -> jobsDriver.addJob(() -> performTest(testCase)));
+        if (!openRecording()) return;
+        if (recordedRuns == null && !startWorkerPoolIfNeeded()) return;
+
+        results.forEach(result -> {
+            final MutationTestCase testCase = getPlan().getTestCase(result.getTestCaseId());
+            if (testCase == null) return;
+
+            final String sutPath = result.getSutPath() == null ? getPlan().getSutPath() : result.getSutPath();
+            jobsDriver.addJob(() -> performTest(testCase, sutPath));
+        });
 
         // Do not measure time when retesting
         testStart = null;
@@ -88,17 +203,161 @@ public class TestingHandler implements ConcurrentJobsHandler {
     }
 
     /**
-     * Performs a test-case on the test plans system under test(sut).
+     * Performs a test-case on a system under test(sut).
+     * If chosen, the verdict is re-evaluated from the recording instead.
+     * If chosen, first replays recorded traces of the system under test on the mutant of the test-case.
+     * The system under test is only run if no recorded trace kills the mutant.
      * @param testCase to perform.
+     * @param sutPath the path of the system under test
+     */
+    private void performTest(final MutationTestCase testCase, final String sutPath) {
+        final Map<String, TraceRecording.Run> runs = recordedRuns;
+        if (runs != null) {
+            reevaluate(testCase, sutPath, runs);
+            return;
+        }
+
+        if (!getPlan().shouldReuseTraces()) {
+            runTest(testCase, sutPath, this::onTestDone);
+            return;
+        }
+
+        // Replay in a new thread, as this could take a while
+        new Thread(() -> {
+            final TraceReplayer replayer = getReplayer(sutPath);
+            final TestResult replayResult = replayer.replay(testCase);
+
+            if (replayResult != null) {
+                killedByReplay.incrementAndGet();
+                onTestDone(replayResult);
+                return;
+            }
+
+            runTest(testCase, sutPath, result -> {
+                if (result != null) replayer.record(result.getTrace());
+                onTestDone(result);
+            });
+        }).start();
+    }
+
+    /**
+     * Re-evaluates the verdict of a test-case from its recorded run, without running the system under test.
+     * If the recording does not tell the verdict, the test-case gets no result.
+     * @param testCase the test-case, possibly with a changed mutant or strategy since it was recorded
+     * @param sutPath the path of the system under test
+     * @param runs the recorded runs
+     */
+    private void reevaluate(final MutationTestCase testCase, final String sutPath, final Map<String, TraceRecording.Run> runs) {
+        // Simulate in a new thread, as this could take a while
+        new Thread(() -> {
+            final TraceRecording.Run run = runs.get(TraceRecording.getKey(sutPath, testCase.getId()));
+            final TestResult result = run == null ? null : TraceReplayer.evaluate(run.getTrace(), testCase, sutPath);
+
+            if (result == null) notReevaluated.incrementAndGet();
+            else if (result.getVerdict() != run.getVerdict()) changedVerdicts.incrementAndGet();
+
+            onTestDone(result);
+        }).start();
+    }
+
+    /**
+     * Runs a test-case on the system under test, either in a worker process or in this process.
+     * Test-cases generated without keeping the strategy lines cannot be sent to workers, so they are run in this process.
+     * @param testCase the test-case to run
+     * @param sutPath the path of the system under test
+     * @param resultConsumer consumer to call with the result, or with null if an error occurred or testing stopped
+     */
+    private void runTest(final MutationTestCase testCase, final String sutPath, final Consumer<TestResult> resultConsumer) {
+        final WorkerPool pool = getWorkerPool();
+
+        if (pool != null && testCase.getStrategyLines() != null) pool.submit(testCase, sutPath, resultConsumer);
+        else new TestDriver(testCase, getPlan(), sutPath, resultConsumer).start();
+    }
+
+    /**
+     * Starts a pool of worker processes, if the plan should use workers, and the pool is not already started.
+     * If the pool cannot be started, the plan is set to the ERROR status.
+     * @return true iff we are ready to run test-cases
+     */
+    private boolean startWorkerPoolIfNeeded() {
+        synchronized (this) {
+            if (!getPlan().shouldUseWorkers() || workerPool != null) return true;
+
+            try {
+                workerPool = new WorkerPool(getPlan());
+                return true;
+            } catch (final IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        getPlan().setStatus(MutationTestPlan.Status.ERROR);
+        final Text text = new Text("Error while starting worker processes");
+        text.setFill(Color.RED);
+        writeProgress(text);
+        return false;
+    }
+
+    /**
+     * Reads the recording of the plan, if verdicts should be re-evaluated from it.
+     * Otherwise, opens the recording for appending, if traces should be recorded and it is not already open.
+     * If the recording cannot be read or opened, the plan is set to the ERROR status.
+     * @return true iff we are ready to run test-cases
      */
-    private void performTest(final MutationTestCase testCase) {
-        new TestDriver(testCase, getPlan(), this::onTestDone).start();
+    private boolean openRecording() {
+        try {
+            if (getPlan().shouldReplayRecording()) {
+                recordedRuns = TraceRecording.read(TraceRecording.getFile(getPlan()));
+            } else {
+                recordedRuns = null;
+                synchronized (this) {
+                    if (getPlan().shouldRecordTraces() && recording == null) recording = TraceRecording.open(getPlan());
+                }
+            }
+
+            return true;
+        } catch (final IOException e) {
+            e.printStackTrace();
+
+            getPlan().setStatus(MutationTestPlan.Status.ERROR);
+            final Text text = new Text("Error while opening the trace recording: " + e.getMessage());
+            text.setFill(Color.RED);
+            writeProgress(text);
+            return false;
+        }
+    }
+
+    /**
+     * Closes the recording of traces, if open.
+     */
+    private synchronized void closeRecording() {
+        recordedRuns = null;
+        if (recording == null) return;
+
+        try {
+            recording.close();
+        } catch (final IOException e) {
+            e.printStackTrace();
+        }
+
+        recording = null;
+    }
+
+    /**
+     * Shuts down the pool of worker processes, if started.
+     */
+    private synchronized void shutdownWorkerPool() {
+        if (workerPool == null) return;
+
+        workerPool.shutdown();
+        workerPool = null;
     }
 
     /**
      * Is triggered when a test-case execution is done.
      * It updates UI labels to tell user about the progress.
      * It also updates the jobsDriver about the job progress.
+     * If a stop condition of the plan is met, the test-cases not yet started are cancelled.
      * @param result the test result
      */
     private synchronized void onTestDone(final TestResult result) {
@@ -106,7 +365,32 @@ public class TestingHandler implements ConcurrentJobsHandler {
         if (result != null) {
             final Instant endTime = Instant.now();
 
-            Platform.runLater(() -> {
+            final CheckpointLog log = getPlan().getCheckpointLog();
+            if (log != null) log.logResult(result);
+
+            getPlan().getOperatorKillHistory().record(result);
+            getPlan().markDirty();
+
+            if (recording != null) {
+                try {
+                    recording.record(result);
+                } catch (final IOException e) {
+                    e.printStackTrace();
+
+                    final Text text = new Text("Error while recording the trace of test-case " + result.getTestCaseId() + ": " + e.getMessage());
+                    text.setFill(Color.RED);
+                    writeProgress(text);
+                }
+            }
+
+            final TestScheduler currentScheduler = scheduler;
+            if (currentScheduler != null && stopReason == null) {
+                currentScheduler.count(result);
+                stopReason = currentScheduler.getStopReason();
+                if (stopReason != null) jobsDriver.cancelRemainingJobs();
+            }
+
+            FxThreadHelper.runLater(() -> {
                 getPlan().addResult(result);
 
                 // clock is null if we retest
@@ -125,11 +409,38 @@ public class TestingHandler implements ConcurrentJobsHandler {
     }
 
     @Override
-    public void onStopped() { Platform.runLater(() -> getPlan().setStatus(MutationTestPlan.Status.IDLE)); }
+    public void onStopped() {
+        scheduler = null;
+        shutdownWorkerPool();
+        closeRecording();
+        FxThreadHelper.runLater(() -> getPlan().setStatus(MutationTestPlan.Status.IDLE));
+    }
 
     @Override
     public void onAllJobsSuccessfullyDone() {
-        final Text text = new Text("Done");
+        final boolean reevaluated = recordedRuns != null;
+
+        scheduler = null;
+        shutdownWorkerPool();
+        closeRecording();
+
+        final List<String> notes = new ArrayList<>();
+        if (stopReason != null) notes.add("stopped early at " + stopReason);
+
+        if (reevaluated) {
+            final int changed = changedVerdicts.get();
+            final int skipped = notReevaluated.get();
+            notes.add(changed + " verdict" + (changed == 1 ? "" : "s") + " changed from the recording");
+            if (skipped > 0) notes.add(skipped + " test-case" + (skipped == 1 ? "" : "s") + " not re-evaluated, " +
+                    "since the recording does not tell the verdict");
+        }
+
+        final int killed = killedByReplay.get();
+        final int traces = getRecordedTraceCount();
+        if (killed > 0) notes.add(killed + " mutant" + (killed == 1 ? "" : "s") + " killed by replaying " +
+                traces + " recorded trace" + (traces == 1 ? "" : "s"));
+
+        final Text text = new Text(notes.isEmpty() ? "Done" : "Done (" + String.join(", ", notes) + ")");
         text.setFill(Color.GREEN);
         writeProgress(text);
         getPlan().setStatus(MutationTestPlan.Status.IDLE);
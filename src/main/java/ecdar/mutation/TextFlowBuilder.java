@@ -13,20 +13,18 @@ import javafx.scene.Cursor;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextFlow;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * A builder for creating a {@link TextFlow}.
+ * The builder only records the texts to add.
+ * The JavaFX nodes are created when calling {@link #build()},
+ * so the builder can be kept as a cheap description and built more than once.
  */
 public class TextFlowBuilder {
-    private final TextFlow flow;
-
-    /**
-     * Constructs.
-     */
-    public TextFlowBuilder() {
-        flow = new TextFlow();
-    }
+    private final List<Supplier<Text>> texts = new ArrayList<>();
 
     /**
      * Adds a {@link Text}.
@@ -34,7 +32,7 @@ public class TextFlowBuilder {
      * @return this
      */
     public TextFlowBuilder text(final String content) {
-        flow.getChildren().add(new Text(content));
+        texts.add(() -> new Text(content));
         return this;
     }
 
@@ -44,7 +42,7 @@ public class TextFlowBuilder {
      * @return this
      */
     public TextFlowBuilder boldText(final String content) {
-        flow.getChildren().add(createBoldText(content));
+        texts.add(() -> createBoldText(content));
         return this;
     }
 
@@ -68,7 +66,7 @@ public class TextFlowBuilder {
      * @return this
      */
     public TextFlowBuilder locationLink(final String locationId, final String componentName) {
-        flow.getChildren().add(createLocationLink(locationId, componentName));
+        texts.add(() -> createLocationLink(locationId, componentName));
         return this;
     }
 
@@ -130,10 +128,12 @@ public class TextFlowBuilder {
     }
 
     /**
-     * Builds the {@link TextFlow}.
+     * Builds a new {@link TextFlow}.
      * @return the text flow
      */
     public TextFlow build() {
+        final TextFlow flow = new TextFlow();
+        texts.forEach(text -> flow.getChildren().add(text.get()));
         return flow;
     }
 }
@@ -0,0 +1,226 @@
+package ecdar.mutation;
+
+import ecdar.abstractions.Project;
+import ecdar.mutation.models.CompactTrace;
+import ecdar.mutation.models.MutationTestPlan;
+import ecdar.mutation.models.TestResult;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.input.CountingInputStream;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append-only binary recording of how the system under test behaved in runs of test-cases.
+ * The recording is stored next to the test plan in the tests folder of the project.
+ * For each run, it holds the test-case, the system under test, the verdict,
+ * and the inputs written to the system under test, the outputs read from it, and the delays between them.
+ * The time of a step is the sum of the delays before it.
+ *
+ * The recording lets us re-evaluate verdicts offline by simulation,
+ * e.g. after changing the test model or the mutation operators, without running a slow system under test again.
+ * Runs are appended across test runs. If a test-case has multiple runs on the same system under test, the last one counts.
+ *
+ * The file starts with a magic number and a version.
+ * Each run is the id of the test-case, the path of the system under test (empty if not known), the name of the verdict,
+ * and the trace in the binary form of {@link CompactTrace}.
+ * An incomplete last run is ignored when reading, and removed when opening the recording for appending.
+ */
+public class TraceRecording {
+    public static final String FILENAME_EXTENSION = ".traces";
+
+    private static final int MAGIC = 0x45435452; // ECTR
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 2 * Integer.BYTES;
+
+    private final DataOutputStream output;
+
+    /**
+     * A recorded run of a test-case on a system under test.
+     */
+    public static class Run {
+        private final String testCaseId;
+        private final String sutPath;
+        private final TestResult.Verdict verdict;
+        private final CompactTrace trace;
+
+        private Run(final String testCaseId, final String sutPath, final TestResult.Verdict verdict, final CompactTrace trace) {
+            this.testCaseId = testCaseId;
+            this.sutPath = sutPath;
+            this.verdict = verdict;
+            this.trace = trace;
+        }
+
+        public String getTestCaseId() {
+            return testCaseId;
+        }
+
+        /**
+         * Gets the path of the system under test of the run.
+         * @return the path, or null if not known
+         */
+        public String getSutPath() {
+            return sutPath;
+        }
+
+        public TestResult.Verdict getVerdict() {
+            return verdict;
+        }
+
+        public CompactTrace getTrace() {
+            return trace;
+        }
+    }
+
+
+    /* Constructors */
+
+    /**
+     * Constructs and opens a file for appending.
+     * If the file has no complete header, the header is written.
+     * Otherwise, an incomplete last run is removed, such that new runs follow the last complete run.
+     * @param file the file
+     * @throws IOException if an I/O error occurs, or if the file is not a recording
+     */
+    private TraceRecording(final File file) throws IOException {
+        FileUtils.forceMkdir(file.getParentFile());
+
+        final boolean isNew = !file.exists() || file.length() < HEADER_LENGTH;
+        if (!isNew) {
+            final long length = readRuns(file, null);
+            if (length < file.length()) {
+                try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+                    randomAccessFile.setLength(length);
+                }
+            }
+        }
+
+        output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, !isNew)));
+
+        if (isNew) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.flush();
+        }
+    }
+
+    /**
+     * Opens the recording of a test plan for appending runs.
+     * @param plan the test plan
+     * @return the recording
+     * @throws IOException if an I/O error occurs
+     */
+    public static TraceRecording open(final MutationTestPlan plan) throws IOException {
+        return open(getFile(plan));
+    }
+
+    /**
+     * Opens a recording for appending runs.
+     * @param file the file of the recording
+     * @return the recording
+     * @throws IOException if an I/O error occurs
+     */
+    static TraceRecording open(final File file) throws IOException {
+        return new TraceRecording(file);
+    }
+
+
+    /* Static helpers */
+
+    /**
+     * Gets the file of the recording of a test plan.
+     * @param plan the test plan
+     * @return the file
+     */
+    public static File getFile(final MutationTestPlan plan) {
+        return new File(Project.getTestsFolder(), plan.getName() + FILENAME_EXTENSION);
+    }
+
+    /**
+     * Gets the key of a run, for looking it up in the runs read from a recording.
+     * @param sutPath the path of the system under test, or null if not known
+     * @param testCaseId the id of the test-case
+     * @return the key
+     */
+    public static String getKey(final String sutPath, final String testCaseId) {
+        return sutPath == null ? testCaseId : sutPath + "\n" + testCaseId;
+    }
+
+    /**
+     * Reads the runs of a recording.
+     * @param file the file of the recording
+     * @return the last run of each test-case on each system under test, by the keys of {@link #getKey(String, String)}
+     * @throws IOException if an I/O error occurs, or if the file is not a recording
+     */
+    public static Map<String, Run> read(final File file) throws IOException {
+        final Map<String, Run> runs = new HashMap<>();
+        readRuns(file, runs);
+        return runs;
+    }
+
+    /**
+     * Reads the complete runs of a recording.
+     * Reading stops at the first run that cannot be read, as the last run might be incomplete if we crashed while writing it.
+     * @param file the file of the recording
+     * @param runs the map to put the last run of each test-case on each system under test in, or null to only find the length
+     * @return the number of bytes of the header and the complete runs
+     * @throws IOException if an I/O error occurs, or if the file is not a recording
+     */
+    private static long readRuns(final File file, final Map<String, Run> runs) throws IOException {
+        try (final CountingInputStream counter = new CountingInputStream(new BufferedInputStream(new FileInputStream(file)));
+             final DataInputStream input = new DataInputStream(counter)) {
+            if (input.readInt() != MAGIC) throw new IOException(file + " is not a trace recording");
+
+            final int version = input.readInt();
+            if (version != VERSION) throw new IOException("Version " + version + " of trace recordings is not supported");
+
+            long length = counter.getByteCount();
+            while (true) {
+                final Run run;
+                try {
+                    final String testCaseId = input.readUTF();
+                    final String sutPath = input.readUTF();
+                    final TestResult.Verdict verdict = TestResult.Verdict.valueOf(input.readUTF());
+                    run = new Run(testCaseId, sutPath.isEmpty() ? null : sutPath, verdict, CompactTrace.read(input));
+                } catch (final IOException | IllegalArgumentException e) {
+                    // End of file, or an incomplete last run, e.g. cut off in the middle of a string or a verdict
+                    break;
+                }
+
+                if (runs != null) runs.put(getKey(run.getSutPath(), run.getTestCaseId()), run);
+                length = counter.getByteCount();
+            }
+
+            return length;
+        }
+    }
+
+
+    /* Other */
+
+    /**
+     * Records the run of a result.
+     * Results without a trace of the system under test are ignored.
+     * The run is flushed when written, so at most the run being written is lost in a crash.
+     * @param result the result
+     * @throws IOException if an I/O error occurs
+     */
+    public synchronized void record(final TestResult result) throws IOException {
+        if (result.getSutTrace() == null) return;
+
+        output.writeUTF(result.getTestCaseId());
+        output.writeUTF(result.getSutPath() == null ? "" : result.getSutPath());
+        output.writeUTF(result.getVerdict().name());
+        result.getSutTrace().write(output);
+        output.flush();
+    }
+
+    /**
+     * Closes the file of this recording.
+     * @throws IOException if an I/O error occurs
+     */
+    public synchronized void close() throws IOException {
+        output.close();
+    }
+}
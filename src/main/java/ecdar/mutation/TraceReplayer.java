@@ -0,0 +1,240 @@
+package ecdar.mutation;
+
+import ecdar.abstractions.EdgeStatus;
+import ecdar.mutation.models.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Replayer of recorded traces of the system under test.
+ * A recorded trace is the delays, inputs, and outputs observed while running a test-case on the system under test.
+ * By simulating a trace on another mutant, we can find out offline if the system under test
+ * has already shown behaviour that the mutant cannot do.
+ * In that case, the mutant is killed without running the system under test again.
+ * Traces of one system under test say nothing about other systems under test,
+ * so a replayer only records traces of a single system under test.
+ */
+class TraceReplayer {
+    private final String sutPath;
+    private final Set<CompactTrace> traces = new LinkedHashSet<>();
+
+    /**
+     * Constructs a replayer of traces of an unknown system under test.
+     */
+    TraceReplayer() {
+        this(null);
+    }
+
+    /**
+     * Constructs.
+     * @param sutPath the path of the system under test to replay traces of, or null if not known
+     */
+    TraceReplayer(final String sutPath) {
+        this.sutPath = sutPath;
+    }
+
+
+    /* Other */
+
+    /**
+     * Records a trace of the system under test.
+     * Identical traces are only stored once.
+     * @param trace the trace
+     */
+    synchronized void record(final CompactTrace trace) {
+        if (trace.size() > 0) traces.add(trace);
+    }
+
+    /**
+     * Forgets all recorded traces.
+     */
+    synchronized void clear() {
+        traces.clear();
+    }
+
+    /**
+     * Gets the number of distinct traces recorded.
+     * @return the number of traces
+     */
+    synchronized int size() {
+        return traces.size();
+    }
+
+    /**
+     * Replays the recorded traces on the mutant of a test-case.
+     * @param testCase the test-case containing the mutant
+     * @return a passed test result if a trace kills the mutant, or null if no trace kills it
+     */
+    TestResult replay(final MutationTestCase testCase) {
+        final List<CompactTrace> tracesToReplay;
+        synchronized (this) {
+            tracesToReplay = new ArrayList<>(traces);
+        }
+
+        for (final CompactTrace trace : tracesToReplay) {
+            final TestResult result = replay(trace, testCase, sutPath);
+            if (result != null) return result;
+        }
+
+        return null;
+    }
+
+    /**
+     * Replays a trace on the test model and the mutant of a test-case.
+     * This is similar to how the test driver simulates the system under test:
+     * The mutant is killed if the test model can do an output of the trace, but the mutant cannot.
+     * If a delay or an input cannot be simulated, or if the simulation is non-deterministic,
+     * the trace does not tell us anything about the mutant.
+     * @param trace the trace to replay
+     * @param testCase the test-case containing the mutant
+     * @return a passed test result if the trace kills the mutant, or null if it does not
+     */
+    static TestResult replay(final CompactTrace trace, final MutationTestCase testCase) {
+        return replay(trace, testCase, null);
+    }
+
+    /**
+     * Replays a trace of a system under test on the test model and the mutant of a test-case.
+     * @param trace the trace to replay
+     * @param testCase the test-case containing the mutant
+     * @param sutPath the path of the system under test that the trace is of, or null if not known
+     * @return a passed test result if the trace kills the mutant, or null if it does not
+     */
+    static TestResult replay(final CompactTrace trace, final MutationTestCase testCase, final String sutPath) {
+        final SimpleComponentSimulation testModelSimulation = new SimpleComponentSimulation(testCase.getTestModel());
+        final SimpleComponentSimulation mutantSimulation = new SimpleComponentSimulation(testCase.getMutant());
+
+        try {
+            for (int i = 0; i < trace.size(); i++) {
+                if (trace.isDelay(i)) {
+                    if (!testModelSimulation.delay(trace.getDelay(i)) || !mutantSimulation.delay(trace.getDelay(i))) return null;
+                    continue;
+                }
+
+                final String sync = trace.getSync(i);
+                final EdgeStatus status = trace.isOutput(i) ? EdgeStatus.OUTPUT : EdgeStatus.INPUT;
+
+                if (!testModelSimulation.isDeterministic(sync, status) || !mutantSimulation.isDeterministic(sync, status))
+                    return null;
+
+                if (status == EdgeStatus.INPUT) {
+                    testModelSimulation.runInputAction(sync);
+                    mutantSimulation.runInputAction(sync);
+                } else {
+                    if (!testModelSimulation.runOutputAction(sync)) return null;
+
+                    if (!mutantSimulation.runOutputAction(sync)) {
+                        return new TestResult(testCase.getId(), sutPath, "Killed by replaying a recorded trace of the system under test.",
+                                testModelSimulation, TestResult.Verdict.PASS);
+                    }
+                }
+            }
+        } catch (final MutationTestingException e) {
+            // The simulation got stuck, so the trace does not tell us anything about the mutant
+            return null;
+        }
+
+        return null;
+    }
+
+    /**
+     * Re-evaluates the verdict of a test-case from a recorded trace of the system under test, purely by simulation.
+     * This follows the test driver, with the recorded inputs, outputs, and delays in place of the system under test.
+     * The strategy of the test-case must agree with the recording:
+     * Recorded inputs must be the inputs that the strategy chooses,
+     * and the strategy must not choose an input when the recording starts delaying.
+     * Like the test driver, the strategy is asked for a rule at the start and after each input.
+     * Thus, a strategy choosing an input in the middle of a delay is not detected.
+     * @param trace the recorded trace of the system under test
+     * @param testCase the test-case, possibly with a changed mutant or strategy
+     * @param sutPath the path of the system under test that the trace is of, or null if not known
+     * @return the result, or null if the recording does not tell the verdict,
+     * i.e. if the strategy disagrees with the recording, or if the recording ends before a verdict
+     */
+    static TestResult evaluate(final CompactTrace trace, final MutationTestCase testCase, final String sutPath) {
+        if (testCase.getStrategy() == null) return null;
+
+        final SimpleComponentSimulation testModelSimulation = new SimpleComponentSimulation(testCase.getTestModel());
+        final SimpleComponentSimulation mutantSimulation = new SimpleComponentSimulation(testCase.getMutant());
+
+        try {
+            for (int i = 0; i < trace.size(); i++) {
+                final boolean isInput = !trace.isDelay(i) && !trace.isOutput(i);
+                final boolean isNewStep = i == 0 || (!trace.isDelay(i - 1) && !trace.isOutput(i - 1));
+
+                StrategyRule rule = null;
+                if (isInput || isNewStep) {
+                    rule = testCase.getStrategy().getRule(testModelSimulation, mutantSimulation);
+                    if (rule == null) return makeEvaluatedResult(testCase, sutPath, "No rule to perform.", testModelSimulation, TestResult.Verdict.NO_RULE);
+                }
+
+                final boolean isInputRule = rule instanceof ActionRule && ((ActionRule) rule).getStatus() == EdgeStatus.INPUT;
+
+                if (trace.isDelay(i)) {
+                    if (isInputRule) return null;
+
+                    final double delay = trace.getDelay(i);
+                    if (!testModelSimulation.delay(delay)) {
+                        final TestResult.Verdict verdict = mutantSimulation.delay(delay) ? TestResult.Verdict.FAIL_PRIMARY : TestResult.Verdict.FAIL_NORMAL;
+                        return makeEvaluatedResult(testCase, sutPath, "Failed simulating delay on test model", testModelSimulation, verdict);
+                    } else if (!mutantSimulation.delay(delay)) {
+                        return makeEvaluatedResult(testCase, sutPath, "Could not simulate delay on mutant", testModelSimulation, TestResult.Verdict.MUT_NO_DELAY);
+                    }
+
+                    continue;
+                }
+
+                final String sync = trace.getSync(i);
+
+                if (isInput) {
+                    if (!isInputRule || !((ActionRule) rule).getSync().equals(sync)) return null;
+
+                    if (!testModelSimulation.isDeterministic(sync, EdgeStatus.INPUT) || !mutantSimulation.isDeterministic(sync, EdgeStatus.INPUT)) {
+                        return makeEvaluatedResult(testCase, sutPath, "Non-deterministic choice with input " + sync + ".",
+                                testModelSimulation, TestResult.Verdict.NON_DETERMINISM);
+                    }
+
+                    testModelSimulation.runInputAction(sync);
+                    mutantSimulation.runInputAction(sync);
+                    continue;
+                }
+
+                if (!testModelSimulation.isDeterministic(sync, EdgeStatus.OUTPUT) || !mutantSimulation.isDeterministic(sync, EdgeStatus.OUTPUT)) {
+                    return makeEvaluatedResult(testCase, sutPath, "Non-deterministic choice with output " + sync + ".",
+                            testModelSimulation, TestResult.Verdict.NON_DETERMINISM);
+                } else if (!testModelSimulation.runOutputAction(sync)) {
+                    final TestResult.Verdict verdict = mutantSimulation.runOutputAction(sync) ? TestResult.Verdict.FAIL_PRIMARY : TestResult.Verdict.FAIL_NORMAL;
+                    return makeEvaluatedResult(testCase, sutPath, "Failed simulating output " + sync + " on test model.", testModelSimulation, verdict);
+                } else if (!mutantSimulation.runOutputAction(sync)) {
+                    return makeEvaluatedResult(testCase, sutPath, null, testModelSimulation, TestResult.Verdict.PASS);
+                }
+            }
+        } catch (final MutationTestingException e) {
+            return null;
+        }
+
+        // The recording ended, so we do not know what the system under test would do next
+        if (testCase.getStrategy().getRule(testModelSimulation, mutantSimulation) == null)
+            return makeEvaluatedResult(testCase, sutPath, "No rule to perform.", testModelSimulation, TestResult.Verdict.NO_RULE);
+
+        return null;
+    }
+
+    /**
+     * Makes a result of re-evaluating a recorded trace.
+     * @param testCase the test-case
+     * @param sutPath the path of the system under test, or null if not known
+     * @param reason the reason for the verdict, or null
+     * @param testModelSimulation the simulation of the test model
+     * @param verdict the verdict
+     * @return the result
+     */
+    private static TestResult makeEvaluatedResult(final MutationTestCase testCase, final String sutPath, final String reason,
+                                                  final SimpleComponentSimulation testModelSimulation, final TestResult.Verdict verdict) {
+        return new TestResult(testCase.getId(), sutPath, "Re-evaluated from a recorded trace" + (reason == null ? "." : ": " + reason),
+                testModelSimulation, verdict);
+    }
+}
@@ -0,0 +1,439 @@
+package ecdar.mutation;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import ecdar.Ecdar;
+import ecdar.mutation.models.CompactTrace;
+import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.models.MutationTestPlan;
+import ecdar.mutation.models.TestResult;
+import ecdar.utility.helpers.FxThreadHelper;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Text;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A pool of worker processes for running test-cases on the system under test.
+ * Running the system under test in other JVMs keeps e.g. GC pauses of the GUI from affecting the timing of the tests,
+ * and lets us use more cores.
+ *
+ * Each worker has its own queue of jobs. Jobs are sharded among the queues when submitted.
+ * A worker runs up to the number of concurrent SUT instances of the plan at a time.
+ * If a worker has free capacity but an empty queue, it steals jobs from the end of the longest queue.
+ * If a worker stops sending heartbeats, or its process dies, its jobs are moved to the other workers.
+ * See {@link MutationTestWorker} for the messages sent between the pool and the workers.
+ */
+class WorkerPool {
+    private static final long HEARTBEAT_TIMEOUT = 10 * MutationTestWorker.HEARTBEAT_INTERVAL; // in ms
+
+    private final MutationTestPlan plan;
+    private final List<Worker> workers = new ArrayList<>();
+    private final ScheduledExecutorService monitor;
+
+    /**
+     * A test-case to run, the system under test to run it on, and the consumer to call with the result.
+     */
+    private static class Job {
+        private final MutationTestCase testCase;
+        private final String sutPath;
+        private final Consumer<TestResult> consumer;
+
+        private Job(final MutationTestCase testCase, final String sutPath, final Consumer<TestResult> consumer) {
+            this.testCase = testCase;
+            this.sutPath = sutPath;
+            this.consumer = consumer;
+        }
+
+        private String getKey() {
+            return getJobKey(testCase.getId(), sutPath);
+        }
+    }
+
+    /**
+     * A worker process with its queue of jobs and the jobs it is currently running.
+     */
+    private static class Worker {
+        private final Process process;
+        private final BufferedWriter writer;
+        private final Deque<Job> queue = new ArrayDeque<>();
+        private final Map<String, Job> running = new HashMap<>();
+        private volatile long lastHeartbeat = System.currentTimeMillis();
+        private boolean alive = true;
+
+        private Worker(final Process process) {
+            this.process = process;
+            writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+        }
+
+        private int getLoad() {
+            return queue.size() + running.size();
+        }
+    }
+
+    /**
+     * Constructs and starts the workers.
+     * @param plan the test plan to run test-cases for
+     * @throws IOException if a worker process could not be started
+     */
+    WorkerPool(final MutationTestPlan plan) throws IOException {
+        this.plan = plan;
+
+        for (int i = 0; i < plan.getWorkers(); i++) startWorker();
+
+        monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+        monitor.scheduleAtFixedRate(this::checkWorkers, HEARTBEAT_TIMEOUT, MutationTestWorker.HEARTBEAT_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+
+    /* Static helpers */
+
+    /**
+     * Gets the command for starting a worker with the same class path (and module path) as this process.
+     * @return the command
+     */
+    private static List<String> getWorkerCommand() {
+        final List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+
+        final String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null) {
+            command.add("--module-path");
+            command.add(modulePath);
+            command.add("--add-modules");
+            command.add("javafx.controls,javafx.fxml,javafx.swing");
+        }
+
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(MutationTestWorker.class.getName());
+
+        return command;
+    }
+
+    /**
+     * Gets the key of a job, unique among the jobs a worker is running.
+     * @param id the id of the test-case of the job
+     * @param sutPath the path of the system under test of the job
+     * @return the key
+     */
+    private static String getJobKey(final String id, final String sutPath) {
+        return sutPath + "\n" + id;
+    }
+
+    /**
+     * Makes a message containing a job.
+     * @param job the job
+     * @return the message
+     */
+    private static JsonObject makeJobMessage(final Job job) {
+        final JsonObject message = MutationTestWorker.message(MutationTestWorker.JOB);
+        message.addProperty(MutationTestWorker.ID, job.testCase.getId());
+        message.addProperty(MutationTestWorker.SUT, job.sutPath);
+        message.add(MutationTestWorker.TEST_MODEL, job.testCase.getTestModel().serialize());
+        message.add(MutationTestWorker.MUTANT, job.testCase.getMutant().serialize());
+
+        final JsonArray strategy = new JsonArray();
+        job.testCase.getStrategyLines().forEach(strategy::add);
+        message.add(MutationTestWorker.STRATEGY, strategy);
+
+        return message;
+    }
+
+
+    /* Other */
+
+    /**
+     * Starts a worker process and sends it the options of the plan and the global declarations of the project.
+     * @throws IOException if an IO error occurs
+     */
+    private void startWorker() throws IOException {
+        final Process process = new ProcessBuilder(getWorkerCommand())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        final Worker worker = new Worker(process);
+
+        final JsonObject message = MutationTestWorker.message(MutationTestWorker.PLAN);
+        message.addProperty(MutationTestWorker.PROJECT_DIRECTORY, Ecdar.projectDirectory.get());
+        message.add(MutationTestWorker.PLAN, plan.serializeOptions());
+        message.add(MutationTestWorker.GLOBAL_DECLARATIONS, Ecdar.getProject().getGlobalDeclarations().serialize());
+        send(worker, message);
+
+        final Thread reader = new Thread(() -> readMessages(worker));
+        reader.setDaemon(true);
+        reader.start();
+
+        synchronized (this) {
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Submits a test-case to run.
+     * The job is put in the queue of the worker with the least load.
+     * @param testCase the test-case, with strategy lines
+     * @param sutPath the path of the system under test to run the test-case on
+     * @param consumer consumer to call with the result. This is called with null, if the job was stopped or failed
+     */
+    void submit(final MutationTestCase testCase, final String sutPath, final Consumer<TestResult> consumer) {
+        final List<Job> failed = new ArrayList<>();
+
+        synchronized (this) {
+            final Optional<Worker> worker = workers.stream().filter(w -> w.alive).min(Comparator.comparingInt(Worker::getLoad));
+
+            if (worker.isPresent()) {
+                worker.get().queue.addLast(new Job(testCase, sutPath, consumer));
+                failed.addAll(dispatch());
+            } else {
+                failed.add(new Job(testCase, sutPath, consumer));
+            }
+        }
+
+        giveUp(failed);
+    }
+
+    /**
+     * Sends jobs to workers with free capacity.
+     * A worker takes jobs from the front of its own queue.
+     * If its queue is empty, it steals from the back of the longest queue of another worker.
+     * @return jobs that could not be run, since all workers are dead
+     */
+    private synchronized List<Job> dispatch() {
+        for (final Worker worker : workers) {
+            while (worker.alive && worker.running.size() < plan.getConcurrentSutInstances()) {
+                Job job = worker.queue.pollFirst();
+
+                if (job == null) {
+                    final Optional<Worker> victim = workers.stream()
+                            .filter(other -> other != worker && other.alive && !other.queue.isEmpty())
+                            .max(Comparator.comparingInt(other -> other.queue.size()));
+                    if (!victim.isPresent()) break;
+                    job = victim.get().queue.pollLast();
+                }
+
+                worker.running.put(job.getKey(), job);
+                if (!send(worker, makeJobMessage(job))) return failWorker(worker);
+            }
+        }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * Sends a message to a worker.
+     * @param worker the worker
+     * @param message the message
+     * @return true iff the message was sent
+     */
+    private boolean send(final Worker worker, final JsonObject message) {
+        synchronized (worker) {
+            try {
+                worker.writer.write(message.toString());
+                worker.writer.newLine();
+                worker.writer.flush();
+                return true;
+            } catch (final IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Reads and handles messages from a worker until its output is closed.
+     * @param worker the worker
+     */
+    private void readMessages(final Worker worker) {
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(worker.process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    handleMessage(worker, new JsonParser().parse(line).getAsJsonObject());
+                } catch (final JsonParseException | IllegalStateException e) {
+                    System.err.println("Worker sent a message that was not understood: " + line);
+                }
+            }
+        } catch (final IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Handles a message from a worker.
+     * Consumers are called outside of synchronization, since they may submit new jobs.
+     * @param worker the worker
+     * @param message the message
+     */
+    private void handleMessage(final Worker worker, final JsonObject message) {
+        worker.lastHeartbeat = System.currentTimeMillis();
+
+        switch (message.get(MutationTestWorker.TYPE).getAsString()) {
+            case MutationTestWorker.RESULT:
+                final Job job;
+                final List<Job> failed;
+                synchronized (this) {
+                    job = worker.running.remove(getJobKey(message.get(MutationTestWorker.ID).getAsString(),
+                            message.get(MutationTestWorker.SUT).getAsString()));
+                    failed = dispatch();
+                }
+
+                if (job != null) job.consumer.accept(makeResult(job, message));
+                giveUp(failed);
+                break;
+            case MutationTestWorker.ERROR:
+                reportError(message.get(MutationTestWorker.MESSAGE).getAsString());
+                break;
+        }
+    }
+
+    /**
+     * Makes a test result from a result message.
+     * @param job the job of the result
+     * @param message the message
+     * @return the result, or null if the message has no verdict
+     */
+    private static TestResult makeResult(final Job job, final JsonObject message) {
+        if (!message.has(MutationTestWorker.VERDICT)) return null;
+
+        final TestResult result = new TestResult(job.testCase.getId(), job.sutPath,
+                message.has(MutationTestWorker.REASON) ? message.get(MutationTestWorker.REASON).getAsString() : null,
+                CompactTrace.fromJson(message.getAsJsonArray(MutationTestWorker.TRACE)),
+                TestResult.Verdict.valueOf(message.get(MutationTestWorker.VERDICT).getAsString()));
+
+        if (message.has(MutationTestWorker.SUT_TRACE))
+            result.setSutTrace(CompactTrace.fromJson(message.getAsJsonArray(MutationTestWorker.SUT_TRACE)));
+
+        return result;
+    }
+
+    /**
+     * Checks if the workers are still alive.
+     * Workers without a recent heartbeat are killed, and their jobs are moved to other workers.
+     */
+    private void checkWorkers() {
+        final List<Job> failed = new ArrayList<>();
+
+        synchronized (this) {
+            final long now = System.currentTimeMillis();
+            for (final Worker worker : new ArrayList<>(workers)) {
+                if (worker.alive && (!worker.process.isAlive() || now - worker.lastHeartbeat > HEARTBEAT_TIMEOUT)) {
+                    failed.addAll(failWorker(worker));
+                }
+            }
+        }
+
+        giveUp(failed);
+    }
+
+    /**
+     * Kills a worker and moves its jobs to the other workers.
+     * Jobs the worker was running are started again from scratch.
+     * @param worker the worker
+     * @return jobs that could not be moved, since all workers are dead
+     */
+    private synchronized List<Job> failWorker(final Worker worker) {
+        worker.alive = false;
+        worker.process.destroy();
+
+        final List<Job> jobs = new ArrayList<>(worker.running.values());
+        jobs.addAll(worker.queue);
+        worker.running.clear();
+        worker.queue.clear();
+
+        final List<Worker> alive = new ArrayList<>();
+        workers.forEach(w -> {
+            if (w.alive) alive.add(w);
+        });
+
+        if (alive.isEmpty()) return jobs;
+
+        FxThreadHelper.runLater(() -> plan.writeProgress("A worker process stopped responding. Moving its " +
+                jobs.size() + " job" + (jobs.size() == 1 ? "" : "s") + " to other workers."));
+
+        for (int i = 0; i < jobs.size(); i++) alive.get(i % alive.size()).queue.addLast(jobs.get(i));
+
+        return dispatch();
+    }
+
+    /**
+     * Gives up jobs that could not be run, since all workers are dead.
+     * This reports an error and calls the consumers of the jobs with null.
+     * Must not be called while synchronized on this pool, since the consumers may submit new jobs.
+     * @param jobs the jobs to give up
+     */
+    private void giveUp(final List<Job> jobs) {
+        if (jobs.isEmpty()) return;
+
+        reportError("All worker processes stopped responding.");
+        jobs.forEach(job -> job.consumer.accept(null));
+    }
+
+    /**
+     * Reports an error from the workers.
+     * If the test plan is still working, set it to the ERROR status and display the error to the user.
+     * @param message the error message
+     */
+    private void reportError(final String message) {
+        synchronized (plan) {
+            if (plan.getStatus().equals(MutationTestPlan.Status.WORKING)) {
+                plan.setStatus(MutationTestPlan.Status.ERROR);
+                FxThreadHelper.runLater(() -> {
+                    final Text text = new Text(message);
+                    text.setFill(Color.RED);
+                    plan.writeProgress(text);
+                    Ecdar.showToast(message);
+                });
+            }
+        }
+    }
+
+    /**
+     * Tells the workers to stop running test-cases.
+     * The workers respond with empty results for the jobs they are running.
+     * Queued jobs are given up.
+     */
+    void stop() {
+        final List<Job> stopped = new ArrayList<>();
+
+        synchronized (this) {
+            for (final Worker worker : workers) {
+                stopped.addAll(worker.queue);
+                worker.queue.clear();
+                if (worker.alive) send(worker, MutationTestWorker.message(MutationTestWorker.STOP));
+            }
+        }
+
+        stopped.forEach(job -> job.consumer.accept(null));
+    }
+
+    /**
+     * Stops the workers processes.
+     * Workers stop when their standard input is closed.
+     */
+    synchronized void shutdown() {
+        monitor.shutdownNow();
+
+        for (final Worker worker : workers) {
+            worker.alive = false;
+            try {
+                worker.writer.close();
+            } catch (final IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        workers.clear();
+    }
+}
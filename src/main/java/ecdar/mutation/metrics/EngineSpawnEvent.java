@@ -0,0 +1,26 @@
+package ecdar.mutation.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Event of spawning an engine process to check refinement of a mutant.
+ * This is only recorded by the flight recorder.
+ * The duration is part of the {@link GenerationEvent} of the mutant.
+ */
+@Name("ecdar.EngineSpawn")
+@Label("Engine Spawn")
+@Description("Spawning an engine process to check refinement of a mutant")
+public class EngineSpawnEvent extends PipelineEvent {
+    @Label("Test-Case")
+    private final String testCase;
+
+    /**
+     * Constructs and begins the event.
+     * @param testCase the id of the test-case of the mutant
+     */
+    public EngineSpawnEvent(final String testCase) {
+        this.testCase = testCase;
+    }
+}
@@ -0,0 +1,53 @@
+package ecdar.mutation.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Event of generating the test-case of a mutant.
+ * This includes spawning the engine, checking refinement, and parsing the strategy, if any.
+ */
+@Name("ecdar.TestCaseGeneration")
+@Label("Test-Case Generation")
+@Description("Checking refinement of a mutant and fetching its strategy")
+public class GenerationEvent extends PipelineEvent {
+    public static final String REFINEMENT = "refinement";
+    public static final String STRATEGY = "strategy";
+    public static final String CHECKPOINT = "checkpoint";
+    public static final String RETRY = "retry";
+    public static final String ERROR = "error";
+
+    @Label("Test-Case")
+    private final String testCase;
+
+    @Label("Outcome")
+    @Description("refinement, strategy, checkpoint (reused from the checkpoint log), retry, or error")
+    private String outcome = ERROR;
+
+    @Label("Engine Spawn Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long engineSpawnTime = -1;
+
+    /**
+     * Constructs and begins the event.
+     * @param testCase the id of the test-case of the mutant
+     */
+    public GenerationEvent(final String testCase) {
+        this.testCase = testCase;
+    }
+
+    public void setOutcome(final String outcome) {
+        this.outcome = outcome;
+    }
+
+    public void setEngineSpawnTime(final long engineSpawnTime) {
+        this.engineSpawnTime = engineSpawnTime;
+    }
+
+    @Override
+    PipelineMetrics.Row toRow() {
+        return new PipelineMetrics.Row(PipelineMetrics.Stage.GENERATION, testCase, getNanos(), -1, engineSpawnTime, -1, outcome);
+    }
+}
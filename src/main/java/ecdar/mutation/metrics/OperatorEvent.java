@@ -0,0 +1,36 @@
+package ecdar.mutation.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Event of a mutation operator generating mutants of a test model.
+ */
+@Name("ecdar.MutationOperator")
+@Label("Mutation Operator")
+@Description("A mutation operator generating mutants")
+public class OperatorEvent extends PipelineEvent {
+    @Label("Operator")
+    private final String operator;
+
+    @Label("Mutants")
+    private int mutants;
+
+    /**
+     * Constructs and begins the event.
+     * @param operator the code name of the operator
+     */
+    public OperatorEvent(final String operator) {
+        this.operator = operator;
+    }
+
+    public void setMutants(final int mutants) {
+        this.mutants = mutants;
+    }
+
+    @Override
+    PipelineMetrics.Row toRow() {
+        return new PipelineMetrics.Row(PipelineMetrics.Stage.MUTATION, operator, getNanos(), mutants, -1, -1, null);
+    }
+}
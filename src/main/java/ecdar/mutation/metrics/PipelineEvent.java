@@ -0,0 +1,56 @@
+package ecdar.mutation.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+
+/**
+ * A JDK Flight Recorder event of a stage of the mutation testing pipeline.
+ * The event begins when constructed, and ends when finished.
+ * Besides being committed to the flight recorder, it can be added to the {@link PipelineMetrics} of a test plan.
+ */
+@Category({"Ecdar", "Mutation Testing"})
+public abstract class PipelineEvent extends Event {
+    // Transient fields are not recorded by the flight recorder
+    private transient final long startNanos;
+    private transient long nanos = -1;
+
+    /**
+     * Constructs and begins the event.
+     */
+    PipelineEvent() {
+        startNanos = System.nanoTime();
+        begin();
+    }
+
+    /**
+     * Ends and commits the event.
+     * Finishing an event more than once has no effect.
+     */
+    public synchronized void finish() {
+        if (isFinished()) return;
+
+        end();
+        commit();
+        nanos = System.nanoTime() - startNanos;
+    }
+
+    public synchronized boolean isFinished() {
+        return nanos >= 0;
+    }
+
+    /**
+     * Gets the duration of the event.
+     * @return the duration in nanoseconds, or -1 if not finished
+     */
+    public synchronized long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Gets the row of this event in a metrics report.
+     * @return the row, or null if this event is only recorded by the flight recorder
+     */
+    PipelineMetrics.Row toRow() {
+        return null;
+    }
+}
@@ -0,0 +1,332 @@
+package ecdar.mutation.metrics;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import ecdar.abstractions.Project;
+import ecdar.mutation.models.MutationTestPlan;
+import ecdar.utility.ReportHelper;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Metrics of the stages of a run of a test plan.
+ * Each finished {@link PipelineEvent} becomes a row:
+ * A row per mutation operator, a row per generated test-case, and a row per test-case run on the system under test.
+ * The rows are written as a CSV report, and as a JSON report with a summary of each stage.
+ * Events can be added from any thread.
+ */
+public class PipelineMetrics {
+    public static final String CSV_FILENAME_EXTENSION = ".metrics.csv";
+    public static final String JSON_FILENAME_EXTENSION = ".metrics.json";
+
+    private static final String TEST_PLAN = "testPlan";
+    static final String TIME_UNIT = "timeUnitMs";
+    static final String SIMULATE_TIME = "simulateTime";
+    static final String STEP_BOUNDS = "stepBounds";
+    private static final String STAGES = "stages";
+    static final String ROWS = "rows";
+    static final String STAGE = "stage";
+    private static final String NAME = "name";
+    static final String TIME = "timeMs";
+    static final String COUNT = "count";
+    private static final String STARTUP_TIME = "startupMs";
+    static final String WAIT_TIME = "waitTimeUnits";
+    static final String OUTCOME = "outcome";
+    private static final String TOTAL_TIME = "totalTimeMs";
+    private static final String MEAN_TIME = "meanTimeMs";
+    private static final String MAX_TIME = "maxTimeMs";
+    private static final String TOTAL_COUNT = "totalCount";
+    private static final String TOTAL_STARTUP_TIME = "totalStartupMs";
+    private static final String TOTAL_WAIT_TIME = "totalWaitTimeUnits";
+    private static final String OUTCOMES = "outcomes";
+
+    private static final String[] CSV_HEADER = {STAGE, NAME, TIME, COUNT, STARTUP_TIME, WAIT_TIME, OUTCOME};
+
+    private final List<Row> rows = new ArrayList<>();
+
+    /**
+     * A stage of the pipeline.
+     */
+    public enum Stage {
+        MUTATION, GENERATION, TEST;
+
+        /**
+         * Gets the name of this stage, as written in reports.
+         * @return the name
+         */
+        String getName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Gets the stage with a name, as written in reports.
+         * @param name the name
+         * @return the stage, or null if no stage has the name
+         */
+        static Stage fromName(final String name) {
+            return Arrays.stream(values()).filter(stage -> stage.getName().equals(name)).findFirst().orElse(null);
+        }
+    }
+
+    /**
+     * A row of a report.
+     * Values that do not apply to the stage are negative, or null.
+     */
+    static class Row {
+        private final Stage stage;
+        private final String name;
+        private final long nanos;
+        private final int count;
+        private final long startupNanos;
+        private final double waitTimeUnits;
+        private final String outcome;
+
+        /**
+         * Constructs.
+         * @param stage the stage
+         * @param name the name of the operator or the id of the test-case
+         * @param nanos the duration in nanoseconds
+         * @param count the number of mutants of an operator, or the number of steps of a test run
+         * @param startupNanos time for starting the engine or the system under test in nanoseconds
+         * @param waitTimeUnits time waited for the system under test in time units of the test plan
+         * @param outcome the outcome of a generation, or the verdict of a test run
+         */
+        Row(final Stage stage, final String name, final long nanos, final int count, final long startupNanos,
+            final double waitTimeUnits, final String outcome) {
+            this.stage = stage;
+            this.name = name;
+            this.nanos = nanos;
+            this.count = count;
+            this.startupNanos = startupNanos;
+            this.waitTimeUnits = waitTimeUnits;
+            this.outcome = outcome;
+        }
+
+        Stage getStage() {
+            return stage;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getOutcome() {
+            return outcome;
+        }
+
+        int getCount() {
+            return count;
+        }
+    }
+
+
+    /* Static helpers */
+
+    /**
+     * Finishes an event, and adds it to the metrics of a test plan, if the plan collects metrics.
+     * @param plan the test plan
+     * @param event the event
+     */
+    public static void finish(final MutationTestPlan plan, final PipelineEvent event) {
+        event.finish();
+
+        final PipelineMetrics metrics = plan.getMetrics();
+        if (metrics != null) metrics.add(event);
+    }
+
+    /**
+     * Gets the file of the CSV report of a test plan.
+     * The report is in the same folder as the test plan.
+     * @param plan the test plan
+     * @return the file
+     */
+    public static File getCsvFile(final MutationTestPlan plan) {
+        return new File(Project.getTestsFolder(), plan.getName() + CSV_FILENAME_EXTENSION);
+    }
+
+    /**
+     * Gets the file of the JSON report of a test plan.
+     * The report is in the same folder as the test plan.
+     * @param plan the test plan
+     * @return the file
+     */
+    public static File getJsonFile(final MutationTestPlan plan) {
+        return new File(Project.getTestsFolder(), plan.getName() + JSON_FILENAME_EXTENSION);
+    }
+
+
+    /* Other */
+
+    /**
+     * Finishes an event, if not already finished, and adds its row.
+     * Events only recorded by the flight recorder are not added.
+     * @param event the event
+     */
+    public void add(final PipelineEvent event) {
+        event.finish();
+
+        final Row row = event.toRow();
+        if (row == null) return;
+
+        synchronized (rows) {
+            rows.add(row);
+        }
+    }
+
+    /**
+     * Gets a copy of the rows added so far.
+     * @return the rows
+     */
+    List<Row> getRows() {
+        synchronized (rows) {
+            return new ArrayList<>(rows);
+        }
+    }
+
+    /**
+     * Writes the reports of a test plan next to the test plan.
+     * @param plan the test plan
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeReports(final MutationTestPlan plan) throws IOException {
+        try (final Writer writer = ReportHelper.openReport(getCsvFile(plan))) {
+            writeCsv(writer);
+        }
+
+        try (final Writer writer = ReportHelper.openReport(getJsonFile(plan))) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(toJson(plan), writer);
+        }
+    }
+
+    /**
+     * Writes the rows as CSV with a header.
+     * Values that do not apply to a row are empty.
+     * @param writer the writer to write to
+     * @throws IOException if an I/O error occurs
+     */
+    void writeCsv(final Writer writer) throws IOException {
+        writer.write(String.join(",", CSV_HEADER));
+        writer.write("\n");
+
+        for (final Row row : getRows()) {
+            writer.write(String.join(",",
+                    row.stage.getName(),
+                    ReportHelper.escapeCsv(row.name),
+                    formatMillis(row.nanos),
+                    row.count < 0 ? "" : String.valueOf(row.count),
+                    row.startupNanos < 0 ? "" : formatMillis(row.startupNanos),
+                    row.waitTimeUnits < 0 ? "" : String.valueOf(row.waitTimeUnits),
+                    row.outcome == null ? "" : ReportHelper.escapeCsv(row.outcome)
+            ));
+            writer.write("\n");
+        }
+    }
+
+    /**
+     * Converts the metrics to JSON, with the options of the test plan that affect the times,
+     * a summary of each stage, and all the rows.
+     * The options let later runs estimate their cost from these metrics, see {@link RunHistory}.
+     * @param plan the test plan
+     * @return the JSON object
+     */
+    JsonObject toJson(final MutationTestPlan plan) {
+        final JsonObject json = toJson(plan.getName());
+        json.addProperty(TIME_UNIT, plan.getTimeUnit());
+        json.addProperty(SIMULATE_TIME, plan.shouldSimulateTime());
+        json.addProperty(STEP_BOUNDS, plan.getStepBounds());
+        return json;
+    }
+
+    /**
+     * Converts the metrics to JSON, with a summary of each stage and all the rows.
+     * @param testPlanName the name of the test plan
+     * @return the JSON object
+     */
+    JsonObject toJson(final String testPlanName) {
+        final List<Row> rows = getRows();
+
+        final JsonObject json = new JsonObject();
+        json.addProperty(TEST_PLAN, testPlanName);
+
+        final JsonObject stages = new JsonObject();
+        for (final Stage stage : Stage.values()) {
+            final List<Row> stageRows = new ArrayList<>();
+            rows.stream().filter(row -> row.stage == stage).forEach(stageRows::add);
+
+            if (!stageRows.isEmpty()) stages.add(stage.getName(), summarize(stageRows));
+        }
+        json.add(STAGES, stages);
+
+        final JsonArray rowsJson = new JsonArray();
+        for (final Row row : rows) {
+            final JsonObject rowJson = new JsonObject();
+            rowJson.addProperty(STAGE, row.stage.getName());
+            rowJson.addProperty(NAME, row.name);
+            rowJson.addProperty(TIME, toMillis(row.nanos));
+            if (row.count >= 0) rowJson.addProperty(COUNT, row.count);
+            if (row.startupNanos >= 0) rowJson.addProperty(STARTUP_TIME, toMillis(row.startupNanos));
+            if (row.waitTimeUnits >= 0) rowJson.addProperty(WAIT_TIME, row.waitTimeUnits);
+            if (row.outcome != null) rowJson.addProperty(OUTCOME, row.outcome);
+            rowsJson.add(rowJson);
+        }
+        json.add(ROWS, rowsJson);
+
+        return json;
+    }
+
+    /**
+     * Summarizes the rows of a stage.
+     * @param rows the rows of the stage. Must not be empty
+     * @return the summary
+     */
+    private static JsonObject summarize(final List<Row> rows) {
+        long totalNanos = 0, maxNanos = 0, totalStartupNanos = 0;
+        int totalCount = 0;
+        double totalWaitTimeUnits = 0;
+        final Map<String, Integer> outcomes = new TreeMap<>();
+
+        for (final Row row : rows) {
+            totalNanos += row.nanos;
+            maxNanos = Math.max(maxNanos, row.nanos);
+            if (row.count > 0) totalCount += row.count;
+            if (row.startupNanos > 0) totalStartupNanos += row.startupNanos;
+            if (row.waitTimeUnits > 0) totalWaitTimeUnits += row.waitTimeUnits;
+            if (row.outcome != null) outcomes.merge(row.outcome, 1, Integer::sum);
+        }
+
+        final JsonObject json = new JsonObject();
+        json.addProperty(ROWS, rows.size());
+        json.addProperty(TOTAL_TIME, toMillis(totalNanos));
+        json.addProperty(MEAN_TIME, toMillis(totalNanos) / rows.size());
+        json.addProperty(MAX_TIME, toMillis(maxNanos));
+        json.addProperty(TOTAL_COUNT, totalCount);
+        json.addProperty(TOTAL_STARTUP_TIME, toMillis(totalStartupNanos));
+        json.addProperty(TOTAL_WAIT_TIME, totalWaitTimeUnits);
+
+        final JsonObject outcomesJson = new JsonObject();
+        outcomes.forEach(outcomesJson::addProperty);
+        json.add(OUTCOMES, outcomesJson);
+
+        return json;
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds.
+     * @param nanos the nanoseconds
+     * @return the milliseconds
+     */
+    private static double toMillis(final long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Formats nanoseconds as milliseconds with three decimals.
+     * @param nanos the nanoseconds
+     * @return the formatted milliseconds
+     */
+    private static String formatMillis(final long nanos) {
+        return String.format(Locale.ROOT, "%.3f", toMillis(nanos));
+    }
+}
@@ -0,0 +1,206 @@
+package ecdar.mutation.metrics;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import ecdar.mutation.models.MutationTestPlan;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timings of a previous run of a test plan, read from its JSON metrics report.
+ * These are used for estimating the cost of the next run.
+ * The time of a test run is split into the time spent waiting for the system under test, which scales with the time unit,
+ * and the rest, e.g. starting the system under test and simulating the models.
+ */
+public class RunHistory {
+    private final int timeUnit;
+    private final boolean simulateTime;
+    private final List<Long> generationNanos = new ArrayList<>();
+    private final List<TestRun> testRuns = new ArrayList<>();
+    private int strategies = 0;
+    private int refinements = 0;
+
+    /**
+     * Timing of a run of a test-case on the system under test.
+     */
+    private static class TestRun {
+        private final double millis;
+        private final double waitTimeUnits;
+        private final int steps;
+
+        private TestRun(final double millis, final double waitTimeUnits, final int steps) {
+            this.millis = millis;
+            this.waitTimeUnits = waitTimeUnits;
+            this.steps = steps;
+        }
+    }
+
+
+    /* Constructors */
+
+    /**
+     * Constructs from a JSON metrics report.
+     * @param json the report
+     */
+    RunHistory(final JsonObject json) {
+        timeUnit = json.has(PipelineMetrics.TIME_UNIT) ? json.get(PipelineMetrics.TIME_UNIT).getAsInt() : -1;
+        simulateTime = json.has(PipelineMetrics.SIMULATE_TIME) && json.get(PipelineMetrics.SIMULATE_TIME).getAsBoolean();
+
+        if (!json.has(PipelineMetrics.ROWS)) return;
+
+        for (final JsonElement element : json.getAsJsonArray(PipelineMetrics.ROWS)) {
+            final JsonObject row = element.getAsJsonObject();
+            final PipelineMetrics.Stage stage = PipelineMetrics.Stage.fromName(row.get(PipelineMetrics.STAGE).getAsString());
+            final double millis = row.get(PipelineMetrics.TIME).getAsDouble();
+            final String outcome = row.has(PipelineMetrics.OUTCOME) ? row.get(PipelineMetrics.OUTCOME).getAsString() : null;
+
+            if (stage == PipelineMetrics.Stage.GENERATION) {
+                // Strategies reused from the checkpoint log do not tell how long the engine takes
+                if (GenerationEvent.CHECKPOINT.equals(outcome)) continue;
+
+                generationNanos.add((long) (millis * 1_000_000));
+                if (GenerationEvent.STRATEGY.equals(outcome)) strategies++;
+                else if (GenerationEvent.REFINEMENT.equals(outcome)) refinements++;
+            } else if (stage == PipelineMetrics.Stage.TEST) {
+                testRuns.add(new TestRun(millis,
+                        row.has(PipelineMetrics.WAIT_TIME) ? row.get(PipelineMetrics.WAIT_TIME).getAsDouble() : 0,
+                        row.has(PipelineMetrics.COUNT) ? row.get(PipelineMetrics.COUNT).getAsInt() : 0));
+            }
+        }
+    }
+
+
+    /* Static helpers */
+
+    /**
+     * Reads the history of a test plan from the JSON metrics report of its last run.
+     * @param plan the test plan
+     * @return the history, or null if the plan has no readable report
+     */
+    public static RunHistory read(final MutationTestPlan plan) {
+        final File file = PipelineMetrics.getJsonFile(plan);
+        if (!file.isFile()) return null;
+
+        try (final Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return read(reader);
+        } catch (final IOException | JsonParseException | IllegalStateException | ClassCastException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Reads a history from a JSON metrics report.
+     * @param reader the reader of the report
+     * @return the history
+     * @throws JsonParseException if the report is not valid JSON
+     * @throws IllegalStateException if the report is not a JSON object
+     */
+    static RunHistory read(final Reader reader) {
+        return new RunHistory(new JsonParser().parse(reader).getAsJsonObject());
+    }
+
+
+    /* Properties */
+
+    /**
+     * Gets if the history has timings of the engine.
+     * @return true iff it has
+     */
+    public boolean hasGenerations() {
+        return !generationNanos.isEmpty();
+    }
+
+    /**
+     * Gets the mean time of generating the test-case of a mutant, including spawning the engine.
+     * @return the mean time in milliseconds, or -1 if the history has no timings of the engine
+     */
+    public double getMeanGenerationMillis() {
+        if (generationNanos.isEmpty()) return -1;
+        return generationNanos.stream().mapToLong(Long::longValue).sum() / 1_000_000.0 / generationNanos.size();
+    }
+
+    /**
+     * Gets the fraction of the mutants that became test-cases, since mutants that refine the test model do not.
+     * @return the fraction, or 1 if the history does not tell
+     */
+    public double getStrategyFraction() {
+        if (strategies + refinements == 0) return 1;
+        return strategies / (double) (strategies + refinements);
+    }
+
+    /**
+     * Gets if the history has timings of the system under test.
+     * @return true iff it has
+     */
+    public boolean hasTestRuns() {
+        return !testRuns.isEmpty();
+    }
+
+    /**
+     * Gets the mean time of running a test-case with some options.
+     * Waits are scaled to the time unit, or left out if time is simulated.
+     * Runs with more steps than the step bounds are scaled down, as they would stop at the bounds.
+     * @param timeUnit the number of milliseconds of a time unit
+     * @param simulateTime if time is simulated
+     * @param stepBounds the step bounds
+     * @return the mean time in milliseconds, or -1 if the history has no timings of the system under test
+     */
+    public double getMeanTestMillis(final int timeUnit, final boolean simulateTime, final int stepBounds) {
+        if (testRuns.isEmpty()) return -1;
+
+        double total = 0;
+        for (final TestRun run : testRuns) {
+            // Without the time unit of the history, waits cannot be scaled
+            double millis = isTimeUnitKnown() ? getOverheadMillis(run) + (simulateTime ? 0 : run.waitTimeUnits * timeUnit) : run.millis;
+            if (run.steps > stepBounds && stepBounds > 0) millis *= stepBounds / (double) run.steps;
+            total += millis;
+        }
+
+        return total / testRuns.size();
+    }
+
+    /**
+     * Gets the mean fraction of the time of test runs that is not spent waiting for the system under test.
+     * This is about how much of a processor each instance of the system under test keeps busy.
+     * @param timeUnit the number of milliseconds of a time unit
+     * @param simulateTime if time is simulated
+     * @return the fraction, or 1 if the history has no timings of the system under test
+     */
+    public double getBusyFraction(final int timeUnit, final boolean simulateTime) {
+        if (testRuns.isEmpty() || simulateTime) return 1;
+
+        double overhead = 0, total = 0;
+        for (final TestRun run : testRuns) {
+            overhead += getOverheadMillis(run);
+            total += getOverheadMillis(run) + run.waitTimeUnits * timeUnit;
+        }
+
+        return total <= 0 ? 1 : overhead / total;
+    }
+
+    /**
+     * Gets if the history tells the time unit of its run.
+     * Reports from before the time unit was written do not.
+     * @return true iff it tells, or if time was simulated
+     */
+    private boolean isTimeUnitKnown() {
+        return simulateTime || timeUnit > 0;
+    }
+
+    /**
+     * Gets the time of a test run that was not spent waiting for the system under test.
+     * If the history does not tell the time unit, the whole time counts.
+     * @param run the test run
+     * @return the time in milliseconds
+     */
+    private double getOverheadMillis(final TestRun run) {
+        if (simulateTime || !isTimeUnitKnown()) return run.millis;
+        return Math.max(0, run.millis - run.waitTimeUnits * timeUnit);
+    }
+}
@@ -0,0 +1,26 @@
+package ecdar.mutation.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Event of starting the system under test for running a test-case.
+ * This is only recorded by the flight recorder.
+ * The duration is part of the {@link TestRunEvent} of the test-case.
+ */
+@Name("ecdar.SutStartup")
+@Label("SUT Startup")
+@Description("Starting a process of the system under test")
+public class SutStartupEvent extends PipelineEvent {
+    @Label("Test-Case")
+    private final String testCase;
+
+    /**
+     * Constructs and begins the event.
+     * @param testCase the id of the test-case to run
+     */
+    public SutStartupEvent(final String testCase) {
+        this.testCase = testCase;
+    }
+}
@@ -0,0 +1,68 @@
+package ecdar.mutation.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Event of running a test-case on the system under test.
+ */
+@Name("ecdar.TestRun")
+@Label("Test Run")
+@Description("Running a test-case on the system under test")
+public class TestRunEvent extends PipelineEvent {
+    public static final String STOPPED = "STOPPED";
+    public static final String ERROR = "ERROR";
+
+    @Label("Test-Case")
+    private final String testCase;
+
+    @Label("SUT Startup Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long sutStartupTime = -1;
+
+    @Label("Steps")
+    private int steps;
+
+    @Label("Wait Time")
+    @Description("Time waited for outputs of the system under test, in time units of the test plan")
+    private double waitTime;
+
+    @Label("Verdict")
+    @Description("The verdict of the test-case, STOPPED, or ERROR")
+    private String verdict = ERROR;
+
+    /**
+     * Constructs and begins the event.
+     * @param testCase the id of the test-case
+     */
+    public TestRunEvent(final String testCase) {
+        this.testCase = testCase;
+    }
+
+    public void setSutStartupTime(final long sutStartupTime) {
+        this.sutStartupTime = sutStartupTime;
+    }
+
+    public void setSteps(final int steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Adds to the time waited for outputs.
+     * @param waitTime the time to add, in time units of the test plan
+     */
+    public void addWaitTime(final double waitTime) {
+        this.waitTime += waitTime;
+    }
+
+    public void setVerdict(final String verdict) {
+        this.verdict = verdict;
+    }
+
+    @Override
+    PipelineMetrics.Row toRow() {
+        return new PipelineMetrics.Row(PipelineMetrics.Stage.TEST, testCase, getNanos(), steps, sutStartupTime, waitTime, verdict);
+    }
+}
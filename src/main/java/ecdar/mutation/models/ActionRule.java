@@ -10,7 +10,7 @@ import java.util.regex.Pattern;
  * An action rule in a strategy.
  */
 public class ActionRule extends StrategyRule {
-    private static final String REGEX_TRANSITION = "^\\w+\\.\\w+->\\w+\\.(\\w+) \\{ [^,]*, (\\w+)([?!]), (.*) }$";
+    private static final Pattern TRANSITION_PATTERN = Pattern.compile("^\\w+\\.\\w+->\\w+\\.(\\w+) \\{ [^,]*, (\\w+)([?!]), (.*) }$");
 
     private final String endLocationName;
     private final String sync;
@@ -26,9 +26,9 @@ public class ActionRule extends StrategyRule {
     public ActionRule(final String condition, final String transition) throws MutationTestingException {
         super(condition);
 
-        final Matcher matcher = Pattern.compile(REGEX_TRANSITION).matcher(transition);
+        final Matcher matcher = TRANSITION_PATTERN.matcher(transition);
 
-        if (!matcher.find()) throw new MutationTestingException("Strategy transition " + transition + " does not match " + REGEX_TRANSITION);
+        if (!matcher.find()) throw new MutationTestingException("Strategy transition " + transition + " does not match " + TRANSITION_PATTERN.pattern());
 
         endLocationName = matcher.group(1);
         sync = matcher.group(2);
@@ -0,0 +1,348 @@
+package ecdar.mutation.models;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A trace of a simulation stored as compact arrays rather than strings.
+ * Each step is either a delay or an input/output action.
+ * Actions are stored as ids into a table of synchronization properties shared by all traces.
+ * Consecutive delays are merged into a single step.
+ * The readable text is only built when asked for.
+ */
+public class CompactTrace {
+    private static final int DELAY = -1;
+    private static final char DELAY_PREFIX = 'd';
+    private static final char INPUT_PREFIX = 'i';
+    private static final char OUTPUT_PREFIX = 'o';
+    private static final int INITIAL_CAPACITY = 8;
+
+    private static final Map<String, Integer> syncIds = new ConcurrentHashMap<>();
+    private static final List<String> syncs = new ArrayList<>();
+
+    /**
+     * Actions of the steps.
+     * {@link #DELAY} if the step is a delay.
+     * Otherwise, the id of the synchronization property times two, plus one if the action is an output.
+     */
+    private int[] actions;
+
+    /**
+     * Delays (in time units) of the steps. 0 for action steps.
+     */
+    private float[] delays;
+
+    private int size = 0;
+
+    /**
+     * Constructs an empty trace.
+     */
+    public CompactTrace() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private CompactTrace(final int capacity) {
+        actions = new int[capacity];
+        delays = new float[capacity];
+    }
+
+
+    /* Static helpers */
+
+    /**
+     * Gets the id of a synchronization property.
+     * If the property has not been seen before, a new id is created.
+     * @param sync the synchronization property without ? or !
+     * @return the id
+     */
+    private static int getSyncId(final String sync) {
+        final Integer id = syncIds.get(sync);
+        if (id != null) return id;
+
+        synchronized (syncs) {
+            return syncIds.computeIfAbsent(sync, key -> {
+                syncs.add(key);
+                return syncs.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Gets the synchronization property with a specified id.
+     * @param id the id
+     * @return the synchronization property
+     */
+    private static String getSyncById(final int id) {
+        synchronized (syncs) {
+            return syncs.get(id);
+        }
+    }
+
+
+    /* Other */
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a delay.
+     * If the last step was also a delay, the two delays are merged.
+     * @param time the time to delay in time units
+     */
+    public void addDelay(final double time) {
+        if (size > 0 && actions[size - 1] == DELAY) {
+            delays[size - 1] += time;
+            return;
+        }
+
+        add(DELAY, (float) time);
+    }
+
+    /**
+     * Adds an input action.
+     * @param sync the synchronization property without ?
+     */
+    public void addInput(final String sync) {
+        add(getSyncId(sync) * 2, 0);
+    }
+
+    /**
+     * Adds an output action.
+     * @param sync the synchronization property without !
+     */
+    public void addOutput(final String sync) {
+        add(getSyncId(sync) * 2 + 1, 0);
+    }
+
+    /**
+     * Adds a step, growing the arrays if needed.
+     * @param action the encoded action
+     * @param delay the delay
+     */
+    private void add(final int action, final float delay) {
+        if (size == actions.length) {
+            actions = Arrays.copyOf(actions, size * 2);
+            delays = Arrays.copyOf(delays, size * 2);
+        }
+
+        actions[size] = action;
+        delays[size] = delay;
+        size++;
+    }
+
+    /**
+     * Gets if a step is a delay.
+     * @param index the index of the step
+     * @return true iff the step is a delay
+     */
+    public boolean isDelay(final int index) {
+        return actions[index] == DELAY;
+    }
+
+    /**
+     * Gets if a step is an output action.
+     * @param index the index of the step
+     * @return true iff the step is an output
+     */
+    public boolean isOutput(final int index) {
+        return actions[index] != DELAY && actions[index] % 2 == 1;
+    }
+
+    /**
+     * Gets the synchronization property of an action step.
+     * @param index the index of the step
+     * @return the synchronization property without ? or !
+     */
+    public String getSync(final int index) {
+        return getSyncById(actions[index] / 2);
+    }
+
+    /**
+     * Gets the delay of a delay step.
+     * @param index the index of the step
+     * @return the delay in time units
+     */
+    public double getDelay(final int index) {
+        return delays[index];
+    }
+
+    /**
+     * Gets a readable string of a step, e.g. "delay 1.20", "input a", or "output b".
+     * @param index the index of the step
+     * @return the string
+     */
+    public String getStepText(final int index) {
+        if (isDelay(index)) return "delay " + String.format("%.2f", delays[index]);
+        return (isOutput(index) ? "output " : "input ") + getSync(index);
+    }
+
+    /**
+     * Gets the steps as readable strings.
+     * @return the strings
+     */
+    public List<String> toStrings() {
+        final List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) strings.add(getStepText(i));
+        return strings;
+    }
+
+    /**
+     * Creates a copy of this trace with arrays trimmed to the number of steps.
+     * @return the copy
+     */
+    public CompactTrace copy() {
+        final CompactTrace copy = new CompactTrace(Math.max(size, 1));
+        System.arraycopy(actions, 0, copy.actions, 0, size);
+        System.arraycopy(delays, 0, copy.delays, 0, size);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Converts this to JSON, e.g. for sending it to another process.
+     * Each step is a string with a prefix telling if the step is a delay, an input, or an output.
+     * @return the JSON array
+     */
+    public JsonArray toJson() {
+        final JsonArray json = new JsonArray();
+
+        for (int i = 0; i < size; i++) {
+            if (isDelay(i)) json.add(DELAY_PREFIX + Float.toString(delays[i]));
+            else json.add((isOutput(i) ? OUTPUT_PREFIX : INPUT_PREFIX) + getSync(i));
+        }
+
+        return json;
+    }
+
+    /**
+     * Constructs a trace from JSON made with {@link #toJson()}.
+     * @param json the JSON array
+     * @return the trace
+     */
+    public static CompactTrace fromJson(final JsonArray json) {
+        final CompactTrace trace = new CompactTrace(Math.max(json.size(), 1));
+
+        for (final JsonElement element : json) {
+            final String step = element.getAsString();
+            final String value = step.substring(1);
+
+            switch (step.charAt(0)) {
+                case DELAY_PREFIX:
+                    trace.addDelay(Float.parseFloat(value));
+                    break;
+                case INPUT_PREFIX:
+                    trace.addInput(value);
+                    break;
+                case OUTPUT_PREFIX:
+                    trace.addOutput(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Trace step " + step + " not understood");
+            }
+        }
+
+        return trace;
+    }
+
+    /**
+     * Writes this in a compact binary form.
+     * The synchronization properties of the trace are written the first time they occur, and by index after that.
+     * Thus, the binary form does not depend on the ids shared by all traces in this process.
+     * @param output the output to write to
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(final DataOutput output) throws IOException {
+        final Map<Integer, Integer> localIds = new HashMap<>();
+
+        output.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            if (isDelay(i)) {
+                output.writeByte(DELAY_PREFIX);
+                output.writeFloat(delays[i]);
+                continue;
+            }
+
+            output.writeByte(isOutput(i) ? OUTPUT_PREFIX : INPUT_PREFIX);
+
+            final Integer localId = localIds.get(actions[i] / 2);
+            if (localId != null) {
+                output.writeInt(localId);
+            } else {
+                output.writeInt(localIds.size());
+                output.writeUTF(getSync(i));
+                localIds.put(actions[i] / 2, localIds.size());
+            }
+        }
+    }
+
+    /**
+     * Reads a trace written with {@link #write(DataOutput)}.
+     * @param input the input to read from
+     * @return the trace
+     * @throws IOException if an I/O error occurs, or if the input is not a trace
+     */
+    public static CompactTrace read(final DataInput input) throws IOException {
+        final int steps = input.readInt();
+        if (steps < 0) throw new IOException("Invalid number of trace steps " + steps);
+
+        final CompactTrace trace = new CompactTrace(Math.max(steps, 1));
+        final List<String> localSyncs = new ArrayList<>();
+
+        for (int i = 0; i < steps; i++) {
+            final char prefix = (char) input.readByte();
+            if (prefix == DELAY_PREFIX) {
+                trace.addDelay(input.readFloat());
+                continue;
+            }
+
+            if (prefix != INPUT_PREFIX && prefix != OUTPUT_PREFIX) throw new IOException("Trace step " + prefix + " not understood");
+
+            final int localId = input.readInt();
+            if (localId == localSyncs.size()) localSyncs.add(input.readUTF());
+            else if (localId < 0 || localId > localSyncs.size()) throw new IOException("Invalid synchronization index " + localId);
+
+            if (prefix == INPUT_PREFIX) trace.addInput(localSyncs.get(localId));
+            else trace.addOutput(localSyncs.get(localId));
+        }
+
+        return trace;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) return true;
+        if (!(other instanceof CompactTrace)) return false;
+
+        final CompactTrace trace = (CompactTrace) other;
+        if (size != trace.size) return false;
+
+        for (int i = 0; i < size; i++) {
+            if (actions[i] != trace.actions[i] || Float.compare(delays[i], trace.delays[i]) != 0) return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = size;
+        for (int i = 0; i < size; i++) hash = 31 * (31 * hash + actions[i]) + Float.floatToIntBits(delays[i]);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" → ", toStrings());
+    }
+}
@@ -0,0 +1,172 @@
+package ecdar.mutation.models;
+
+import ecdar.abstractions.Project;
+import ecdar.utility.ReportHelper;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Matrix of the verdicts of running test-cases on several variants of a system under test.
+ * There is a row for each test-case and a column for each system under test.
+ * A system under test kills the mutant of a test-case, if the verdict is pass.
+ * It fails the test-case, if it behaves like the mutant rather than the test model.
+ */
+public class KillMatrix {
+    public static final String FILENAME_EXTENSION = ".killmatrix.csv";
+
+    private final List<String> sutPaths;
+    private final Map<String, TestResult.Verdict[]> rows = new TreeMap<>();
+
+    /**
+     * Constructs.
+     * Results where the system under test is not known are put in the column of the first system under test.
+     * Results of other systems under test are ignored.
+     * If a test-case has multiple results for the same system under test, the last one counts.
+     * @param sutPaths the paths of the systems under test, one for each column
+     * @param results the results to put in the matrix
+     */
+    public KillMatrix(final List<String> sutPaths, final Collection<TestResult> results) {
+        this.sutPaths = new ArrayList<>(sutPaths);
+
+        for (final TestResult result : results) {
+            final int column = result.getSutPath() == null ? 0 : this.sutPaths.indexOf(result.getSutPath());
+            if (column < 0 || column >= this.sutPaths.size()) continue;
+
+            rows.computeIfAbsent(result.getTestCaseId(), id -> new TestResult.Verdict[this.sutPaths.size()])[column] =
+                    result.getVerdict();
+        }
+    }
+
+
+    /* Static helpers */
+
+    /**
+     * Gets the file to write the kill matrix of a test plan to.
+     * @param plan the test plan
+     * @return the file
+     */
+    public static File getFile(final MutationTestPlan plan) {
+        return new File(Project.getTestsFolder(), plan.getName() + FILENAME_EXTENSION);
+    }
+
+
+    /* Properties */
+
+    public List<String> getSutPaths() {
+        return sutPaths;
+    }
+
+    /**
+     * Gets the ids of the test-cases in the matrix, sorted.
+     * @return the ids
+     */
+    public List<String> getTestCaseIds() {
+        return new ArrayList<>(rows.keySet());
+    }
+
+    /**
+     * Gets the verdict of a test-case on a system under test.
+     * @param testCaseId the id of the test-case
+     * @param sutPath the path of the system under test
+     * @return the verdict, or null if the test-case has no result for the system under test
+     */
+    public TestResult.Verdict getVerdict(final String testCaseId, final String sutPath) {
+        final TestResult.Verdict[] row = rows.get(testCaseId);
+        final int column = sutPaths.indexOf(sutPath);
+        return row == null || column < 0 ? null : row[column];
+    }
+
+    /**
+     * Gets the number of mutants killed by a system under test.
+     * @param sutPath the path of the system under test
+     * @return the number of test-cases with a pass verdict
+     */
+    public int getKilledCount(final String sutPath) {
+        return count(sutPath, TestResult.Verdict.PASS);
+    }
+
+    /**
+     * Gets the number of test-cases failed by a system under test.
+     * @param sutPath the path of the system under test
+     * @return the number of test-cases with a fail verdict
+     */
+    public int getFailedCount(final String sutPath) {
+        return count(sutPath, TestResult.getFailedVerdicts());
+    }
+
+    /**
+     * Gets the number of test-cases with a result for a system under test.
+     * @param sutPath the path of the system under test
+     * @return the number of results
+     */
+    public int getResultCount(final String sutPath) {
+        return count(sutPath, TestResult.Verdict.values());
+    }
+
+
+    /* Other */
+
+    /**
+     * Counts the test-cases with some verdicts on a system under test.
+     * @param sutPath the path of the system under test
+     * @param verdicts the verdicts to count
+     * @return the number of test-cases
+     */
+    private int count(final String sutPath, final TestResult.Verdict... verdicts) {
+        final int column = sutPaths.indexOf(sutPath);
+        if (column < 0) return 0;
+
+        final Set<TestResult.Verdict> verdictSet = EnumSet.noneOf(TestResult.Verdict.class);
+        verdictSet.addAll(Arrays.asList(verdicts));
+
+        return (int) rows.values().stream().filter(row -> row[column] != null && verdictSet.contains(row[column])).count();
+    }
+
+    /**
+     * Gets a summary with a line for each system under test.
+     * @return the summary
+     */
+    public String getSummary() {
+        final StringBuilder builder = new StringBuilder("Kill matrix:");
+
+        for (final String sutPath : sutPaths) {
+            builder.append("\n").append(sutPath).append(": ")
+                    .append(getKilledCount(sutPath)).append(" killed, ")
+                    .append(getFailedCount(sutPath)).append(" failed, of ")
+                    .append(getResultCount(sutPath)).append(" test-case").append(getResultCount(sutPath) == 1 ? "" : "s");
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Writes the matrix as CSV.
+     * The header has the systems under test. Each row has the id of a test-case, followed by a verdict for each system under test.
+     * Cells without a result are empty.
+     * @param writer the writer to write to
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeCsv(final Writer writer) throws IOException {
+        writer.write("testCase");
+        for (final String sutPath : sutPaths) writer.write("," + ReportHelper.escapeCsv(sutPath));
+        writer.write("\n");
+
+        for (final Map.Entry<String, TestResult.Verdict[]> row : rows.entrySet()) {
+            writer.write(ReportHelper.escapeCsv(row.getKey()));
+            for (final TestResult.Verdict verdict : row.getValue()) writer.write("," + (verdict == null ? "" : verdict.name()));
+            writer.write("\n");
+        }
+    }
+
+    /**
+     * Writes the matrix of a test plan as CSV to the tests folder of the project.
+     * @param plan the test plan
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeReport(final MutationTestPlan plan) throws IOException {
+        try (final Writer writer = ReportHelper.openReport(getFile(plan))) {
+            writeCsv(writer);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package ecdar.mutation.models;
+
+import java.util.*;
+
+/**
+ * A sample of the mutants of a test plan.
+ * The mutants are divided into strata, one for each mutation operator.
+ * The sample keeps counters of killed mutants for each stratum,
+ * so the mutation score can be estimated without going through all test results.
+ * A mutant is killed, if the system under test passes the test-case of the mutant,
+ * i.e. if the test-case shows that the system does not behave like the mutant.
+ */
+public class MutantSample {
+    /**
+     * z-value for a 95% confidence interval.
+     */
+    public static final double Z_95 = 1.96;
+
+    private final List<MutationTestCase> testCases;
+    private final List<String> strata = new ArrayList<>();
+    private final Map<String, Integer> strataIndices = new HashMap<>();
+    private final int[] populationSizes;
+    private final int[] sampleSizes;
+    private final int[] killed;
+    private final int[] conclusive;
+
+    /**
+     * Constructs.
+     * @param testCases the test-cases of the sampled mutants
+     * @param strata the strata of the sample (names of the mutation operators)
+     * @param populationSizes the number of mutants in each stratum before sampling
+     * @param sampleSizes the number of sampled mutants in each stratum
+     * @param strataByTestCaseId the index of the stratum of each sampled test-case id
+     */
+    public MutantSample(final List<MutationTestCase> testCases, final List<String> strata, final int[] populationSizes,
+                        final int[] sampleSizes, final Map<String, Integer> strataByTestCaseId) {
+        this.testCases = testCases;
+        this.strata.addAll(strata);
+        this.strataIndices.putAll(strataByTestCaseId);
+        this.populationSizes = populationSizes;
+        this.sampleSizes = sampleSizes;
+        killed = new int[strata.size()];
+        conclusive = new int[strata.size()];
+    }
+
+
+    /* Properties */
+
+    /**
+     * Gets the test-cases of the sampled mutants.
+     * @return the test-cases
+     */
+    public List<MutationTestCase> getTestCases() {
+        return testCases;
+    }
+
+    public List<String> getStrata() {
+        return strata;
+    }
+
+    /**
+     * Gets the number of mutants before sampling.
+     * @return the number of mutants
+     */
+    public int getPopulationSize() {
+        return Arrays.stream(populationSizes).sum();
+    }
+
+    /**
+     * Gets the number of sampled mutants.
+     * @return the number of sampled mutants
+     */
+    public int getSampleSize() {
+        return Arrays.stream(sampleSizes).sum();
+    }
+
+    /**
+     * Gets if all mutants are sampled.
+     * @return true iff all mutants are sampled
+     */
+    public boolean isComplete() {
+        return getSampleSize() == getPopulationSize();
+    }
+
+
+    /* Other */
+
+    /**
+     * Counts a test result.
+     * Results of test-cases not in this sample are ignored.
+     * @param result the result
+     */
+    public synchronized void addResult(final TestResult result) {
+        count(result, 1);
+    }
+
+    /**
+     * Stops counting a test result, e.g. when the test-case is retested.
+     * @param result the result
+     */
+    public synchronized void removeResult(final TestResult result) {
+        count(result, -1);
+    }
+
+    /**
+     * Stops counting all test results.
+     */
+    public synchronized void clearResults() {
+        Arrays.fill(killed, 0);
+        Arrays.fill(conclusive, 0);
+    }
+
+    /**
+     * Adds a value to the counters matching a test result.
+     * @param result the result
+     * @param value the value to add
+     */
+    private void count(final TestResult result, final int value) {
+        final Integer index = strataIndices.get(result.getTestCaseId());
+        if (index == null) return;
+
+        if (result.isPass()) {
+            killed[index] += value;
+            conclusive[index] += value;
+        } else if (result.isFail()) {
+            conclusive[index] += value;
+        }
+    }
+
+    /**
+     * Estimates the mutation score of all mutants from the conclusive results of the sampled mutants.
+     * The estimate uses stratified estimation, where each stratum is weighted by its number of mutants before sampling.
+     * Strata without any conclusive results are left out.
+     * @return the estimate, or null if there are no conclusive results
+     */
+    public synchronized ScoreEstimate estimateScore() {
+        int population = 0;
+        int tested = 0;
+        for (int i = 0; i < strata.size(); i++) {
+            if (conclusive[i] == 0) continue;
+            population += populationSizes[i];
+            tested += conclusive[i];
+        }
+
+        if (tested == 0) return null;
+
+        double score = 0;
+        double variance = 0;
+        for (int i = 0; i < strata.size(); i++) {
+            if (conclusive[i] == 0) continue;
+
+            final double weight = (double) populationSizes[i] / population;
+            final double p = (double) killed[i] / conclusive[i];
+            final double finiteCorrection = 1 - (double) conclusive[i] / populationSizes[i];
+
+            score += weight * p;
+            variance += weight * weight * finiteCorrection * p * (1 - p) / Math.max(conclusive[i] - 1, 1);
+        }
+
+        return new ScoreEstimate(score, Z_95 * Math.sqrt(Math.max(variance, 0)), tested);
+    }
+
+    /**
+     * An estimated mutation score with a 95% confidence interval.
+     */
+    public static class ScoreEstimate {
+        private final double score;
+        private final double margin;
+        private final int tested;
+
+        /**
+         * Constructs.
+         * @param score the estimated score between 0 and 1
+         * @param margin the error margin of the 95% confidence interval
+         * @param tested the number of mutants with conclusive results
+         */
+        ScoreEstimate(final double score, final double margin, final int tested) {
+            this.score = score;
+            this.margin = margin;
+            this.tested = tested;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public double getMargin() {
+            return margin;
+        }
+
+        public int getTested() {
+            return tested;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ENGLISH, "%.1f%% ± %.1f%% (95%% confidence, %d conclusive mutants)",
+                    score * 100, margin * 100, tested);
+        }
+    }
+}
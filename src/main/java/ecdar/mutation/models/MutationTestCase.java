@@ -1,8 +1,11 @@
 package ecdar.mutation.models;
 
 import ecdar.abstractions.Component;
+import ecdar.mutation.TextFlowBuilder;
 import javafx.scene.text.TextFlow;
 
+import java.util.List;
+
 /**
  * A test case for model-based mutation testing.
  */
@@ -10,17 +13,18 @@ public class MutationTestCase {
     private final Component testModel;
     private final Component mutant;
     private NonRefinementStrategy strategy;
+    private List<String> strategyLines;
     private final String id;
-    private final TextFlow description;
+    private final TextFlowBuilder description;
 
     /**
      * Constructs.
      * @param testModel test model
      * @param mutant mutant model
      * @param id id of the test-case
-     * @param description description of the test-case
+     * @param description builder of the description of the test-case
      */
-    public MutationTestCase(final Component testModel, final Component mutant, final String id, final TextFlow description) {
+    public MutationTestCase(final Component testModel, final Component mutant, final String id, final TextFlowBuilder description) {
         this.testModel = testModel;
         this.mutant = mutant;
         this.id = id;
@@ -34,9 +38,15 @@ public class MutationTestCase {
         return id;
     }
 
+    /**
+     * Gets the description of this.
+     * A new text flow is built on each call, so it can be shown in multiple views.
+     * @return the description
+     */
     public TextFlow getDescription() {
-        return description;
+        return description.build();
     }
+
     public Component getTestModel() {
         return testModel;
     }
@@ -52,4 +62,17 @@ public class MutationTestCase {
     public void setStrategy(final NonRefinementStrategy strategy) {
         this.strategy = strategy;
     }
+
+    /**
+     * Gets the lines from the backend that the strategy was constructed from.
+     * These are only kept if needed, e.g. for sending the test-case to a worker process.
+     * @return the lines, or null if not kept
+     */
+    public List<String> getStrategyLines() {
+        return strategyLines;
+    }
+
+    public void setStrategyLines(final List<String> strategyLines) {
+        this.strategyLines = strategyLines;
+    }
 }
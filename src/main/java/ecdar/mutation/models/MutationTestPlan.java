@@ -1,18 +1,25 @@
 package ecdar.mutation.models;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import ecdar.Ecdar;
 import ecdar.abstractions.Component;
 import ecdar.abstractions.HighLevelModelObject;
+import ecdar.mutation.CheckpointLog;
+import ecdar.mutation.MutantSampler;
 import ecdar.mutation.VisibilityHelper;
+import ecdar.mutation.metrics.PipelineMetrics;
 import ecdar.mutation.operators.MutationOperator;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 /**
@@ -26,15 +33,45 @@ public class MutationTestPlan extends HighLevelModelObject {
      */
     public enum Status {IDLE, WORKING, STOPPING, ERROR}
 
+    /**
+     * How to sample the mutants to test.
+     * See {@link ecdar.mutation.MutantSampler} for details.
+     */
+    public enum SamplingMode {ALL, UNIFORM, STRATIFIED, OPERATOR_WEIGHTED}
+
+    /**
+     * In what order to run test-cases.
+     * GENERATION_ORDER: In the order they are generated
+     * SHORTEST_STRATEGY_FIRST: Test-cases with the fewest states in their strategy first
+     * KILLING_OPERATORS_FIRST: Test-cases of operators with the highest recorded kill rate first
+     */
+    public enum SchedulingPolicy {GENERATION_ORDER, SHORTEST_STRATEGY_FIRST, KILLING_OPERATORS_FIRST}
+
+    /**
+     * Listener of the progress of the test plan.
+     * Unlike the progress texts, it does not need the user interface, e.g. when running the plan from the command line.
+     * It is called in the thread that writes the progress.
+     */
+    public interface ProgressListener {
+        /**
+         * Called when progress is written.
+         * @param message the message
+         * @param isError true iff the message is an error, i.e. it is written in red
+         */
+        void progressWritten(String message, boolean isError);
+    }
+
     private static final String PLAN_NAME_PREFIX = "Test ";
 
     // JSON constants
     private static final String TEST_MODEL_ID = "testModelId";
     private static final String ACTION = "action";
     private static final String SUT_PATH = "sutPath";
+    private static final String SUT_VARIANT_PATHS = "sutVariantPaths";
     private static final String FORMAT = "exportFormat";
     private static final String DEMONIC = "useDemonic";
     private static final String ANGELIC_EXPORT = "useAngelic";
+    private static final String EXPORT_ARCHIVE = "exportArchive";
     private static final String MAX_GENERATION_THREADS = "maxGenerationThreads";
     private static final String MAX_SUT_INSTANCES = "maxSutInstances";
     private static final String MAX_OUTPUT_WAIT_TIME = "maxOutputWaitTime";
@@ -42,6 +79,21 @@ public class MutationTestPlan extends HighLevelModelObject {
     private static final String TIME_UNIT = "timeUnit";
     private static final String STEP_BOUNDS = "stepBounds";
     private static final String SIMULATE_TIME = "simulateTime";
+    private static final String REUSE_TRACES = "reuseTraces";
+    private static final String RECORD_TRACES = "recordTraces";
+    private static final String REPLAY_RECORDING = "replayRecording";
+    private static final String USE_WORKERS = "useWorkers";
+    private static final String WORKERS = "workers";
+    private static final String SAMPLING_MODE = "samplingMode";
+    private static final String SAMPLE_SIZE = "sampleSize";
+    private static final String SAMPLE_BY_ERROR_MARGIN = "sampleByErrorMargin";
+    private static final String SAMPLE_ERROR_MARGIN = "sampleErrorMargin";
+    private static final String SCHEDULING_POLICY = "schedulingPolicy";
+    private static final String STOP_AT_SCORE = "stopAtScore";
+    private static final String STOP_SCORE = "stopScore";
+    private static final String STOP_AT_FAILURES = "stopAtFailures";
+    private static final String STOP_FAILURES = "stopFailures";
+    private static final String OPERATOR_KILL_HISTORY = "operatorKillHistory";
     private static final String VERDICT_PREFIX = "verdict";
 
     // General fields
@@ -53,6 +105,7 @@ public class MutationTestPlan extends HighLevelModelObject {
 
     // For testing
     private final StringProperty sutPath = new SimpleStringProperty("");
+    private final ObservableList<String> sutVariantPaths = FXCollections.observableArrayList();
     private final BooleanProperty demonic = new SimpleBooleanProperty(true);
     private final IntegerProperty concurrentGenerationThreads = new SimpleIntegerProperty(10);
     private final IntegerProperty concurrentSutInstances = new SimpleIntegerProperty(1);
@@ -61,18 +114,44 @@ public class MutationTestPlan extends HighLevelModelObject {
     private final IntegerProperty timeUnit = new SimpleIntegerProperty(1000);
     private final IntegerProperty stepBounds = new SimpleIntegerProperty(100);
     private final BooleanProperty simulateTime = new SimpleBooleanProperty(false);
+    private final BooleanProperty reuseTraces = new SimpleBooleanProperty(false);
+    private final BooleanProperty recordTraces = new SimpleBooleanProperty(false);
+    private final BooleanProperty replayRecording = new SimpleBooleanProperty(false);
+    private final BooleanProperty useWorkers = new SimpleBooleanProperty(false);
+    private final IntegerProperty workers = new SimpleIntegerProperty(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+    // For sampling
+    private final ObjectProperty<SamplingMode> samplingMode = new SimpleObjectProperty<>(SamplingMode.ALL);
+    private final IntegerProperty sampleSize = new SimpleIntegerProperty(100);
+    private final BooleanProperty sampleByErrorMargin = new SimpleBooleanProperty(false);
+    private final IntegerProperty sampleErrorMargin = new SimpleIntegerProperty(5);
+    private MutantSample sample = null;
+    private CheckpointLog checkpointLog = null;
+    private PipelineMetrics metrics = null;
+
+    // For scheduling
+    private final ObjectProperty<SchedulingPolicy> schedulingPolicy = new SimpleObjectProperty<>(SchedulingPolicy.GENERATION_ORDER);
+    private final BooleanProperty stopAtScore = new SimpleBooleanProperty(false);
+    private final IntegerProperty stopScore = new SimpleIntegerProperty(80);
+    private final BooleanProperty stopAtFailures = new SimpleBooleanProperty(false);
+    private final IntegerProperty stopFailures = new SimpleIntegerProperty(1);
+    private final OperatorKillHistory operatorKillHistory = new OperatorKillHistory();
 
     // Temporary values for displaying resultViews of testing
     private final ObservableList<Text> progressTexts = FXCollections.observableArrayList();
+    private final List<ProgressListener> progressListeners = new CopyOnWriteArrayList<>();
     private final StringProperty mutantsText = new SimpleStringProperty("");
     private final StringProperty testCasesText = new SimpleStringProperty("");
     private final StringProperty testTimeText = new SimpleStringProperty("");
+    private final StringProperty killMatrixText = new SimpleStringProperty("");
 
-    private final ListProperty<TestResult> results = new SimpleListProperty<>(FXCollections.observableArrayList());
+    private final TestResultStore resultStore = new TestResultStore();
+    private final Map<String, MutationTestCase> testCases = new ConcurrentHashMap<>();
     private final Map<TestResult.Verdict, BooleanProperty> shouldShowMap = new HashMap<>();
 
     // For exporting
     private final BooleanProperty angelicWhenExport = new SimpleBooleanProperty(false);
+    private final BooleanProperty exportArchive = new SimpleBooleanProperty(false);
     private final StringProperty format = new SimpleStringProperty("");
 
 
@@ -92,6 +171,8 @@ public class MutationTestPlan extends HighLevelModelObject {
         // Show failed test-cases as default
         shouldShowMap.get(TestResult.Verdict.FAIL_NORMAL).set(true);
         shouldShowMap.get(TestResult.Verdict.FAIL_PRIMARY).set(true);
+
+        initializeDirtyTracking();
     }
 
     /**
@@ -100,6 +181,22 @@ public class MutationTestPlan extends HighLevelModelObject {
      */
     public MutationTestPlan(final JsonObject json) {
         deserialize(json);
+        initializeDirtyTracking();
+    }
+
+    /**
+     * Marks this as dirty when a saved option changes.
+     * Renaming the test model is handled by the project, and recording kills by the testing handler.
+     */
+    private void initializeDirtyTracking() {
+        markDirtyOnChange(testModel, action, sutPath, format, demonic, angelicWhenExport, exportArchive,
+                concurrentGenerationThreads, concurrentSutInstances, maxOutputWaitTime, backendTries, timeUnit,
+                stepBounds, simulateTime, reuseTraces, recordTraces, replayRecording, useWorkers, workers,
+                samplingMode, sampleSize, sampleByErrorMargin, sampleErrorMargin,
+                schedulingPolicy, stopAtScore, stopScore, stopAtFailures, stopFailures);
+        markDirtyOnChange(sutVariantPaths, path -> () -> {});
+        operators.forEach(operator -> markDirtyOnChange(operator.getSelectedProperty()));
+        shouldShowMap.values().forEach(property -> markDirtyOnChange(property));
     }
 
 
@@ -135,6 +232,16 @@ public class MutationTestPlan extends HighLevelModelObject {
         testCasesText.set(value);
     }
 
+    public String getKillMatrixText() {
+        return killMatrixText.get();
+    }
+    public StringProperty getKillMatrixTextProperty() {
+        return killMatrixText;
+    }
+    public void setKillMatrixText(final String value) {
+        killMatrixText.set(value);
+    }
+
     public String getAction() {
         return action.get();
     }
@@ -155,6 +262,37 @@ public class MutationTestPlan extends HighLevelModelObject {
         sutPath.set(value);
     }
 
+    /**
+     * Gets the paths of other variants of the system under test, e.g. other builds of the same system.
+     * Test-cases are run on these as well as on the system under test.
+     * @return the paths, relative to the project directory
+     */
+    public ObservableList<String> getSutVariantPaths() {
+        return sutVariantPaths;
+    }
+
+    /**
+     * Gets the paths of all systems under test to run test-cases on.
+     * The first is the system under test, followed by its variants.
+     * @return the distinct, non-empty paths
+     */
+    public List<String> getSutPaths() {
+        final Set<String> paths = new LinkedHashSet<>();
+        if (!getSutPath().isEmpty()) paths.add(getSutPath());
+        getSutVariantPaths().stream().filter(path -> !path.isEmpty()).forEach(paths::add);
+        return new ArrayList<>(paths);
+    }
+
+    /**
+     * Gets if a result is of the system under test, rather than of a variant of it.
+     * Results where the system under test is not known are considered to be of the system under test.
+     * @param result the result
+     * @return true iff the result is of the system under test
+     */
+    public boolean isOfPrimarySut(final TestResult result) {
+        return result.getSutPath() == null || result.getSutPath().equals(getSutPath());
+    }
+
     public String getFormat() {
         return format.get();
     }
@@ -185,6 +323,20 @@ public class MutationTestPlan extends HighLevelModelObject {
         angelicWhenExport.set(value);
     }
 
+    /**
+     * Gets if mutants should be exported to a single zip archive with an index, rather than to separate files.
+     * @return true iff mutants should be exported to an archive
+     */
+    public boolean shouldExportArchive() {
+        return exportArchive.get();
+    }
+    public BooleanProperty getExportArchiveProperty() {
+        return exportArchive;
+    }
+    public void setExportArchive(final boolean value) {
+        exportArchive.set(value);
+    }
+
     public Status getStatus() {
         return status.get();
     }
@@ -245,7 +397,30 @@ public class MutationTestPlan extends HighLevelModelObject {
     }
 
     public ObservableList<TestResult> getResults() {
-        return results.get();
+        return resultStore.getResults();
+    }
+
+    public TestResultStore getResultStore() {
+        return resultStore;
+    }
+
+    /**
+     * Gets a test-case being tested.
+     * Results only refer to their test-case by id, so this is used to show or retest the test-case of a result.
+     * @param id the id of the test-case
+     * @return the test-case, or null if it is not being tested, e.g. if the results are from before a restart
+     */
+    public MutationTestCase getTestCase(final String id) {
+        return testCases.get(id);
+    }
+
+    /**
+     * Sets the test-cases being tested.
+     * @param cases the test-cases
+     */
+    public void setTestCases(final List<MutationTestCase> cases) {
+        testCases.clear();
+        cases.forEach(testCase -> testCases.put(testCase.getId(), testCase));
     }
 
     public int getBackendTries() {
@@ -310,6 +485,242 @@ public class MutationTestPlan extends HighLevelModelObject {
         this.simulateTime.set(simulateTime);
     }
 
+    /**
+     * Gets if recorded traces of the system under test should be replayed on mutants,
+     * before running the system under test with the test-cases of the mutants.
+     * @return true iff traces should be reused
+     */
+    public boolean shouldReuseTraces() {
+        return reuseTraces.get();
+    }
+    public BooleanProperty getReuseTracesProperty() {
+        return reuseTraces;
+    }
+    public void setReuseTraces(final boolean reuseTraces) {
+        this.reuseTraces.set(reuseTraces);
+    }
+
+    /**
+     * Gets if the inputs, outputs, and delays of each run of the system under test should be recorded to a file.
+     * @return true iff traces should be recorded
+     */
+    public boolean shouldRecordTraces() {
+        return recordTraces.get();
+    }
+    public BooleanProperty getRecordTracesProperty() {
+        return recordTraces;
+    }
+    public void setRecordTraces(final boolean recordTraces) {
+        this.recordTraces.set(recordTraces);
+    }
+
+    /**
+     * Gets if verdicts should be re-evaluated by simulating the recorded traces,
+     * instead of running the system under test.
+     * @return true iff the recording should be replayed
+     */
+    public boolean shouldReplayRecording() {
+        return replayRecording.get();
+    }
+    public BooleanProperty getReplayRecordingProperty() {
+        return replayRecording;
+    }
+    public void setReplayRecording(final boolean replayRecording) {
+        this.replayRecording.set(replayRecording);
+    }
+
+    /**
+     * Gets if test-cases should be run in worker processes rather than in this process.
+     * @return true iff workers should be used
+     */
+    public boolean shouldUseWorkers() {
+        return useWorkers.get();
+    }
+    public BooleanProperty getUseWorkersProperty() {
+        return useWorkers;
+    }
+    public void setUseWorkers(final boolean useWorkers) {
+        this.useWorkers.set(useWorkers);
+    }
+
+    /**
+     * Gets the number of worker processes to run test-cases in.
+     * Each worker runs up to the number of concurrent SUT instances.
+     * @return the number of workers
+     */
+    public int getWorkers() {
+        return workers.get();
+    }
+    public IntegerProperty getWorkersProperty() {
+        return workers;
+    }
+    public void setWorkers(final int workers) {
+        this.workers.set(workers);
+    }
+
+    public SamplingMode getSamplingMode() {
+        return samplingMode.get();
+    }
+    public ObjectProperty<SamplingMode> getSamplingModeProperty() {
+        return samplingMode;
+    }
+    public void setSamplingMode(final SamplingMode samplingMode) {
+        this.samplingMode.set(samplingMode);
+    }
+
+    public int getSampleSize() {
+        return sampleSize.get();
+    }
+    public IntegerProperty getSampleSizeProperty() {
+        return sampleSize;
+    }
+    public void setSampleSize(final int sampleSize) {
+        this.sampleSize.set(sampleSize);
+    }
+
+    /**
+     * Gets if the sample size should be chosen from the error margin instead of the fixed sample size.
+     * @return true iff the sample size should be chosen from the error margin
+     */
+    public boolean isSampleByErrorMargin() {
+        return sampleByErrorMargin.get();
+    }
+    public BooleanProperty getSampleByErrorMarginProperty() {
+        return sampleByErrorMargin;
+    }
+    public void setSampleByErrorMargin(final boolean sampleByErrorMargin) {
+        this.sampleByErrorMargin.set(sampleByErrorMargin);
+    }
+
+    /**
+     * Gets the wanted error margin (in percentage points) of the 95% confidence interval of the estimated mutation score.
+     * @return the error margin
+     */
+    public int getSampleErrorMargin() {
+        return sampleErrorMargin.get();
+    }
+    public IntegerProperty getSampleErrorMarginProperty() {
+        return sampleErrorMargin;
+    }
+    public void setSampleErrorMargin(final int sampleErrorMargin) {
+        this.sampleErrorMargin.set(sampleErrorMargin);
+    }
+
+    public SchedulingPolicy getSchedulingPolicy() {
+        return schedulingPolicy.get();
+    }
+    public ObjectProperty<SchedulingPolicy> getSchedulingPolicyProperty() {
+        return schedulingPolicy;
+    }
+    public void setSchedulingPolicy(final SchedulingPolicy schedulingPolicy) {
+        this.schedulingPolicy.set(schedulingPolicy);
+    }
+
+    /**
+     * Gets if testing should stop, when the mutation score is known to be at least the stop score.
+     * @return true iff testing should stop at the stop score
+     */
+    public boolean shouldStopAtScore() {
+        return stopAtScore.get();
+    }
+    public BooleanProperty getStopAtScoreProperty() {
+        return stopAtScore;
+    }
+    public void setStopAtScore(final boolean stopAtScore) {
+        this.stopAtScore.set(stopAtScore);
+    }
+
+    /**
+     * Gets the mutation score (in percent) at which to stop testing.
+     * @return the score
+     */
+    public int getStopScore() {
+        return stopScore.get();
+    }
+    public IntegerProperty getStopScoreProperty() {
+        return stopScore;
+    }
+    public void setStopScore(final int stopScore) {
+        this.stopScore.set(stopScore);
+    }
+
+    /**
+     * Gets if testing should stop, when the system under test has failed the stop number of test-cases.
+     * @return true iff testing should stop at a number of failures
+     */
+    public boolean shouldStopAtFailures() {
+        return stopAtFailures.get();
+    }
+    public BooleanProperty getStopAtFailuresProperty() {
+        return stopAtFailures;
+    }
+    public void setStopAtFailures(final boolean stopAtFailures) {
+        this.stopAtFailures.set(stopAtFailures);
+    }
+
+    /**
+     * Gets the number of failed test-cases at which to stop testing.
+     * @return the number of failures
+     */
+    public int getStopFailures() {
+        return stopFailures.get();
+    }
+    public IntegerProperty getStopFailuresProperty() {
+        return stopFailures;
+    }
+    public void setStopFailures(final int stopFailures) {
+        this.stopFailures.set(stopFailures);
+    }
+
+    /**
+     * Gets the recorded kill rates of the mutation operators across all runs of this plan.
+     * @return the history
+     */
+    public OperatorKillHistory getOperatorKillHistory() {
+        return operatorKillHistory;
+    }
+
+    /**
+     * Gets the sample of mutants from the latest mutation, or null if we have not mutated yet.
+     * @return the sample
+     */
+    public synchronized MutantSample getSample() {
+        return sample;
+    }
+    public synchronized void setSample(final MutantSample sample) {
+        this.sample = sample;
+    }
+
+    /**
+     * Gets the log to record progress of the current run in, or null if progress is not recorded.
+     * @return the log
+     */
+    public synchronized CheckpointLog getCheckpointLog() {
+        return checkpointLog;
+    }
+
+    /**
+     * Sets the log to record progress of the current run in.
+     * The previous log, if any, is closed.
+     * @param checkpointLog the log, or null if progress should not be recorded
+     */
+    public synchronized void setCheckpointLog(final CheckpointLog checkpointLog) {
+        if (this.checkpointLog != null && this.checkpointLog != checkpointLog) this.checkpointLog.close();
+        this.checkpointLog = checkpointLog;
+    }
+
+    /**
+     * Gets the metrics of the stages of the current run, or null if metrics are not collected.
+     * @return the metrics
+     */
+    public synchronized PipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    public synchronized void setMetrics(final PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /* Other methods */
 
     @Override
@@ -319,9 +730,15 @@ public class MutationTestPlan extends HighLevelModelObject {
         if (getTestModel() != null) result.addProperty(TEST_MODEL_ID, getTestModel().getName());
         result.addProperty(ACTION, getAction());
         result.addProperty(SUT_PATH, getSutPath());
+
+        final JsonArray variants = new JsonArray();
+        getSutVariantPaths().forEach(variants::add);
+        result.add(SUT_VARIANT_PATHS, variants);
+
         result.addProperty(FORMAT, getFormat());
         result.addProperty(DEMONIC, isDemonic());
         result.addProperty(ANGELIC_EXPORT, isAngelicWhenExport());
+        result.addProperty(EXPORT_ARCHIVE, shouldExportArchive());
 
         operators.forEach(operator -> result.addProperty(operator.getCodeName(), operator.isSelected()));
 
@@ -332,6 +749,21 @@ public class MutationTestPlan extends HighLevelModelObject {
         result.addProperty(TIME_UNIT, getTimeUnit());
         result.addProperty(STEP_BOUNDS, getStepBounds());
         result.addProperty(SIMULATE_TIME, shouldSimulateTime());
+        result.addProperty(REUSE_TRACES, shouldReuseTraces());
+        result.addProperty(RECORD_TRACES, shouldRecordTraces());
+        result.addProperty(REPLAY_RECORDING, shouldReplayRecording());
+        result.addProperty(USE_WORKERS, shouldUseWorkers());
+        result.addProperty(WORKERS, getWorkers());
+        result.addProperty(SAMPLING_MODE, getSamplingMode().name());
+        result.addProperty(SAMPLE_SIZE, getSampleSize());
+        result.addProperty(SAMPLE_BY_ERROR_MARGIN, isSampleByErrorMargin());
+        result.addProperty(SAMPLE_ERROR_MARGIN, getSampleErrorMargin());
+        result.addProperty(SCHEDULING_POLICY, getSchedulingPolicy().name());
+        result.addProperty(STOP_AT_SCORE, shouldStopAtScore());
+        result.addProperty(STOP_SCORE, getStopScore());
+        result.addProperty(STOP_AT_FAILURES, shouldStopAtFailures());
+        result.addProperty(STOP_FAILURES, getStopFailures());
+        result.add(OPERATOR_KILL_HISTORY, getOperatorKillHistory().serialize());
 
         for (final TestResult.Verdict verdict : shouldShowMap.keySet())
             result.addProperty(VERDICT_PREFIX + verdict.toString(), shouldShow(verdict));
@@ -339,6 +771,17 @@ public class MutationTestPlan extends HighLevelModelObject {
         return result;
     }
 
+    /**
+     * Serializes the options of this plan without references to the project, such as the test model.
+     * This is used for constructing the plan in a worker process.
+     * @return the JSON
+     */
+    public JsonObject serializeOptions() {
+        final JsonObject result = serialize();
+        result.remove(TEST_MODEL_ID);
+        return result;
+    }
+
     @Override
     public void deserialize(final JsonObject json) {
         super.deserialize(json);
@@ -348,6 +791,10 @@ public class MutationTestPlan extends HighLevelModelObject {
 
         setAction(json.getAsJsonPrimitive(ACTION).getAsString());
         setSutPath(json.getAsJsonPrimitive(SUT_PATH).getAsString());
+
+        final JsonArray variants = json.getAsJsonArray(SUT_VARIANT_PATHS);
+        if (variants != null) variants.forEach(variant -> getSutVariantPaths().add(variant.getAsString()));
+
         setFormat(json.getAsJsonPrimitive(FORMAT).getAsString());
         setDemonic(json.getAsJsonPrimitive(DEMONIC).getAsBoolean());
         setAngelicWhenExport(json.getAsJsonPrimitive(ANGELIC_EXPORT).getAsBoolean());
@@ -379,6 +826,54 @@ public class MutationTestPlan extends HighLevelModelObject {
         primitive = json.getAsJsonPrimitive(SIMULATE_TIME);
         if (primitive != null) setSimulateTime(primitive.getAsBoolean());
 
+        primitive = json.getAsJsonPrimitive(REUSE_TRACES);
+        if (primitive != null) setReuseTraces(primitive.getAsBoolean());
+
+        primitive = json.getAsJsonPrimitive(RECORD_TRACES);
+        if (primitive != null) setRecordTraces(primitive.getAsBoolean());
+
+        primitive = json.getAsJsonPrimitive(REPLAY_RECORDING);
+        if (primitive != null) setReplayRecording(primitive.getAsBoolean());
+
+        primitive = json.getAsJsonPrimitive(EXPORT_ARCHIVE);
+        if (primitive != null) setExportArchive(primitive.getAsBoolean());
+
+        primitive = json.getAsJsonPrimitive(USE_WORKERS);
+        if (primitive != null) setUseWorkers(primitive.getAsBoolean());
+
+        primitive = json.getAsJsonPrimitive(WORKERS);
+        if (primitive != null) setWorkers(primitive.getAsInt());
+
+        primitive = json.getAsJsonPrimitive(SAMPLING_MODE);
+        if (primitive != null) setSamplingMode(SamplingMode.valueOf(primitive.getAsString()));
+
+        primitive = json.getAsJsonPrimitive(SAMPLE_SIZE);
+        if (primitive != null) setSampleSize(primitive.getAsInt());
+
+        primitive = json.getAsJsonPrimitive(SAMPLE_BY_ERROR_MARGIN);
+        if (primitive != null) setSampleByErrorMargin(primitive.getAsBoolean());
+
+        primitive = json.getAsJsonPrimitive(SAMPLE_ERROR_MARGIN);
+        if (primitive != null) setSampleErrorMargin(primitive.getAsInt());
+
+        primitive = json.getAsJsonPrimitive(SCHEDULING_POLICY);
+        if (primitive != null) setSchedulingPolicy(SchedulingPolicy.valueOf(primitive.getAsString()));
+
+        primitive = json.getAsJsonPrimitive(STOP_AT_SCORE);
+        if (primitive != null) setStopAtScore(primitive.getAsBoolean());
+
+        primitive = json.getAsJsonPrimitive(STOP_SCORE);
+        if (primitive != null) setStopScore(primitive.getAsInt());
+
+        primitive = json.getAsJsonPrimitive(STOP_AT_FAILURES);
+        if (primitive != null) setStopAtFailures(primitive.getAsBoolean());
+
+        primitive = json.getAsJsonPrimitive(STOP_FAILURES);
+        if (primitive != null) setStopFailures(primitive.getAsInt());
+
+        final JsonObject history = json.getAsJsonObject(OPERATOR_KILL_HISTORY);
+        if (history != null) getOperatorKillHistory().deserialize(history);
+
         for (final TestResult.Verdict verdict : TestResult.Verdict.values()) {
             primitive = json.getAsJsonPrimitive(VERDICT_PREFIX + verdict.toString());
             shouldShowMap.put(verdict, new SimpleBooleanProperty(primitive != null && primitive.getAsBoolean()));
@@ -412,6 +907,26 @@ public class MutationTestPlan extends HighLevelModelObject {
         return getOperators().stream().filter(MutationOperator::isSelected).collect(Collectors.toList());
     }
 
+    /**
+     * Gets an upper limit for how many mutants the selected operators would create from the test model.
+     * @return the upper limit, or 0 if no test model is selected
+     */
+    public int getMutantsUpperLimit() {
+        if (getTestModel() == null) return 0;
+        return getSelectedMutationOperators().stream().mapToInt(operator -> operator.getUpperLimit(getTestModel())).sum();
+    }
+
+    /**
+     * Gets the number of mutants to test, when sampling from a number of mutants.
+     * @param populationSize the number of mutants to sample from
+     * @return the number of mutants to test
+     */
+    public int getTargetSampleSize(final int populationSize) {
+        if (getSamplingMode() == SamplingMode.ALL) return populationSize;
+        if (isSampleByErrorMargin()) return MutantSampler.getSampleSize(populationSize, getSampleErrorMargin() / 100.0);
+        return Math.min(getSampleSize(), populationSize);
+    }
+
     /**
      * Clears the texts used to display resultViews.
      */
@@ -419,7 +934,10 @@ public class MutationTestPlan extends HighLevelModelObject {
         setMutantsText("");
         setTestCasesText("");
         setTestTimeText("");
-        getResults().clear();
+        setKillMatrixText("");
+        resultStore.clear();
+        testCases.clear();
+        setSample(null);
     }
 
     /**
@@ -439,6 +957,25 @@ public class MutationTestPlan extends HighLevelModelObject {
     public void writeProgress(final Text text) {
         progressTexts.clear();
         progressTexts.add(text);
+
+        final boolean isError = Color.RED.equals(text.getFill());
+        progressListeners.forEach(listener -> listener.progressWritten(text.getText(), isError));
+    }
+
+    /**
+     * Adds a listener of the progress.
+     * @param listener the listener
+     */
+    public void addProgressListener(final ProgressListener listener) {
+        progressListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener of the progress.
+     * @param listener the listener
+     */
+    public void removeProgressListener(final ProgressListener listener) {
+        progressListeners.remove(listener);
     }
 
     /**
@@ -452,19 +989,23 @@ public class MutationTestPlan extends HighLevelModelObject {
 
     /**
      * Adds a result.
+     * Only results of the system under test are counted in the sample, not results of its variants.
      * @param result the result to add
      */
     public void addResult(final TestResult result) {
-        getResults().add(result);
+        // Count in the sample first, since listeners of the results may read the estimate
+        if (getSample() != null && isOfPrimarySut(result)) getSample().addResult(result);
+        resultStore.add(result);
     }
 
     /**
-     * Gets the resultViews matching a specified verdict.
-     * @param verdict the verdict to filter with
-     * @return the matching resultViews
+     * Gets the number of results matching some verdicts.
+     * This uses counters rather than filtering the results.
+     * @param verdicts the verdicts to count
+     * @return the number of matching results
      */
-    public List<TestResult> getResults(final TestResult.Verdict... verdict) {
-        return getResults().filtered(result -> Arrays.asList(verdict).contains(result.getVerdict()));
+    public int getResultCount(final TestResult.Verdict... verdicts) {
+        return resultStore.getCount(verdicts);
     }
 
     /**
@@ -486,26 +1027,34 @@ public class MutationTestPlan extends HighLevelModelObject {
     }
 
     /**
-     * Gets the test results that should be shown to the user.
-     * @return the results to show
+     * Gets the number of test results that should be shown to the user.
+     * @return the number of results to show
      */
-    public List<TestResult> getResultsToShow() {
-        return getResults().filtered(result -> getVerdictsToShow().contains(result.getVerdict()));
+    public int getResultToShowCount() {
+        return getResultCount(Arrays.stream(TestResult.Verdict.values()).filter(this::shouldShow).toArray(TestResult.Verdict[]::new));
     }
 
     /**
-     * Gets the test verdicts for which test results of those verdicts should be shown to the user.
-     * @return the verdicts to show
+     * Removes a test result.
+     * @param result the result to remove
      */
-    private List<TestResult.Verdict> getVerdictsToShow() {
-        return shouldShowMap.keySet().stream().filter(verdict -> shouldShowMap.get(verdict).get()).collect(Collectors.toList());
+    public synchronized void removeResult(final TestResult result) {
+        if (!getResults().contains(result)) return;
+
+        if (sample != null && isOfPrimarySut(result)) sample.removeResult(result);
+        resultStore.remove(result);
     }
 
     /**
-     * Removes a test result.
-     * @param result the result to remove
+     * Removes some test results.
+     * @param results the results to remove
      */
-    public synchronized void removeResult(final TestResult result) {
-        getResults().remove(result);
+    public synchronized void removeResults(final Collection<TestResult> results) {
+        if (sample != null) {
+            final Set<TestResult> toRemove = new HashSet<>(results);
+            getResults().stream().filter(toRemove::contains).filter(this::isOfPrimarySut).forEach(sample::removeResult);
+        }
+
+        resultStore.removeAll(results);
     }
 }
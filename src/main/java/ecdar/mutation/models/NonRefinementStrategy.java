@@ -10,9 +10,23 @@ import java.util.stream.Collectors;
 
 /**
  * A strategy for showing a non-refinement.
+ * The states are indexed by their locations, so finding the rule of a state does not go through all states.
  */
 public class NonRefinementStrategy {
+    private static final Pattern DELAY_PATTERN = Pattern.compile("^While you are in\\s(.*), wait.$");
+    private static final Pattern ACTION_PATTERN = Pattern.compile("^When you are in\\s(.*), take transition (.*) \\[SKIP]$");
+
     private final Map<StrategyState, List<StrategyRule>> rules = new HashMap<>();
+    private final Map<String, List<StrategyState>> statesByLocations = new HashMap<>();
+
+    // The rules of the state being parsed, or null if the next line should be a state
+    private List<StrategyRule> currentRules = null;
+
+    /**
+     * Constructs an empty strategy to parse lines into.
+     */
+    NonRefinementStrategy() {
+    }
 
     /**
      * Constructs a strategy based on the result of verifytga.
@@ -20,32 +34,52 @@ public class NonRefinementStrategy {
      * @throws MutationTestingException if the lines were not understood
      */
     public NonRefinementStrategy(final List<String> lines) throws MutationTestingException {
-        final Iterator<String> iterator =  lines.iterator();
-        while (iterator.hasNext()) {
-            final List<StrategyRule> ruleList = new ArrayList<>();
-            rules.put(new StrategyState(iterator.next()), ruleList);
-
-            String line;
-            while (iterator.hasNext() && !(line = iterator.next()).isEmpty()) {
-                final String delayRegex = "^While you are in\\s(.*), wait.$";
-                final Matcher delayMatcher = Pattern.compile(delayRegex).matcher(line);
-
-                if (delayMatcher.find()) {
-                    ruleList.add(new DelayRule(delayMatcher.group(1)));
-                    continue;
-                }
-
-                final String actionRegex = "^When you are in\\s(.*), take transition (.*) \\[SKIP]$";
-                final Matcher actionMatcher = Pattern.compile(actionRegex).matcher(line);
-
-                if (actionMatcher.find()) {
-                    ruleList.add(new ActionRule(actionMatcher.group(1), actionMatcher.group(2)));
-                    continue;
-                }
-
-                throw new MutationTestingException("Strategy line \"" + line + "\" does not match \"" + delayRegex + "\" or \"" + actionRegex + "\"");
-            }
+        for (final String line : lines) parseLine(line);
+    }
+
+    /**
+     * Parses the next line of the strategy.
+     * The strategy consists of blocks separated by empty lines.
+     * Each block is a state followed by the rules of that state.
+     * @param line the line
+     * @throws MutationTestingException if the line was not understood
+     */
+    void parseLine(final String line) throws MutationTestingException {
+        if (currentRules == null) {
+            final StrategyState state = new StrategyState(line);
+            currentRules = new ArrayList<>();
+            rules.put(state, currentRules);
+            statesByLocations.computeIfAbsent(state.getLocationsKey(), key -> new ArrayList<>()).add(state);
+            return;
         }
+
+        if (line.isEmpty()) {
+            currentRules = null;
+            return;
+        }
+
+        final Matcher delayMatcher = DELAY_PATTERN.matcher(line);
+        if (delayMatcher.find()) {
+            currentRules.add(new DelayRule(delayMatcher.group(1)));
+            return;
+        }
+
+        final Matcher actionMatcher = ACTION_PATTERN.matcher(line);
+        if (actionMatcher.find()) {
+            currentRules.add(new ActionRule(actionMatcher.group(1), actionMatcher.group(2)));
+            return;
+        }
+
+        throw new MutationTestingException("Strategy line \"" + line + "\" does not match \"" + DELAY_PATTERN.pattern() +
+                "\" or \"" + ACTION_PATTERN.pattern() + "\"");
+    }
+
+    /**
+     * Gets the number of states in this strategy.
+     * @return the number of states
+     */
+    public int getStateCount() {
+        return rules.size();
     }
 
     /**
@@ -84,8 +118,10 @@ public class NonRefinementStrategy {
                 .map(entry -> c2Name + "." + entry.getKey() + "=" + entry.getValue()).collect(Collectors.toList())
         );
 
-        final StrategyState matchingState = rules.keySet().stream()
-                .filter(state -> state.matches(c1Name + "." + c1Loc, c2Name + "." + c2Loc, locals))
+        final String location1 = c1Name + "." + c1Loc, location2 = c2Name + "." + c2Loc;
+        final StrategyState matchingState = statesByLocations
+                .getOrDefault(StrategyState.getLocationsKey(location1, location2), Collections.emptyList()).stream()
+                .filter(state -> state.matches(location1, location2, locals))
                 .findFirst().orElse(null);
 
         if (matchingState == null) return null;
@@ -0,0 +1,115 @@
+package ecdar.mutation.models;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import ecdar.utility.serialize.Serializable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * History of how often the mutants of each mutation operator have been killed, across runs of a test plan.
+ * Only conclusive results are counted, i.e. results where the mutant is killed, or where the system under test fails.
+ * The history is used for scheduling test-cases of operators that usually kill first.
+ */
+public class OperatorKillHistory implements Serializable {
+    private static final int KILLED = 0;
+    private static final int CONCLUSIVE = 1;
+
+    private final Map<String, int[]> counts = new HashMap<>();
+
+
+    /* Static helpers */
+
+    /**
+     * Gets the code name of the mutation operator that created the mutant of a test-case.
+     * Ids of test-cases start with the code name of the operator, followed by an underscore.
+     * @param testCaseId the id of the test-case
+     * @return the code name of the operator
+     */
+    public static String getOperator(final String testCaseId) {
+        final int index = testCaseId.indexOf('_');
+        return index < 0 ? testCaseId : testCaseId.substring(0, index);
+    }
+
+
+    /* Properties */
+
+    /**
+     * Gets the number of killed mutants recorded for an operator.
+     * @param operator the code name of the operator
+     * @return the number of killed mutants
+     */
+    public synchronized int getKilled(final String operator) {
+        final int[] operatorCounts = counts.get(operator);
+        return operatorCounts == null ? 0 : operatorCounts[KILLED];
+    }
+
+    /**
+     * Gets the number of conclusive results recorded for an operator.
+     * @param operator the code name of the operator
+     * @return the number of conclusive results
+     */
+    public synchronized int getConclusive(final String operator) {
+        final int[] operatorCounts = counts.get(operator);
+        return operatorCounts == null ? 0 : operatorCounts[CONCLUSIVE];
+    }
+
+    /**
+     * Gets the estimated probability that a mutant of an operator is killed.
+     * This adds one killed and one surviving mutant to the recorded counts,
+     * so operators without history get 0.5, and a few results do not give extreme rates.
+     * @param operator the code name of the operator
+     * @return the estimated rate between 0 and 1
+     */
+    public synchronized double getKillRate(final String operator) {
+        return (getKilled(operator) + 1.0) / (getConclusive(operator) + 2.0);
+    }
+
+
+    /* Other */
+
+    /**
+     * Records a test result.
+     * Inconclusive results are ignored.
+     * @param result the result
+     */
+    public synchronized void record(final TestResult result) {
+        if (!result.isPass() && !result.isFail()) return;
+
+        final int[] operatorCounts = counts.computeIfAbsent(getOperator(result.getTestCaseId()), key -> new int[2]);
+        if (result.isPass()) operatorCounts[KILLED]++;
+        operatorCounts[CONCLUSIVE]++;
+    }
+
+    /**
+     * Forgets all recorded results.
+     */
+    public synchronized void clear() {
+        counts.clear();
+    }
+
+    @Override
+    public synchronized JsonObject serialize() {
+        final JsonObject result = new JsonObject();
+
+        counts.forEach((operator, operatorCounts) -> {
+            final JsonArray array = new JsonArray();
+            array.add(operatorCounts[KILLED]);
+            array.add(operatorCounts[CONCLUSIVE]);
+            result.add(operator, array);
+        });
+
+        return result;
+    }
+
+    @Override
+    public synchronized void deserialize(final JsonObject json) {
+        counts.clear();
+
+        json.entrySet().forEach(entry -> {
+            final JsonArray array = entry.getValue().getAsJsonArray();
+            counts.put(entry.getKey(), new int[]{array.get(KILLED).getAsInt(), array.get(CONCLUSIVE).getAsInt()});
+        });
+    }
+}
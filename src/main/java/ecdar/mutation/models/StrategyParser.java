@@ -0,0 +1,141 @@
+package ecdar.mutation.models;
+
+import ecdar.mutation.MutationTestingException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single-pass parser of the output of the engine when checking refinement of a mutant.
+ * Lines are read one at a time, and lines of the strategy are parsed directly into a {@link NonRefinementStrategy}.
+ * Thus, the output is never kept in memory as a whole.
+ * Only the first lines before the strategy are kept, for error messages.
+ */
+public class StrategyParser {
+    private static final String SATISFIED = " -- Property is satisfied.";
+    private static final String NOT_SATISFIED = " -- Property is NOT satisfied.";
+    private static final String STRATEGY_HEADER = "Strategy for the attacker:";
+    private static final int MAX_EXCERPT_LINES = 100;
+
+    private final boolean keepStrategyLines;
+
+    private boolean empty = true;
+    private boolean satisfied = false;
+    private boolean notSatisfied = false;
+    private NonRefinementStrategy strategy = null;
+    private List<String> strategyLines = null;
+    private final List<String> excerpt = new ArrayList<>();
+    private boolean excerptTruncated = false;
+
+    /**
+     * Constructs.
+     * @param keepStrategyLines true iff the lines of the strategy should also be kept as text,
+     *                          e.g. for sending them to worker processes
+     */
+    public StrategyParser(final boolean keepStrategyLines) {
+        this.keepStrategyLines = keepStrategyLines;
+    }
+
+
+    /* Properties */
+
+    /**
+     * Gets if the output was empty.
+     * @return true iff no lines were read
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Gets if the output says that the mutant refines the test model.
+     * @return true iff the property is satisfied
+     */
+    public boolean isRefinement() {
+        return satisfied;
+    }
+
+    /**
+     * Gets if the output says that the mutant does not refine the test model.
+     * @return true iff the property is not satisfied
+     */
+    public boolean isNonRefinement() {
+        return notSatisfied;
+    }
+
+    /**
+     * Gets the parsed strategy.
+     * @return the strategy, or null if the output contains no strategy
+     */
+    public NonRefinementStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Gets the lines of the strategy.
+     * @return the lines, or null if the output contains no strategy, or if lines are not kept
+     */
+    public List<String> getStrategyLines() {
+        return strategyLines;
+    }
+
+    /**
+     * Gets the first lines of the output before the strategy, for error messages.
+     * @return the lines separated by newlines
+     */
+    public String getExcerpt() {
+        return String.join("\n", excerpt) + (excerptTruncated ? "\n..." : "");
+    }
+
+
+    /* Other */
+
+    /**
+     * Parses the output.
+     * In verifytga format, the line after the strategy header is skipped, and every line after that is part of the strategy.
+     * @param reader the reader to read the output from. This is read until its end
+     * @throws IOException if an I/O error occurs
+     * @throws MutationTestingException if the strategy could not be parsed
+     */
+    public void parse(final BufferedReader reader) throws IOException, MutationTestingException {
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            empty = false;
+
+            // ToDo (Might not be an issue after switching away from verifytga):
+            // I use endsWith rather than contains,
+            // since verifytga sometimes output some weird symbols at the start of this line.
+            if (line.endsWith(SATISFIED)) satisfied = true;
+            else if (line.endsWith(NOT_SATISFIED)) notSatisfied = true;
+
+            if (line.equals(STRATEGY_HEADER)) {
+                reader.readLine();
+                parseStrategy(reader);
+                return;
+            }
+
+            if (excerpt.size() < MAX_EXCERPT_LINES) excerpt.add(line);
+            else excerptTruncated = true;
+        }
+    }
+
+    /**
+     * Parses the rest of the output as a strategy.
+     * @param reader the reader to read the strategy from
+     * @throws IOException if an I/O error occurs
+     * @throws MutationTestingException if the strategy could not be parsed
+     */
+    private void parseStrategy(final BufferedReader reader) throws IOException, MutationTestingException {
+        strategy = new NonRefinementStrategy();
+        if (keepStrategyLines) strategyLines = new ArrayList<>();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            strategy.parseLine(line);
+            if (keepStrategyLines) strategyLines.add(line);
+        }
+    }
+}
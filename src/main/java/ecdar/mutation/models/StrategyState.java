@@ -13,6 +13,8 @@ import java.util.regex.Pattern;
  * A state is defined by its combination of current locations and values of local variables
  */
 public class StrategyState {
+    private static final Pattern PATTERN = Pattern.compile("^State: \\( (\\S*) (\\S*) \\)(.*) \\[spoiler] $");
+
     private final String loc1, loc2;
     private final List<String> localValuations = new ArrayList<>();
 
@@ -25,10 +27,9 @@ public class StrategyState {
      * @throws MutationTestingException if the line cannot be parsed
      */
     public StrategyState(final String line) throws MutationTestingException {
-        final String regex = "^State: \\( (\\S*) (\\S*) \\)(.*) \\[spoiler] $";
-        final Matcher matcher = Pattern.compile(regex).matcher(line);
+        final Matcher matcher = PATTERN.matcher(line);
 
-        if (!matcher.find()) throw new MutationTestingException("strategy line \"" + line + "\" does not match \"" + regex + "\"");
+        if (!matcher.find()) throw new MutationTestingException("strategy line \"" + line + "\" does not match \"" + PATTERN.pattern() + "\"");
 
         loc1 = matcher.group(1);
         loc2 = matcher.group(2);
@@ -49,6 +50,26 @@ public class StrategyState {
         return localValuations;
     }
 
+    /**
+     * Gets a key of the locations of this state.
+     * States can only match locations with the same key.
+     * @return the key
+     */
+    String getLocationsKey() {
+        return getLocationsKey(getLoc1(), getLoc2());
+    }
+
+    /**
+     * Gets a key of two locations.
+     * The order of the locations does not matter, as in {@link #matches(String, String, List)}.
+     * @param location1 a location
+     * @param location2 a location
+     * @return the key
+     */
+    static String getLocationsKey(final String location1, final String location2) {
+        return location1.compareTo(location2) <= 0 ? location1 + " " + location2 : location2 + " " + location1;
+    }
+
     /**
      * Gets if the specified data matches this state.
      * The order of location does not matter.
@@ -3,40 +3,128 @@ package ecdar.mutation.models;
 import ecdar.mutation.SimpleComponentSimulation;
 
 import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * A result of a model-based mutation test with respect to a single test-case.
+ * The result is kept compact, since a test plan can hold many thousands of results.
+ * The test-case is referred to by its id, the reason is interned, the trace is kept as a {@link CompactTrace},
+ * and texts to display are only built when asked for.
+ * Results are values: two results are equal if they have the same test-case, system under test, verdict, reason and trace.
  */
-public class TestResult extends ExpandableContent {
+public class TestResult {
     public enum Verdict {PASS, FAIL_NORMAL, FAIL_PRIMARY, OUT_OF_BOUNDS, MAX_WAIT, NO_RULE, NON_DETERMINISM, MUT_NO_DELAY}
 
     private final Verdict verdict;
-    private final MutationTestCase testCase;
+    private final String testCaseId;
+    private final String sutPath;
+    private final String reason;
+    private final CompactTrace trace;
+    private CompactTrace sutTrace = null;
 
     /**
      * Constructs.
-     * @param testCase test-case used for getting the result
+     * @param testCaseId id of the test-case used for getting the result
      * @param reason reason for the verdict
      * @param testModelSimulation test model simulation
      * @param verdict verdict of the test
      */
-    public TestResult(final MutationTestCase testCase, final String reason,
+    public TestResult(final String testCaseId, final String reason,
                       final SimpleComponentSimulation testModelSimulation,
                       final Verdict verdict) {
-        super(testCase.getDescription(), "Id: " + testCase.getId() + "\n" +
-                "Reason: " + reason + "\n" +
-                "Trace: " + String.join(" → ", testModelSimulation.getTrace()));
+        this(testCaseId, null, reason, testModelSimulation, verdict);
+    }
+
+    /**
+     * Constructs a result of running a test-case on a specific system under test.
+     * @param testCaseId id of the test-case used for getting the result
+     * @param sutPath path of the system under test the test-case was run on, or null if not known
+     * @param reason reason for the verdict
+     * @param testModelSimulation test model simulation
+     * @param verdict verdict of the test
+     */
+    public TestResult(final String testCaseId, final String sutPath, final String reason,
+                      final SimpleComponentSimulation testModelSimulation,
+                      final Verdict verdict) {
+        this(testCaseId, sutPath, reason, testModelSimulation.getCompactTrace().copy(), verdict);
+    }
+
+    /**
+     * Constructs from an already recorded trace, e.g. a trace received from a worker process.
+     * @param testCaseId id of the test-case used for getting the result
+     * @param reason reason for the verdict
+     * @param trace the trace of the test model simulation. This is not copied
+     * @param verdict verdict of the test
+     */
+    public TestResult(final String testCaseId, final String reason, final CompactTrace trace,
+                      final Verdict verdict) {
+        this(testCaseId, null, reason, trace, verdict);
+    }
 
+    /**
+     * Constructs from an already recorded trace of running a test-case on a specific system under test.
+     * @param testCaseId id of the test-case used for getting the result
+     * @param sutPath path of the system under test the test-case was run on, or null if not known
+     * @param reason reason for the verdict
+     * @param trace the trace of the test model simulation. This is not copied
+     * @param verdict verdict of the test
+     */
+    public TestResult(final String testCaseId, final String sutPath, final String reason, final CompactTrace trace,
+                      final Verdict verdict) {
         this.verdict = verdict;
-        this.testCase = testCase;
+        this.testCaseId = testCaseId;
+        this.sutPath = sutPath == null ? null : sutPath.intern();
+        this.reason = reason == null ? null : reason.intern();
+        this.trace = trace;
     }
 
     public Verdict getVerdict() {
         return verdict;
     }
 
-    public MutationTestCase getTestCase() {
-        return testCase;
+    public String getTestCaseId() {
+        return testCaseId;
+    }
+
+    /**
+     * Gets the path of the system under test that the test-case was run on.
+     * @return the path, or null if not known
+     */
+    public String getSutPath() {
+        return sutPath;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public CompactTrace getTrace() {
+        return trace;
+    }
+
+    /**
+     * Gets the trace of what was written to and read from the system under test.
+     * Unlike the trace of the test model simulation, this also contains the last output or delay,
+     * if the test model could not do it.
+     * @return the trace, or null if it was not recorded
+     */
+    public CompactTrace getSutTrace() {
+        return sutTrace;
+    }
+
+    public void setSutTrace(final CompactTrace sutTrace) {
+        this.sutTrace = sutTrace;
+    }
+
+    /**
+     * Gets the content to display, containing the test-case id, the system under test (if known), the reason and the trace.
+     * @return the content
+     */
+    public String getContent() {
+        return "Id: " + testCaseId + "\n" +
+                (sutPath == null ? "" : "SUT: " + sutPath + "\n") +
+                "Reason: " + reason + "\n" +
+                "Trace: " + trace;
     }
 
     public static Verdict[] getIncVerdicts() {
@@ -54,4 +142,20 @@ public class TestResult extends ExpandableContent {
     public boolean isFail() {
         return Arrays.asList(getFailedVerdicts()).contains(verdict);
     }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) return true;
+        if (!(other instanceof TestResult)) return false;
+
+        final TestResult result = (TestResult) other;
+        return verdict == result.verdict && Objects.equals(testCaseId, result.testCaseId) &&
+                Objects.equals(sutPath, result.sutPath) && Objects.equals(reason, result.reason) &&
+                Objects.equals(trace, result.trace);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(verdict, testCaseId, sutPath, reason);
+    }
 }
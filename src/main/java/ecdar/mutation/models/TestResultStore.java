@@ -0,0 +1,276 @@
+package ecdar.mutation.models;
+
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Store of the test results of a test plan.
+ * The results are kept in columns, i.e. an array for each field of the results,
+ * so a test plan with many thousands of results does not keep an object for each of them.
+ * The store is viewed as an observable list of results, for instance to show in a list view.
+ * Each result of the view is built from the columns when it is asked for.
+ * The store keeps a counter for each verdict,
+ * so the number of results with some verdicts can be found without filtering all results.
+ * Counters are updated before the view is changed,
+ * so listeners of the view see the updated counters.
+ */
+public class TestResultStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final TestResult.Verdict[] VERDICTS = TestResult.Verdict.values();
+
+    private String[] testCaseIds = new String[INITIAL_CAPACITY];
+    private String[] sutPaths = new String[INITIAL_CAPACITY];
+    private String[] reasons = new String[INITIAL_CAPACITY];
+    private CompactTrace[] traces = new CompactTrace[INITIAL_CAPACITY];
+    private CompactTrace[] sutTraces = new CompactTrace[INITIAL_CAPACITY];
+    private byte[] verdicts = new byte[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private final int[] counts = new int[VERDICTS.length];
+    private final ResultList results = new ResultList();
+
+
+    /* Properties */
+
+    /**
+     * Gets the results as an observable list.
+     * The list cannot be modified directly. Use the methods of this store instead.
+     * @return the results
+     */
+    public ObservableList<TestResult> getResults() {
+        return results;
+    }
+
+
+    /* Other */
+
+    /**
+     * Adds a result.
+     * @param result the result to add
+     */
+    public synchronized void add(final TestResult result) {
+        if (size == verdicts.length) setCapacity(2 * size);
+
+        set(size, result);
+        counts[result.getVerdict().ordinal()]++;
+        size++;
+
+        results.fireAdded(size - 1);
+    }
+
+    /**
+     * Removes a result.
+     * @param result the result to remove
+     * @return true iff the result was in this store
+     */
+    public synchronized boolean remove(final TestResult result) {
+        final int index = indexOf(result);
+        if (index < 0) return false;
+
+        final TestResult removed = get(index);
+        counts[verdicts[index]]--;
+        move(index + 1, index, size - index - 1);
+        size--;
+        set(size, null);
+
+        results.fireRemoved(Collections.singletonList(index), Collections.singletonList(removed));
+        return true;
+    }
+
+    /**
+     * Removes some results.
+     * @param toRemove the results to remove
+     */
+    public synchronized void removeAll(final Collection<TestResult> toRemove) {
+        final Set<TestResult> set = new HashSet<>(toRemove);
+        final List<Integer> indices = new ArrayList<>();
+        final List<TestResult> removed = new ArrayList<>();
+
+        // Move the results to keep to the front
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            final TestResult result = get(i);
+
+            if (set.contains(result)) {
+                counts[verdicts[i]]--;
+                indices.add(kept);
+                removed.add(result);
+            } else {
+                move(i, kept, 1);
+                kept++;
+            }
+        }
+
+        for (int i = kept; i < size; i++) set(i, null);
+        size = kept;
+
+        if (!removed.isEmpty()) results.fireRemoved(indices, removed);
+    }
+
+    /**
+     * Removes all results.
+     */
+    public synchronized void clear() {
+        if (size == 0) return;
+
+        final List<TestResult> removed = new ArrayList<>(results);
+        Arrays.fill(counts, 0);
+        size = 0;
+
+        // Shrink the columns, and release the fields of the results left in them
+        setCapacity(INITIAL_CAPACITY);
+        for (int i = 0; i < INITIAL_CAPACITY; i++) set(i, null);
+
+        results.fireRemoved(Collections.nCopies(removed.size(), 0), removed);
+    }
+
+    /**
+     * Gets the number of results with some verdicts.
+     * @param verdicts the verdicts
+     * @return the number of results
+     */
+    public synchronized int getCount(final TestResult.Verdict... verdicts) {
+        int count = 0;
+        for (final TestResult.Verdict verdict : verdicts) count += counts[verdict.ordinal()];
+        return count;
+    }
+
+    /**
+     * Gets the total number of results.
+     * @return the number of results
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Builds the result at an index from the columns.
+     * @param index the index
+     * @return the result
+     */
+    private TestResult get(final int index) {
+        final TestResult result = new TestResult(testCaseIds[index], sutPaths[index], reasons[index], traces[index],
+                VERDICTS[verdicts[index]]);
+        result.setSutTrace(sutTraces[index]);
+        return result;
+    }
+
+    /**
+     * Finds the index of a result without building the results of the columns.
+     * @param result the result
+     * @return the index of the first equal result, or -1 if none
+     */
+    private int indexOf(final TestResult result) {
+        for (int i = 0; i < size; i++) {
+            if (verdicts[i] == result.getVerdict().ordinal() && Objects.equals(testCaseIds[i], result.getTestCaseId()) &&
+                    Objects.equals(sutPaths[i], result.getSutPath()) && Objects.equals(reasons[i], result.getReason()) &&
+                    Objects.equals(traces[i], result.getTrace())) return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Sets the fields of the result at an index.
+     * @param index the index
+     * @param result the result, or null to release the fields
+     */
+    private void set(final int index, final TestResult result) {
+        testCaseIds[index] = result == null ? null : result.getTestCaseId();
+        sutPaths[index] = result == null ? null : result.getSutPath();
+        reasons[index] = result == null ? null : result.getReason();
+        traces[index] = result == null ? null : result.getTrace();
+        sutTraces[index] = result == null ? null : result.getSutTrace();
+        verdicts[index] = result == null ? 0 : (byte) result.getVerdict().ordinal();
+    }
+
+    /**
+     * Moves results within the columns.
+     * @param from the index of the first result to move
+     * @param to the index to move the first result to
+     * @param length the number of results to move
+     */
+    private void move(final int from, final int to, final int length) {
+        System.arraycopy(testCaseIds, from, testCaseIds, to, length);
+        System.arraycopy(sutPaths, from, sutPaths, to, length);
+        System.arraycopy(reasons, from, reasons, to, length);
+        System.arraycopy(traces, from, traces, to, length);
+        System.arraycopy(sutTraces, from, sutTraces, to, length);
+        System.arraycopy(verdicts, from, verdicts, to, length);
+    }
+
+    /**
+     * Resizes the columns.
+     * @param capacity the number of results the columns can hold, which must be at least the size
+     */
+    private void setCapacity(final int capacity) {
+        testCaseIds = Arrays.copyOf(testCaseIds, capacity);
+        sutPaths = Arrays.copyOf(sutPaths, capacity);
+        reasons = Arrays.copyOf(reasons, capacity);
+        traces = Arrays.copyOf(traces, capacity);
+        sutTraces = Arrays.copyOf(sutTraces, capacity);
+        verdicts = Arrays.copyOf(verdicts, capacity);
+    }
+
+    /**
+     * Observable view of the results in the columns.
+     */
+    private class ResultList extends ObservableListBase<TestResult> {
+        @Override
+        public TestResult get(final int index) {
+            synchronized (TestResultStore.this) {
+                if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+                return TestResultStore.this.get(index);
+            }
+        }
+
+        @Override
+        public int size() {
+            return TestResultStore.this.size();
+        }
+
+        @Override
+        public int indexOf(final Object object) {
+            if (!(object instanceof TestResult)) return -1;
+
+            synchronized (TestResultStore.this) {
+                return TestResultStore.this.indexOf((TestResult) object);
+            }
+        }
+
+        @Override
+        public boolean contains(final Object object) {
+            return indexOf(object) >= 0;
+        }
+
+        /**
+         * Tells listeners that a result was added.
+         * @param index the index of the result
+         */
+        void fireAdded(final int index) {
+            beginChange();
+            nextAdd(index, index + 1);
+            endChange();
+        }
+
+        /**
+         * Tells listeners that results were removed.
+         * @param indices the index of each removed result, after removing the results before it
+         * @param removed the removed results
+         */
+        void fireRemoved(final List<Integer> indices, final List<TestResult> removed) {
+            beginChange();
+            for (int i = 0; i < removed.size(); i++) nextRemove(indices.get(i), removed.get(i));
+            endChange();
+        }
+    }
+}
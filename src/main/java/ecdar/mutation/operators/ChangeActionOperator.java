@@ -39,7 +39,7 @@ abstract class ChangeActionOperator extends MutationOperator {
                         .text(" from " + (originalEdge.getStatus().equals(EdgeStatus.INPUT) ? "input" : "output") + " ")
                         .boldText(originalEdge.getSync())
                         .text(" to " + (status.equals(EdgeStatus.INPUT) ? "input" : "output") + " ")
-                        .boldText(mutantEdge.getSync()).build()
+                        .boldText(mutantEdge.getSync())
         );
     }
 }
@@ -51,7 +51,7 @@ public class ChangeGuardConstantOperator extends MutationOperator {
                             getCodeName() + "_" + edgeIndex + "_" + index + "_+1",
                             new TextFlowBuilder().text("Changed ").boldText("guard").text(" of ")
                                     .edgeLinks(originalEdge, original.getName()).text(" from ").boldText(originalGuard)
-                                    .text(" to ").boldText(mutantEdge.getGuard()).build()
+                                    .text(" to ").boldText(mutantEdge.getGuard())
                     ));
                 } {
                     final Component mutant = original.cloneForVerification();
@@ -64,7 +64,7 @@ public class ChangeGuardConstantOperator extends MutationOperator {
                             getCodeName() + "_" + edgeIndex + "_" + index + "_-1",
                             new TextFlowBuilder().text("Changed ").boldText("guard").text(" of ")
                                     .edgeLinks(originalEdge, original.getName()).text(" from ").boldText(originalGuard)
-                                    .text(" to ").boldText(mutantEdge.getGuard()).build()
+                                    .text(" to ").boldText(mutantEdge.getGuard())
                     ));
                 }
 
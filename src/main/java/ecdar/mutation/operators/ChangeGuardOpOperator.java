@@ -75,7 +75,7 @@ public abstract class ChangeGuardOpOperator extends MutationOperator {
                             new TextFlowBuilder().text("Changed ").boldText("guard").text(" of ")
                                     .edgeLinks(originalEdge, original.getName()).text(" from ")
                                     .boldText(originalEdge.getGuard()).text(" to ")
-                                    .boldText(mutant.getEdges().get(edgeIndex).getGuard()).build()
+                                    .boldText(mutant.getEdges().get(edgeIndex).getGuard())
                     ));
                 }
             }
@@ -51,7 +51,7 @@ public class ChangeInvariantOperator extends MutationOperator {
                         getCodeName() + "_" + originalLocation.getId() + "_" + partIndex,
                         new TextFlowBuilder().text("Changed ").boldText("invariant").text(" of ")
                                 .locationLink(originalLocation.getId(), original.getName()).text(" from ")
-                                .boldText(originalLocation.getInvariant()).text(" to ").boldText(invariant).build()
+                                .boldText(originalLocation.getInvariant()).text(" to ").boldText(invariant)
                 ));
             }
 
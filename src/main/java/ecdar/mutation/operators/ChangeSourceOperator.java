@@ -57,7 +57,7 @@ class ChangeSourceOperator extends MutationOperator {
                         getCodeName() + "_" + edgeIndex + "_" + originalLocation.getId(),
                         new TextFlowBuilder().text("Changed ").boldText("source").text(" of ")
                                 .edgeLinks(originalEdge, original.getName()).text(" to ")
-                                .locationLink(newLocId, original.getName()).build()
+                                .locationLink(newLocId, original.getName())
                 ));
             }
         }
@@ -50,7 +50,7 @@ public class ChangeTargetOperator extends MutationOperator {
                         getCodeName() + "_" + edgeIndex + "_" + originalLocation.getId(),
                         new TextFlowBuilder().text("Changed ").boldText("target").text(" of ")
                                 .edgeLinks(originalEdge, original.getName()).text(" to ")
-                                .locationLink(newLocId, original.getName()).build()
+                                .locationLink(newLocId, original.getName())
                 ));
             }
         }
@@ -64,7 +64,7 @@ public class ChangeVarUpdateOperator extends MutationOperator {
                                 new TextFlowBuilder().text("Changed ").boldText("update").text(" of ")
                                         .edgeLinks(originalEdge, original.getName()).text(" from ")
                                         .boldText(originalEdge.getUpdate()).text(" to ")
-                                        .boldText(mutantEdge.getUpdate()).build()
+                                        .boldText(mutantEdge.getUpdate())
                         ));
                     }
                 } else { // Otherwise, replace the assignment
@@ -92,7 +92,7 @@ public class ChangeVarUpdateOperator extends MutationOperator {
                                 new TextFlowBuilder().text("Changed ").boldText("update").text(" of ")
                                         .edgeLinks(originalEdge, original.getName()).text(" from ")
                                         .boldText(originalEdge.getUpdate()).text(" to ")
-                                        .boldText(mutantEdge.getUpdate()).build()
+                                        .boldText(mutantEdge.getUpdate())
                         ));
                     }
                 }
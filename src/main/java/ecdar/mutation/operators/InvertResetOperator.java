@@ -48,8 +48,7 @@ public class InvertResetOperator extends MutationOperator {
                 cases.add(new MutationTestCase(original, mutant,
                         getCodeName() + "_" + finalEdgeIndex + "_" + clock,
                         new TextFlowBuilder().text("Inverted ").boldText("clock reset").text(" of clock ")
-                                .boldText(clock).text(" on guard of ").edgeLinks(originalEdge, original.getName())
-                                .build()
+                                .boldText(clock).text(" on guard of ").edgeLinks(originalEdge, original.getName())
                 ));
             });
         }
@@ -46,7 +46,7 @@ public class SinkLocationOperator extends MutationOperator {
                     getCodeName() + "_" + edgeIndex,
                     new TextFlowBuilder().text("Changed ").boldText("target").text(" of ")
                             .edgeLinks(originalEdge, original.getName()).text(" to a new ").boldText("sink")
-                            .text(" location").build()
+                            .text(" location")
             ));
         }
 
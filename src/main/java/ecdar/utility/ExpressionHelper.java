@@ -12,62 +12,7 @@ import java.util.stream.Collectors;
  * Helper for working with expressions like the ones used in guards.
  */
 public class ExpressionHelper {
-    private static final String REGEX_SIMPLE_NEGATEABLE_GUARD = "^([^<>=!]+)(<|<=|>|>=|==|!=)([^<>=!]+)$";
-
-    /**
-     * Searches recursively through the expression.
-     * If a Not expression of a simple expression (e.g. {@code x < 2}) is found,
-     * this is replaced with the negated expression ({@code x >= 2}).
-     * To use effectively, make sure to put the expression into DNF before calling this method.
-     * @param expression the expression to simplify
-     * @return the simplified expression
-     */
-    public static Expression<String> simplifyNegatedSimpleExpressions(final Expression<String> expression) {
-        switch (expression.getExprType()) {
-            case Variable.EXPR_TYPE:
-            case Literal.EXPR_TYPE:
-                return expression;
-            case Not.EXPR_TYPE:
-                final Expression<String> child = ((Not<String>) expression).getE();
-
-                if (!child.getExprType().equals(Variable.EXPR_TYPE))
-                    throw new RuntimeException("Unexpected negation. Expressions \"" + expression.toString() + "\" should be in DNF");
-
-                final String guard = ((Variable<String>) child).getValue();
-                final Matcher matcher = Pattern.compile(REGEX_SIMPLE_NEGATEABLE_GUARD).matcher(guard);
-
-                if (!matcher.find()) {
-                    throw new RuntimeException("Guard " + guard + " did not match pattern " + REGEX_SIMPLE_NEGATEABLE_GUARD);
-                }
-
-                switch (matcher.group(2)) {
-                    case "<":
-                        return Variable.of(matcher.group(1) + ">=" + matcher.group(3));
-                    case "<=":
-                        return Variable.of(matcher.group(1) + ">" + matcher.group(3));
-                    case ">":
-                        return Variable.of(matcher.group(1) + "<=" + matcher.group(3));
-                    case ">=":
-                        return Variable.of(matcher.group(1) + "<" + matcher.group(3));
-                    case "==":
-                        return Variable.of(matcher.group(1) + "!=" + matcher.group(3));
-                    case "!=":
-                        return Variable.of(matcher.group(1) + "==" + matcher.group(3));
-                    default:
-                        throw new RuntimeException("Unexpected operator " + matcher.group(2) + "");
-                }
-            case And.EXPR_TYPE:
-                return And.of(((And<String>) expression).getChildren().stream()
-                        .map(ExpressionHelper::simplifyNegatedSimpleExpressions)
-                        .collect(Collectors.toList()));
-            case Or.EXPR_TYPE:
-                return Or.of(((Or<String>) expression).getChildren().stream()
-                        .map(ExpressionHelper::simplifyNegatedSimpleExpressions)
-                        .collect(Collectors.toList()));
-            default:
-                throw new RuntimeException("Type of expression " + expression + " not accepted");
-        }
-    }
+    private static final Pattern INVARIANT_VARIABLE = Pattern.compile("^(\\w+)\\W.*");
 
     /**
      * Parses a disjunction of guards to an expression.
@@ -128,32 +73,52 @@ public class ExpressionHelper {
     }
 
     /**
-     * Parses an invariant to an expression.
+     * Gets the simple guards (without conjunctions) of a guard.
+     * The equal operator ({@code ==}) is split into {@code <=} and {@code >=}, as in {@link #parseGuard(String)}.
+     * @param guard the guard
+     * @return the simple guards. Empty if the guard is empty
+     */
+    public static List<String> getSimpleGuards(final String guard) {
+        final List<String> simpleGuards = new ArrayList<>();
+        if (guard.trim().isEmpty()) return simpleGuards;
+
+        for (final String simpleGuard : guard.split("&&")) {
+            final String trimmed = simpleGuard.trim();
+
+            if (trimmed.contains("==")) {
+                simpleGuards.add(trimmed.replaceFirst("==", "<="));
+                simpleGuards.add(trimmed.replaceFirst("==", ">="));
+            } else {
+                simpleGuards.add(trimmed);
+            }
+        }
+
+        return simpleGuards;
+    }
+
+    /**
+     * Gets the simple invariants (without conjunctions) of an invariant.
      * Ignores some variables.
      * E.g. if x is ignored in the invariant {@code x<=1 && y<=2}, then only {@code y<=2} is extracted.
-     * @param invariant the invariant to parse
+     * @param invariant the invariant
      * @param ignored the variables to ignore
-     * @return the parsed expression
+     * @return the simple invariants. Empty if the invariant is empty, or if all are ignored
      */
-    public static Expression<String> parseInvariantButIgnore(final String invariant, final List<String> ignored) {
-        if (invariant.trim().isEmpty()) return Literal.getTrue();
-
-        final List<Expression<String>> expressions = new ArrayList<>();
+    public static List<String> getSimpleInvariantsButIgnore(final String invariant, final List<String> ignored) {
+        final List<String> simpleInvariants = new ArrayList<>();
+        if (invariant.trim().isEmpty()) return simpleInvariants;
 
         for (final String simpleInv : invariant.split("&&")) {
-            final String REGEX = "^(\\w+)\\W.*";
-            final Matcher matcher = Pattern.compile(REGEX).matcher(simpleInv.trim());
+            final Matcher matcher = INVARIANT_VARIABLE.matcher(simpleInv.trim());
 
-            if (!matcher.find()) throw new RuntimeException("Simple invariant " + simpleInv.trim() + " does not match " + REGEX);
+            if (!matcher.find()) throw new RuntimeException("Simple invariant " + simpleInv.trim() + " does not match " + INVARIANT_VARIABLE.pattern());
 
             if (ignored.contains(matcher.group(1))) continue;
 
-            expressions.add(Variable.of(simpleInv.trim()));
+            simpleInvariants.add(simpleInv.trim());
         }
 
-        if (expressions.isEmpty()) return Literal.getTrue();
-
-        return And.of(expressions);
+        return simpleInvariants;
     }
 
     /**
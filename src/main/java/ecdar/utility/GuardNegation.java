@@ -0,0 +1,422 @@
+package ecdar.utility;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Negation of disjunctions of guards, used for completing components.
+ * Each guard is a conjunction of simple constraints, e.g. {@code x <= 3} or {@code x - y > n}.
+ *
+ * The negation of a disjunction is a conjunction of disjunctions.
+ * Rather than converting this to disjunctive normal form with a general boolean rewriter,
+ * we build the result one guard at a time, keeping each conjunction in interval form:
+ * For each variable compared to a number, we keep only the tightest lower and upper bound.
+ * Conjunctions with an empty interval are dropped,
+ * conjunctions implying another conjunction are dropped,
+ * and conjunctions only differing in the interval of one variable are merged, if their intervals overlap.
+ * Equalities of the form {@code variable == number} are split into a lower and an upper bound,
+ * such that each can be widened on its own, and an interval of a single number is shown as an equality.
+ * Constraints that are not of the form {@code variable op number} are kept as they are.
+ * The constraints of each conjunction, and the conjunctions, are sorted, so the result does not depend on the order of edges.
+ *
+ * Since mutants share most of their locations and edges, results are memoized.
+ */
+public class GuardNegation {
+    private static final Pattern SIMPLE_CONSTRAINT = Pattern.compile("^([^<>=!]+)(<|<=|>|>=|==|!=)([^<>=!]+)$");
+    private static final Pattern VARIABLE = Pattern.compile("^[A-Za-z_]\\w*$");
+    private static final Pattern NUMBER = Pattern.compile("^-?\\d+(\\.\\d+)?$");
+
+    // The operators, and at the same index, the operator of the negation, and the operator when swapping the sides
+    private static final List<String> OPERATORS = Arrays.asList("<", "<=", ">", ">=", "==", "!=");
+    private static final List<String> NEGATED_OPERATORS = Arrays.asList(">=", ">", "<=", "<", "!=", "==");
+    private static final List<String> MIRRORED_OPERATORS = Arrays.asList(">", ">=", "<", "<=", "==", "!=");
+
+    private static final int MAX_MEMOIZED = 10000;
+
+    private static final Map<List<List<String>>, List<String>> memo = Collections.synchronizedMap(
+            new LinkedHashMap<List<List<String>>, List<String>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<List<List<String>>, List<String>> eldest) {
+                    return size() > MAX_MEMOIZED;
+                }
+            });
+
+    /**
+     * Negates a disjunction of conjunctions of simple constraints.
+     * The result is a disjunction of conjunctions without negations, joined with {@code &&}.
+     * An empty result means false.
+     * @param conjunctions the disjunction to negate. Each conjunction is a list of simple constraints.
+     *                     An empty conjunction means true
+     * @return the negation
+     */
+    public static List<String> negate(final List<List<String>> conjunctions) {
+        final List<String> memoized = memo.get(conjunctions);
+        if (memoized != null) return memoized;
+
+        List<Conjunction> result = Collections.singletonList(new Conjunction());
+
+        for (final List<String> conjunction : conjunctions) {
+            final List<Conjunction> next = new ArrayList<>();
+
+            // The negation of a conjunction is the disjunction of the negated constraints
+            for (final Conjunction existing : result) {
+                for (final String constraint : conjunction) {
+                    final Conjunction extended = existing.copy();
+                    if (extended.add(negateSimpleConstraint(constraint))) next.add(extended);
+                }
+            }
+
+            result = reduce(next);
+
+            // If false, it stays false
+            if (result.isEmpty()) break;
+        }
+
+        final List<String> guards = new ArrayList<>();
+        result.forEach(conjunction -> guards.add(conjunction.toString()));
+        Collections.sort(guards);
+
+        final List<String> unmodifiable = Collections.unmodifiableList(guards);
+        memo.put(copyKey(conjunctions), unmodifiable);
+        return unmodifiable;
+    }
+
+    /**
+     * Negates a simple constraint by negating its operator.
+     * @param constraint the constraint
+     * @return the negation
+     */
+    static String negateSimpleConstraint(final String constraint) {
+        final Matcher matcher = SIMPLE_CONSTRAINT.matcher(constraint);
+
+        if (!matcher.find()) {
+            throw new RuntimeException("Guard " + constraint + " did not match pattern " + SIMPLE_CONSTRAINT.pattern());
+        }
+
+        return matcher.group(1) + NEGATED_OPERATORS.get(OPERATORS.indexOf(matcher.group(2))) + matcher.group(3);
+    }
+
+    /**
+     * Removes conjunctions that imply other conjunctions, and merges conjunctions where possible.
+     * @param conjunctions the conjunctions in a disjunction
+     * @return the reduced conjunctions, in the same order
+     */
+    private static List<Conjunction> reduce(final List<Conjunction> conjunctions) {
+        final List<Conjunction> result = new ArrayList<>();
+
+        for (final Conjunction conjunction : conjunctions) {
+            if (result.stream().anyMatch(conjunction::implies)) continue;
+
+            result.removeIf(other -> other.implies(conjunction));
+            result.add(conjunction);
+        }
+
+        // Merge until nothing changes, as a merge can make other merges possible
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+
+            outer:
+            for (int i = 0; i < result.size(); i++) {
+                for (int j = i + 1; j < result.size(); j++) {
+                    final Conjunction union = result.get(i).union(result.get(j));
+                    if (union == null) continue;
+
+                    result.set(i, union);
+                    result.remove(j);
+                    result.removeIf(other -> other != union && other.implies(union));
+                    merged = true;
+                    break outer;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Copies a memoization key, such that later changes to the lists given by callers do not affect the memo.
+     * @param conjunctions the key
+     * @return the copy
+     */
+    private static List<List<String>> copyKey(final List<List<String>> conjunctions) {
+        final List<List<String>> key = new ArrayList<>();
+        conjunctions.forEach(conjunction -> key.add(new ArrayList<>(conjunction)));
+        return key;
+    }
+
+    /**
+     * A lower or upper bound on a variable.
+     */
+    private static class Bound {
+        private final String text;
+        private final double value;
+        private final boolean strict;
+        private final String number;
+
+        /**
+         * Constructs.
+         * @param text the constraint to show for this bound
+         * @param value the value of the bound
+         * @param strict true iff the bound is strict
+         * @param number the text of the value, for showing an equality
+         */
+        Bound(final String text, final double value, final boolean strict, final String number) {
+            this.text = text;
+            this.value = value;
+            this.strict = strict;
+            this.number = number;
+        }
+
+        /**
+         * Gets if this lower bound is at least as tight as another lower bound.
+         * @param other the other bound
+         * @return true iff this is at least as tight
+         */
+        boolean isTighterLower(final Bound other) {
+            return value > other.value || (value == other.value && (strict || !other.strict));
+        }
+
+        /**
+         * Gets if this upper bound is at least as tight as another upper bound.
+         * @param other the other bound
+         * @return true iff this is at least as tight
+         */
+        boolean isTighterUpper(final Bound other) {
+            return value < other.value || (value == other.value && (strict || !other.strict));
+        }
+
+        boolean sameAs(final Bound other) {
+            return value == other.value && strict == other.strict;
+        }
+    }
+
+    /**
+     * An interval of a variable.
+     * A null bound means unbounded.
+     */
+    private static class Interval {
+        private final Bound lower;
+        private final Bound upper;
+
+        Interval(final Bound lower, final Bound upper) {
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        boolean isEmpty() {
+            if (lower == null || upper == null) return false;
+
+            return lower.value > upper.value || (lower.value == upper.value && (lower.strict || upper.strict));
+        }
+
+        /**
+         * Gets if this interval is contained in another interval.
+         * @param other the other interval
+         * @return true iff contained
+         */
+        boolean within(final Interval other) {
+            return (other.lower == null || (lower != null && lower.isTighterLower(other.lower))) &&
+                    (other.upper == null || (upper != null && upper.isTighterUpper(other.upper)));
+        }
+
+        boolean sameAs(final Interval other) {
+            return sameAs(lower, other.lower) && sameAs(upper, other.upper);
+        }
+
+        private static boolean sameAs(final Bound a, final Bound b) {
+            return a == null ? b == null : b != null && a.sameAs(b);
+        }
+
+        /**
+         * Gets the union of this and another interval, if the union is an interval.
+         * @param other the other interval
+         * @return the union, or null if the intervals are disjoint and do not touch
+         */
+        Interval union(final Interval other) {
+            // Make sure that this is the interval starting first
+            if (lower != null && (other.lower == null || lower.value > other.lower.value)) return other.union(this);
+
+            // If this ends before the other starts, there is a gap
+            if (upper != null && other.lower != null &&
+                    (upper.value < other.lower.value || (upper.value == other.lower.value && upper.strict && other.lower.strict)))
+                return null;
+
+            final Bound newLower = lower == null || other.lower == null ? null : (other.lower.isTighterLower(lower) ? lower : other.lower);
+            final Bound newUpper = upper == null || other.upper == null ? null : (other.upper.isTighterUpper(upper) ? upper : other.upper);
+            return new Interval(newLower, newUpper);
+        }
+    }
+
+    /**
+     * A conjunction of constraints.
+     * Constraints of the form {@code variable op number} are kept as an interval per variable.
+     * Other constraints are kept as text.
+     */
+    private static class Conjunction {
+        private final Map<String, Interval> intervals = new LinkedHashMap<>();
+        private final Set<String> others = new HashSet<>();
+
+        Conjunction copy() {
+            final Conjunction copy = new Conjunction();
+            copy.intervals.putAll(intervals);
+            copy.others.addAll(others);
+            return copy;
+        }
+
+        /**
+         * Adds a simple constraint.
+         * @param constraint the constraint
+         * @return false iff the conjunction is now unsatisfiable
+         */
+        boolean add(final String constraint) {
+            final Matcher matcher = SIMPLE_CONSTRAINT.matcher(constraint);
+            if (!matcher.find()) return addOther(constraint);
+
+            final String left = matcher.group(1).trim();
+            final String right = matcher.group(3).trim();
+            String operator = matcher.group(2);
+            if (operator.equals("!=")) return addOther(constraint);
+
+            final String variable;
+            final String number;
+            final boolean isVariableLeft;
+            if (VARIABLE.matcher(left).matches() && NUMBER.matcher(right).matches()) {
+                variable = left;
+                number = right;
+                isVariableLeft = true;
+            } else if (NUMBER.matcher(left).matches() && VARIABLE.matcher(right).matches()) {
+                variable = right;
+                number = left;
+                isVariableLeft = false;
+                operator = MIRRORED_OPERATORS.get(OPERATORS.indexOf(operator));
+            } else {
+                return addOther(constraint);
+            }
+
+            final double value = Double.parseDouble(number);
+
+            if (operator.equals("==")) {
+                // Split an equality into a lower and an upper bound, such that a union can widen either of them.
+                // Otherwise, a widened interval could keep the equality as one of its bounds
+                final String lowerText = matcher.group(1) + (isVariableLeft ? ">=" : "<=") + matcher.group(3);
+                final String upperText = matcher.group(1) + (isVariableLeft ? "<=" : ">=") + matcher.group(3);
+
+                final boolean isLowerSatisfiable = addBound(variable, ">=", new Bound(lowerText.trim(), value, false, number));
+                return addBound(variable, "<=", new Bound(upperText.trim(), value, false, number)) && isLowerSatisfiable;
+            }
+
+            return addBound(variable, operator, new Bound(constraint.trim(), value, operator.length() == 1, number));
+        }
+
+        /**
+         * Adds a lower or upper bound on a variable, if it is tighter than the current bound.
+         * @param variable the variable
+         * @param operator the operator, with the variable on the left side
+         * @param bound the bound
+         * @return false iff the conjunction is now unsatisfiable
+         */
+        private boolean addBound(final String variable, final String operator, final Bound bound) {
+            final Interval interval = intervals.getOrDefault(variable, new Interval(null, null));
+            final Interval newInterval;
+            if (operator.startsWith("<")) {
+                newInterval = new Interval(interval.lower,
+                        interval.upper == null || !interval.upper.isTighterUpper(bound) ? bound : interval.upper);
+            } else {
+                newInterval = new Interval(
+                        interval.lower == null || !interval.lower.isTighterLower(bound) ? bound : interval.lower, interval.upper);
+            }
+
+            intervals.put(variable, newInterval);
+            return !newInterval.isEmpty();
+        }
+
+        /**
+         * Adds a constraint that is not of the form {@code variable op number}.
+         * @param constraint the constraint
+         * @return false iff the conjunction is now unsatisfiable
+         */
+        private boolean addOther(final String constraint) {
+            final String trimmed = constraint.trim();
+            others.add(trimmed);
+
+            return !SIMPLE_CONSTRAINT.matcher(trimmed).find() || !others.contains(negateSimpleConstraint(trimmed).trim());
+        }
+
+        /**
+         * Gets if this conjunction implies another, i.e. if all constraints of the other are at most as tight.
+         * @param other the other conjunction
+         * @return true iff this implies the other
+         */
+        boolean implies(final Conjunction other) {
+            if (!others.containsAll(other.others)) return false;
+
+            for (final Map.Entry<String, Interval> entry : other.intervals.entrySet()) {
+                final Interval interval = intervals.getOrDefault(entry.getKey(), new Interval(null, null));
+                if (!interval.within(entry.getValue())) return false;
+            }
+
+            return true;
+        }
+
+        /**
+         * Gets the union of this and another conjunction,
+         * if they only differ in the interval of one variable, and the union of these intervals is an interval.
+         * @param other the other conjunction
+         * @return the union, or null if the union cannot be expressed as one conjunction
+         */
+        Conjunction union(final Conjunction other) {
+            if (!others.equals(other.others)) return null;
+
+            final Set<String> variables = new LinkedHashSet<>(intervals.keySet());
+            variables.addAll(other.intervals.keySet());
+
+            String differing = null;
+            for (final String variable : variables) {
+                final Interval a = intervals.getOrDefault(variable, new Interval(null, null));
+                final Interval b = other.intervals.getOrDefault(variable, new Interval(null, null));
+
+                if (a.sameAs(b)) continue;
+                if (differing != null) return null;
+                differing = variable;
+            }
+
+            // If they are the same, one of them is enough
+            if (differing == null) return this;
+
+            final Interval union = intervals.getOrDefault(differing, new Interval(null, null))
+                    .union(other.intervals.getOrDefault(differing, new Interval(null, null)));
+            if (union == null) return null;
+
+            final Conjunction result = copy();
+            if (union.lower == null && union.upper == null) result.intervals.remove(differing);
+            else result.intervals.put(differing, union);
+            return result;
+        }
+
+        /**
+         * Gets the conjunction as a guard, with the constraints sorted.
+         * @return the guard
+         */
+        @Override
+        public String toString() {
+            final List<String> texts = new ArrayList<>(others);
+
+            intervals.forEach((variable, interval) -> {
+                // An interval of a single number is shown as an equality
+                if (interval.lower != null && interval.upper != null && interval.lower.value == interval.upper.value &&
+                        !interval.lower.strict && !interval.upper.strict) {
+                    texts.add(variable + "==" + interval.lower.number);
+                    return;
+                }
+
+                if (interval.lower != null) texts.add(interval.lower.text);
+                if (interval.upper != null) texts.add(interval.upper.text);
+            });
+
+            Collections.sort(texts);
+            return String.join("&&", texts);
+        }
+    }
+}
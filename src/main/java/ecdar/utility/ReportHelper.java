@@ -0,0 +1,41 @@
+package ecdar.utility;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Helper for writing reports, such as metrics reports, kill matrices and reports of the command-line interface.
+ */
+public class ReportHelper {
+
+    /**
+     * Opens a report file for writing in UTF-8.
+     * The folder of the file is created, if it does not exist.
+     * An existing file is overwritten.
+     * @param file the file
+     * @return the writer, which the caller must close
+     * @throws IOException if the folder could not be created, or the file could not be opened
+     */
+    public static Writer openReport(final File file) throws IOException {
+        if (file.getParentFile() != null && !file.getParentFile().isDirectory() && !file.getParentFile().mkdirs())
+            throw new IOException("Could not create folder " + file.getParentFile());
+
+        return new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Escapes a CSV value by quoting it, if it contains a comma, a quote, or a newline.
+     * @param value the value
+     * @return the escaped value
+     */
+    public static String escapeCsv(final String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n"))
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+
+        return value;
+    }
+}
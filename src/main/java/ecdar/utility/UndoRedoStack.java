@@ -5,6 +5,7 @@ import javafx.beans.property.SimpleBooleanProperty;
 import java.util.EmptyStackException;
 import java.util.Stack;
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 public class UndoRedoStack {
 
@@ -17,10 +18,32 @@ public class UndoRedoStack {
     private static BiConsumer<Stack<Command>, Stack<Command>> debugRunnable = (c1, c2) -> {
     };
 
+    private static BiConsumer<String, Object> changeListener = (description, context) -> {
+    };
+
+    private static Supplier<Object> contextSupplier = () -> null;
+
     public static void setDebugRunnable(final BiConsumer<Stack<Command>, Stack<Command>> debugRunnable) {
         UndoRedoStack.debugRunnable = debugRunnable;
     }
 
+    /**
+     * Sets the listener to call after a command changes the models,
+     * i.e. after a command is performed, pushed, undone, or redone.
+     * @param changeListener consumer of the description of the change and the context of the command
+     */
+    public static void setChangeListener(final BiConsumer<String, Object> changeListener) {
+        UndoRedoStack.changeListener = changeListener;
+    }
+
+    /**
+     * Sets the supplier of the context of new commands, e.g. the model being edited.
+     * @param contextSupplier supplier of the context, which may supply null
+     */
+    public static void setContextSupplier(final Supplier<Object> contextSupplier) {
+        UndoRedoStack.contextSupplier = contextSupplier;
+    }
+
     /**
      * Pushes to the stack and performs the redo action once.
      * @param perform the redo action
@@ -30,7 +53,7 @@ public class UndoRedoStack {
      * @return the command created
      */
     public static Command pushAndPerform(final Runnable perform, final Runnable undo, final String description, final String icon) {
-        final Command item = new Command(perform, undo, description, icon);
+        final Command item = new Command(perform, undo, description, icon, contextSupplier.get());
 
         // Empty the redo stack (new changes may be conflicting with redoing)
         while (!redoStack.isEmpty()) {
@@ -41,6 +64,7 @@ public class UndoRedoStack {
         command.perform();
 
         updateState();
+        changeListener.accept(description, command.getContext());
 
         return command;
     }
@@ -55,7 +79,7 @@ public class UndoRedoStack {
      * @return a command with information for code to run when redoing, undoing, description and icon
      */
     public static Command push(final Runnable redo, final Runnable undo, final String description, final String icon) {
-        final Command item = new Command(redo, undo, description, icon);
+        final Command item = new Command(redo, undo, description, icon, contextSupplier.get());
 
         // Empty the redo stack (new changes may be conflicting with redoing)
         while (!redoStack.isEmpty()) {
@@ -63,6 +87,7 @@ public class UndoRedoStack {
         }
         final Command command = undoStack.push(item);
         updateState();
+        changeListener.accept(description, command.getContext());
         return command;
     }
 
@@ -77,12 +102,24 @@ public class UndoRedoStack {
         updateState();
     }
 
+    /**
+     * Forgets the commands of a context, e.g. because the model they edit was replaced.
+     * Other commands are kept.
+     * @param context the context
+     */
+    public static void forget(final Object context) {
+        undoStack.removeIf(command -> command.getContext() == context);
+        redoStack.removeIf(command -> command.getContext() == context);
+        updateState();
+    }
+
     public static void undo() {
         try {
             final Command command = undoStack.pop();
 
             redoStack.push(command);
             command.undo();
+            changeListener.accept("Undo " + command.getDescription(), command.getContext());
         } catch (EmptyStackException e) {
             // The stack is empty, nothing left to undo. Ignore.
         }
@@ -96,6 +133,7 @@ public class UndoRedoStack {
 
             undoStack.push(command);
             command.perform();
+            changeListener.accept("Redo " + command.getDescription(), command.getContext());
         } catch (EmptyStackException e) {
             // The stack is empty, nothing left to redo. Ignore.
         }
@@ -151,12 +189,18 @@ public class UndoRedoStack {
         private final Runnable undo;
         private final String description;
         private final String icon;
+        private final Object context;
 
         public Command(final Runnable perform, final Runnable undo, final String description, final String icon) {
+            this(perform, undo, description, icon, null);
+        }
+
+        public Command(final Runnable perform, final Runnable undo, final String description, final String icon, final Object context) {
             this.perform = perform;
             this.undo = undo;
             this.description = description;
             this.icon = icon;
+            this.context = context;
         }
 
         public void perform() {
@@ -174,5 +218,13 @@ public class UndoRedoStack {
         public String getIcon() {
             return icon;
         }
+
+        /**
+         * Gets the context that the command was pushed in, e.g. the model being edited.
+         * @return the context, or null if none
+         */
+        public Object getContext() {
+            return context;
+        }
     }
 }
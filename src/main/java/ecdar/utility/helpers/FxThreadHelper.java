@@ -0,0 +1,33 @@
+package ecdar.utility.helpers;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Helper for running code in the JavaFX thread, which also works when the JavaFX platform is not started,
+ * e.g. when running from the command line.
+ * Without the platform, the code is run in a single event thread instead,
+ * such that it still runs in the order it is posted and never concurrently with other posted code.
+ */
+public class FxThreadHelper {
+    private static final ExecutorService EVENT_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "Event thread");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Runs code later in the JavaFX thread, or in the event thread if the JavaFX platform is not started.
+     * @param runnable the code to run
+     */
+    public static void runLater(final Runnable runnable) {
+        try {
+            Platform.runLater(runnable);
+        } catch (final IllegalStateException e) {
+            // The JavaFX platform is not started
+            EVENT_EXECUTOR.execute(runnable);
+        }
+    }
+}
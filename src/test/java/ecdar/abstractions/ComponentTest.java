@@ -1,10 +1,13 @@
 package ecdar.abstractions;
 
+import com.google.gson.JsonObject;
 import ecdar.Ecdar;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class ComponentTest {
@@ -387,4 +390,228 @@ public class ComponentTest {
         Assert.assertEquals(1, vars.size());
         Assert.assertEquals("sound", vars.get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void reloadInPlace() {
+        final Component original = new Component(false);
+        original.setDeclarationsText("clock x;");
+        final Location location = new Location();
+        location.initialize();
+        original.addLocation(location);
+
+        final Component component = new Component(false);
+        final Location oldInitial = component.getLocations().get(0);
+
+        component.reload(original.serialize());
+
+        Assert.assertEquals(2, component.getLocations().size());
+        Assert.assertFalse(component.getLocations().contains(oldInitial));
+        Assert.assertNotNull(component.findLocation(location.getId()));
+        Assert.assertEquals("clock x;", component.getDeclarationsText());
+        Assert.assertEquals(original.getName(), component.getName());
+    }
+
+    @Test
+    public void indicesFollowChanges() {
+        final Component component = new Component(false);
+        final Location initial = component.getInitialLocation();
+
+        final Location loc1 = new Location();
+        loc1.initialize();
+        component.addLocation(loc1);
+
+        final Edge edge = new Edge(initial, EdgeStatus.INPUT);
+        edge.setTargetLocation(loc1);
+        component.addEdge(edge);
+
+        final Edge loop = new Edge(loc1, EdgeStatus.OUTPUT);
+        loop.setTargetLocation(loc1);
+        component.addEdge(loop);
+
+        Assert.assertSame(loc1, component.findLocation(loc1.getId()));
+        Assert.assertEquals(Collections.singletonList(edge), component.getOutgoingEdges(initial));
+        Assert.assertEquals(Arrays.asList(edge, loop), component.getIncomingEdges(loc1));
+        Assert.assertEquals(2, component.getRelatedEdges(loc1).size());
+
+        // Changing ids, targets, and the initial location
+        loc1.setId("L42");
+        Assert.assertSame(loc1, component.findLocation("L42"));
+
+        edge.setTargetLocation(initial);
+        Assert.assertEquals(Collections.singletonList(loop), component.getIncomingEdges(loc1));
+        Assert.assertEquals(Collections.singletonList(edge), component.getIncomingEdges(initial));
+
+        component.setInitialLocation(loc1);
+        Assert.assertSame(loc1, component.getInitialLocation());
+
+        // Removing
+        component.removeEdge(loop);
+        component.removeLocation(initial);
+        Assert.assertNull(component.findLocation(initial.getId()));
+        Assert.assertTrue(component.getOutgoingEdges(loc1).isEmpty());
+    }
+
+    @Test
+    public void ioListsCountChannels() {
+        final Component component = new Component(false);
+        final Location initial = component.getInitialLocation();
+
+        final Edge a1 = new Edge(initial, EdgeStatus.INPUT);
+        a1.setTargetLocation(initial);
+        a1.setSync("a");
+        final Edge a2 = new Edge(initial, EdgeStatus.INPUT);
+        a2.setTargetLocation(initial);
+        a2.setSync("a");
+        final Edge b = new Edge(initial, EdgeStatus.INPUT);
+        b.setTargetLocation(initial);
+        b.setSync("B");
+
+        // Nothing is updated until the batch ends
+        component.batch(() -> {
+            component.addEdge(a1);
+            component.addEdge(a2);
+            component.addEdge(b);
+            Assert.assertTrue(component.getInputStrings().isEmpty());
+        });
+        Assert.assertEquals(Arrays.asList("a", "B"), component.getInputStrings());
+
+        // A channel stays as long as an edge uses it
+        component.removeEdge(a1);
+        Assert.assertEquals(Arrays.asList("a", "B"), component.getInputStrings());
+        a2.setSync("c");
+        Assert.assertEquals(Arrays.asList("B", "c"), component.getInputStrings());
+
+        b.setStatus(EdgeStatus.OUTPUT);
+        Assert.assertEquals(Collections.singletonList("c"), component.getInputStrings());
+        Assert.assertEquals(Collections.singletonList("B"), component.getOutputStrings());
+    }
+
+    @Test
+    public void snapshotsShareUnchangedParts() {
+        final Component component = new Component(false);
+        final Location initial = component.getInitialLocation();
+
+        final Location loc1 = new Location();
+        loc1.initialize();
+        component.addLocation(loc1);
+
+        final Edge edge = new Edge(initial, EdgeStatus.INPUT);
+        edge.setTargetLocation(loc1);
+        component.addEdge(edge);
+
+        final Component.Snapshot first = component.getSnapshot();
+        Assert.assertSame(first, component.getSnapshot());
+
+        edge.setGuard("x > 2");
+        final Component.Snapshot second = component.getSnapshot();
+
+        // The first snapshot stays as it was, and unchanged locations are shared
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals("", first.getEdges().get(0).getGuard());
+        Assert.assertEquals("x > 2", second.getEdges().get(0).getGuard());
+        Assert.assertSame(first.getLocations().get(0), second.getLocations().get(0));
+        Assert.assertSame(first.getLocations().get(1), second.getLocations().get(1));
+
+        // Edges refer to locations by id
+        loc1.setId("L42");
+        final Component.Snapshot third = component.getSnapshot();
+        Assert.assertEquals("L42", third.getEdges().get(0).getTargetId());
+        Assert.assertSame(third.getLocations().get(1), third.findLocation("L42"));
+        Assert.assertEquals(third.getEdges(), third.getOutgoingEdges(initial.getId()));
+    }
+
+    @Test
+    public void batchPublishesWhenOutermostBatchEnds() {
+        final Component component = new Component(false);
+        final Location initial = component.getInitialLocation();
+
+        final Edge edge = new Edge(initial, EdgeStatus.OUTPUT);
+        edge.setTargetLocation(initial);
+        edge.setSync("a");
+
+        component.batch(() -> {
+            component.batch(() -> component.addEdge(edge));
+
+            // The inner batch does not end the batch
+            Assert.assertTrue(component.getOutputStrings().isEmpty());
+        });
+        Assert.assertEquals(Collections.singletonList("a"), component.getOutputStrings());
+
+        // Changes made before a batch throws are published
+        try {
+            component.batch(() -> {
+                component.removeEdge(edge);
+                throw new IllegalStateException();
+            });
+            Assert.fail();
+        } catch (final IllegalStateException e) {
+            Assert.assertTrue(component.getOutputStrings().isEmpty());
+        }
+
+        component.addEdge(edge);
+        Assert.assertEquals(Collections.singletonList("a"), component.getOutputStrings());
+    }
+
+    @Test
+    public void snapshotKeptUntilVerificationPropertyChanges() {
+        final Component component = new Component(false);
+        final Location initial = component.getInitialLocation();
+        final Edge edge = new Edge(initial, EdgeStatus.INPUT);
+        edge.setTargetLocation(initial);
+        component.addEdge(edge);
+
+        final Component.Snapshot first = component.getSnapshot();
+
+        // Layout is not a verification property
+        initial.setX(initial.getX() + 10);
+        Assert.assertSame(first, component.getSnapshot());
+
+        initial.setInvariant("x <= 5");
+        final Component.Snapshot second = component.getSnapshot();
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals("x <= 5", second.getLocations().get(0).getInvariant());
+
+        // A removed edge no longer changes the component
+        component.removeEdge(edge);
+        final Component.Snapshot third = component.getSnapshot();
+        Assert.assertNotSame(second, third);
+        edge.setGuard("x > 1");
+        Assert.assertSame(third, component.getSnapshot());
+
+        component.setName("Renamed");
+        Assert.assertEquals("Renamed", component.getSnapshot().getName());
+    }
+
+    @Test
+    public void serializedAgainOnlyWhenSavedPropertyChanges() {
+        final Component component = new Component(false);
+        final Location initial = component.getInitialLocation();
+        final Edge edge = new Edge(initial, EdgeStatus.INPUT);
+        edge.setTargetLocation(initial);
+        component.addEdge(edge);
+
+        final JsonObject first = component.getSerialized();
+        Assert.assertFalse(component.isDirty());
+        Assert.assertSame(first, component.getSerialized());
+
+        // Layout is saved
+        initial.setX(initial.getX() + 10);
+        Assert.assertTrue(component.isDirty());
+        Assert.assertNotSame(first, component.getSerialized());
+
+        // Nails added later are listened to
+        final Nail nail = new Nail(10, 10);
+        edge.getNails().add(nail);
+        component.getSerialized();
+        nail.setX(20);
+        Assert.assertTrue(component.isDirty());
+        Assert.assertEquals(component.serialize(), component.getSerialized());
+
+        // A removed edge no longer changes the component
+        component.removeEdge(edge);
+        component.getSerialized();
+        nail.setX(30);
+        edge.setGuard("x > 1");
+        Assert.assertFalse(component.isDirty());
+    }
+}
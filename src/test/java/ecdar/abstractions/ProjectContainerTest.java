@@ -0,0 +1,101 @@
+package ecdar.abstractions;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ProjectContainerTest {
+    private static final JsonParser PARSER = new JsonParser();
+
+    private File directory;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("container").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    private static JsonObject makeComponentJson(final String name) {
+        final JsonObject location = new JsonObject();
+        location.addProperty("id", "L1");
+        location.addProperty("x", 1.50);
+        location.addProperty("urgency", "NORMAL");
+        location.add("invariant", JsonNull.INSTANCE);
+
+        final JsonArray locations = new JsonArray();
+        locations.add(location);
+        locations.add(PARSER.parse("{\"id\": \"L2\", \"x\": 1.50, \"urgency\": \"NORMAL\"}"));
+
+        final JsonObject json = new JsonObject();
+        json.addProperty("name", name);
+        json.addProperty("includeInPeriodicCheck", true);
+        json.add("locations", locations);
+        json.add("edges", new JsonArray());
+        return json;
+    }
+
+    @Test
+    public void readWhatWasWritten() throws IOException {
+        final Map<String, JsonElement> files = new LinkedHashMap<>();
+        files.put("Components/A.json", makeComponentJson("A"));
+        files.put("Components/B.json", makeComponentJson("B"));
+        files.put("Queries.json", PARSER.parse("[{\"query\": \"refinement: A <= B\", \"isPeriodic\": false}]"));
+
+        final ProjectContainer container = ProjectContainer.read(ProjectContainer.toBytes(files));
+
+        Assert.assertEquals(new ArrayList<>(files.keySet()), container.getPaths());
+        files.forEach((path, json) -> Assert.assertEquals(json, container.get(path)));
+
+        // Numbers keep their text
+        Assert.assertEquals("1.5", container.get("Components/A.json").getAsJsonObject().getAsJsonArray("locations")
+                .get(0).getAsJsonObject().get("x").getAsString());
+        Assert.assertEquals("1.50", container.get("Components/A.json").getAsJsonObject().getAsJsonArray("locations")
+                .get(1).getAsJsonObject().get("x").getAsString());
+
+        Assert.assertNull(container.get("Components/C.json"));
+    }
+
+    @Test
+    public void convertFolderToContainerAndBack() throws IOException {
+        final File folder = new File(directory, "project");
+        FileUtils.writeStringToFile(new File(folder, "Components/A.json"), makeComponentJson("A").toString(), StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(folder, "Systems/System.json"), "{\"name\": \"System\"}", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(folder, "GlobalDeclarations.json"), "{\"name\": \"Global Declarations\", \"declarations\": \"\"}", StandardCharsets.UTF_8);
+
+        final File file = new File(directory, "project" + ProjectContainer.FILENAME_EXTENSION);
+        ProjectContainer.fromFolder(folder, file);
+
+        final File converted = new File(directory, "converted");
+        ProjectContainer.open(file).toFolder(converted);
+
+        Assert.assertEquals(ProjectContainer.readFolder(folder), ProjectContainer.readFolder(converted));
+        Assert.assertTrue(new File(converted, "Systems/System.json").isFile());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectOtherFiles() throws IOException {
+        final File file = new File(directory, "other" + ProjectContainer.FILENAME_EXTENSION);
+        FileUtils.writeStringToFile(file, "{\"name\": \"Not a container\"}", StandardCharsets.UTF_8);
+
+        ProjectContainer.open(file);
+    }
+}
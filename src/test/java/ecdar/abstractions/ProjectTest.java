@@ -0,0 +1,320 @@
+package ecdar.abstractions;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import ecdar.Ecdar;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+public class ProjectTest {
+    private File directory;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("project").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    private static JsonObject makeJson(final String name, final int value) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("name", name);
+        json.addProperty("value", value);
+        return json;
+    }
+
+    private static Project.Snapshot makeSnapshot(final Map<String, JsonElement> files, final String... records) {
+        return new Project.Snapshot(files, new HashSet<>(Arrays.asList(records)));
+    }
+
+    private static JsonObject makeComponentJson(final String name) {
+        final Component component = new Component(true);
+        component.setName(name);
+        return component.serialize();
+    }
+
+    private String read(final String path) throws IOException {
+        return FileUtils.readFileToString(new File(directory, path), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void writeOnlyChangedFiles() throws IOException {
+        final Project project = new Project();
+
+        final Map<String, JsonElement> files = new LinkedHashMap<>();
+        files.put("Components/A.json", makeJson("A", 1));
+        files.put("Components/B.json", makeJson("B", 1));
+        project.write(directory, makeSnapshot(files));
+
+        Assert.assertTrue(read("Components/A.json").contains("\"A\""));
+
+        // Change a file behind the back of the project, such that we can tell if it is written again
+        FileUtils.writeStringToFile(new File(directory, "Components/B.json"), "unchanged", StandardCharsets.UTF_8);
+
+        files.put("Components/A.json", makeJson("A", 2));
+        files.put("Components/B.json", makeJson("B", 1));
+        project.write(directory, makeSnapshot(files));
+
+        Assert.assertTrue(read("Components/A.json").contains("2"));
+        Assert.assertEquals("unchanged", read("Components/B.json"));
+    }
+
+    @Test
+    public void writeEverythingToNewDirectory() throws IOException {
+        final Project project = new Project();
+
+        final Map<String, JsonElement> files = new LinkedHashMap<>();
+        files.put("Components/A.json", makeJson("A", 1));
+        project.write(directory, makeSnapshot(files));
+
+        final File other = new File(directory, "other");
+        project.write(other, makeSnapshot(files));
+
+        Assert.assertTrue(new File(other, "Components/A.json").isFile());
+    }
+
+    @Test
+    public void deleteRemovedFilesButKeepRecords() throws IOException {
+        final Project project = new Project();
+
+        final File record = new File(directory, "Tests/Test plan.checkpoint");
+        FileUtils.writeStringToFile(record, "checkpoint", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(directory, "Components/Old.json"), "{}", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(directory, "Components/A.json.tmp"), "", StandardCharsets.UTF_8);
+
+        final Map<String, JsonElement> files = new LinkedHashMap<>();
+        files.put("Components/A.json", makeJson("A", 1));
+        project.write(directory, makeSnapshot(files, record.getAbsolutePath()));
+
+        Assert.assertTrue(new File(directory, "Components/A.json").isFile());
+        Assert.assertFalse(new File(directory, "Components/Old.json").exists());
+        Assert.assertFalse(new File(directory, "Components/A.json.tmp").exists());
+        Assert.assertEquals("checkpoint", read("Tests/Test plan.checkpoint"));
+    }
+
+    @Test
+    public void writeAtomicallyReplacesFile() throws IOException {
+        final File file = new File(directory, "file.json");
+        FileUtils.writeStringToFile(file, "old", StandardCharsets.UTF_8);
+
+        Project.writeAtomically(file, "new");
+
+        Assert.assertEquals("new", read("file.json"));
+        Assert.assertEquals(1, Objects.requireNonNull(directory.listFiles()).length);
+    }
+
+    @Test
+    public void readAndAddComponentsInOrder() throws IOException {
+        Ecdar.setUpForTest();
+
+        final Map<String, JsonElement> files = new LinkedHashMap<>();
+        files.put("Components/A.json", makeComponentJson("A"));
+        files.put("Components/C.json", makeComponentJson("C"));
+        files.put("Components/B.json", makeComponentJson("B"));
+        files.put("Queries.json", new JsonArray());
+        new Project().write(directory, makeSnapshot(files));
+
+        final Project project = new Project();
+        final Project.Contents contents = project.read(directory);
+        Assert.assertTrue(project.getComponents().isEmpty());
+
+        project.add(contents);
+
+        // The greatest name comes first
+        Assert.assertEquals(3, project.getComponents().size());
+        Assert.assertEquals("C", project.getComponents().get(0).getName());
+        Assert.assertEquals("B", project.getComponents().get(1).getName());
+        Assert.assertEquals("A", project.getComponents().get(2).getName());
+
+        // The loaded files are not written again until they change
+        FileUtils.writeStringToFile(new File(directory, "Components/A.json"), "unchanged", StandardCharsets.UTF_8);
+        project.write(directory, makeSnapshot(files));
+        Assert.assertEquals("unchanged", read("Components/A.json"));
+    }
+
+    @Test
+    public void loadIndexedComponentsWhenNeeded() throws IOException {
+        Ecdar.setUpForTest();
+
+        final Project saved = new Project();
+        final Component original = new Component(true);
+        original.setName("A");
+        saved.getComponents().add(original);
+        saved.write(directory, saved.takeSnapshot(directory));
+
+        Assert.assertTrue(new File(directory, "ComponentIndex.json").isFile());
+
+        final Project project = new Project();
+        project.add(project.read(directory));
+
+        final Component component = project.getComponents().get(0);
+        Assert.assertEquals("A", component.getName());
+        Assert.assertFalse(component.isLoaded());
+
+        // Saving to the same folder keeps the file of a component that is not loaded
+        final String content = read("Components/A.json");
+        project.write(directory, project.takeSnapshot(directory));
+        Assert.assertFalse(component.isLoaded());
+        Assert.assertEquals(content, read("Components/A.json"));
+
+        // Background work needs the complete model, so it loads it
+        final List<Component.Snapshot> snapshots = project.getComponentSnapshots();
+        Assert.assertTrue(component.isLoaded());
+        Assert.assertEquals(original.getLocations().size(), snapshots.get(0).getLocations().size());
+
+        Assert.assertEquals(original.getLocations().size(), component.getLocations().size());
+        Assert.assertEquals("A", component.getName());
+    }
+
+    @Test
+    public void loadComponentsChangedWithSameSize() throws IOException {
+        Ecdar.setUpForTest();
+
+        final Project saved = new Project();
+        final Component original = new Component(true);
+        original.setName("A");
+        saved.getComponents().add(original);
+        saved.write(directory, saved.takeSnapshot(directory));
+
+        // Another tool renames the component without changing the size of the file
+        final File file = new File(directory, "Components/A.json");
+        final long modified = file.lastModified();
+        FileUtils.writeStringToFile(file, read("Components/A.json").replace("\"A\"", "\"B\""), StandardCharsets.UTF_8);
+        Assert.assertTrue(file.setLastModified(modified + 2000));
+
+        final Project project = new Project();
+        project.add(project.read(directory));
+
+        final Component component = project.getComponents().get(0);
+        Assert.assertTrue(component.isLoaded());
+        Assert.assertEquals("B", component.getName());
+    }
+
+    @Test
+    public void loadComponentsChangedWithSameSizeAndTime() throws IOException {
+        Ecdar.setUpForTest();
+
+        final Project saved = new Project();
+        final Component original = new Component(true);
+        original.setName("A");
+        saved.getComponents().add(original);
+        saved.write(directory, saved.takeSnapshot(directory));
+
+        // Another tool renames the component and keeps both the size and the modification time of the file
+        final File file = new File(directory, "Components/A.json");
+        final long modified = file.lastModified();
+        FileUtils.writeStringToFile(file, read("Components/A.json").replace("\"A\"", "\"B\""), StandardCharsets.UTF_8);
+        Assert.assertTrue(file.setLastModified(modified));
+
+        final Project project = new Project();
+        project.add(project.read(directory));
+
+        final Component component = project.getComponents().get(0);
+        Assert.assertTrue(component.isLoaded());
+        Assert.assertEquals("B", component.getName());
+    }
+
+    @Test
+    public void recoverJournaledEdits() throws Exception {
+        Ecdar.setUpForTest();
+
+        final Project project = new Project();
+        final Component component = new Component(true);
+        component.setName("A");
+        project.getComponents().add(component);
+        project.serializeInBackground(directory).get();
+
+        component.setName("B");
+        project.journal("Renamed component").get();
+
+        // An edit cut off by a crash is ignored
+        FileUtils.writeStringToFile(new File(directory, "Journal.jsonl"), "{\"description\": \"Cut", StandardCharsets.UTF_8, true);
+
+        final Project recovered = new Project();
+        final Project.Contents contents = recovered.read(directory);
+        recovered.add(contents);
+
+        Assert.assertEquals(1, contents.getJournalLength());
+        Assert.assertEquals(1, recovered.getComponents().size());
+        Assert.assertEquals("B", recovered.getComponents().get(0).getName());
+
+        // Edits journaled after recovering are not appended to the cut-off line
+        recovered.startJournal(directory, contents.getJournalLength());
+        recovered.getComponents().get(0).setName("C");
+        recovered.journal("Renamed component again").get();
+
+        final Project recoveredAgain = new Project();
+        final Project.Contents contentsAgain = recoveredAgain.read(directory);
+        recoveredAgain.add(contentsAgain);
+
+        Assert.assertEquals(2, contentsAgain.getJournalLength());
+        Assert.assertEquals("C", recoveredAgain.getComponents().get(0).getName());
+
+        // Saving includes the journaled edits
+        recovered.serializeInBackground(directory).get();
+        Assert.assertFalse(new File(directory, "Journal.jsonl").exists());
+        Assert.assertTrue(new File(directory, "Components/C.json").isFile());
+        Assert.assertFalse(new File(directory, "Components/A.json").exists());
+    }
+
+    @Test
+    public void awaitSavesStartedSoFar() throws Exception {
+        Ecdar.setUpForTest();
+
+        final Project project = new Project();
+        final Component component = new Component(true);
+        component.setName("A");
+        project.getComponents().add(component);
+
+        project.serializeInBackground(directory);
+
+        Assert.assertTrue(Project.awaitSaves(10000));
+        Assert.assertTrue(new File(directory, "Components/A.json").isFile());
+    }
+
+    @Test
+    public void journalOnlyChangedModels() throws Exception {
+        Ecdar.setUpForTest();
+
+        final Project project = new Project();
+        final Component a = new Component(true);
+        a.setName("A");
+        final Component b = new Component(true);
+        b.setName("B");
+        project.getComponents().addAll(a, b);
+        project.serializeInBackground(directory).get();
+        Assert.assertFalse(a.isDirty());
+        Assert.assertFalse(b.isDirty());
+
+        // The other component did not change, so it is not serialized again
+        final JsonObject serializedB = b.getSerialized();
+        a.setDeclarationsText("clock x;");
+        project.journal("Edited A").get();
+
+        EditJournal journal = EditJournal.read(directory);
+        Assert.assertTrue(journal.touches("Components/A.json"));
+        Assert.assertFalse(journal.touches("Components/B.json"));
+        Assert.assertSame(serializedB, b.getSerialized());
+
+        // Renaming outside the canvas is seen
+        b.setName("C");
+        project.journal("Renamed B", a).get();
+
+        journal = EditJournal.read(directory);
+        Assert.assertTrue(journal.touches("Components/B.json"));
+        Assert.assertTrue(journal.touches("Components/C.json"));
+    }
+}
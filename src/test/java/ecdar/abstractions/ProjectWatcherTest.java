@@ -0,0 +1,123 @@
+package ecdar.abstractions;
+
+import com.google.gson.JsonObject;
+import ecdar.Ecdar;
+import ecdar.utility.UndoRedoStack;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ProjectWatcherTest {
+    private File directory;
+    private Project project;
+    private ProjectWatcher watcher;
+
+    @Before
+    public void setup() throws IOException {
+        Ecdar.setUpForTest();
+        project = Ecdar.getProject();
+        project.clean();
+
+        directory = Files.createTempDirectory("project").toFile();
+        watcher = new ProjectWatcher(project, directory);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        watcher.stop();
+        UndoRedoStack.setContextSupplier(() -> null);
+        UndoRedoStack.clear();
+        FileUtils.deleteDirectory(directory);
+    }
+
+    private Component addComponent(final String name) {
+        final Component component = new Component(false);
+        component.setName(name);
+        project.getComponents().add(component);
+        return component;
+    }
+
+    private static JsonObject makeComponentJson(final String name) {
+        final Component component = new Component(false);
+        component.setName(name);
+        return component.serialize();
+    }
+
+    private static Map<String, JsonObject> changed(final String path, final JsonObject json) {
+        return Collections.singletonMap(path, json);
+    }
+
+    private static Set<String> none() {
+        return new HashSet<>();
+    }
+
+    @Test
+    public void keepUndoOfOtherComponents() {
+        final Component a = addComponent("A");
+        final Component b = addComponent("B");
+
+        final AtomicBoolean undoneA = new AtomicBoolean(false);
+        UndoRedoStack.setContextSupplier(() -> a);
+        UndoRedoStack.push(() -> {}, () -> undoneA.set(true), "Change A", "edit");
+        UndoRedoStack.setContextSupplier(() -> b);
+        UndoRedoStack.push(() -> {}, () -> Assert.fail("The command of the reloaded component is undone"), "Change B", "edit");
+
+        watcher.apply(changed("Components/B.json", makeComponentJson("B")), none());
+
+        Assert.assertTrue(UndoRedoStack.canUndo());
+        UndoRedoStack.undo();
+        Assert.assertTrue(undoneA.get());
+        Assert.assertFalse(UndoRedoStack.canUndo());
+    }
+
+    @Test
+    public void keepResultsOfQueriesOfOtherModels() {
+        addComponent("A");
+        addComponent("B");
+
+        final Query queryA = new Query("refinement: A <= A", "", QueryState.SUCCESSFUL);
+        final Query queryB = new Query("refinement: B <= B", "", QueryState.SUCCESSFUL);
+        project.getQueries().addAll(queryA, queryB);
+
+        watcher.apply(changed("Components/B.json", makeComponentJson("B")), none());
+
+        Assert.assertEquals(QueryState.SUCCESSFUL, queryA.getQueryState());
+        Assert.assertEquals(QueryState.UNKNOWN, queryB.getQueryState());
+    }
+
+    @Test
+    public void reloadComponentByPath() {
+        final Component a = addComponent("A");
+        final Query query = new Query("refinement: A <= A", "", QueryState.SUCCESSFUL);
+        project.getQueries().add(query);
+
+        // Another tool renamed the component in its file
+        watcher.apply(changed("Components/A.json", makeComponentJson("C")), none());
+
+        Assert.assertEquals(1, project.getComponents().size());
+        Assert.assertSame(a, project.getComponents().get(0));
+        Assert.assertEquals("C", a.getName());
+        Assert.assertEquals(QueryState.UNKNOWN, query.getQueryState());
+    }
+
+    @Test
+    public void removeComponentByPath() {
+        addComponent("A");
+        final Component b = addComponent("B");
+
+        watcher.apply(Collections.emptyMap(), Collections.singleton("Components/A.json"));
+
+        Assert.assertEquals(Collections.singletonList(b), project.getComponents());
+    }
+}
@@ -0,0 +1,50 @@
+package ecdar.abstractions;
+
+import org.apache.commons.lang3.tuple.Triple;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class SymbolTableTest {
+
+    @Test
+    public void parseDeclarations() {
+        final SymbolTable table = SymbolTable.parse("// Place local declarations here.\n" +
+                "const int N = 4;\n" +
+                "typedef int[0, N - 1] id_t;\n" +
+                "clock x, y;\n" +
+                "broadcast chan go;\n" +
+                "/* clock z; */\n" +
+                "id_t cur;\n" +
+                "int[-1, 2] i = 0, j;\n" +
+                "bool b = 1;\n" +
+                "void reset(int k) { int l = k; x = 0; }\n" +
+                "clock w;");
+
+        Assert.assertEquals(Arrays.asList("x", "y", "w"), table.getClocks());
+        Assert.assertEquals(Collections.singletonList("go"), table.getChannels());
+        Assert.assertEquals(Arrays.asList("cur", "i", "j", "b"), table.getVariables());
+        Assert.assertEquals(Collections.singletonMap("N", 4), table.getConstants());
+        Assert.assertEquals(Collections.singletonList(Triple.of("id_t", 0, 3)), table.getTypedefs());
+
+        Assert.assertEquals("id_t", table.getVariableType("cur"));
+        Assert.assertEquals(Triple.of("cur", 0, 3), table.getVariableBounds("cur"));
+        Assert.assertEquals(Triple.of("j", -1, 2), table.getVariableBounds("j"));
+        Assert.assertNull(table.getVariableBounds("b"));
+    }
+
+    @Test
+    public void cacheUntilTextChanges() {
+        final Component component = new Component();
+        component.setDeclarationsText("clock x;");
+
+        final SymbolTable table = component.getSymbolTable();
+        Assert.assertSame(table, component.getSymbolTable());
+
+        component.setDeclarationsText("clock x, y;");
+        Assert.assertNotSame(table, component.getSymbolTable());
+        Assert.assertEquals(Arrays.asList("x", "y"), component.getClocks());
+    }
+}
@@ -0,0 +1,63 @@
+package ecdar.cli;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+public class CliOptionsTest {
+    @Test
+    public void parseQueriesByDefault() {
+        final CliOptions options = CliOptions.parse(new String[]{"project"});
+
+        Assert.assertEquals(new File("project"), options.getProjectDirectory());
+        Assert.assertTrue(options.shouldRunQueries());
+        Assert.assertTrue(options.getPlanNames().isEmpty());
+        Assert.assertFalse(options.hasParallelism());
+        Assert.assertNull(options.getJsonFile());
+        Assert.assertNull(options.getJunitFile());
+    }
+
+    @Test
+    public void parsePlans() {
+        final CliOptions options = CliOptions.parse(new String[]{"--plan", "a", "project", "--plan", "b", "--parallelism", "3",
+                "--junit", "results.xml"});
+
+        Assert.assertEquals(new File("project"), options.getProjectDirectory());
+        Assert.assertFalse(options.shouldRunQueries());
+        Assert.assertEquals(Arrays.asList("a", "b"), options.getPlanNames());
+        Assert.assertTrue(options.hasParallelism());
+        Assert.assertEquals(3, options.getParallelism());
+        Assert.assertEquals(new File("results.xml"), options.getJunitFile());
+    }
+
+    @Test
+    public void parseQueriesAndPlans() {
+        final CliOptions options = CliOptions.parse(new String[]{"project", "--queries", "--plan", "a", "--json", "results.json"});
+
+        Assert.assertTrue(options.shouldRunQueries());
+        Assert.assertEquals(Arrays.asList("a"), options.getPlanNames());
+        Assert.assertEquals(new File("results.json"), options.getJsonFile());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseWithoutProject() {
+        CliOptions.parse(new String[]{"--queries"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseMissingValue() {
+        CliOptions.parse(new String[]{"project", "--plan"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseInvalidParallelism() {
+        CliOptions.parse(new String[]{"project", "--parallelism", "0"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseUnknownOption() {
+        CliOptions.parse(new String[]{"project", "--verbose"});
+    }
+}
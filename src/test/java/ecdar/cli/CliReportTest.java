@@ -0,0 +1,76 @@
+package ecdar.cli;
+
+import com.google.gson.JsonObject;
+import ecdar.abstractions.QueryState;
+import ecdar.mutation.models.CompactTrace;
+import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.models.TestResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class CliReportTest {
+    private static TestResult makeResult(final String id, final TestResult.Verdict verdict) {
+        return new TestResult(id, "sut.jar", "reason <" + id + ">", new CompactTrace(), verdict);
+    }
+
+    private static CliReport makeReport() {
+        final CliReport report = new CliReport("project");
+
+        report.addQueryOutcome(new CliReport.QueryOutcome("refinement: A<=B", "", QueryState.SUCCESSFUL, "", 1.5));
+        report.addQueryOutcome(new CliReport.QueryOutcome("refinement: B<=A", "", QueryState.ERROR, "", 0.5));
+        report.addPlanOutcome(new CliReport.PlanOutcome("plan", Arrays.asList(
+                makeResult("op_1", TestResult.Verdict.PASS),
+                makeResult("op_2", TestResult.Verdict.FAIL_NORMAL),
+                makeResult("op_3", TestResult.Verdict.MAX_WAIT)
+        ), Collections.emptyList(), 2.0));
+
+        return report;
+    }
+
+    @Test
+    public void json() {
+        final JsonObject json = makeReport().toJson();
+
+        Assert.assertEquals("project", json.get("project").getAsString());
+        Assert.assertEquals(2, json.getAsJsonArray("queries").size());
+        Assert.assertEquals("ERROR", json.getAsJsonArray("queries").get(1).getAsJsonObject().get("state").getAsString());
+
+        final JsonObject plan = json.getAsJsonArray("testPlans").get(0).getAsJsonObject();
+        Assert.assertEquals(1, plan.get("killed").getAsInt());
+        Assert.assertEquals(1, plan.get("failed").getAsInt());
+        Assert.assertEquals(1, plan.get("inconclusive").getAsInt());
+        Assert.assertEquals("FAIL_NORMAL", plan.getAsJsonArray("results").get(1).getAsJsonObject().get("verdict").getAsString());
+    }
+
+    @Test
+    public void junit() throws IOException {
+        final StringWriter writer = new StringWriter();
+        makeReport().writeJunit(writer);
+        final String xml = writer.toString();
+
+        Assert.assertTrue(xml.contains("<testsuite name=\"project.queries\" tests=\"2\" failures=\"1\" errors=\"0\" skipped=\"0\""));
+        Assert.assertTrue(xml.contains("name=\"refinement: A&lt;=B\""));
+        Assert.assertTrue(xml.contains("<testsuite name=\"project.plan\" tests=\"3\" failures=\"1\" errors=\"0\" skipped=\"1\""));
+        Assert.assertTrue(xml.contains("<failure message=\"FAIL_NORMAL: reason &lt;op_2&gt;\"/>"));
+        Assert.assertTrue(xml.contains("<skipped message=\"MAX_WAIT: reason &lt;op_3&gt;\"/>"));
+    }
+
+    @Test
+    public void successful() {
+        Assert.assertFalse(makeReport().isSuccessful());
+
+        final CliReport report = new CliReport("project");
+        report.addQueryOutcome(new CliReport.QueryOutcome("refinement: A<=B", "", QueryState.SUCCESSFUL, "", 1.5));
+        report.addPlanOutcome(new CliReport.PlanOutcome("plan", Collections.singletonList(makeResult("op_1", TestResult.Verdict.PASS)),
+                Collections.emptyList(), 2.0));
+        Assert.assertTrue(report.isSuccessful());
+
+        report.addPlanOutcome(new CliReport.PlanOutcome("other", Collections.emptyList(), Collections.singletonList("error"), 0));
+        Assert.assertFalse(report.isSuccessful());
+    }
+}
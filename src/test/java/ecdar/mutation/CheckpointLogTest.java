@@ -0,0 +1,174 @@
+package ecdar.mutation;
+
+import ecdar.abstractions.Component;
+import ecdar.mutation.models.CompactTrace;
+import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.models.TestResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class CheckpointLogTest {
+
+    private static Component makeTestModel() {
+        final Component component = new Component();
+        component.setName("Model");
+        component.setDeclarationsText("clock x;");
+        return component;
+    }
+
+    private static TestResult makeResult(final MutationTestCase testCase, final TestResult.Verdict verdict) {
+        final CompactTrace trace = new CompactTrace();
+        trace.addDelay(2.0);
+        trace.addInput("a");
+        trace.addOutput("b");
+        return new TestResult(testCase.getId(), "reason", trace, verdict);
+    }
+
+    @Test
+    public void resumeRecordedProgress() throws IOException, MutationTestingException {
+        final File file = File.createTempFile("plan", CheckpointLog.FILENAME_EXTENSION);
+        final Component testModel = makeTestModel();
+        final MutationTestCase case1 = new MutationTestCase(null, null, "op_1", null);
+        final MutationTestCase case2 = new MutationTestCase(null, null, "op_2", null);
+        final MutationTestCase case3 = new MutationTestCase(null, null, "op_3", null);
+
+        final CheckpointLog log = CheckpointLog.start(file, testModel, false, 42);
+        log.logMutants(Arrays.asList(case1, case2, case3));
+        log.logStrategy("op_1", Arrays.asList("line 1", "line 2"));
+        log.logRefinement("op_2");
+        log.logResult(makeResult(case1, TestResult.Verdict.MAX_WAIT));
+        log.logResult(makeResult(case1, TestResult.Verdict.PASS));
+        log.close();
+
+        final CheckpointLog resumed = CheckpointLog.resume(file);
+        resumed.close();
+
+        Assert.assertEquals(42, resumed.getSeed());
+        Assert.assertTrue(resumed.matches(testModel, false));
+        Assert.assertFalse(resumed.matches(testModel, true));
+        Assert.assertTrue(resumed.matches(Arrays.asList(case1, case2, case3)));
+        Assert.assertFalse(resumed.matches(Collections.singletonList(case1)));
+
+        Assert.assertEquals(Arrays.asList("line 1", "line 2"), resumed.getStrategyLines("op_1"));
+        Assert.assertTrue(resumed.isRefinement("op_2"));
+        Assert.assertNull(resumed.getStrategyLines("op_3"));
+
+        // The last result of a test-case counts
+        Assert.assertEquals(1, resumed.getResultCount());
+        final TestResult result = resumed.getResult(case1);
+        Assert.assertEquals(TestResult.Verdict.PASS, result.getVerdict());
+        Assert.assertEquals(makeResult(case1, TestResult.Verdict.PASS).getTrace(), result.getTrace());
+        Assert.assertNull(resumed.getResult(case2));
+
+        Assert.assertTrue(file.delete());
+    }
+
+    @Test
+    public void resumeResultsPerSut() throws IOException, MutationTestingException {
+        final File file = File.createTempFile("plan", CheckpointLog.FILENAME_EXTENSION);
+        final MutationTestCase testCase = new MutationTestCase(null, null, "op_1", null);
+
+        final CheckpointLog log = CheckpointLog.start(file, makeTestModel(), false, 1);
+        log.logResult(new TestResult(testCase.getId(), "Original/sut.jar", "reason", new CompactTrace(), TestResult.Verdict.PASS));
+        log.logResult(new TestResult(testCase.getId(), "F1/sut.jar", "reason", new CompactTrace(), TestResult.Verdict.FAIL_NORMAL));
+        log.close();
+
+        final CheckpointLog resumed = CheckpointLog.resume(file);
+        resumed.close();
+
+        Assert.assertEquals(2, resumed.getResultCount());
+        Assert.assertEquals(TestResult.Verdict.PASS, resumed.getResult(testCase, "Original/sut.jar").getVerdict());
+        Assert.assertEquals("F1/sut.jar", resumed.getResult(testCase, "F1/sut.jar").getSutPath());
+        Assert.assertEquals(TestResult.Verdict.FAIL_NORMAL, resumed.getResult(testCase, "F1/sut.jar").getVerdict());
+        Assert.assertNull(resumed.getResult(testCase, "F2/sut.jar"));
+        Assert.assertNull(resumed.getResult(testCase));
+
+        Assert.assertTrue(file.delete());
+    }
+
+    @Test
+    public void resumeResultsWithoutSut() throws IOException, MutationTestingException {
+        final File file = File.createTempFile("plan", CheckpointLog.FILENAME_EXTENSION);
+        final MutationTestCase testCase = new MutationTestCase(null, null, "op_1", null);
+
+        // Older versions recorded results without the system under test
+        final CheckpointLog log = CheckpointLog.start(file, makeTestModel(), false, 1);
+        log.logResult(makeResult(testCase, TestResult.Verdict.FAIL_NORMAL));
+        log.close();
+
+        final CheckpointLog resumed = CheckpointLog.resume(file);
+        resumed.close();
+
+        final TestResult result = resumed.getResult(testCase, "sut.jar", true);
+        Assert.assertEquals(TestResult.Verdict.FAIL_NORMAL, result.getVerdict());
+        Assert.assertEquals("sut.jar", result.getSutPath());
+        Assert.assertNull(resumed.getResult(testCase, "sut.jar", false));
+        Assert.assertNull(resumed.getResult(testCase, "sut.jar"));
+
+        Assert.assertTrue(file.delete());
+    }
+
+    @Test
+    public void ignoreIncompleteLastRecord() throws IOException, MutationTestingException {
+        final File file = File.createTempFile("plan", CheckpointLog.FILENAME_EXTENSION);
+        final MutationTestCase testCase = new MutationTestCase(null, null, "op_1", null);
+
+        final CheckpointLog log = CheckpointLog.start(file, makeTestModel(), false, 1);
+        log.logResult(makeResult(testCase, TestResult.Verdict.PASS));
+        log.close();
+
+        try (final FileWriter writer = new FileWriter(file, true)) {
+            writer.write("{\"type\":\"result\",\"id\":\"op_2\",\"verd");
+        }
+
+        final CheckpointLog resumed = CheckpointLog.resume(file);
+        resumed.close();
+
+        Assert.assertEquals(1, resumed.getResultCount());
+        Assert.assertNotNull(resumed.getResult(testCase));
+
+        Assert.assertTrue(file.delete());
+    }
+
+    @Test
+    public void appendAfterIncompleteLastRecord() throws IOException, MutationTestingException {
+        final File file = File.createTempFile("plan", CheckpointLog.FILENAME_EXTENSION);
+        final MutationTestCase case1 = new MutationTestCase(null, null, "op_1", null);
+        final MutationTestCase case2 = new MutationTestCase(null, null, "op_2", null);
+
+        final CheckpointLog log = CheckpointLog.start(file, makeTestModel(), false, 1);
+        log.logResult(makeResult(case1, TestResult.Verdict.PASS));
+        log.close();
+
+        try (final FileWriter writer = new FileWriter(file, true)) {
+            writer.write("{\"type\":\"result\",\"id\":\"op_2\",\"verd");
+        }
+
+        final CheckpointLog resumed = CheckpointLog.resume(file);
+        resumed.logResult(makeResult(case2, TestResult.Verdict.FAIL_NORMAL));
+        resumed.close();
+
+        final CheckpointLog resumedAgain = CheckpointLog.resume(file);
+        resumedAgain.close();
+
+        Assert.assertEquals(2, resumedAgain.getResultCount());
+        Assert.assertEquals(TestResult.Verdict.PASS, resumedAgain.getResult(case1).getVerdict());
+        Assert.assertEquals(TestResult.Verdict.FAIL_NORMAL, resumedAgain.getResult(case2).getVerdict());
+
+        Assert.assertTrue(file.delete());
+    }
+
+    @Test(expected = MutationTestingException.class)
+    public void resumeWithoutRun() throws IOException, MutationTestingException {
+        final File file = File.createTempFile("plan", CheckpointLog.FILENAME_EXTENSION);
+        file.deleteOnExit();
+
+        CheckpointLog.resume(file);
+    }
+}
@@ -0,0 +1,74 @@
+package ecdar.mutation;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ConcurrentJobsDriverTest {
+
+    /**
+     * Handler that runs one job at a time, and records the order jobs are started in.
+     * Jobs are not done before the test calls onJobDone.
+     */
+    private static class RecordingHandler implements ConcurrentJobsHandler {
+        private final List<Integer> started = new ArrayList<>();
+        private boolean done = false;
+
+        @Override
+        public boolean shouldStop() {
+            return false;
+        }
+
+        @Override
+        public void onStopped() {}
+
+        @Override
+        public void onAllJobsSuccessfullyDone() {
+            done = true;
+        }
+
+        @Override
+        public int getMaxConcurrentJobs() {
+            return 1;
+        }
+
+        Runnable job(final int index) {
+            return () -> started.add(index);
+        }
+    }
+
+    @Test
+    public void addJobsRunsInOrderOfPriority() {
+        final RecordingHandler handler = new RecordingHandler();
+        final ConcurrentJobsDriver driver = new ConcurrentJobsDriver(handler);
+
+        driver.addJobs(Arrays.asList(handler.job(0), handler.job(1), handler.job(2), handler.job(3)), new double[]{0, 3, 1, 1});
+        for (int i = 0; i < 4; i++) driver.onJobDone();
+
+        // Jobs with the same priority are started in the order they were added
+        Assert.assertEquals(Arrays.asList(0, 2, 3, 1), handler.started);
+        Assert.assertTrue(handler.done);
+    }
+
+    @Test
+    public void cancelRemainingJobs() {
+        final RecordingHandler handler = new RecordingHandler();
+        final ConcurrentJobsDriver driver = new ConcurrentJobsDriver(handler);
+
+        driver.addJobs(Arrays.asList(handler.job(0), handler.job(1), handler.job(2)));
+
+        Assert.assertEquals(2, driver.cancelRemainingJobs());
+        Assert.assertFalse(handler.done);
+        Assert.assertTrue(driver.isJobsRemaining());
+
+        // The running job still finishes
+        driver.onJobDone();
+
+        Assert.assertEquals(Arrays.asList(0), handler.started);
+        Assert.assertTrue(handler.done);
+        Assert.assertFalse(driver.isJobsRemaining());
+    }
+}
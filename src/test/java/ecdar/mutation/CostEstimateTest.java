@@ -0,0 +1,52 @@
+package ecdar.mutation;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CostEstimateTest {
+    @Test
+    public void counts() {
+        final CostEstimate estimate = new CostEstimate(10, 0.5, 3, 1000, 500, 1, 10, 1, 4);
+
+        Assert.assertEquals(10, estimate.getMutants());
+        Assert.assertEquals(5, estimate.getTestCases());
+        Assert.assertEquals(15, estimate.getRuns());
+    }
+
+    @Test
+    public void times() {
+        final CostEstimate estimate = new CostEstimate(10, 0.5, 3, 1000, 500, 1, 10, 1, 4);
+
+        // Only 4 processors can run engines
+        Assert.assertEquals(10 * 1000 / 4.0, estimate.getGenerationMillis(10), 0.001);
+        Assert.assertEquals(10 * 1000 / 2.0, estimate.getGenerationMillis(2), 0.001);
+
+        Assert.assertEquals(15 * 500.0, estimate.getTestMillis(1), 0.001);
+        Assert.assertEquals(15 * 500 / 4.0, estimate.getTestMillis(8), 0.001);
+    }
+
+    @Test
+    public void unknownTimes() {
+        final CostEstimate estimate = new CostEstimate(10, 1, 1, -1, -1, 1, 10, 1, 4);
+
+        Assert.assertEquals(-1, estimate.getGenerationMillis(10), 0.001);
+        Assert.assertEquals(-1, estimate.getTestMillis(1), 0.001);
+    }
+
+    @Test
+    public void suggestConcurrency() {
+        // Instances of the SUT mostly waiting
+        CostEstimate estimate = new CostEstimate(100, 1, 1, 1000, 500, 0.25, 10, 1, 4);
+        Assert.assertEquals(4, estimate.getSuggestedGenerationThreads());
+        Assert.assertEquals(16, estimate.getSuggestedSutInstances());
+
+        // Limited by the number of instances per processor
+        estimate = new CostEstimate(100, 1, 1, 1000, 500, 0.01, 10, 1, 4);
+        Assert.assertEquals(32, estimate.getSuggestedSutInstances());
+
+        // Limited by the number of mutants and runs
+        estimate = new CostEstimate(2, 1, 1, 1000, 500, 0.25, 10, 1, 4);
+        Assert.assertEquals(2, estimate.getSuggestedGenerationThreads());
+        Assert.assertEquals(2, estimate.getSuggestedSutInstances());
+    }
+}
@@ -0,0 +1,102 @@
+package ecdar.mutation;
+
+import ecdar.mutation.models.MutantSample;
+import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.models.MutationTestPlan;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class MutantSamplerTest {
+
+    private static Map<String, List<MutationTestCase>> getCases(final int... sizes) {
+        final Map<String, List<MutationTestCase>> cases = new LinkedHashMap<>();
+
+        for (int operator = 0; operator < sizes.length; operator++) {
+            final List<MutationTestCase> operatorCases = new ArrayList<>();
+            for (int i = 0; i < sizes[operator]; i++)
+                operatorCases.add(new MutationTestCase(null, null, "op" + operator + "_" + i, null));
+            cases.put("op" + operator, operatorCases);
+        }
+
+        return cases;
+    }
+
+    private static long count(final MutantSample sample, final String operator) {
+        return sample.getTestCases().stream().filter(testCase -> testCase.getId().startsWith(operator + "_")).count();
+    }
+
+    @Test
+    public void sampleSizeFromErrorMargin() {
+        // 1.96^2 * 0.25 / 0.05^2 = 384.16, corrected for 1000 mutants
+        Assert.assertEquals(278, MutantSampler.getSampleSize(1000, 0.05));
+        Assert.assertEquals(10, MutantSampler.getSampleSize(10, 0.05));
+        Assert.assertEquals(0, MutantSampler.getSampleSize(0, 0.05));
+    }
+
+    @Test
+    public void sampleSizeWithoutErrorMargin() {
+        Assert.assertEquals(1000, MutantSampler.getSampleSize(1000, 0));
+        Assert.assertEquals(1000, MutantSampler.getSampleSize(1000, -0.05));
+        Assert.assertEquals(1000, MutantSampler.getSampleSize(1000, Double.NaN));
+    }
+
+    @Test
+    public void allocateProportional() {
+        final int[] allocation = MutantSampler.allocate(new int[]{100, 300}, new double[]{100, 300}, 40);
+
+        Assert.assertArrayEquals(new int[]{10, 30}, allocation);
+    }
+
+    @Test
+    public void allocateRedistributesFromFullStrata() {
+        final int[] allocation = MutantSampler.allocate(new int[]{2, 100, 100}, new double[]{1, 1, 1}, 30);
+
+        Assert.assertArrayEquals(new int[]{2, 14, 14}, allocation);
+    }
+
+    @Test
+    public void allocateAtMostCapacity() {
+        final int[] allocation = MutantSampler.allocate(new int[]{2, 3}, new double[]{1, 1}, 100);
+
+        Assert.assertArrayEquals(new int[]{2, 3}, allocation);
+    }
+
+    @Test
+    public void sampleAll() {
+        final MutantSample sample = new MutantSampler(MutationTestPlan.SamplingMode.ALL, new Random(1))
+                .sample(getCases(5, 7), 3);
+
+        Assert.assertEquals(12, sample.getSampleSize());
+        Assert.assertTrue(sample.isComplete());
+    }
+
+    @Test
+    public void sampleUniform() {
+        final MutantSample sample = new MutantSampler(MutationTestPlan.SamplingMode.UNIFORM, new Random(1))
+                .sample(getCases(50, 150), 20);
+
+        Assert.assertEquals(20, sample.getSampleSize());
+        Assert.assertEquals(200, sample.getPopulationSize());
+        Assert.assertEquals(20, new HashSet<>(sample.getTestCases()).size());
+    }
+
+    @Test
+    public void sampleStratified() {
+        final MutantSample sample = new MutantSampler(MutationTestPlan.SamplingMode.STRATIFIED, new Random(1))
+                .sample(getCases(50, 150), 20);
+
+        Assert.assertEquals(5, count(sample, "op0"));
+        Assert.assertEquals(15, count(sample, "op1"));
+    }
+
+    @Test
+    public void sampleOperatorWeighted() {
+        final MutantSample sample = new MutantSampler(MutationTestPlan.SamplingMode.OPERATOR_WEIGHTED, new Random(1))
+                .sample(getCases(50, 150), 20);
+
+        Assert.assertEquals(10, count(sample, "op0"));
+        Assert.assertEquals(10, count(sample, "op1"));
+    }
+}
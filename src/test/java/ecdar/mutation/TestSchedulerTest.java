@@ -0,0 +1,104 @@
+package ecdar.mutation;
+
+import com.google.gson.JsonObject;
+import ecdar.mutation.models.CompactTrace;
+import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.models.MutationTestPlan;
+import ecdar.mutation.models.OperatorKillHistory;
+import ecdar.mutation.models.TestResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class TestSchedulerTest {
+
+    private static TestResult makeResult(final String id, final TestResult.Verdict verdict) {
+        return new TestResult(id, "reason", new CompactTrace(), verdict);
+    }
+
+    @Test
+    public void getOperatorFromId() {
+        Assert.assertEquals("changeSource", OperatorKillHistory.getOperator("changeSource_3_L1"));
+        Assert.assertEquals("sinkLocation", OperatorKillHistory.getOperator("sinkLocation"));
+    }
+
+    @Test
+    public void historyIgnoresInconclusiveResults() {
+        final OperatorKillHistory history = new OperatorKillHistory();
+        history.record(makeResult("changeSource_0", TestResult.Verdict.PASS));
+        history.record(makeResult("changeSource_1", TestResult.Verdict.FAIL_NORMAL));
+        history.record(makeResult("changeSource_2", TestResult.Verdict.MAX_WAIT));
+
+        Assert.assertEquals(1, history.getKilled("changeSource"));
+        Assert.assertEquals(2, history.getConclusive("changeSource"));
+        Assert.assertEquals(0.5, history.getKillRate("changeSource"), 0.0001);
+        Assert.assertEquals(0.5, history.getKillRate("changeTarget"), 0.0001);
+    }
+
+    @Test
+    public void historySerializes() {
+        final OperatorKillHistory history = new OperatorKillHistory();
+        history.record(makeResult("changeSource_0", TestResult.Verdict.PASS));
+        history.record(makeResult("invertReset_0", TestResult.Verdict.FAIL_PRIMARY));
+
+        final JsonObject json = history.serialize();
+        final OperatorKillHistory copy = new OperatorKillHistory();
+        copy.deserialize(json);
+
+        Assert.assertEquals(1, copy.getKilled("changeSource"));
+        Assert.assertEquals(0, copy.getKilled("invertReset"));
+        Assert.assertEquals(1, copy.getConclusive("invertReset"));
+    }
+
+    @Test
+    public void killingOperatorsFirst() {
+        final OperatorKillHistory history = new OperatorKillHistory();
+        for (int i = 0; i < 4; i++) history.record(makeResult("invertReset_" + i, TestResult.Verdict.PASS));
+        for (int i = 0; i < 4; i++) history.record(makeResult("changeSource_" + i, TestResult.Verdict.FAIL_NORMAL));
+
+        final TestScheduler scheduler = new TestScheduler(MutationTestPlan.SchedulingPolicy.KILLING_OPERATORS_FIRST, history, -1, 0, 3);
+        final List<MutationTestCase> cases = Arrays.asList(
+                new MutationTestCase(null, null, "changeSource_0", null),
+                new MutationTestCase(null, null, "changeTarget_0", null),
+                new MutationTestCase(null, null, "invertReset_0", null));
+        final double[] priorities = scheduler.getPriorities(cases);
+
+        Assert.assertTrue(priorities[2] < priorities[1]);
+        Assert.assertTrue(priorities[1] < priorities[0]);
+    }
+
+    @Test
+    public void generationOrderGivesEqualPriorities() {
+        final TestScheduler scheduler = new TestScheduler(MutationTestPlan.SchedulingPolicy.GENERATION_ORDER, new OperatorKillHistory(), -1, 0, 2);
+
+        Assert.assertArrayEquals(new double[]{0, 0}, scheduler.getPriorities(Arrays.asList(
+                new MutationTestCase(null, null, "changeSource_0", null),
+                new MutationTestCase(null, null, "invertReset_0", null))), 0);
+    }
+
+    @Test
+    public void stopAtFailures() {
+        final TestScheduler scheduler = new TestScheduler(MutationTestPlan.SchedulingPolicy.GENERATION_ORDER, new OperatorKillHistory(), -1, 2, 10);
+
+        scheduler.count(makeResult("changeSource_0", TestResult.Verdict.FAIL_NORMAL));
+        scheduler.count(makeResult("changeSource_1", TestResult.Verdict.PASS));
+        Assert.assertNull(scheduler.getStopReason());
+
+        scheduler.count(makeResult("changeSource_2", TestResult.Verdict.FAIL_PRIMARY));
+        Assert.assertEquals("2 failed test-cases", scheduler.getStopReason());
+    }
+
+    @Test
+    public void stopAtScore() {
+        final TestScheduler scheduler = new TestScheduler(MutationTestPlan.SchedulingPolicy.GENERATION_ORDER, new OperatorKillHistory(), 50, 0, 4);
+
+        scheduler.count(makeResult("changeSource_0", TestResult.Verdict.PASS));
+        scheduler.count(makeResult("changeSource_1", TestResult.Verdict.MAX_WAIT));
+        Assert.assertNull(scheduler.getStopReason());
+
+        scheduler.count(makeResult("changeSource_2", TestResult.Verdict.PASS));
+        Assert.assertEquals("mutation score of at least 50%", scheduler.getStopReason());
+    }
+}
@@ -0,0 +1,116 @@
+package ecdar.mutation;
+
+import ecdar.mutation.models.CompactTrace;
+import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.models.TestResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Map;
+
+public class TraceRecordingTest {
+    private static final MutationTestCase CASE_1 = new MutationTestCase(null, null, "op_1", null);
+    private static final MutationTestCase CASE_2 = new MutationTestCase(null, null, "op_2", null);
+
+    private static TestResult makeResult(final MutationTestCase testCase, final String sutPath, final TestResult.Verdict verdict,
+                                         final String output) {
+        final CompactTrace sutTrace = new CompactTrace();
+        sutTrace.addInput("a");
+        sutTrace.addDelay(2.0);
+        sutTrace.addOutput(output);
+
+        final TestResult result = new TestResult(testCase.getId(), sutPath, "reason", new CompactTrace(), verdict);
+        result.setSutTrace(sutTrace);
+        return result;
+    }
+
+    @Test
+    public void readRecordedRuns() throws IOException {
+        final File file = File.createTempFile("plan", TraceRecording.FILENAME_EXTENSION);
+
+        TraceRecording recording = TraceRecording.open(file);
+        recording.record(makeResult(CASE_1, "sut.jar", TestResult.Verdict.MAX_WAIT, "b"));
+        recording.record(new TestResult(CASE_2.getId(), "sut.jar", "reason", new CompactTrace(), TestResult.Verdict.PASS));
+        recording.close();
+
+        // Runs are appended, and the last run of a test-case counts
+        recording = TraceRecording.open(file);
+        recording.record(makeResult(CASE_1, "sut.jar", TestResult.Verdict.FAIL_NORMAL, "c"));
+        recording.record(makeResult(CASE_1, "variant.jar", TestResult.Verdict.PASS, "b"));
+        recording.close();
+
+        final Map<String, TraceRecording.Run> runs = TraceRecording.read(file);
+
+        Assert.assertEquals(2, runs.size());
+
+        final TraceRecording.Run run = runs.get(TraceRecording.getKey("sut.jar", "op_1"));
+        Assert.assertEquals(TestResult.Verdict.FAIL_NORMAL, run.getVerdict());
+        Assert.assertEquals(makeResult(CASE_1, "sut.jar", TestResult.Verdict.FAIL_NORMAL, "c").getSutTrace(), run.getTrace());
+        Assert.assertEquals("sut.jar", run.getSutPath());
+
+        Assert.assertEquals(TestResult.Verdict.PASS, runs.get(TraceRecording.getKey("variant.jar", "op_1")).getVerdict());
+
+        // Results without a trace of the system under test are not recorded
+        Assert.assertNull(runs.get(TraceRecording.getKey("sut.jar", "op_2")));
+
+        Assert.assertTrue(file.delete());
+    }
+
+    @Test
+    public void ignoreIncompleteLastRun() throws IOException {
+        final File file = File.createTempFile("plan", TraceRecording.FILENAME_EXTENSION);
+
+        TraceRecording recording = TraceRecording.open(file);
+        recording.record(makeResult(CASE_1, "sut.jar", TestResult.Verdict.PASS, "b"));
+        final long length = file.length();
+        recording.record(makeResult(CASE_2, "sut.jar", TestResult.Verdict.PASS, "b"));
+        recording.close();
+
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(randomAccessFile.length() - 3);
+        }
+
+        Map<String, TraceRecording.Run> runs = TraceRecording.read(file);
+
+        Assert.assertEquals(1, runs.size());
+        Assert.assertNotNull(runs.get(TraceRecording.getKey("sut.jar", "op_1")));
+
+        // Cut off in the middle of the verdict, such that the name read is "PA"
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(length + 2 + "op_2".length() + 2 + "sut.jar".length() + 2 + 2);
+            randomAccessFile.seek(randomAccessFile.length() - 4);
+            randomAccessFile.writeShort(2);
+        }
+
+        Assert.assertEquals(1, TraceRecording.read(file).size());
+
+        // Appending after the incomplete run keeps the new run readable
+        recording = TraceRecording.open(file);
+        recording.record(makeResult(CASE_2, "sut.jar", TestResult.Verdict.FAIL_NORMAL, "c"));
+        recording.close();
+
+        runs = TraceRecording.read(file);
+
+        Assert.assertEquals(2, runs.size());
+        Assert.assertEquals(TestResult.Verdict.PASS, runs.get(TraceRecording.getKey("sut.jar", "op_1")).getVerdict());
+        Assert.assertEquals(TestResult.Verdict.FAIL_NORMAL, runs.get(TraceRecording.getKey("sut.jar", "op_2")).getVerdict());
+
+        Assert.assertTrue(file.delete());
+    }
+
+    @Test(expected = IOException.class)
+    public void readInvalidFile() throws IOException {
+        final File file = File.createTempFile("plan", TraceRecording.FILENAME_EXTENSION);
+        file.deleteOnExit();
+
+        try (final FileOutputStream output = new FileOutputStream(file)) {
+            output.write("not a recording".getBytes());
+        }
+
+        TraceRecording.read(file);
+    }
+}
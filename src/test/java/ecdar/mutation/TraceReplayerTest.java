@@ -0,0 +1,164 @@
+package ecdar.mutation;
+
+import ecdar.abstractions.Component;
+import ecdar.abstractions.Edge;
+import ecdar.abstractions.EdgeStatus;
+import ecdar.abstractions.Location;
+import ecdar.mutation.models.CompactTrace;
+import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.models.NonRefinementStrategy;
+import ecdar.mutation.models.TestResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class TraceReplayerTest {
+
+    /**
+     * Makes a component with an input a from L0 to L1 and an output from L1 to L0.
+     * @param output the output sync from L1
+     * @return the component
+     */
+    private static Component makeComponent(final String output) {
+        final Component c = new Component();
+        c.setDeclarationsText("clock x;");
+
+        final Location l0 = new Location();
+        l0.setType(Location.Type.INITIAL);
+        l0.idProperty().setValue("L0");
+        c.addLocation(l0);
+
+        final Location l1 = new Location();
+        l1.idProperty().setValue("L1");
+        c.addLocation(l1);
+
+        final Edge input = new Edge(l0, EdgeStatus.INPUT);
+        input.setSync("a");
+        input.setTargetLocation(l1);
+        c.addEdge(input);
+
+        final Edge outputEdge = new Edge(l1, EdgeStatus.OUTPUT);
+        outputEdge.setSync(output);
+        outputEdge.setTargetLocation(l0);
+        c.addEdge(outputEdge);
+
+        return c;
+    }
+
+    /**
+     * Makes a test-case with a strategy that inputs a, and then waits.
+     * @param testModelOutput the output sync of the test model
+     * @param mutantOutput the output sync of the mutant
+     * @return the test-case
+     * @throws MutationTestingException if the strategy could not be parsed
+     */
+    private static MutationTestCase makeTestCaseWithStrategy(final String testModelOutput, final String mutantOutput) throws MutationTestingException {
+        final Component testModel = makeComponent(testModelOutput);
+        testModel.setName("S");
+        final Component mutant = makeComponent(mutantOutput);
+        mutant.setName("M");
+
+        final MutationTestCase testCase = new MutationTestCase(testModel, mutant, "test", null);
+        testCase.setStrategy(new NonRefinementStrategy(Arrays.asList(
+                "State: ( S.L0 M.L0 ) [spoiler] ",
+                "When you are in true, take transition M.L0->M.L1 { 1, a?, 1 } [SKIP]",
+                "",
+                "State: ( S.L1 M.L1 ) [spoiler] ",
+                "While you are in true, wait.",
+                ""
+        )));
+
+        return testCase;
+    }
+
+    @Test
+    public void replayKills() {
+        final MutationTestCase testCase = new MutationTestCase(makeComponent("b"), makeComponent("c"), "test", null);
+
+        final CompactTrace trace = new CompactTrace();
+        trace.addDelay(1.0);
+        trace.addInput("a");
+        trace.addOutput("b");
+
+        final TestResult result = TraceReplayer.replay(trace, testCase);
+
+        Assert.assertNotNull(result);
+        Assert.assertEquals(TestResult.Verdict.PASS, result.getVerdict());
+    }
+
+    @Test
+    public void replayDoesNotKillEquivalentBehaviour() {
+        final MutationTestCase testCase = new MutationTestCase(makeComponent("b"), makeComponent("b"), "test", null);
+
+        final CompactTrace trace = new CompactTrace();
+        trace.addInput("a");
+        trace.addOutput("b");
+
+        Assert.assertNull(TraceReplayer.replay(trace, testCase));
+    }
+
+    @Test
+    public void replayRecordedTraces() {
+        final TraceReplayer replayer = new TraceReplayer();
+
+        final CompactTrace other = new CompactTrace();
+        other.addInput("a");
+        replayer.record(other);
+
+        final CompactTrace killing = new CompactTrace();
+        killing.addInput("a");
+        killing.addOutput("b");
+        replayer.record(killing);
+        replayer.record(killing.copy());
+
+        Assert.assertEquals(2, replayer.size());
+        Assert.assertNotNull(replayer.replay(new MutationTestCase(makeComponent("b"), makeComponent("c"), "test", null)));
+    }
+
+    @Test
+    public void evaluateKills() throws MutationTestingException {
+        final CompactTrace trace = new CompactTrace();
+        trace.addInput("a");
+        trace.addDelay(0.5);
+        trace.addOutput("b");
+
+        final TestResult result = TraceReplayer.evaluate(trace, makeTestCaseWithStrategy("b", "c"), "sut.jar");
+
+        Assert.assertNotNull(result);
+        Assert.assertEquals(TestResult.Verdict.PASS, result.getVerdict());
+        Assert.assertEquals("sut.jar", result.getSutPath());
+    }
+
+    @Test
+    public void evaluateFails() throws MutationTestingException {
+        final CompactTrace trace = new CompactTrace();
+        trace.addInput("a");
+        trace.addOutput("c");
+
+        final TestResult result = TraceReplayer.evaluate(trace, makeTestCaseWithStrategy("b", "c"), "sut.jar");
+
+        Assert.assertNotNull(result);
+        Assert.assertEquals(TestResult.Verdict.FAIL_PRIMARY, result.getVerdict());
+    }
+
+    @Test
+    public void evaluateDoesNotTellIfStrategyDisagrees() throws MutationTestingException {
+        // The strategy inputs a right away, but the recording starts with a delay
+        final CompactTrace trace = new CompactTrace();
+        trace.addDelay(1.0);
+        trace.addInput("a");
+        trace.addOutput("b");
+
+        Assert.assertNull(TraceReplayer.evaluate(trace, makeTestCaseWithStrategy("b", "c"), "sut.jar"));
+    }
+
+    @Test
+    public void evaluateDoesNotTellIfRecordingEnds() throws MutationTestingException {
+        final CompactTrace trace = new CompactTrace();
+        trace.addInput("a");
+        trace.addDelay(1.0);
+
+        Assert.assertNull(TraceReplayer.evaluate(trace, makeTestCaseWithStrategy("b", "c"), "sut.jar"));
+    }
+}
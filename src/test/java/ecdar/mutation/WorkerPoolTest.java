@@ -0,0 +1,79 @@
+package ecdar.mutation;
+
+import ecdar.Ecdar;
+import ecdar.abstractions.Component;
+import ecdar.mutation.models.MutationTestCase;
+import ecdar.mutation.models.MutationTestPlan;
+import ecdar.mutation.models.TestResult;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class WorkerPoolTest {
+    private File directory;
+
+    @Before
+    public void setup() throws IOException {
+        Ecdar.setUpForTest();
+
+        directory = Files.createTempDirectory("project").toFile();
+        Ecdar.projectDirectory.set(directory.getAbsolutePath());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Ecdar.projectDirectory.set(null);
+        FileUtils.deleteDirectory(directory);
+    }
+
+    private static Component makeComponent(final String name) {
+        final Component component = new Component(false);
+        component.setName(name);
+
+        // The type is defined in the global declarations, which the worker must know
+        component.setDeclarationsText("clock x;\nid_t i;");
+
+        return component;
+    }
+
+    @Test
+    public void runJobInWorker() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        Ecdar.getProject().getGlobalDeclarations().setDeclarationsText("typedef int[0, 3] id_t;");
+
+        final MutationTestPlan plan = new MutationTestPlan();
+        plan.setWorkers(1);
+        plan.setSutPath("sut.jar");
+        plan.setStatus(MutationTestPlan.Status.WORKING);
+
+        final MutationTestCase testCase = new MutationTestCase(makeComponent("Model"), makeComponent("Mutant"), "op_1", null);
+
+        // Without a strategy, the test driver finds no rule in the first step
+        testCase.setStrategyLines(new ArrayList<>());
+
+        final WorkerPool pool = new WorkerPool(plan);
+        final CompletableFuture<TestResult> future = new CompletableFuture<>();
+        try {
+            pool.submit(testCase, "sut.jar", future::complete);
+            final TestResult result = future.get(60, TimeUnit.SECONDS);
+
+            Assert.assertNotNull(result);
+            Assert.assertEquals(testCase.getId(), result.getTestCaseId());
+            Assert.assertEquals("sut.jar", result.getSutPath());
+            Assert.assertEquals(TestResult.Verdict.NO_RULE, result.getVerdict());
+            Assert.assertEquals(MutationTestPlan.Status.WORKING, plan.getStatus());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
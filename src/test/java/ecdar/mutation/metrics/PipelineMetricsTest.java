@@ -0,0 +1,103 @@
+package ecdar.mutation.metrics;
+
+import com.google.gson.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+public class PipelineMetricsTest {
+
+    private static PipelineMetrics makeMetrics() {
+        final PipelineMetrics metrics = new PipelineMetrics();
+
+        final OperatorEvent operatorEvent = new OperatorEvent("changeSource");
+        operatorEvent.setMutants(12);
+        metrics.add(operatorEvent);
+
+        final GenerationEvent generationEvent = new GenerationEvent("changeSource0");
+        generationEvent.setEngineSpawnTime(2_000_000);
+        generationEvent.setOutcome(GenerationEvent.STRATEGY);
+        metrics.add(generationEvent);
+
+        metrics.add(new GenerationEvent("changeSource1"));
+
+        final TestRunEvent testEvent = new TestRunEvent("changeSource0");
+        testEvent.setSteps(4);
+        testEvent.addWaitTime(1.5);
+        testEvent.addWaitTime(2.0);
+        testEvent.setVerdict("PASS");
+        metrics.add(testEvent);
+
+        return metrics;
+    }
+
+    @Test
+    public void addRows() {
+        final List<PipelineMetrics.Row> rows = makeMetrics().getRows();
+
+        Assert.assertEquals(4, rows.size());
+        Assert.assertEquals(PipelineMetrics.Stage.MUTATION, rows.get(0).getStage());
+        Assert.assertEquals(12, rows.get(0).getCount());
+        Assert.assertEquals(GenerationEvent.STRATEGY, rows.get(1).getOutcome());
+        Assert.assertEquals(GenerationEvent.ERROR, rows.get(2).getOutcome());
+        Assert.assertEquals(PipelineMetrics.Stage.TEST, rows.get(3).getStage());
+        Assert.assertEquals("PASS", rows.get(3).getOutcome());
+    }
+
+    @Test
+    public void addIgnoresFlightRecorderOnlyEvents() {
+        final PipelineMetrics metrics = new PipelineMetrics();
+
+        metrics.add(new EngineSpawnEvent("changeSource0"));
+        metrics.add(new SutStartupEvent("changeSource0"));
+
+        Assert.assertTrue(metrics.getRows().isEmpty());
+    }
+
+    @Test
+    public void addFinishesEvent() {
+        final OperatorEvent event = new OperatorEvent("changeTarget");
+        Assert.assertFalse(event.isFinished());
+
+        new PipelineMetrics().add(event);
+
+        Assert.assertTrue(event.isFinished());
+        Assert.assertTrue(event.getNanos() >= 0);
+    }
+
+    @Test
+    public void writeCsv() throws IOException {
+        final StringWriter writer = new StringWriter();
+        makeMetrics().writeCsv(writer);
+
+        final String[] lines = writer.toString().split("\n");
+
+        Assert.assertEquals(5, lines.length);
+        Assert.assertEquals("stage,name,timeMs,count,startupMs,waitTimeUnits,outcome", lines[0]);
+        Assert.assertTrue(lines[1].startsWith("mutation,changeSource,"));
+        Assert.assertTrue(lines[1].endsWith(",12,,,"));
+        Assert.assertTrue(lines[2].endsWith(",,2.000,,strategy"));
+        Assert.assertTrue(lines[4].endsWith(",4,,3.5,PASS"));
+    }
+
+    @Test
+    public void toJsonSummarizesStages() {
+        final JsonObject json = makeMetrics().toJson("Test plan");
+
+        Assert.assertEquals("Test plan", json.get("testPlan").getAsString());
+        Assert.assertEquals(4, json.getAsJsonArray("rows").size());
+
+        final JsonObject stages = json.getAsJsonObject("stages");
+        Assert.assertEquals(12, stages.getAsJsonObject("mutation").get("totalCount").getAsInt());
+
+        final JsonObject generation = stages.getAsJsonObject("generation");
+        Assert.assertEquals(2, generation.get("rows").getAsInt());
+        Assert.assertEquals(1, generation.getAsJsonObject("outcomes").get("strategy").getAsInt());
+        Assert.assertEquals(1, generation.getAsJsonObject("outcomes").get("error").getAsInt());
+
+        Assert.assertEquals(3.5, stages.getAsJsonObject("test").get("totalWaitTimeUnits").getAsDouble(), 0.0001);
+    }
+}
@@ -0,0 +1,57 @@
+package ecdar.mutation.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+
+public class RunHistoryTest {
+    private static final String REPORT = "{\"testPlan\": \"Test plan\", \"timeUnitMs\": 100, \"simulateTime\": false, \"rows\": [" +
+            "{\"stage\": \"mutation\", \"name\": \"changeSource\", \"timeMs\": 5.0, \"count\": 4}," +
+            "{\"stage\": \"generation\", \"name\": \"changeSource0\", \"timeMs\": 200.0, \"outcome\": \"strategy\"}," +
+            "{\"stage\": \"generation\", \"name\": \"changeSource1\", \"timeMs\": 400.0, \"outcome\": \"refinement\"}," +
+            "{\"stage\": \"generation\", \"name\": \"changeSource2\", \"timeMs\": 1.0, \"outcome\": \"checkpoint\"}," +
+            "{\"stage\": \"test\", \"name\": \"changeSource0\", \"timeMs\": 1050.0, \"count\": 10, \"waitTimeUnits\": 10.0, \"outcome\": \"PASS\"}," +
+            "{\"stage\": \"test\", \"name\": \"changeSource3\", \"timeMs\": 550.0, \"count\": 4, \"waitTimeUnits\": 5.0, \"outcome\": \"PASS\"}" +
+            "]}";
+
+    @Test
+    public void readGenerations() {
+        final RunHistory history = RunHistory.read(new StringReader(REPORT));
+
+        Assert.assertTrue(history.hasGenerations());
+
+        // Strategies reused from the checkpoint are ignored
+        Assert.assertEquals(300.0, history.getMeanGenerationMillis(), 0.001);
+        Assert.assertEquals(0.5, history.getStrategyFraction(), 0.001);
+    }
+
+    @Test
+    public void scaleTestRunsToOptions() {
+        final RunHistory history = RunHistory.read(new StringReader(REPORT));
+
+        Assert.assertTrue(history.hasTestRuns());
+
+        // 50 ms overhead per run, plus the waits
+        Assert.assertEquals(800.0, history.getMeanTestMillis(100, false, 100), 0.001);
+        Assert.assertEquals(1550.0, history.getMeanTestMillis(200, false, 100), 0.001);
+        Assert.assertEquals(50.0, history.getMeanTestMillis(100, true, 100), 0.001);
+
+        // The first run stops after half its steps
+        Assert.assertEquals((525.0 + 550.0) / 2, history.getMeanTestMillis(100, false, 5), 0.001);
+
+        Assert.assertEquals(100.0 / 1600.0, history.getBusyFraction(100, false), 0.001);
+        Assert.assertEquals(1.0, history.getBusyFraction(100, true), 0.001);
+    }
+
+    @Test
+    public void readEmptyReport() {
+        final RunHistory history = RunHistory.read(new StringReader("{\"testPlan\": \"Test plan\"}"));
+
+        Assert.assertFalse(history.hasGenerations());
+        Assert.assertFalse(history.hasTestRuns());
+        Assert.assertEquals(-1, history.getMeanGenerationMillis(), 0.001);
+        Assert.assertEquals(-1, history.getMeanTestMillis(100, false, 100), 0.001);
+        Assert.assertEquals(1.0, history.getStrategyFraction(), 0.001);
+    }
+}
@@ -0,0 +1,59 @@
+package ecdar.mutation.models;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+
+public class CompactTraceTest {
+
+    @Test
+    public void jsonRoundTrip() {
+        final CompactTrace trace = new CompactTrace();
+        trace.addDelay(1.5);
+        trace.addInput("a");
+        trace.addOutput("b");
+        trace.addInput("a");
+
+        final CompactTrace parsed = CompactTrace.fromJson(trace.toJson());
+
+        Assert.assertEquals(trace, parsed);
+        Assert.assertEquals(4, parsed.size());
+        Assert.assertEquals(1.5, parsed.getDelay(0), 0.0001);
+        Assert.assertTrue(parsed.isOutput(2));
+        Assert.assertEquals("b", parsed.getSync(2));
+    }
+
+    @Test
+    public void jsonOfEmptyTrace() {
+        Assert.assertEquals(0, CompactTrace.fromJson(new CompactTrace().toJson()).size());
+    }
+
+    @Test
+    public void binaryRoundTrip() throws IOException {
+        final CompactTrace trace = new CompactTrace();
+        trace.addDelay(1.5);
+        trace.addInput("a");
+        trace.addOutput("b");
+        trace.addInput("a");
+        trace.addDelay(0.25);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        trace.write(new DataOutputStream(bytes));
+        final CompactTrace parsed = CompactTrace.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(trace, parsed);
+        Assert.assertEquals("a", parsed.getSync(3));
+        Assert.assertEquals(0.25, parsed.getDelay(4), 0.0001);
+    }
+
+    @Test(expected = IOException.class)
+    public void readInvalidStep() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(1);
+        output.writeByte('x');
+
+        CompactTrace.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
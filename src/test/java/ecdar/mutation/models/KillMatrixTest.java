@@ -0,0 +1,74 @@
+package ecdar.mutation.models;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+public class KillMatrixTest {
+    private static final String ORIGINAL = "Original/sut.jar";
+    private static final String F1 = "F1/sut.jar";
+
+    private static final MutationTestCase CASE_1 = new MutationTestCase(null, null, "op_1", null);
+    private static final MutationTestCase CASE_2 = new MutationTestCase(null, null, "op_2", null);
+
+    private static TestResult makeResult(final MutationTestCase testCase, final String sutPath, final TestResult.Verdict verdict) {
+        return new TestResult(testCase.getId(), sutPath, "reason", new CompactTrace(), verdict);
+    }
+
+    private static KillMatrix makeMatrix() {
+        final List<TestResult> results = Arrays.asList(
+                makeResult(CASE_1, ORIGINAL, TestResult.Verdict.PASS),
+                makeResult(CASE_1, F1, TestResult.Verdict.FAIL_PRIMARY),
+                makeResult(CASE_2, ORIGINAL, TestResult.Verdict.PASS),
+                makeResult(CASE_2, "Unknown/sut.jar", TestResult.Verdict.PASS));
+
+        return new KillMatrix(Arrays.asList(ORIGINAL, F1), results);
+    }
+
+    @Test
+    public void countsPerSut() {
+        final KillMatrix matrix = makeMatrix();
+
+        Assert.assertEquals(Arrays.asList("op_1", "op_2"), matrix.getTestCaseIds());
+        Assert.assertEquals(2, matrix.getKilledCount(ORIGINAL));
+        Assert.assertEquals(0, matrix.getFailedCount(ORIGINAL));
+        Assert.assertEquals(0, matrix.getKilledCount(F1));
+        Assert.assertEquals(1, matrix.getFailedCount(F1));
+        Assert.assertEquals(1, matrix.getResultCount(F1));
+
+        Assert.assertEquals(TestResult.Verdict.FAIL_PRIMARY, matrix.getVerdict("op_1", F1));
+        Assert.assertNull(matrix.getVerdict("op_2", F1));
+    }
+
+    @Test
+    public void resultsWithoutSutAreOfFirstSut() {
+        final KillMatrix matrix = new KillMatrix(Arrays.asList(ORIGINAL, F1),
+                Arrays.asList(makeResult(CASE_1, null, TestResult.Verdict.MAX_WAIT)));
+
+        Assert.assertEquals(TestResult.Verdict.MAX_WAIT, matrix.getVerdict("op_1", ORIGINAL));
+    }
+
+    @Test
+    public void writeCsv() throws IOException {
+        final StringWriter writer = new StringWriter();
+        makeMatrix().writeCsv(writer);
+
+        final String[] lines = writer.toString().split("\n");
+
+        Assert.assertEquals(3, lines.length);
+        Assert.assertEquals("testCase,Original/sut.jar,F1/sut.jar", lines[0]);
+        Assert.assertEquals("op_1,PASS,FAIL_PRIMARY", lines[1]);
+        Assert.assertEquals("op_2,PASS,", lines[2]);
+    }
+
+    @Test
+    public void getSummary() {
+        Assert.assertEquals("Kill matrix:\n" +
+                "Original/sut.jar: 2 killed, 0 failed, of 2 test-cases\n" +
+                "F1/sut.jar: 0 killed, 1 failed, of 1 test-case", makeMatrix().getSummary());
+    }
+}
@@ -0,0 +1,111 @@
+package ecdar.mutation.models;
+
+import ecdar.mutation.MutationTestingException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+public class StrategyParserTest {
+    private static final String NON_REFINEMENT_OUTPUT = String.join("\n",
+            "Options for the verification:",
+            "\u0001 -- Property is NOT satisfied.",
+            "Strategy for the attacker:",
+            "",
+            "State: ( S.L0 M.L0 ) S.sound=0 M.sound=0 [spoiler] ",
+            "While you are in (M.x<=15), wait.",
+            "When you are in (15<M.x), take transition M.L0->M.L1 { x > 15, armedOn!, 1 } [SKIP]",
+            "",
+            "State: ( S.L1 M.L2 ) [spoiler] ",
+            "When you are in true, take transition M.L2->M.L0 { 1, close?, x := 0 } [SKIP]",
+            ""
+    );
+
+    private static StrategyParser parse(final String output, final boolean keepLines) throws IOException, MutationTestingException {
+        final StrategyParser parser = new StrategyParser(keepLines);
+        parser.parse(new BufferedReader(new StringReader(output)));
+        return parser;
+    }
+
+    @Test
+    public void parseRefinement() throws IOException, MutationTestingException {
+        final StrategyParser parser = parse("Options for the verification:\n -- Property is satisfied.\n", false);
+
+        Assert.assertFalse(parser.isEmpty());
+        Assert.assertTrue(parser.isRefinement());
+        Assert.assertFalse(parser.isNonRefinement());
+        Assert.assertNull(parser.getStrategy());
+    }
+
+    @Test
+    public void parseEmpty() throws IOException, MutationTestingException {
+        final StrategyParser parser = parse("", false);
+
+        Assert.assertTrue(parser.isEmpty());
+        Assert.assertFalse(parser.isRefinement());
+        Assert.assertFalse(parser.isNonRefinement());
+    }
+
+    @Test
+    public void parseStrategy() throws IOException, MutationTestingException {
+        final StrategyParser parser = parse(NON_REFINEMENT_OUTPUT, false);
+
+        Assert.assertTrue(parser.isNonRefinement());
+        Assert.assertNotNull(parser.getStrategy());
+        Assert.assertEquals(2, parser.getStrategy().getStateCount());
+        Assert.assertNull(parser.getStrategyLines());
+    }
+
+    @Test
+    public void parseKeepsStrategyLines() throws IOException, MutationTestingException {
+        final StrategyParser parser = parse(NON_REFINEMENT_OUTPUT, true);
+
+        Assert.assertEquals(6, parser.getStrategyLines().size());
+        Assert.assertEquals("State: ( S.L0 M.L0 ) S.sound=0 M.sound=0 [spoiler] ", parser.getStrategyLines().get(0));
+
+        // The kept lines give the same strategy
+        Assert.assertEquals(2, new NonRefinementStrategy(parser.getStrategyLines()).getStateCount());
+    }
+
+    @Test(expected = MutationTestingException.class)
+    public void parseInvalidStrategy() throws IOException, MutationTestingException {
+        parse(String.join("\n", " -- Property is NOT satisfied.", "Strategy for the attacker:", "", "Not a state"), false);
+    }
+
+    @Test
+    public void getExcerptIsBounded() throws IOException, MutationTestingException {
+        final StringBuilder output = new StringBuilder();
+        for (int i = 0; i < 1000; i++) output.append("line ").append(i).append("\n");
+
+        final String excerpt = parse(output.toString(), false).getExcerpt();
+
+        Assert.assertTrue(excerpt.startsWith("line 0\n"));
+        Assert.assertFalse(excerpt.contains("line 999"));
+        Assert.assertTrue(excerpt.endsWith("..."));
+    }
+
+    @Test
+    public void getRuleOfParsedStrategy() throws IOException, MutationTestingException {
+        final NonRefinementStrategy strategy = parse(NON_REFINEMENT_OUTPUT, false).getStrategy();
+
+        final Map<String, Integer> locals = new HashMap<>();
+        locals.put("sound", 0);
+        final Map<String, Double> clocks = new HashMap<>();
+        clocks.put("x", 20.0);
+
+        final StrategyRule rule = strategy.getRule("S", "M", "L0", "L0", locals, locals, clocks, clocks);
+        Assert.assertTrue(rule instanceof ActionRule);
+        Assert.assertEquals("armedOn", ((ActionRule) rule).getSync());
+
+        // The order of the components does not matter
+        final StrategyRule inputRule = strategy.getRule("M", "S", "L2", "L1", new HashMap<>(), new HashMap<>(), clocks, clocks);
+        Assert.assertTrue(inputRule instanceof ActionRule);
+        Assert.assertEquals("close", ((ActionRule) inputRule).getSync());
+
+        Assert.assertNull(strategy.getRule("S", "M", "L1", "L1", locals, locals, clocks, clocks));
+    }
+}
@@ -0,0 +1,73 @@
+package ecdar.mutation.models;
+
+import javafx.collections.ListChangeListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TestResultStoreTest {
+    private static TestResult makeResult(final String id, final TestResult.Verdict verdict) {
+        final CompactTrace trace = new CompactTrace();
+        trace.addInput("a");
+
+        return new TestResult(id, "sut.jar", "reason", trace, verdict);
+    }
+
+    private static List<String> getIds(final List<TestResult> results) {
+        final List<String> ids = new ArrayList<>();
+        results.forEach(result -> ids.add(result.getTestCaseId()));
+        return ids;
+    }
+
+    @Test
+    public void addBeyondInitialCapacity() {
+        final TestResultStore store = new TestResultStore();
+        for (int i = 0; i < 100; i++) store.add(makeResult("op_" + i, i % 2 == 0 ? TestResult.Verdict.PASS : TestResult.Verdict.FAIL_NORMAL));
+
+        Assert.assertEquals(100, store.size());
+        Assert.assertEquals(100, store.getResults().size());
+        Assert.assertEquals(50, store.getCount(TestResult.Verdict.PASS));
+        Assert.assertEquals(50, store.getCount(TestResult.getFailedVerdicts()));
+        Assert.assertEquals(makeResult("op_99", TestResult.Verdict.FAIL_NORMAL), store.getResults().get(99));
+    }
+
+    @Test
+    public void removeAndCount() {
+        final TestResultStore store = new TestResultStore();
+        store.add(makeResult("op_1", TestResult.Verdict.PASS));
+        store.add(makeResult("op_2", TestResult.Verdict.FAIL_NORMAL));
+        store.add(makeResult("op_3", TestResult.Verdict.MAX_WAIT));
+
+        Assert.assertTrue(store.getResults().contains(makeResult("op_2", TestResult.Verdict.FAIL_NORMAL)));
+        Assert.assertTrue(store.remove(makeResult("op_2", TestResult.Verdict.FAIL_NORMAL)));
+        Assert.assertFalse(store.remove(makeResult("op_2", TestResult.Verdict.FAIL_NORMAL)));
+
+        Assert.assertEquals(Arrays.asList("op_1", "op_3"), getIds(store.getResults()));
+        Assert.assertEquals(0, store.getCount(TestResult.Verdict.FAIL_NORMAL));
+        Assert.assertEquals(1, store.getCount(TestResult.Verdict.MAX_WAIT));
+
+        store.clear();
+        Assert.assertTrue(store.getResults().isEmpty());
+        Assert.assertEquals(0, store.getCount(TestResult.Verdict.values()));
+    }
+
+    @Test
+    public void removeAllNotifiesRemovedResults() {
+        final TestResultStore store = new TestResultStore();
+        for (int i = 0; i < 5; i++) store.add(makeResult("op_" + i, TestResult.Verdict.PASS));
+
+        final List<String> removed = new ArrayList<>();
+        store.getResults().addListener((ListChangeListener<TestResult>) change -> {
+            while (change.next()) removed.addAll(getIds(change.getRemoved()));
+        });
+
+        store.removeAll(Arrays.asList(makeResult("op_1", TestResult.Verdict.PASS), makeResult("op_3", TestResult.Verdict.PASS)));
+
+        Assert.assertEquals(Arrays.asList("op_1", "op_3"), removed);
+        Assert.assertEquals(Arrays.asList("op_0", "op_2", "op_4"), getIds(store.getResults()));
+        Assert.assertEquals(3, store.getCount(TestResult.Verdict.PASS));
+    }
+}
@@ -0,0 +1,174 @@
+package ecdar.utility;
+
+import com.bpodgursky.jbool_expressions.*;
+import com.bpodgursky.jbool_expressions.rules.RuleSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class GuardNegationTest {
+
+    /**
+     * Negates a disjunction of conjunctions the way it was done before {@link GuardNegation},
+     * by simplifying the negation and converting it to disjunctive normal form.
+     * @param conjunctions the disjunction to negate
+     * @return the negation
+     */
+    private static Expression<String> negateWithDnf(final List<List<String>> conjunctions) {
+        return RuleSet.toDNF(RuleSet.simplify(Not.of(Or.of(conjunctions.stream()
+                .map(conjunction -> conjunction.isEmpty() ? Literal.<String>getTrue() :
+                        And.of(conjunction.stream().map(Variable::of).collect(Collectors.toList())))
+                .collect(Collectors.toList())))));
+    }
+
+    private static boolean evaluate(final Expression<String> expression, final Map<String, Number> valuations) {
+        switch (expression.getExprType()) {
+            case Literal.EXPR_TYPE:
+                return ((Literal<String>) expression).getValue();
+            case Variable.EXPR_TYPE:
+                return ExpressionHelper.evaluateBooleanExpression(((Variable<String>) expression).getValue(), valuations);
+            case Not.EXPR_TYPE:
+                return !evaluate(((Not<String>) expression).getE(), valuations);
+            case And.EXPR_TYPE:
+                return ((And<String>) expression).getChildren().stream().allMatch(child -> evaluate(child, valuations));
+            case Or.EXPR_TYPE:
+                return ((Or<String>) expression).getChildren().stream().anyMatch(child -> evaluate(child, valuations));
+            default:
+                throw new IllegalArgumentException("Type of expression " + expression + " not accepted");
+        }
+    }
+
+    private static boolean evaluate(final List<String> guards, final Map<String, Number> valuations) {
+        return guards.stream().anyMatch(guard -> guard.isEmpty() || ExpressionHelper.evaluateBooleanExpression(guard, valuations));
+    }
+
+    /**
+     * Asserts that the negation is the same as the negation in disjunctive normal form,
+     * for valuations of x and y in steps of a half, such that strict and non-strict bounds are told apart.
+     * @param conjunctions the disjunction to negate
+     */
+    private static void assertSameAsDnf(final List<List<String>> conjunctions) {
+        final Expression<String> expected = negateWithDnf(conjunctions);
+        final List<String> actual = GuardNegation.negate(conjunctions);
+
+        for (double x = 0; x <= 6; x += 0.5) {
+            for (double y = 0; y <= 6; y += 0.5) {
+                final Map<String, Number> valuations = new HashMap<>();
+                valuations.put("x", x);
+                valuations.put("y", y);
+
+                Assert.assertEquals("Negation of " + conjunctions + " as " + actual + " at " + valuations,
+                        evaluate(expected, valuations), evaluate(actual, valuations));
+            }
+        }
+    }
+
+    @Test
+    public void negateSingleConstraint() {
+        final List<String> result = GuardNegation.negate(Collections.singletonList(Collections.singletonList("x <= 3")));
+
+        Assert.assertEquals(Collections.singletonList("x > 3"), result);
+    }
+
+    @Test
+    public void negateConjunction() {
+        final List<String> result = GuardNegation.negate(Collections.singletonList(Arrays.asList("x > 1", "x <= 3")));
+
+        Assert.assertEquals(Arrays.asList("x <= 1", "x > 3"), result);
+    }
+
+    @Test
+    public void negateDisjunction() {
+        final List<String> result = GuardNegation.negate(Arrays.asList(
+                Collections.singletonList("x <= 1"),
+                Collections.singletonList("x > 3")
+        ));
+
+        Assert.assertEquals(Collections.singletonList("x <= 3&&x > 1"), result);
+    }
+
+    @Test
+    public void negateKeepsTightestBound() {
+        final List<String> result = GuardNegation.negate(Arrays.asList(
+                Collections.singletonList("x > 5"),
+                Collections.singletonList("x > 3")
+        ));
+
+        Assert.assertEquals(Collections.singletonList("x <= 3"), result);
+    }
+
+    @Test
+    public void negateUnsatisfiable() {
+        final List<String> result = GuardNegation.negate(Arrays.asList(
+                Collections.singletonList("x <= 3"),
+                Collections.singletonList("x > 2")
+        ));
+
+        Assert.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void negateTrue() {
+        final List<String> result = GuardNegation.negate(Collections.singletonList(new ArrayList<>()));
+
+        Assert.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void negateOpaqueConstraint() {
+        final List<String> result = GuardNegation.negate(Collections.singletonList(
+                Collections.singletonList("x - y > 3 + n % 5")));
+
+        Assert.assertEquals(Collections.singletonList("x - y <= 3 + n % 5"), result);
+    }
+
+    @Test
+    public void negateIsMemoized() {
+        final List<List<String>> guards = Collections.singletonList(Arrays.asList("y >= 2", "y < 7"));
+
+        Assert.assertSame(GuardNegation.negate(guards), GuardNegation.negate(new ArrayList<>(guards)));
+    }
+
+    @Test
+    public void negateNotEqual() {
+        final List<String> result = GuardNegation.negate(Collections.singletonList(Collections.singletonList("x!=3")));
+
+        Assert.assertEquals(Collections.singletonList("x==3"), result);
+    }
+
+    @Test
+    public void negateWidensEquality() {
+        final List<String> result = GuardNegation.negate(Collections.singletonList(Arrays.asList("x!=3", "x<=3")));
+
+        Assert.assertEquals(Collections.singletonList("x>=3"), result);
+    }
+
+    @Test
+    public void negateMixedEqualitiesSameAsDnf() {
+        assertSameAsDnf(Collections.singletonList(Arrays.asList("x!=3", "x<=3")));
+        assertSameAsDnf(Collections.singletonList(Arrays.asList("x!=3", "x>=3")));
+        assertSameAsDnf(Arrays.asList(Arrays.asList("x!=3", "x<=3"), Collections.singletonList("y>4")));
+        assertSameAsDnf(Arrays.asList(Collections.singletonList("x==3"), Collections.singletonList("x<2")));
+        assertSameAsDnf(Arrays.asList(Arrays.asList("x!=2", "x>=1"), Arrays.asList("x!=4", "x<5")));
+        assertSameAsDnf(Arrays.asList(Arrays.asList("x!=3", "x<3"), Collections.singletonList("x==2")));
+        assertSameAsDnf(Arrays.asList(Arrays.asList("3!=x", "x>1"), Arrays.asList("y==2", "x<=4")));
+        assertSameAsDnf(Arrays.asList(Arrays.asList("x==2", "y<3"), Arrays.asList("x!=2", "y>=3")));
+    }
+
+    @Test
+    public void negateSameAsDnf() {
+        assertSameAsDnf(Collections.singletonList(Arrays.asList("x>1", "x<=3")));
+        assertSameAsDnf(Arrays.asList(Collections.singletonList("x<=1"), Collections.singletonList("x>3")));
+        assertSameAsDnf(Arrays.asList(Collections.singletonList("x<=3"), Collections.singletonList("x>2")));
+        assertSameAsDnf(Arrays.asList(Collections.singletonList("x!=3"), Collections.singletonList("y<2")));
+        assertSameAsDnf(Arrays.asList(Arrays.asList("x>=2", "x<=2"), Collections.singletonList("y<1")));
+        assertSameAsDnf(Arrays.asList(Arrays.asList("x - y > 1", "x < 4"), Collections.singletonList("y >= 2")));
+        assertSameAsDnf(Arrays.asList(
+                Arrays.asList("x>=1", "y<2"),
+                Arrays.asList("x<4", "y>=3"),
+                Arrays.asList("y>1", "x>2"),
+                Arrays.asList("2<x", "y<=5")));
+    }
+}
@@ -0,0 +1,35 @@
+package ecdar.utility.helpers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class FxThreadHelperTest {
+
+    @Test
+    public void runLaterWithoutJavaFxRunsInOrderInOtherThread() throws InterruptedException {
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(3);
+
+        for (int i = 0; i < 3; i++) {
+            final int number = i;
+            FxThreadHelper.runLater(() -> {
+                order.add(number);
+                threads.add(Thread.currentThread());
+                done.countDown();
+            });
+        }
+
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList(0, 1, 2), order);
+        Assert.assertFalse(threads.contains(Thread.currentThread()));
+        Assert.assertEquals(1, threads.stream().distinct().count());
+    }
+}